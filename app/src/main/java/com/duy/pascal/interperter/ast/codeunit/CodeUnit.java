@@ -51,7 +51,13 @@ public abstract class CodeUnit {
         } catch (ParsingException e) {
             throw new CodeUnitParsingException(this, e);
         }
-        parseTree(lexer.getTokenQueue());
+        try {
+            parseTree(lexer.getTokenQueue());
+        } catch (Exception e) {
+            //this unit is never executed, the units imported before the error can be reused
+            mContext.releaseUnits();
+            throw e;
+        }
         System.out.println("parse time " + (System.currentTimeMillis() - time));
     }
 
@@ -33,13 +33,41 @@ import java.util.Map;
 public abstract class RuntimeCodeUnit<parent extends CodeUnit> extends VariableContext {
     public volatile RunMode mode;
     parent declaration;
+    /**
+     * Variables declared by the unit, indexed by their order in the declaration, see
+     * {@link #getGlobal(int)}
+     */
+    private final Object[] mGlobals;
+    private final HashMap<Name, Integer> mGlobalSlots;
+    /**
+     * Variables which are set by name and not declared by the unit
+     */
     private HashMap<Name, Object> unitVariables = new HashMap<>();
     private HashMap<Name, RuntimePascalClass> mRuntimePascalClassMap = new HashMap<>();
     private HashMap<PascalUnitDeclaration, RuntimeUnitPascal> mRuntimeUnitMap = new HashMap<>();
 
     public RuntimeCodeUnit(parent declaration) throws RuntimePascalException {
         this.declaration = declaration;
-        for (VariableDeclaration v : declaration.mContext.variables) v.initialize(unitVariables);
+        ArrayList<VariableDeclaration> variables = declaration.mContext.variables;
+        mGlobals = new Object[variables.size()];
+        mGlobalSlots = new HashMap<>(variables.size() * 2);
+        for (int i = 0; i < variables.size(); i++) {
+            mGlobals[i] = variables.get(i).initialize();
+            mGlobalSlots.put(variables.get(i).getName(), i);
+        }
+    }
+
+    /**
+     * Read a variable of the unit by its slot, the index of the variable in the variables
+     * of the declaration. It is resolved when the program is parsed
+     */
+    @NonNull
+    public Object getGlobal(int slot) {
+        return NullSafety.zReturn(mGlobals[slot]);
+    }
+
+    public void setGlobal(int slot, Object value) {
+        mGlobals[slot] = value;
     }
 
     public HashMap<PascalUnitDeclaration, RuntimeUnitPascal> getRuntimeUnitMap() {
@@ -57,12 +85,18 @@ public abstract class RuntimeCodeUnit<parent extends CodeUnit> extends VariableC
     @NonNull
     @Override
     public Object getLocalVar(Name name) {
-        Object o = unitVariables.get(name);
+        Integer slot = mGlobalSlots.get(name);
+        Object o = slot != null ? mGlobals[slot] : unitVariables.get(name);
         return NullSafety.zReturn(o);
     }
 
     @Override
     public boolean setLocalVar(Name name, Object val) {
+        Integer slot = mGlobalSlots.get(name);
+        if (slot != null) {
+            mGlobals[slot] = val;
+            return true;
+        }
         return unitVariables.put(name, val) != null;
     }
 
@@ -78,6 +112,10 @@ public abstract class RuntimeCodeUnit<parent extends CodeUnit> extends VariableC
 
     @Override
     public HashMap<Name, Object> getMapVars() {
-        return unitVariables;
+        HashMap<Name, Object> map = new HashMap<>(unitVariables);
+        for (Map.Entry<Name, Integer> entry : mGlobalSlots.entrySet()) {
+            map.put(entry.getKey(), mGlobals[entry.getValue()]);
+        }
+        return map;
     }
 }
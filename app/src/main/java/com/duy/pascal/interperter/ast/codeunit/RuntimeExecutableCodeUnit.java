@@ -26,12 +26,13 @@ import com.duy.pascal.interperter.declaration.library.PascalUnitDeclaration;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.exceptions.runtime.ScriptTerminatedException;
 import com.duy.pascal.interperter.exceptions.runtime.StackOverflowException;
+import com.duy.pascal.interperter.libraries.file.FileLib;
+import com.duy.pascal.interperter.libraries.io.IOLib;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUnit>
         extends RuntimeCodeUnit<parent> implements ScriptControl {
@@ -39,8 +40,16 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
     private volatile long MAX_STACK = 45000;
     private volatile ControlMode mStatus = ControlMode.RUNNING;
     private volatile boolean mIsFinished = false;
-    private final AtomicLong mStackSize = new AtomicLong(0);
-    private volatile boolean mIsDebug = false;
+    /**
+     * Depth of the call stack, only charged by real call frames. It is only touched by the thread
+     * which runs the program
+     */
+    private int mStackSize = 0;
+    /**
+     * Only written before {@link #run()} or by the thread which runs the program (step over),
+     * so it does not need to be volatile
+     */
+    private boolean mIsDebug = false;
 
 
     private DebugMode debugMode;
@@ -76,11 +85,26 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
     }
 
     public void run() throws RuntimePascalException {
+        //the nodes call the debug listener in debug mode
+        if (debugListener == null) {
+            mIsDebug = false;
+        }
         try {
             runImpl();
         } catch (RuntimePascalException e) {
             this.mIsFinished = true;
             throw e;
+        } finally {
+            //the text files which are not closed keep their output
+            FileLib fileLib = declaration.getContext().getFileHandler();
+            if (fileLib != null) {
+                fileLib.flushAll();
+            }
+            //close the file which the standard input is redirected from
+            IOLib ioLib = declaration.getContext().getIOHandler();
+            if (ioLib != null) {
+                ioLib.setInput(null);
+            }
         }
         this.mIsFinished = true;
     }
@@ -160,6 +184,16 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
         } while (true);
     }
 
+    /**
+     * Cheap check for the non-debug runtime, called at loop back-edges and call boundaries.
+     * Only handle pause and terminate requests, it does nothing while the program is running
+     */
+    public void safepoint(LineNumber line) throws ScriptTerminatedException {
+        if (mStatus != ControlMode.RUNNING) {
+            scriptControlCheck(line, false);
+        }
+    }
+
     public IDebugListener getDebugListener() {
         return debugListener;
     }
@@ -174,14 +208,14 @@ public abstract class RuntimeExecutableCodeUnit<parent extends ExecutableCodeUni
     }
 
     public void incStack(LineNumber lineNumber) throws StackOverflowException {
-        mStackSize.getAndIncrement();
-        if (mStackSize.get() > MAX_STACK) {
+        if (++mStackSize > MAX_STACK) {
+            mStackSize--;
             throw new StackOverflowException(lineNumber);
         }
     }
 
     public void decStack() {
-        mStackSize.getAndDecrement();
+        mStackSize--;
     }
 
     public void setMaxStackSize(long maxStackSize) {
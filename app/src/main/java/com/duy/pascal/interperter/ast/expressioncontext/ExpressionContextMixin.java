@@ -28,6 +28,7 @@ import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 import com.duy.pascal.interperter.declaration.lang.types.Type;
 import com.duy.pascal.interperter.declaration.lang.value.ConstantDefinition;
 import com.duy.pascal.interperter.declaration.lang.value.VariableDeclaration;
+import com.duy.pascal.interperter.declaration.library.PascalUnitCache;
 import com.duy.pascal.interperter.declaration.library.PascalUnitDeclaration;
 import com.duy.pascal.interperter.exceptions.Diagnostic;
 import com.duy.pascal.interperter.exceptions.IDiagnosticsListener;
@@ -43,6 +44,7 @@ import com.duy.pascal.interperter.exceptions.parsing.syntax.ExpectedTokenExcepti
 import com.duy.pascal.interperter.exceptions.parsing.syntax.WrongIfElseStatement;
 import com.duy.pascal.interperter.exceptions.parsing.value.NonConstantExpressionException;
 import com.duy.pascal.interperter.exceptions.parsing.value.NonIntegerException;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.javaunderpascal.classpath.JavaClassLoader;
 import com.duy.pascal.interperter.libraries.IPascalLibrary;
 import com.duy.pascal.interperter.libraries.PascalLibraryManager;
@@ -51,6 +53,7 @@ import com.duy.pascal.interperter.libraries.io.IOLib;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.source.FileScriptSource;
 import com.duy.pascal.interperter.source.ScriptSource;
+import com.duy.pascal.interperter.source.SourceStamp;
 import com.duy.pascal.interperter.tokens.OperatorToken;
 import com.duy.pascal.interperter.tokens.Token;
 import com.duy.pascal.interperter.tokens.WordToken;
@@ -74,11 +77,14 @@ import com.duy.pascal.interperter.tokens.ignore.CompileDirectiveToken;
 import com.duy.pascal.ui.runnable.IProgramHandler;
 import com.duy.pascal.ui.utils.DLog;
 
-import java.io.Reader;
+import java.io.File;
 import java.io.Serializable;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -118,6 +124,11 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
      * List name library which program are in use
      */
     private ArrayList<Name> mLibrariesNames = new ArrayList<>();
+    /**
+     * Units which are imported and the stamps of their source files, uses for checking a
+     * compiled program is up to date
+     */
+    private LinkedHashMap<PascalUnitDeclaration, SourceStamp> mUnitStamps = new LinkedHashMap<>();
 
     private PascalLibraryManager mLibraryManager;
     /**
@@ -210,7 +221,8 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
             ExpressionContextMixin libContext = value.getDeclaration().getContext();
             RuntimeValue identifierValue = libContext.getIdentifierValue(name);
             if (identifierValue != null) {
-                return new LibraryIdentifierAccess(value, identifierValue, identifierValue.getLineNumber());
+                return new LibraryIdentifierAccess(this, unit.getKey(), identifierValue,
+                        identifierValue.getLineNumber());
             }
         }
 
@@ -511,23 +523,28 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
                 mLibraryManager.addMethodFromClass(classLibrary, next.getLineNumber());
             } else {
                 //custom library pascal
-                String libName = ((WordToken) next).getName() + ".pas";
-                Reader reader = null;
-                for (ScriptSource scriptSource : this.root().getIncludeDirectories()) {
-                    reader = scriptSource.read(libName);
-                    if (reader != null) break;
-                }
-                if (reader != null) {
+                Name unitName = ((WordToken) next).getName();
+                File file = findUnitFile(unitName);
+                if (file != null) {
                     found.set(true);
-                    PascalUnitDeclaration library = null;
-                    try {
-                        String name = ((WordToken) next).getName().getOriginName();
-                        library = new PascalUnitDeclaration(new FileScriptSource(reader, name),
-                                new ArrayList<ScriptSource>(), mHandler);
-                    } catch (CodeUnitParsingException e) {
-                        e.printStackTrace();
-                        throw e.getParseException();
+                    //the unit is parsed from the content which the stamp is taken from
+                    String source = SourceStamp.read(file);
+                    SourceStamp stamp = SourceStamp.of(file, source);
+                    PascalUnitDeclaration library = PascalUnitCache.take(stamp);
+                    if (library == null) {
+                        try {
+                            library = new PascalUnitDeclaration(
+                                    new FileScriptSource(new StringReader(source), unitName.getOriginName()),
+                                    new ArrayList<ScriptSource>(), mHandler);
+                        } catch (CodeUnitParsingException e) {
+                            e.printStackTrace();
+                            throw e.getParseException();
+                        }
+                    } else {
+                        //the unit was parsed by another program, no program uses it now
+                        library.getContext().rebind(mHandler);
                     }
+                    mUnitStamps.put(library, stamp);
                     library.declareConstants(this);
                     library.declareTypes(this);
                     library.declareFunctions(this);
@@ -549,6 +566,91 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
         } while (true);
     }
 
+    /**
+     * Find the source file of an unit in the include directories
+     *
+     * @return file of unit, or null if the unit is not found
+     */
+    @Nullable
+    public File findUnitFile(Name unitName) {
+        String libName = unitName + ".pas";
+        for (ScriptSource scriptSource : this.root().getIncludeDirectories()) {
+            File file = scriptSource.getFile(libName);
+            if (file != null) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The initial value of a variable is not copied when the variable is initialized, so a
+     * declaration which has a variable with a mutable initial value (array, record...) can not
+     * be shared between programs
+     */
+    public boolean hasMutableInitialValue() {
+        for (VariableDeclaration variable : variables) {
+            Object value = variable.getInitialValue();
+            if (value != null && !(value instanceof Number || value instanceof Boolean
+                    || value instanceof Character || value instanceof String)) {
+                return true;
+            }
+        }
+        for (ArrayList<AbstractFunction> functions : callableFunctions.values()) {
+            for (AbstractFunction function : functions) {
+                if (function instanceof FunctionDeclaration) {
+                    ExpressionContextMixin declaration = ((FunctionDeclaration) function).getDeclaration();
+                    if (declaration != this && declaration.getParentContext() == this
+                            && declaration.hasMutableInitialValue()) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bind a declaration which was compiled with another handler to a new handler, so it can be
+     * executed again without parsing. The runtime state which was left by the last program is
+     * dropped.
+     * <p>
+     * Only a declaration which is not used by any run can be rebound, the caches hand out a
+     * declaration to one program at a time, see
+     * {@link com.duy.pascal.interperter.declaration.program.PascalProgramCache}
+     */
+    public void rebind(@Nullable IProgramHandler handler) throws RuntimePascalException {
+        this.mHandler = handler;
+        this.mLibraryManager = new PascalLibraryManager(this, handler);
+        this.mFileHandler = new FileLib(handler);
+        this.mIOHandler = new IOLib(handler);
+        mLibraryManager.bindSystemLibrary();
+        mLibraryManager.bindLibrary(FileLib.class, mFileHandler);
+        mLibraryManager.bindLibrary(IOLib.class, mIOHandler);
+        for (Name name : mLibrariesNames) {
+            mLibraryManager.bindLibrary(PascalLibraryManager.get(name));
+        }
+        for (Map.Entry<PascalUnitDeclaration, RuntimeUnitPascal> entry : mRuntimeUnitMap.entrySet()) {
+            entry.getKey().getContext().rebind(handler);
+            entry.setValue(entry.getKey().generate());
+        }
+        mRuntimePascalClassMap.clear();
+    }
+
+
+    /**
+     * Give the imported units back to {@link PascalUnitCache} when this declaration will
+     * not be executed any more, so the next program which uses them does not parse them again.
+     * A declaration which is only compiled (to check it, for the code completion...) must give
+     * them back as soon as it was compiled, {@link PascalUnitCache#take} removes them from the
+     * cache
+     */
+    public void releaseUnits() {
+        for (Map.Entry<PascalUnitDeclaration, SourceStamp> entry : mUnitStamps.entrySet()) {
+            PascalUnitCache.put(entry.getValue(), entry.getKey());
+        }
+        mUnitStamps.clear();
+    }
 
     protected abstract void handleBeginEnd(GrouperToken i) throws Exception;
 
@@ -719,6 +821,14 @@ public abstract class ExpressionContextMixin extends HierarchicalExpressionConte
     }
 
 
+    public ArrayList<Name> getLibrariesNames() {
+        return mLibrariesNames;
+    }
+
+    public Collection<SourceStamp> getUnitStamps() {
+        return mUnitStamps.values();
+    }
+
     public HashMap<PascalUnitDeclaration, RuntimeUnitPascal> getRuntimeUnitMap() {
         return mRuntimeUnitMap;
     }
@@ -11,6 +11,12 @@ import java.util.LinkedList;
 
 public class CompoundNode extends DebuggableNode {
     private LinkedList<Node> instructions;
+    /**
+     * Flat copy of {@link #instructions}, built on the first execution so a block executed
+     * in a loop does not allocate an iterator every time
+     */
+    private Node[] mInstructionArray;
+    private NopeInstruction mEndInstruction;
     private LineNumber startLine, endLine;
 
     public CompoundNode(LineNumber startLine) {
@@ -20,6 +26,7 @@ public class CompoundNode extends DebuggableNode {
 
     public void setEndLine(LineNumber endLine) {
         this.endLine = endLine;
+        this.mEndInstruction = null;
     }
 
     @Override
@@ -29,11 +36,17 @@ public class CompoundNode extends DebuggableNode {
 
     public void addCommand(Node e) {
         instructions.add(e);
+        mInstructionArray = null;
     }
 
     @Override
     public ExecutionResult executeImpl(VariableContext context,
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        Node[] instructions = mInstructionArray;
+        if (instructions == null) {
+            instructions = this.instructions.toArray(new Node[this.instructions.size()]);
+            mInstructionArray = instructions;
+        }
         for (Node e : instructions) {
             switch (e.visit(context, main)) {
                 case BREAK:
@@ -44,7 +57,13 @@ public class CompoundNode extends DebuggableNode {
                     return ExecutionResult.CONTINUE;
             }
         }
-        new NopeInstruction(endLine).visit(context, main);
+        if (main.isDebug()) {
+            //stop at the end of block, only useful for the debugger
+            if (mEndInstruction == null) {
+                mEndInstruction = new NopeInstruction(endLine);
+            }
+            mEndInstruction.visit(context, main);
+        }
         return ExecutionResult.NOPE;
     }
 
@@ -22,7 +22,6 @@ import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.node.ExecutionResult;
 import com.duy.pascal.interperter.ast.runtime.operators.BinaryOperatorNode;
-import com.duy.pascal.interperter.ast.runtime.references.Reference;
 import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
@@ -63,9 +62,7 @@ public abstract class AssignNodeImpl<T extends OperatorTypes> extends Debuggable
     public ExecutionResult executeImpl(VariableContext context,
                                        RuntimeExecutableCodeUnit main) throws RuntimePascalException {
 
-        Reference ref = mLeftNode.getReference(context, main);
-        Object v = mOperator.getValue(context, main);
-        ref.set(v);
+        mLeftNode.assign(context, main, mOperator);
 
         if (main.isDebug()) main.getDebugListener().onValueVariableChanged(new CallStack(context));
 
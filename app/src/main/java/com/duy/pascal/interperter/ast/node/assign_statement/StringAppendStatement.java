@@ -0,0 +1,130 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.ast.node.assign_statement;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
+import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.interperter.ast.node.ExecutionResult;
+import com.duy.pascal.interperter.ast.runtime.operators.number.StringConcatNode;
+import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
+import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.access.VariableAccess;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.StringBuilderBoxer;
+import com.duy.pascal.interperter.ast.runtime.value.cloning.SharedStrings;
+import com.duy.pascal.interperter.ast.runtime.value.cloning.StringBuilderCloner;
+import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
+import com.duy.pascal.interperter.declaration.lang.types.BasicType;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+import com.duy.pascal.interperter.linenumber.LineNumber;
+import com.duy.pascal.ui.debug.CallStack;
+
+import java.util.Arrays;
+
+/**
+ * s := s + a + b
+ * Appends a and b to the string of variable s, the string is not copied to a new string.
+ * The string of s is copied first if it is shared with another variable, see {@link SharedStrings}.
+ */
+public class StringAppendStatement extends AssignNodeImpl {
+    @NonNull
+    private final RuntimeValue[] mValues;
+
+    private StringAppendStatement(@NonNull AssignableValue left, @NonNull RuntimeValue operator,
+                                  @NonNull RuntimeValue[] values, LineNumber line) throws Exception {
+        super(left, operator, line);
+        this.mValues = values;
+    }
+
+    /**
+     * @param statement - the assignment "s := s + ..." or "s += ..."
+     * @return a statement which appends to the string of the variable, or null if the
+     * assignment does not append to a variable of type string
+     */
+    @Nullable
+    public static StringAppendStatement create(@NonNull ExpressionContext context,
+                                               @NonNull AssignNodeImpl statement) throws Exception {
+        AssignableValue left = statement.mLeftNode;
+        //a string with limit length may be truncated when it is assigned
+        if (!(left instanceof VariableAccess)
+                || left.getRuntimeType(context).declType != BasicType.StringBuilder) {
+            return null;
+        }
+        RuntimeValue value = statement.mOperator;
+        if (value instanceof StringBuilderCloner) {
+            value = ((StringBuilderCloner) value).getValue();
+        }
+        if (value instanceof StringBuilderBoxer) {
+            value = ((StringBuilderBoxer) value).getValue();
+        }
+        if (!(value instanceof StringConcatNode)) {
+            return null;
+        }
+        RuntimeValue[] operands = ((StringConcatNode) value).getOperands();
+        if (!(operands[0] instanceof VariableAccess)) {
+            return null;
+        }
+        VariableAccess variable = (VariableAccess) left;
+        VariableAccess first = (VariableAccess) operands[0];
+        if (!variable.getName().equals(first.getName())
+                || variable.getContext() != first.getContext()) {
+            return null;
+        }
+        return new StringAppendStatement(left, statement.mOperator,
+                Arrays.copyOfRange(operands, 1, operands.length), statement.mLine);
+    }
+
+    @Override
+    public ExecutionResult executeImpl(VariableContext context, RuntimeExecutableCodeUnit main)
+            throws RuntimePascalException {
+        CharSequence[] values = new CharSequence[mValues.length];
+        for (int i = 0; i < mValues.length; i++) {
+            values[i] = StringConcatNode.toCharSequence(mValues[i].getValue(context, main));
+        }
+        Object target = mLeftNode.getValue(context, main);
+        if (target instanceof StringBuilder) {
+            StringBuilder builder = SharedStrings.own(mLeftNode, (StringBuilder) target, context, main);
+            for (CharSequence value : values) {
+                //s := s + s
+                builder.append(value == builder ? value.toString() : value);
+            }
+        } else {
+            StringBuilder builder = new StringBuilder(String.valueOf(target));
+            for (CharSequence value : values) {
+                builder.append(value);
+            }
+            mLeftNode.getReference(context, main).set(builder);
+        }
+
+        if (main.isDebug()) main.getDebugListener().onValueVariableChanged(new CallStack(context));
+
+        return ExecutionResult.NOPE;
+    }
+
+    @Override
+    public AssignNode compileTimeConstantTransform(CompileTimeContext c) throws Exception {
+        RuntimeValue[] values = new RuntimeValue[mValues.length];
+        for (int i = 0; i < mValues.length; i++) {
+            values[i] = mValues[i].compileTimeExpressionFold(c);
+        }
+        return new StringAppendStatement(mLeftNode, mOperator.compileTimeExpressionFold(c),
+                values, mLine);
+    }
+}
@@ -9,4 +9,14 @@ interface CaseCondition {
     boolean fits(VariableContext context, RuntimeExecutableCodeUnit<?> main, Object value) throws RuntimePascalException;
 
     LineNumber getLineNumber();
+
+    /**
+     * @return the constant lower bound of this condition
+     */
+    Object getLower();
+
+    /**
+     * @return the constant upper bound of this condition
+     */
+    Object getUpper();
 }
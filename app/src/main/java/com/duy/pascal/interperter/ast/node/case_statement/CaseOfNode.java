@@ -1,5 +1,7 @@
 package com.duy.pascal.interperter.ast.node.case_statement;
 
+import android.support.annotation.Nullable;
+
 import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
@@ -32,6 +34,8 @@ public class CaseOfNode extends DebuggableNode {
     private RuntimeValue mSwitchValue;
     private CasePossibility[] mPossibilities;
     private CompoundNode mOtherwise;
+    @Nullable
+    private CaseTable mTable;
     private LineNumber mLine;
 
     public CaseOfNode(CaseToken token, ExpressionContext context)
@@ -94,6 +98,8 @@ public class CaseOfNode extends DebuggableNode {
             }
         }
         this.mPossibilities = possibilities.toArray(new CasePossibility[possibilities.size()]);
+        this.mTable = CaseTable.create(mPossibilities,
+                CharSequence.class.isAssignableFrom(switchValueType.getStorageClass()));
     }
 
     //check type
@@ -119,6 +125,14 @@ public class CaseOfNode extends DebuggableNode {
     public ExecutionResult executeImpl(VariableContext context,
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
         Object value = mSwitchValue.getValue(context, main);
+        if (mTable != null) {
+            int index = mTable.find(value);
+            if (index >= 0) {
+                return mPossibilities[index].visit(context, main);
+            } else if (index == CaseTable.NOT_FOUND) {
+                return mOtherwise.visit(context, main);
+            }
+        }
         for (CasePossibility possibility : mPossibilities) {
             for (int j = 0; j < possibility.conditions.length; j++) {
                 if (possibility.conditions[j].fits(context, main, value)) {
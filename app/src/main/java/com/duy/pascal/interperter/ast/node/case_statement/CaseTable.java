@@ -0,0 +1,243 @@
+package com.duy.pascal.interperter.ast.node.case_statement;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.ast.runtime.value.EnumElementValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Lookup table for the constant labels of a case statement, built once when the statement
+ * is parsed.
+ * <p>
+ * Dense ordinal labels are looked up in a jump table, sparse ordinal labels by binary search
+ * in sorted ranges, and string labels in a hash map. When the labels can not be indexed,
+ * {@link #create(CasePossibility[], boolean)} returns null and the conditions are tested
+ * one by one.
+ */
+class CaseTable {
+    /**
+     * the value can not be looked up, the conditions must be tested one by one
+     */
+    static final int NOT_INDEXED = -2;
+
+    /**
+     * no label matches the value
+     */
+    static final int NOT_FOUND = -1;
+
+    private static final int MAX_JUMP_TABLE = 1 << 16;
+
+    private static final int KIND_NONE = 0;
+    private static final int KIND_NUMBER = 1;
+    private static final int KIND_CHAR = 2;
+    private static final int KIND_ENUM = 3;
+
+    private int kind;
+
+    /**
+     * index of possibility for each ordinal from {@link #mMin}
+     */
+    @Nullable
+    private int[] mJumpTable;
+    private long mMin;
+
+    /**
+     * sorted and disjoint ranges of labels
+     */
+    @Nullable
+    private long[] mLows;
+    @Nullable
+    private long[] mHighs;
+    @Nullable
+    private int[] mTargets;
+
+    @Nullable
+    private HashMap<String, Integer> mStringTable;
+
+    private CaseTable() {
+    }
+
+    /**
+     * @param stringSwitch - true if the value of the case statement is a string
+     */
+    @Nullable
+    static CaseTable create(CasePossibility[] possibilities, boolean stringSwitch) {
+        if (stringSwitch) {
+            return createStringTable(possibilities);
+        }
+        return createOrdinalTable(possibilities);
+    }
+
+    private static int kindOf(Object value) {
+        if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            return KIND_NUMBER;
+        } else if (value instanceof Character) {
+            return KIND_CHAR;
+        } else if (value instanceof EnumElementValue) {
+            return KIND_ENUM;
+        }
+        return KIND_NONE;
+    }
+
+    private static long ordinalOf(Object value, int kind) {
+        switch (kind) {
+            case KIND_NUMBER:
+                return ((Number) value).longValue();
+            case KIND_CHAR:
+                return (Character) value;
+            default:
+                return ((EnumElementValue) value).getIndex();
+        }
+    }
+
+    @Nullable
+    private static CaseTable createOrdinalTable(CasePossibility[] possibilities) {
+        int kind = KIND_NONE;
+        List<long[]> ranges = new ArrayList<>();
+        for (int i = 0; i < possibilities.length; i++) {
+            for (CaseCondition condition : possibilities[i].conditions) {
+                Object lower = condition.getLower();
+                Object upper = condition.getUpper();
+                int lowerKind = kindOf(lower);
+                if (lowerKind == KIND_NONE || lowerKind != kindOf(upper)
+                        || (kind != KIND_NONE && lowerKind != kind)) {
+                    return null;
+                }
+                kind = lowerKind;
+                long low = ordinalOf(lower, kind);
+                long high = ordinalOf(upper, kind);
+                if (low <= high) {
+                    ranges.add(new long[]{low, high, i});
+                }
+            }
+        }
+        if (kind == KIND_NONE) {
+            return null;
+        }
+        CaseTable table = new CaseTable();
+        table.kind = kind;
+        if (ranges.isEmpty()) {
+            table.mTargets = new int[0];
+            table.mLows = table.mHighs = new long[0];
+            return table;
+        }
+
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE, covered = 0;
+        for (long[] range : ranges) {
+            min = Math.min(min, range[0]);
+            max = Math.max(max, range[1]);
+            covered += range[1] - range[0] + 1;
+        }
+        long span = max - min + 1;
+        if (span > 0 && span <= MAX_JUMP_TABLE && (span <= 256 || span <= covered * 4)) {
+            int[] jumpTable = new int[(int) span];
+            Arrays.fill(jumpTable, NOT_FOUND);
+            //the first label which matches a value wins, as the conditions are tested in order
+            for (long[] range : ranges) {
+                for (long v = range[0]; v <= range[1]; v++) {
+                    int index = (int) (v - min);
+                    if (jumpTable[index] == NOT_FOUND) {
+                        jumpTable[index] = (int) range[2];
+                    }
+                }
+            }
+            table.mJumpTable = jumpTable;
+            table.mMin = min;
+            return table;
+        }
+
+        Collections.sort(ranges, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] o1, long[] o2) {
+                return o1[0] < o2[0] ? -1 : (o1[0] == o2[0] ? 0 : 1);
+            }
+        });
+        int size = ranges.size();
+        long[] lows = new long[size];
+        long[] highs = new long[size];
+        int[] targets = new int[size];
+        for (int i = 0; i < size; i++) {
+            long[] range = ranges.get(i);
+            if (i > 0 && range[0] <= highs[i - 1]) {
+                //overlapped labels, keep the order of conditions
+                return null;
+            }
+            lows[i] = range[0];
+            highs[i] = range[1];
+            targets[i] = (int) range[2];
+        }
+        table.mLows = lows;
+        table.mHighs = highs;
+        table.mTargets = targets;
+        return table;
+    }
+
+    @Nullable
+    private static CaseTable createStringTable(CasePossibility[] possibilities) {
+        HashMap<String, Integer> strings = new HashMap<>();
+        for (int i = 0; i < possibilities.length; i++) {
+            for (CaseCondition condition : possibilities[i].conditions) {
+                Object label = condition.getLower();
+                if (!(condition instanceof SingleValue)
+                        || !(label instanceof CharSequence || label instanceof Character)) {
+                    return null;
+                }
+                String key = label.toString();
+                if (!strings.containsKey(key)) {
+                    strings.put(key, i);
+                }
+            }
+        }
+        if (strings.isEmpty()) {
+            return null;
+        }
+        CaseTable table = new CaseTable();
+        table.mStringTable = strings;
+        return table;
+    }
+
+    /**
+     * @return index of the possibility which matches the value, {@link #NOT_FOUND} if no label
+     * matches it or {@link #NOT_INDEXED} if the value can not be looked up
+     */
+    int find(Object value) {
+        if (mStringTable != null) {
+            if (!(value instanceof CharSequence || value instanceof Character)) {
+                return NOT_INDEXED;
+            }
+            Integer index = mStringTable.get(value.toString());
+            return index == null ? NOT_FOUND : index;
+        }
+        if (kindOf(value) != kind) {
+            return NOT_INDEXED;
+        }
+        long ordinal = ordinalOf(value, kind);
+        if (mJumpTable != null) {
+            long index = ordinal - mMin;
+            if (index < 0 || index >= mJumpTable.length) {
+                return NOT_FOUND;
+            }
+            return mJumpTable[(int) index];
+        }
+        long[] lows = mLows, highs = mHighs;
+        int low = 0, high = lows.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (ordinal < lows[mid]) {
+                high = mid - 1;
+            } else if (ordinal > highs[mid]) {
+                low = mid + 1;
+            } else {
+                return mTargets[mid];
+            }
+        }
+        return NOT_FOUND;
+    }
+}
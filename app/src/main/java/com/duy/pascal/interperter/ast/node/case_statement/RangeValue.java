@@ -13,9 +13,11 @@ import com.duy.pascal.interperter.declaration.lang.types.OperatorTypes;
 public class RangeValue implements CaseCondition {
 
     private LineNumber line;
+    private Object lower;
+    private Object higher;
 
-    private BinaryOperatorNode greaterThanLower;
-    private BinaryOperatorNode lessThanHigher;
+    private RuntimeValue greaterThanLower;
+    private RuntimeValue lessThanHigher;
 
     RangeValue(ExpressionContext context, RuntimeValue value, Object lower, Object higher,
                LineNumber line) throws Exception {
@@ -24,6 +26,8 @@ public class RangeValue implements CaseCondition {
         greaterThanLower = BinaryOperatorNode.generateOp(context, value, low, OperatorTypes.GREATEREQ, line);
         lessThanHigher = BinaryOperatorNode.generateOp(context, value, high, OperatorTypes.LESSEQ, line);
         this.line = line;
+        this.lower = lower;
+        this.higher = higher;
     }
 
 
@@ -39,5 +43,15 @@ public class RangeValue implements CaseCondition {
         return line;
     }
 
+    @Override
+    public Object getLower() {
+        return lower;
+    }
+
+    @Override
+    public Object getUpper() {
+        return higher;
+    }
+
 
 }
@@ -38,4 +38,14 @@ class SingleValue implements CaseCondition {
     public LineNumber getLineNumber() {
         return line;
     }
+
+    @Override
+    public Object getLower() {
+        return mValue;
+    }
+
+    @Override
+    public Object getUpper() {
+        return mValue;
+    }
 }
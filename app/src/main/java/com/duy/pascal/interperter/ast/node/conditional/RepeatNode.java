@@ -73,6 +73,7 @@ public class RepeatNode extends DebuggableNode {
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
         do_loop:
         do {
+            main.safepoint(mLine);
             switch (mCommand.visit(context, main)) {
                 case CONTINUE:
                     continue do_loop;
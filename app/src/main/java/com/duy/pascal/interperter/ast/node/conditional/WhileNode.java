@@ -80,6 +80,7 @@ public class WhileNode extends DebuggableNode {
                                        RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
         loop:
         while ((Boolean) mCondition.getValue(context, main)) {
+            main.safepoint(mLine);
             switch (mCommand.visit(context, main)) {
                 case CONTINUE:
                     continue loop;
@@ -21,6 +21,7 @@ import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.node.Node;
 import com.duy.pascal.interperter.ast.node.ExecutionResult;
 import com.duy.pascal.interperter.ast.runtime.references.Reference;
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
@@ -30,7 +31,7 @@ import com.duy.pascal.interperter.exceptions.runtime.CompileException;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 
-import java.util.LinkedList;
+import java.util.Collection;
 
 /**
  * For ... in ... do loop
@@ -77,7 +78,8 @@ public class ForInNode extends DebuggableNode {
 
     /**
      * Execute for statement
-     * I specified the enum by a {@link LinkedList}, see {@link EnumGroupType}
+     * The enum is specified by a {@link java.util.LinkedList} (see {@link EnumGroupType}),
+     * the set by a {@link com.duy.pascal.interperter.ast.runtime.value.SetValue}
      */
     @Override
     @SuppressWarnings("unchecked")
@@ -86,12 +88,13 @@ public class ForInNode extends DebuggableNode {
 
         //get value of enum
         Object value = this.list.getValue(context, main);
-        if (value instanceof LinkedList) {
-            LinkedList list = (LinkedList) value;
+        if (value instanceof Collection) {
+            Collection list = (Collection) value;
             //get reference if variable
             Reference reference = this.item.getReference(context, main);
             //for each all item in list
             for (Object item : list) {
+                main.safepoint(line);
                 reference.set(item); //set value for variable identifier
                 //execute command of for loop and receive a result
                 ExecutionResult result = command.visit(context, main);
@@ -105,12 +108,19 @@ public class ForInNode extends DebuggableNode {
                         return ExecutionResult.EXIT;
                 }
             }
-        } else if (value instanceof Object[]) { //array
-            Object[] list = (Object[]) value;
+        } else if (ArrayStorage.isArray(value)) { //array
+            int kind = ArrayStorage.kindOfArray(value);
+            int length = ArrayStorage.length(value);
             //get reference if variable
             Reference reference = this.item.getReference(context, main);
             //for each all item in list
-            for (Object item : list) {
+            for (int i = 0; i < length; i++) {
+                Object item = ArrayStorage.get(value, kind, i);
+                if (item instanceof StringBuilder) {
+                    //the variable has a copy of string, it does not change the array
+                    item = new StringBuilder((StringBuilder) item);
+                }
+                main.safepoint(line);
                 reference.set(item); //set value for variable identifier
                 //execute command of for loop and receive a result
                 ExecutionResult result = command.visit(context, main);
@@ -0,0 +1,240 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.ast.node.forstatement;
+
+import android.support.annotation.NonNull;
+
+import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
+import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.interperter.ast.node.ExecutionResult;
+import com.duy.pascal.interperter.ast.node.Node;
+import com.duy.pascal.interperter.ast.runtime.references.FrameSlotReference;
+import com.duy.pascal.interperter.ast.runtime.references.Reference;
+import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
+import com.duy.pascal.interperter.ast.runtime.value.EnumElementValue;
+import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.variablecontext.FunctionOnStack;
+import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
+import com.duy.pascal.interperter.debugable.DebuggableNode;
+import com.duy.pascal.interperter.declaration.lang.types.Type;
+import com.duy.pascal.interperter.declaration.lang.types.set.EnumGroupType;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+import com.duy.pascal.interperter.linenumber.LineNumber;
+import com.duy.pascal.ui.debug.CallStack;
+
+import java.util.Arrays;
+
+/**
+ * For to do loop over any ordinal type: integer types, char, boolean, enum and their subranges.
+ * <p>
+ * The counter is kept as a primitive ordinal and only converted to the storage class of the
+ * variable when it is written; a local variable is written straight into its frame slot. The
+ * debugger and the pause state are polled every
+ * {@link #SAFEPOINT_INTERVAL} iterations (every iteration in debug mode)
+ * <p>
+ * see in https://www.freepascal.org/docs-html/ref/refsu58.html#x164-18600013.2.4
+ */
+public class ForOrdinalNode extends DebuggableNode {
+    private static final int SAFEPOINT_INTERVAL = 1024;
+    private static final int MAX_CACHED_VALUES = 4096;
+
+    private static final int KIND_INTEGER = 0;
+    private static final int KIND_LONG = 1;
+    private static final int KIND_BYTE = 2;
+    private static final int KIND_SHORT = 3;
+    private static final int KIND_CHAR = 4;
+    private static final int KIND_BOOLEAN = 5;
+    private static final int KIND_ENUM = 6;
+
+    @NonNull
+    private Node mCommand;
+    @NonNull
+    private AssignableValue mTempVar;
+    @NonNull
+    private RuntimeValue mFirst;
+    @NonNull
+    private RuntimeValue mLast;
+    @NonNull
+    private LineNumber mLine;
+    private boolean mIsDownto;
+    private int mKind;
+    /**
+     * Boxed values of the counter, indexed by ordinal - mCacheBase. A value is boxed when it
+     * is first reached and reused by every later run of this loop, also when the bounds change
+     * (the inner loop of a nested loop). The tree is executed by one run at a time
+     */
+    private Object[] mCache;
+    private long mCacheBase;
+    /**
+     * Elements of the enum type, indexed by ordinal
+     */
+    private Object[] mEnumValues;
+
+    public ForOrdinalNode(ExpressionContext context, @NonNull AssignableValue tempVar,
+                          @NonNull RuntimeValue first, @NonNull RuntimeValue last, @NonNull Node command,
+                          @NonNull LineNumber line, boolean downto) throws Exception {
+        this.mTempVar = tempVar;
+        this.mFirst = first;
+        this.mLast = last;
+        this.mLine = line;
+        this.mCommand = command;
+        this.mIsDownto = downto;
+        this.mKind = kindOf(tempVar.getRuntimeType(context).getRawType());
+    }
+
+    private static int kindOf(Type type) throws RuntimePascalException {
+        if (type instanceof EnumGroupType) {
+            return KIND_ENUM;
+        }
+        Class<?> storageClass = type.getStorageClass();
+        if (storageClass == Integer.class) {
+            return KIND_INTEGER;
+        } else if (storageClass == Long.class) {
+            return KIND_LONG;
+        } else if (storageClass == Byte.class) {
+            return KIND_BYTE;
+        } else if (storageClass == Short.class) {
+            return KIND_SHORT;
+        } else if (storageClass == Character.class) {
+            return KIND_CHAR;
+        } else if (storageClass == Boolean.class) {
+            return KIND_BOOLEAN;
+        } else if (storageClass == EnumElementValue.class) {
+            return KIND_ENUM;
+        }
+        throw new RuntimePascalException("Can not execute for statement");
+    }
+
+    private static long toOrdinal(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        } else if (value instanceof Character) {
+            return (Character) value;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        } else {
+            return ((EnumElementValue) value).getIndex();
+        }
+    }
+
+    @Override
+    public ExecutionResult executeImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object first = mFirst.getValue(f, main);
+        long start = toOrdinal(first);
+        long end = toOrdinal(mLast.getValue(f, main));
+        if (mIsDownto ? start < end : start > end) {
+            return ExecutionResult.NOPE;
+        }
+        if (mKind == KIND_ENUM) {
+            if (mEnumValues == null) {
+                mEnumValues = ((EnumElementValue) first).getEnumGroupType().getList().toArray();
+            }
+        } else if (mCache == null) {
+            mCacheBase = Math.min(start, end);
+            mCache = new Object[0];
+        }
+
+        @SuppressWarnings("unchecked")
+        Reference<Object> reference = mTempVar.getReference(f, main);
+        FunctionOnStack frame = null;
+        int slot = -1;
+        if (reference instanceof FrameSlotReference) {
+            frame = ((FrameSlotReference) reference).getFrame();
+            slot = ((FrameSlotReference) reference).getSlot();
+        }
+        boolean debug = main.isDebug();
+        int poll = debug ? 1 : SAFEPOINT_INTERVAL;
+        long step = mIsDownto ? -1 : 1;
+        long index = start;
+        while (true) {
+            Object value = mKind == KIND_ENUM ? mEnumValues[(int) index] : valueOf(index);
+            if (frame != null) {
+                frame.setSlot(slot, value);
+            } else {
+                reference.set(value);
+            }
+            if (--poll == 0) {
+                main.safepoint(mLine);
+                debug = main.isDebug();
+                poll = debug ? 1 : SAFEPOINT_INTERVAL;
+            }
+            if (debug) {
+                main.getDebugListener().onValueVariableChanged(new CallStack(f));
+            }
+            switch (mCommand.visit(f, main)) {
+                case EXIT:
+                    return ExecutionResult.EXIT;
+                case BREAK:
+                    return ExecutionResult.NOPE;
+            }
+            //test the bound before stepping, the counter may be the last value of its type
+            if (index == end) {
+                return ExecutionResult.NOPE;
+            }
+            index += step;
+        }
+    }
+
+    /**
+     * @return the boxed value of the ordinal, from the cache when it is in the cached range
+     */
+    private Object valueOf(long ordinal) {
+        long position = ordinal - mCacheBase;
+        if (position < 0 || position >= MAX_CACHED_VALUES) {
+            return fromOrdinal(ordinal);
+        }
+        Object[] cache = mCache;
+        if (position >= cache.length) {
+            int length = (int) Math.min(MAX_CACHED_VALUES, Math.max(cache.length * 2, position + 1));
+            cache = mCache = Arrays.copyOf(cache, length);
+        }
+        Object value = cache[(int) position];
+        if (value == null) {
+            value = cache[(int) position] = fromOrdinal(ordinal);
+        }
+        return value;
+    }
+
+    private Object fromOrdinal(long ordinal) {
+        switch (mKind) {
+            case KIND_INTEGER:
+                return (int) ordinal;
+            case KIND_LONG:
+                return ordinal;
+            case KIND_BYTE:
+                return (byte) ordinal;
+            case KIND_SHORT:
+                return (short) ordinal;
+            case KIND_CHAR:
+                return (char) ordinal;
+            default:
+                return ordinal != 0;
+        }
+    }
+
+    @Override
+    public LineNumber getLineNumber() {
+        return mLine;
+    }
+
+    @Override
+    public Node compileTimeConstantTransform(CompileTimeContext c) throws Exception {
+        return null;
+    }
+}
@@ -105,16 +105,9 @@ public class ForStatement {
                 }
             }
 
-            if (varType.getRawType() instanceof EnumGroupType) {
-                Node command = group.getNextCommand(context);
-                result = new ForEnumNode(varAssignable, firstValue,
-                        lastValue, command,
-                        (EnumGroupType) varType.getRawType(), lineNumber, isDownto);
-            } else {
-                Node command = group.getNextCommand(context);
-                result = new ForNumberNode(context, varAssignable, firstValue,
-                        lastValue, command, lineNumber, isDownto);
-            }
+            Node command = group.getNextCommand(context);
+            result = new ForOrdinalNode(context, varAssignable, firstValue,
+                    lastValue, command, lineNumber, isDownto);
         } else {
             //case: for <var> in <range>
             if (((OperatorToken) next).type == OperatorTypes.IN) {
@@ -73,12 +73,10 @@ public class WithNode extends DebuggableNodeReturnValue {
         if (main.isDebug()) {
             main.getDebugListener().onLine((Node) this, getLineNumber());
         }
-        main.incStack(getLineNumber());
         main.scriptControlCheck(getLineNumber());
 
         new WithOnStack(f, main, withStatement).execute();
 
-        main.decStack();
         return ExecutionResult.NOPE;
     }
 
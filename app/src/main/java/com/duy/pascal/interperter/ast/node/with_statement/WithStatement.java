@@ -59,7 +59,7 @@ public class WithStatement {
                 CustomType recordType = (CustomType) type;
                 for (VariableDeclaration var : recordType.getVariableDeclarations()) {
                     fields.add(new FieldAccess(argument, var.getName(),
-                            var.getLineNumber()));
+                            var.getLineNumber(), recordType.indexOfField(var.getName())));
                 }
             }
         }
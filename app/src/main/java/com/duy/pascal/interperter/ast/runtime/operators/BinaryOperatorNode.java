@@ -29,6 +29,7 @@ import com.duy.pascal.interperter.ast.runtime.operators.number.IntegerBinaryOper
 import com.duy.pascal.interperter.ast.runtime.operators.number.JavaBinaryOperatorNode;
 import com.duy.pascal.interperter.ast.runtime.operators.number.LongBinaryOperatorNode;
 import com.duy.pascal.interperter.ast.runtime.operators.number.StringBinaryOperatorNode;
+import com.duy.pascal.interperter.ast.runtime.operators.number.StringConcatNode;
 import com.duy.pascal.interperter.ast.runtime.operators.set.EnumBinaryOperatorNode;
 import com.duy.pascal.interperter.ast.runtime.operators.set.InBinaryOperatorNode;
 import com.duy.pascal.interperter.ast.runtime.operators.set.SetBinaryOperatorNode;
@@ -39,7 +40,6 @@ import com.duy.pascal.interperter.declaration.lang.types.BasicType;
 import com.duy.pascal.interperter.declaration.lang.types.JavaClassBasedType;
 import com.duy.pascal.interperter.declaration.lang.types.OperatorTypes;
 import com.duy.pascal.interperter.declaration.lang.types.Type;
-import com.duy.pascal.interperter.declaration.lang.types.converter.AnyToStringType;
 import com.duy.pascal.interperter.declaration.lang.types.converter.TypeConverter;
 import com.duy.pascal.interperter.declaration.lang.types.set.EnumGroupType;
 import com.duy.pascal.interperter.declaration.lang.types.set.SetType;
@@ -70,7 +70,7 @@ public abstract class BinaryOperatorNode extends DebuggableReturnValue {
         this.line = line;
     }
 
-    public static BinaryOperatorNode generateOp(@NonNull ExpressionContext context,
+    public static RuntimeValue generateOp(@NonNull ExpressionContext context,
                                                 @NonNull RuntimeValue v1, @NonNull RuntimeValue v2,
                                                 @NonNull OperatorTypes operatorTypes,
                                                 @NonNull LineNumber line) throws Exception {
@@ -123,9 +123,7 @@ public abstract class BinaryOperatorNode extends DebuggableReturnValue {
         if (t1.equals(BasicType.StringBuilder) || t2.equals(BasicType.StringBuilder)
                 || t1 instanceof StringLimitType || t2 instanceof StringLimitType) {
             if (operatorTypes == OperatorTypes.PLUS) {
-                v1 = new AnyToStringType(v1);
-                v2 = new AnyToStringType(v2);
-                return new StringBinaryOperatorNode(v1, v2, operatorTypes, line);
+                return StringConcatNode.concat(v1, v2, line);
             } else {
                 v1 = BasicType.StringBuilder.convert(v1, context);
                 v2 = BasicType.StringBuilder.convert(v2, context);
@@ -199,14 +197,21 @@ public abstract class BinaryOperatorNode extends DebuggableReturnValue {
         Object result = operate(leftNode, rightNode); //operate
 
         if (main.isDebug()) {
-            main.getDebugListener().onEvaluatedExpr(line, toString(), result.toString());
-            main.scriptControlCheck(getLineNumber());
+            onEvaluated(main, result.toString());
         }
 
         return result;
 
     }
 
+    /**
+     * Notify the debugger about the result of this expression, only call it in debug mode
+     */
+    protected void onEvaluated(RuntimeExecutableCodeUnit<?> main, String result) {
+        main.getDebugListener().onEvaluatedExpr(line, toString(), result);
+        main.scriptControlCheck(getLineNumber());
+    }
+
     public abstract Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException, CompileException;
 
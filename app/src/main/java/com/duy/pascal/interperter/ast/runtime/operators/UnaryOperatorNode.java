@@ -107,20 +107,18 @@ public abstract class UnaryOperatorNode extends DebuggableReturnValue {
     @Override
     public Object getValueImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        boolean debug = main.isDebug();
-        if (debug) {
-            main.getDebugListener().onEvaluatingExpr(lineNumber, toString());
-            main.setDebug(false);
+        if (!main.isDebug()) {
+            return operate(childNode.getValue(context, main));
         }
+        main.getDebugListener().onEvaluatingExpr(lineNumber, toString());
+        main.setDebug(false);
 
         Object value = childNode.getValue(context, main);
         Object result = operate(value);
 
         //restore mode
-        main.setDebug(debug);
-        if (main.isDebug()) {
-            main.getDebugListener().onEvaluatedExpr(lineNumber, toString(), result.toString());
-        }
+        main.setDebug(true);
+        main.getDebugListener().onEvaluatedExpr(lineNumber, toString(), result.toString());
         return result;
     }
 
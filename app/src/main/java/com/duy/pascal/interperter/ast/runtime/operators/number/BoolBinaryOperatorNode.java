@@ -7,8 +7,10 @@ import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.runtime.operators.BinaryOperatorNode;
+import com.duy.pascal.interperter.ast.runtime.value.PrimitiveValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.PrimitiveUnboxer;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
 import com.duy.pascal.interperter.declaration.lang.types.OperatorTypes;
@@ -19,10 +21,14 @@ import com.duy.pascal.interperter.exceptions.runtime.internal.InternalInterprete
 import com.duy.pascal.interperter.linenumber.LineNumber;
 
 public class BoolBinaryOperatorNode extends BinaryOperatorNode {
+    private final PrimitiveValue leftValue;
+    private final PrimitiveValue rightValue;
 
     public BoolBinaryOperatorNode(RuntimeValue operon1, RuntimeValue operon2,
                                   OperatorTypes operator, LineNumber line) {
         super(operon1, operon2, operator, line);
+        this.leftValue = PrimitiveUnboxer.of(operon1);
+        this.rightValue = PrimitiveUnboxer.of(operon2);
     }
 
     @Override
@@ -33,11 +39,17 @@ public class BoolBinaryOperatorNode extends BinaryOperatorNode {
     @Override
     public Object getValueImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        boolean value1 = (boolean) leftNode.getValue(context, main);
+        return getBoolean(context, main);
+    }
+
+    @Override
+    public boolean getBoolean(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        boolean value1 = leftValue.getBoolean(context, main);
         if ((operatorType == OperatorTypes.AND && !value1) || (operatorType == OperatorTypes.OR && value1)) {
             return value1;
         }
-        boolean value2 = (boolean) rightNode.getValue(context, main);
+        boolean value2 = rightValue.getBoolean(context, main);
         return operate(value1, value2);
     }
 
@@ -51,8 +63,10 @@ public class BoolBinaryOperatorNode extends BinaryOperatorNode {
     @Override
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException {
-        boolean v1 = (boolean) value1;
-        boolean v2 = (boolean) value2;
+        return operate((boolean) value1, (boolean) value2);
+    }
+
+    private boolean operate(boolean v1, boolean v2) throws InternalInterpreterException {
         switch (operatorType) {
             case AND:
                 return v1 & v2;
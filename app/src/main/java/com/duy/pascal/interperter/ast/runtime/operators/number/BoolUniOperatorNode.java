@@ -3,11 +3,16 @@ package com.duy.pascal.interperter.ast.runtime.operators.number;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.runtime.operators.UnaryOperatorNode;
+import com.duy.pascal.interperter.ast.runtime.value.PrimitiveValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.PrimitiveUnboxer;
+import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.exceptions.runtime.arith.PascalArithmeticException;
 import com.duy.pascal.interperter.exceptions.runtime.internal.InternalInterpreterException;
@@ -16,9 +21,11 @@ import com.duy.pascal.interperter.declaration.lang.types.OperatorTypes;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 
 public class BoolUniOperatorNode extends UnaryOperatorNode {
+    private final PrimitiveValue childValue;
 
     public BoolUniOperatorNode(RuntimeValue operon, OperatorTypes operator, LineNumber line) {
         super(operon, operator, line);
+        this.childValue = PrimitiveUnboxer.of(operon);
     }
 
     @Nullable
@@ -37,6 +44,18 @@ public class BoolUniOperatorNode extends UnaryOperatorNode {
         }
     }
 
+    @Override
+    public boolean getBoolean(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (main.isDebug()) {
+            return super.getBoolean(context, main);
+        }
+        if (operator != OperatorTypes.NOT) {
+            throw new InternalInterpreterException(lineNumber);
+        }
+        return !childValue.getBoolean(context, main);
+    }
+
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws Exception {
         Object val = this.compileTimeValue(context);
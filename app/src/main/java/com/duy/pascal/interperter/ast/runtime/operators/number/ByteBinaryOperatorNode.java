@@ -60,8 +60,8 @@ public class ByteBinaryOperatorNode extends BinaryOperatorNode {
     @Override
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException {
-        int v1 = Integer.parseInt(String.valueOf(value1));
-        int v2 = Integer.parseInt(String.valueOf(value2));
+        int v1 = ((Number) value1).intValue();
+        int v2 = ((Number) value2).intValue();
         switch (operatorType) {
             case AND:
                 return v1 & v2;
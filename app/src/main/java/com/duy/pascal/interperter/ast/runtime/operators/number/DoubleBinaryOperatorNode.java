@@ -4,13 +4,18 @@ package com.duy.pascal.interperter.ast.runtime.operators.number;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.runtime.operators.BinaryOperatorNode;
+import com.duy.pascal.interperter.ast.runtime.value.PrimitiveValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.PrimitiveUnboxer;
+import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.exceptions.parsing.operator.DivisionByZeroException;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.exceptions.runtime.arith.PascalArithmeticException;
 import com.duy.pascal.interperter.exceptions.runtime.internal.InternalInterpreterException;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
@@ -18,10 +23,14 @@ import com.duy.pascal.interperter.declaration.lang.types.OperatorTypes;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 
 public class DoubleBinaryOperatorNode extends BinaryOperatorNode {
+    private final PrimitiveValue leftValue;
+    private final PrimitiveValue rightValue;
 
     public DoubleBinaryOperatorNode(RuntimeValue operon1, RuntimeValue operon2,
                                     OperatorTypes operator, LineNumber line) {
         super(operon1, operon2, operator, line);
+        this.leftValue = PrimitiveUnboxer.of(operon1);
+        this.rightValue = PrimitiveUnboxer.of(operon2);
     }
 
     @Nullable
@@ -40,17 +49,93 @@ public class DoubleBinaryOperatorNode extends BinaryOperatorNode {
         }
     }
 
+    @Override
+    public Object getValueImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        switch (operatorType) {
+            case EQUALS:
+            case GREATEREQ:
+            case GREATERTHAN:
+            case LESSEQ:
+            case LESSTHAN:
+            case NOTEQUAL:
+                return getBoolean(context, main);
+            default:
+                return getDouble(context, main);
+        }
+    }
+
+    @Override
+    public double getDouble(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        double result = operateDouble(leftValue.getDouble(context, main), rightValue.getDouble(context, main));
+        if (main.isDebug()) {
+            onEvaluated(main, String.valueOf(result));
+        }
+        return result;
+    }
+
+    @Override
+    public int getInt(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (int) getDouble(context, main);
+    }
+
+    @Override
+    public long getLong(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (long) getDouble(context, main);
+    }
+
+    @Override
+    public boolean getBoolean(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        boolean result = compare(leftValue.getDouble(context, main), rightValue.getDouble(context, main));
+        if (main.isDebug()) {
+            onEvaluated(main, String.valueOf(result));
+        }
+        return result;
+    }
+
     @Override
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException {
-        double v1 = Double.valueOf(String.valueOf(value1));
-        double v2 = Double.valueOf(String.valueOf(value2));
+        double v1 = ((Number) value1).doubleValue();
+        double v2 = ((Number) value2).doubleValue();
+        switch (operatorType) {
+            case EQUALS:
+            case GREATEREQ:
+            case GREATERTHAN:
+            case LESSEQ:
+            case LESSTHAN:
+            case NOTEQUAL:
+                return compare(v1, v2);
+            default:
+                return operateDouble(v1, v2);
+        }
+    }
+
+    private double operateDouble(double v1, double v2)
+            throws PascalArithmeticException, InternalInterpreterException {
         switch (operatorType) {
             case DIVIDE:
                 if (Math.abs(v2) == 0d) {
                     throw new DivisionByZeroException(line);
                 }
                 return v1 / v2;
+            case MINUS:
+                return v1 - v2;
+            case MULTIPLY:
+                return v1 * v2;
+            case PLUS:
+                return v1 + v2;
+            default:
+                throw new InternalInterpreterException(line);
+        }
+    }
+
+    private boolean compare(double v1, double v2) throws InternalInterpreterException {
+        switch (operatorType) {
             case EQUALS:
                 return v1 == v2;
             case GREATEREQ:
@@ -61,14 +146,8 @@ public class DoubleBinaryOperatorNode extends BinaryOperatorNode {
                 return v1 <= v2;
             case LESSTHAN:
                 return v1 < v2;
-            case MINUS:
-                return v1 - v2;
-            case MULTIPLY:
-                return v1 * v2;
             case NOTEQUAL:
                 return v1 != v2;
-            case PLUS:
-                return v1 + v2;
             default:
                 throw new InternalInterpreterException(line);
         }
@@ -3,22 +3,29 @@ package com.duy.pascal.interperter.ast.runtime.operators.number;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.runtime.operators.UnaryOperatorNode;
+import com.duy.pascal.interperter.ast.runtime.value.PrimitiveValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.PrimitiveUnboxer;
+import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
 import com.duy.pascal.interperter.declaration.lang.types.OperatorTypes;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.exceptions.runtime.arith.PascalArithmeticException;
 import com.duy.pascal.interperter.exceptions.runtime.internal.InternalInterpreterException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 
 public class DoubleUniOperatorNode extends UnaryOperatorNode {
+    private final PrimitiveValue childValue;
 
     public DoubleUniOperatorNode(RuntimeValue operon, OperatorTypes operator, LineNumber line) {
         super(operon, operator, line);
+        this.childValue = PrimitiveUnboxer.of(operon);
     }
 
     @Nullable
@@ -39,6 +46,23 @@ public class DoubleUniOperatorNode extends UnaryOperatorNode {
         }
     }
 
+    @Override
+    public double getDouble(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (main.isDebug()) {
+            return super.getDouble(context, main);
+        }
+        double value = childValue.getDouble(context, main);
+        switch (operator) {
+            case PLUS:
+                return value;
+            case MINUS:
+                return -value;
+            default:
+                throw new InternalInterpreterException(lineNumber);
+        }
+    }
+
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws Exception {
         Object val = this.compileTimeValue(context);
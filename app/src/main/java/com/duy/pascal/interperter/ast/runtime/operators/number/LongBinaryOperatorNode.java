@@ -1,29 +1,36 @@
 package com.duy.pascal.interperter.ast.runtime.operators.number;
 
-import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.runtime.operators.BinaryOperatorNode;
+import com.duy.pascal.interperter.ast.runtime.value.PrimitiveValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.PrimitiveUnboxer;
+import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
 import com.duy.pascal.interperter.declaration.lang.types.OperatorTypes;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 import com.duy.pascal.interperter.exceptions.parsing.operator.DivisionByZeroException;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.exceptions.runtime.arith.PascalArithmeticException;
+import com.duy.pascal.interperter.exceptions.runtime.internal.InternalInterpreterException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 
-
 public class LongBinaryOperatorNode extends BinaryOperatorNode {
+    private final PrimitiveValue leftValue;
+    private final PrimitiveValue rightValue;
 
     public LongBinaryOperatorNode(RuntimeValue operon1, RuntimeValue operon2,
                                   OperatorTypes operator, LineNumber line) {
         super(operon1, operon2, operator, line);
+        this.leftValue = PrimitiveUnboxer.of(operon1);
+        this.rightValue = PrimitiveUnboxer.of(operon2);
     }
 
-
     @Nullable
     @Override
     public RuntimeType getRuntimeType(ExpressionContext context) throws Exception {
@@ -42,42 +49,105 @@ public class LongBinaryOperatorNode extends BinaryOperatorNode {
         }
     }
 
+    @Override
+    public Object getValueImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        switch (operatorType) {
+            case EQUALS:
+            case GREATEREQ:
+            case GREATERTHAN:
+            case LESSEQ:
+            case LESSTHAN:
+            case NOTEQUAL:
+                return getBoolean(context, main);
+            case DIVIDE:
+                return getDouble(context, main);
+            default:
+                return getLong(context, main);
+        }
+    }
+
+    @Override
+    public long getLong(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (operatorType == OperatorTypes.DIVIDE) {
+            return (long) getDouble(context, main);
+        }
+        long result = operateLong(leftValue.getLong(context, main), rightValue.getLong(context, main));
+        if (main.isDebug()) {
+            onEvaluated(main, String.valueOf(result));
+        }
+        return result;
+    }
+
+    @Override
+    public int getInt(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (int) getLong(context, main);
+    }
+
+    @Override
+    public double getDouble(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (operatorType != OperatorTypes.DIVIDE) {
+            return getLong(context, main);
+        }
+        double result = divide(leftValue.getLong(context, main), rightValue.getLong(context, main));
+        if (main.isDebug()) {
+            onEvaluated(main, String.valueOf(result));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean getBoolean(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        boolean result = compare(leftValue.getLong(context, main), rightValue.getLong(context, main));
+        if (main.isDebug()) {
+            onEvaluated(main, String.valueOf(result));
+        }
+        return result;
+    }
+
     @Override
     public Object operate(Object value1, Object value2)
-            throws PascalArithmeticException {
-        long left = Long.parseLong(String.valueOf(value1));
-        long right = Long.parseLong(String.valueOf(value2));
+            throws PascalArithmeticException, InternalInterpreterException {
+        long left = ((Number) value1).longValue();
+        long right = ((Number) value2).longValue();
+        switch (operatorType) {
+            case EQUALS:
+            case GREATEREQ:
+            case GREATERTHAN:
+            case LESSEQ:
+            case LESSTHAN:
+            case NOTEQUAL:
+                return compare(left, right);
+            case DIVIDE:
+                return divide(left, right);
+            default:
+                return operateLong(left, right);
+        }
+    }
+
+    private long operateLong(long left, long right)
+            throws PascalArithmeticException, InternalInterpreterException {
         switch (operatorType) {
             case AND:
                 return left & right;
             case DIV:
                 if (right == 0) {
-                    throw new DivisionByZeroException(getLineNumber());
+                    throw new DivisionByZeroException(line);
                 }
                 return left / right;
-            case DIVIDE:
-                if (right == 0.0d) {
-                    throw new DivisionByZeroException(getLineNumber());
-                }
-                return (double) left / (double) right;
-            case EQUALS:
-                return left == right;
-            case GREATEREQ:
-                return left >= right;
-            case GREATERTHAN:
-                return left > right;
-            case LESSEQ:
-                return left <= right;
-            case LESSTHAN:
-                return left < right;
             case MINUS:
                 return left - right;
             case MOD:
+                if (right == 0) {
+                    throw new DivisionByZeroException(line);
+                }
                 return left % right;
             case MULTIPLY:
                 return left * right;
-            case NOTEQUAL:
-                return left != right;
             case OR:
                 return left | right;
             case PLUS:
@@ -89,13 +159,38 @@ public class LongBinaryOperatorNode extends BinaryOperatorNode {
             case XOR:
                 return left ^ right;
             default:
-                return null;
+                throw new InternalInterpreterException(line);
+        }
+    }
+
+    private double divide(long left, long right) throws PascalArithmeticException {
+        if (right == 0) {
+            throw new DivisionByZeroException(line);
+        }
+        return (double) left / (double) right;
+    }
+
+    private boolean compare(long left, long right) throws InternalInterpreterException {
+        switch (operatorType) {
+            case EQUALS:
+                return left == right;
+            case GREATEREQ:
+                return left >= right;
+            case GREATERTHAN:
+                return left > right;
+            case LESSEQ:
+                return left <= right;
+            case LESSTHAN:
+                return left < right;
+            case NOTEQUAL:
+                return left != right;
+            default:
+                throw new InternalInterpreterException(line);
         }
     }
 
     @Override
-    public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
-            throws Exception {
+    public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws Exception {
         Object val = this.compileTimeValue(context);
         if (val != null) {
             return new ConstantAccess<>(val, line);
@@ -107,5 +202,4 @@ public class LongBinaryOperatorNode extends BinaryOperatorNode {
         }
     }
 
-
 }
@@ -40,26 +40,59 @@ public class StringBinaryOperatorNode extends BinaryOperatorNode {
         }
     }
 
+    /**
+     * @return true if the result is a new string, which is not hold by any variable
+     */
+    public boolean isConcat() {
+        return operatorType == OperatorTypes.PLUS;
+    }
+
+    private static CharSequence toCharSequence(Object value) {
+        return value instanceof CharSequence ? (CharSequence) value : String.valueOf(value);
+    }
+
+    /**
+     * Compare two strings char by char, same as {@link String#compareTo(String)} but does not
+     * copy the content of a {@link StringBuilder}
+     */
+    public static int compare(CharSequence left, CharSequence right) {
+        int length1 = left.length();
+        int length2 = right.length();
+        int min = Math.min(length1, length2);
+        for (int i = 0; i < min; i++) {
+            char c1 = left.charAt(i);
+            char c2 = right.charAt(i);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return length1 - length2;
+    }
+
+    public static boolean contentEquals(CharSequence left, CharSequence right) {
+        return left.length() == right.length() && compare(left, right) == 0;
+    }
+
     @Override
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException {
-        String left = value1.toString();
-        String right = value2.toString();
+        CharSequence left = toCharSequence(value1);
+        CharSequence right = toCharSequence(value2);
         switch (operatorType) {
             case EQUALS:
-                return left.equals(right); //left == right
+                return contentEquals(left, right); //left == right
             case NOTEQUAL:
-                return !left.equals(right); //left != right
+                return !contentEquals(left, right); //left != right
             case LESSTHAN:
-                return left.compareTo(right) < 0; // left < right
+                return compare(left, right) < 0; // left < right
             case LESSEQ:
-                return left.compareTo(right) <= 0; //left <= right
+                return compare(left, right) <= 0; //left <= right
             case GREATEREQ:
-                return left.compareTo(right) >= 0; //left >= right
+                return compare(left, right) >= 0; //left >= right
             case GREATERTHAN:
-                return left.compareTo(right) > 0; //left > right
+                return compare(left, right) > 0; //left > right
             case PLUS:
-                return new StringBuilder(left).append(right);
+                return new StringBuilder(left.length() + right.length()).append(left).append(right);
             default:
                 throw new InternalInterpreterException(line);
         }
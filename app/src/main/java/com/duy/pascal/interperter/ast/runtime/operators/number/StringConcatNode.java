@@ -0,0 +1,158 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.ast.runtime.operators.number;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
+import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
+import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
+import com.duy.pascal.interperter.debugable.DebuggableReturnValue;
+import com.duy.pascal.interperter.declaration.lang.types.BasicType;
+import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
+import com.duy.pascal.interperter.declaration.lang.types.converter.AnyToStringType;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+import com.duy.pascal.interperter.linenumber.LineNumber;
+
+import java.util.ArrayList;
+
+/**
+ * Concatenation of strings "a + b + c + ...", the operands of a chain of "+" are evaluated
+ * from left to right and appended to one string which has the size of the result.
+ */
+public class StringConcatNode extends DebuggableReturnValue {
+    @NonNull
+    private final RuntimeValue[] operands;
+    @NonNull
+    private final LineNumber line;
+
+    public StringConcatNode(@NonNull RuntimeValue[] operands, @NonNull LineNumber line) {
+        this.operands = operands;
+        this.line = line;
+    }
+
+    /**
+     * Create the concatenation of two values, if a value is a concatenation its operands are
+     * added to the new node so "(a + b) + c" has three operands
+     */
+    public static StringConcatNode concat(RuntimeValue left, RuntimeValue right, LineNumber line) {
+        ArrayList<RuntimeValue> operands = new ArrayList<>();
+        addOperand(operands, left);
+        addOperand(operands, right);
+        return new StringConcatNode(operands.toArray(new RuntimeValue[operands.size()]), line);
+    }
+
+    private static void addOperand(ArrayList<RuntimeValue> operands, RuntimeValue value) {
+        if (value instanceof AnyToStringType) {
+            value = ((AnyToStringType) value).getValue();
+        }
+        if (value instanceof StringConcatNode) {
+            for (RuntimeValue operand : ((StringConcatNode) value).operands) {
+                operands.add(operand);
+            }
+        } else {
+            operands.add(value);
+        }
+    }
+
+    /**
+     * @return the text of a value, a string is not copied
+     */
+    public static CharSequence toCharSequence(Object value) {
+        return value instanceof CharSequence ? (CharSequence) value : value.toString();
+    }
+
+    @NonNull
+    public RuntimeValue[] getOperands() {
+        return operands;
+    }
+
+    @Override
+    public boolean canDebug() {
+        return false;
+    }
+
+    @Override
+    public Object getValueImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        CharSequence[] values = new CharSequence[operands.length];
+        int length = 0;
+        for (int i = 0; i < operands.length; i++) {
+            values[i] = toCharSequence(operands[i].getValue(context, main));
+            length += values[i].length();
+        }
+        StringBuilder result = new StringBuilder(length);
+        for (CharSequence value : values) {
+            result.append(value);
+        }
+        return result;
+    }
+
+    @Nullable
+    @Override
+    public RuntimeType getRuntimeType(ExpressionContext context) throws Exception {
+        return new RuntimeType(BasicType.StringBuilder, false);
+    }
+
+    @NonNull
+    @Override
+    public LineNumber getLineNumber() {
+        return line;
+    }
+
+    @Override
+    public Object compileTimeValue(CompileTimeContext context) throws Exception {
+        StringBuilder result = new StringBuilder();
+        for (RuntimeValue operand : operands) {
+            Object value = operand.compileTimeValue(context);
+            if (value == null) {
+                return null;
+            }
+            result.append(toCharSequence(value));
+        }
+        return result;
+    }
+
+    @Override
+    public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws Exception {
+        Object value = compileTimeValue(context);
+        if (value != null) {
+            return new ConstantAccess<>(value, line);
+        }
+        RuntimeValue[] folded = new RuntimeValue[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            folded[i] = operands[i].compileTimeExpressionFold(context);
+        }
+        return new StringConcatNode(folded, line);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < operands.length; i++) {
+            if (i > 0) {
+                out.append(" + ");
+            }
+            out.append(operands[i]);
+        }
+        return out.toString();
+    }
+}
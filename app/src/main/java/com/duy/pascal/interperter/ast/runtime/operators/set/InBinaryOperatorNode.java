@@ -23,7 +23,9 @@ import android.support.annotation.Nullable;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.runtime.operators.BinaryOperatorNode;
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.SetValue;
 import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
 import com.duy.pascal.interperter.declaration.lang.types.OperatorTypes;
@@ -58,8 +60,12 @@ public class InBinaryOperatorNode extends BinaryOperatorNode {
     @Override
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, InternalInterpreterException, CompileException {
-        //if the type of value2 is enum or set
-        if (value2 instanceof LinkedList) {
+        //if the type of value2 is set
+        if (value2 instanceof SetValue) {
+            return ((SetValue) value2).contains(value1);
+        }
+        //enum type
+        else if (value2 instanceof LinkedList) {
             LinkedList v2 = (LinkedList) value2;
             for (Object o : v2) {
                 if (o instanceof Number) {
@@ -78,10 +84,11 @@ public class InBinaryOperatorNode extends BinaryOperatorNode {
 
         }
         //array type
-        else if (value2 instanceof Object[]) {
-            Object[] objects = (Object[]) value2;
-            for (Object object : objects) {
-                if (value1.equals(object)) return true;
+        else if (ArrayStorage.isArray(value2)) {
+            int kind = ArrayStorage.kindOfArray(value2);
+            int length = ArrayStorage.length(value2);
+            for (int i = 0; i < length; i++) {
+                if (value1.equals(ArrayStorage.get(value2, kind, i))) return true;
             }
         } else {
             throw new CompileException();
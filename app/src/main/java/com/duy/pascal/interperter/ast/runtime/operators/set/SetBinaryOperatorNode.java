@@ -23,6 +23,7 @@ import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.runtime.operators.BinaryOperatorNode;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.SetValue;
 import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
 import com.duy.pascal.interperter.declaration.lang.types.OperatorTypes;
@@ -32,7 +33,6 @@ import com.duy.pascal.interperter.exceptions.runtime.CompileException;
 import com.duy.pascal.interperter.exceptions.runtime.arith.PascalArithmeticException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 
-import java.util.LinkedList;
 
 
 public class SetBinaryOperatorNode extends BinaryOperatorNode {
@@ -68,74 +68,32 @@ public class SetBinaryOperatorNode extends BinaryOperatorNode {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Object operate(Object value1, Object value2)
             throws PascalArithmeticException, CompileException {
-        LinkedList v1 = (LinkedList) value1;
-        LinkedList v2 = (LinkedList) value2;
-
-        LinkedList result = new LinkedList<>();
+        SetValue v1 = (SetValue) value1;
+        SetValue v2 = (SetValue) value2;
 
         switch (operatorType) {
             case PLUS:
-                result.clear();
-                for (Object element : v2) if (!v1.contains(element)) result.add(element);
-
-                return result;
+                return SetValue.union(v1, v2);
             case MINUS:
-                result.addAll(v1);
-                for (Object element : v2) if (v1.contains(element)) result.remove(element);
-
-                return result;
-
+                return SetValue.difference(v1, v2);
             case MULTIPLY:
-                result.clear();
-                for (Object element : v2) if (v1.contains(element)) result.add(element);
-
-                return result;
-
+                return SetValue.intersection(v1, v2);
             case DIFFERENT:
-                result.clear();
-                for (Object element : v1) if (!v2.contains(element)) result.add(element);
-                for (Object element : v2) if (!v1.contains(element)) result.add(element);
-                return result;
-
+                return SetValue.symmetricDifference(v1, v2);
             case EQUALS:
-                if (v1.size() != v2.size()) return false;
-                for (Object element : v1) {
-                    if (!v2.contains(element)) return false;
-                }
-                return true;
+                return v1.equals(v2);
             case NOTEQUAL:
-                if (v1.size() != v2.size()) return true;
-
-                for (Object element : v1) {
-                    if (v2.contains(element)) return false;
-                }
-                return true;
-
+                return !v1.equals(v2);
             case LESSTHAN:
-                if (v1.size() >= v2.size()) return false;
-                for (Object e : v1) if (!v2.contains(e)) return false;
-                return true;
-
+                return v1.size() < v2.size() && SetValue.isSubset(v1, v2);
             case LESSEQ:
-                if (v1.size() > v2.size()) return false;
-                for (Object e : v1) if (!v2.contains(e)) return false;
-                return true;
-
+                return SetValue.isSubset(v1, v2);
             case GREATERTHAN:
-                if (v1.size() <= v2.size()) return false;
-
-                for (Object e : v2) if (!v1.contains(e)) return false;
-                return true;
-
+                return v1.size() > v2.size() && SetValue.isSubset(v2, v1);
             case GREATEREQ:
-
-                if (v1.size() < v2.size()) return false;
-                for (Object e : v2) if (!v1.contains(e)) return false;
-                return true;
-
+                return SetValue.isSubset(v2, v1);
             default:
                 throw new CompileException();
         }
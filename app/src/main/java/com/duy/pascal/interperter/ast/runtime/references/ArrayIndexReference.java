@@ -16,27 +16,31 @@
 
 package com.duy.pascal.interperter.ast.runtime.references;
 
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 
-import java.lang.reflect.Array;
-
 public class ArrayIndexReference implements Reference {
     private Object array;
     private int index;
     private int offset;
+    private int kind;
 
-    public ArrayIndexReference(Object array, int index, int offset) {
+    /**
+     * @param kind - storage of array, see {@link ArrayStorage}
+     */
+    public ArrayIndexReference(Object array, int index, int offset, int kind) {
         this.array = array;
         this.index = index;
         this.offset = offset;
+        this.kind = kind;
     }
 
     public void set(Object value) {
-        Array.set(array, index - offset, value);
+        ArrayStorage.set(array, kind, index - offset, value);
     }
 
     public Object get() throws RuntimePascalException {
-        return Array.get(array, index - offset);
+        return ArrayStorage.get(array, kind, index - offset);
     }
 
     @Override
@@ -0,0 +1,56 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.ast.runtime.references;
+
+import com.duy.pascal.interperter.ast.variablecontext.FunctionOnStack;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+
+/**
+ * Reference to a parameter or local variable of a function call
+ */
+public class FrameSlotReference implements Reference {
+    private FunctionOnStack frame;
+    private int slot;
+
+    public FrameSlotReference(FunctionOnStack frame, int slot) {
+        this.frame = frame;
+        this.slot = slot;
+    }
+
+    public FunctionOnStack getFrame() {
+        return frame;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public void set(Object value) {
+        frame.setSlot(slot, value);
+    }
+
+    @Override
+    public Object get() throws RuntimePascalException {
+        return frame.getSlot(slot);
+    }
+
+    @Override
+    public FrameSlotReference clone() {
+        return this;
+    }
+}
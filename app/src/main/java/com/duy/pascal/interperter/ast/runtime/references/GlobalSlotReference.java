@@ -0,0 +1,48 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.ast.runtime.references;
+
+import com.duy.pascal.interperter.ast.codeunit.RuntimeCodeUnit;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+
+/**
+ * Reference to a variable declared in a program or unit
+ */
+public class GlobalSlotReference implements Reference {
+    private RuntimeCodeUnit<?> context;
+    private int slot;
+
+    public GlobalSlotReference(RuntimeCodeUnit<?> context, int slot) {
+        this.context = context;
+        this.slot = slot;
+    }
+
+    @Override
+    public void set(Object value) {
+        context.setGlobal(slot, value);
+    }
+
+    @Override
+    public Object get() throws RuntimePascalException {
+        return context.getGlobal(slot);
+    }
+
+    @Override
+    public GlobalSlotReference clone() {
+        return this;
+    }
+}
@@ -16,24 +16,22 @@
 
 package com.duy.pascal.interperter.ast.runtime.references;
 
+import com.duy.pascal.interperter.ast.runtime.value.SetValue;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 
-import java.util.LinkedList;
-
 /**
  * Created by Duy on 25-May-17.
  */
 
 public class SetPreference implements Reference {
-    private LinkedList array;
+    private SetValue array;
     private int index;
 
-    public SetPreference(LinkedList array, int index) {
+    public SetPreference(SetValue array, int index) {
         this.array = array;
         this.index = index;
     }
 
-    @SuppressWarnings("unchecked")
     public void set(Object value) {
         array.set(index, value);
     }
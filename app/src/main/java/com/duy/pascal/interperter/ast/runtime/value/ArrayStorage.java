@@ -0,0 +1,506 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.ast.runtime.value;
+
+import android.support.annotation.NonNull;
+
+import com.duy.pascal.interperter.ast.codeunit.RuntimePascalClass;
+import com.duy.pascal.interperter.ast.runtime.references.PascalReference;
+import com.duy.pascal.interperter.declaration.lang.types.Type;
+import com.duy.pascal.interperter.declaration.lang.types.util.TypeUtils;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+
+import java.lang.reflect.Array;
+
+/**
+ * Storage of pascal arrays.
+ * <p>
+ * An array of scalar type (integer, real, char, boolean...) is stored in a java primitive
+ * array, for example "array of integer" is an int[], so reading and writing an element does
+ * not use reflection. Other arrays (strings, records, nested arrays...) are stored in
+ * an Object[] which has the storage class of the element type. Arrays are created by their
+ * kind, see {@link #newObjectArray(Class, int)}.
+ */
+public class ArrayStorage {
+    public static final int KIND_OBJECT = 0;
+    public static final int KIND_INT = 1;
+    public static final int KIND_LONG = 2;
+    public static final int KIND_DOUBLE = 3;
+    public static final int KIND_FLOAT = 4;
+    public static final int KIND_CHAR = 5;
+    public static final int KIND_BOOLEAN = 6;
+    public static final int KIND_BYTE = 7;
+    public static final int KIND_SHORT = 8;
+
+    /**
+     * @return kind of storage of an array which elements have the given storage class
+     */
+    public static int kindOf(Class<?> elementClass) {
+        if (elementClass == Integer.class || elementClass == int.class) {
+            return KIND_INT;
+        } else if (elementClass == Long.class || elementClass == long.class) {
+            return KIND_LONG;
+        } else if (elementClass == Double.class || elementClass == double.class) {
+            return KIND_DOUBLE;
+        } else if (elementClass == Float.class || elementClass == float.class) {
+            return KIND_FLOAT;
+        } else if (elementClass == Character.class || elementClass == char.class) {
+            return KIND_CHAR;
+        } else if (elementClass == Boolean.class || elementClass == boolean.class) {
+            return KIND_BOOLEAN;
+        } else if (elementClass == Byte.class || elementClass == byte.class) {
+            return KIND_BYTE;
+        } else if (elementClass == Short.class || elementClass == short.class) {
+            return KIND_SHORT;
+        }
+        return KIND_OBJECT;
+    }
+
+    public static int kindOf(Type elementType) {
+        return kindOf(elementType.getStorageClass());
+    }
+
+    /**
+     * @return kind of storage of an array object
+     */
+    public static int kindOfArray(Object array) {
+        if (array instanceof Object[]) {
+            return KIND_OBJECT;
+        } else if (array instanceof int[]) {
+            return KIND_INT;
+        } else if (array instanceof long[]) {
+            return KIND_LONG;
+        } else if (array instanceof double[]) {
+            return KIND_DOUBLE;
+        } else if (array instanceof float[]) {
+            return KIND_FLOAT;
+        } else if (array instanceof char[]) {
+            return KIND_CHAR;
+        } else if (array instanceof boolean[]) {
+            return KIND_BOOLEAN;
+        } else if (array instanceof byte[]) {
+            return KIND_BYTE;
+        } else if (array instanceof short[]) {
+            return KIND_SHORT;
+        }
+        throw new IllegalArgumentException("Not an array " + array);
+    }
+
+    /**
+     * @param elementClass - storage class or transfer class of element type
+     * @return the class of an array which stores the elements
+     */
+    @NonNull
+    public static Class<?> arrayClassOf(Class<?> elementClass) {
+        switch (kindOf(elementClass)) {
+            case KIND_INT:
+                return int[].class;
+            case KIND_LONG:
+                return long[].class;
+            case KIND_DOUBLE:
+                return double[].class;
+            case KIND_FLOAT:
+                return float[].class;
+            case KIND_CHAR:
+                return char[].class;
+            case KIND_BOOLEAN:
+                return boolean[].class;
+            case KIND_BYTE:
+                return byte[].class;
+            case KIND_SHORT:
+                return short[].class;
+            default:
+                return newObjectArray(elementClass, 0).getClass();
+        }
+    }
+
+    /**
+     * Create an Object[] with the given component class. The arrays of the storage classes of
+     * pascal types are created directly, only other classes (java classes, arrays of arrays of
+     * objects) are created by reflection
+     */
+    @NonNull
+    public static Object[] newObjectArray(Class<?> componentClass, int size) {
+        if (componentClass == Object.class) {
+            return new Object[size];
+        } else if (componentClass == StringBuilder.class) {
+            return new StringBuilder[size];
+        } else if (componentClass == String.class) {
+            return new String[size];
+        } else if (componentClass == RecordValue.class) {
+            return new RecordValue[size];
+        } else if (componentClass == SetValue.class) {
+            return new SetValue[size];
+        } else if (componentClass == EnumElementValue.class) {
+            return new EnumElementValue[size];
+        } else if (componentClass == PascalReference.class) {
+            return new PascalReference[size];
+        } else if (componentClass == RuntimePascalClass.class) {
+            return new RuntimePascalClass[size];
+        } else if (componentClass.isArray() && componentClass.getComponentType().isPrimitive()) {
+            switch (kindOf(componentClass.getComponentType())) {
+                case KIND_INT:
+                    return new int[size][];
+                case KIND_LONG:
+                    return new long[size][];
+                case KIND_DOUBLE:
+                    return new double[size][];
+                case KIND_FLOAT:
+                    return new float[size][];
+                case KIND_CHAR:
+                    return new char[size][];
+                case KIND_BOOLEAN:
+                    return new boolean[size][];
+                case KIND_BYTE:
+                    return new byte[size][];
+                case KIND_SHORT:
+                    return new short[size][];
+            }
+        }
+        if (componentClass.isPrimitive()) {
+            componentClass = TypeUtils.getClassForType(componentClass);
+        }
+        return (Object[]) Array.newInstance(componentClass, size);
+    }
+
+    /**
+     * Create an array and fill it with the initial value of element type
+     */
+    @NonNull
+    public static Object newArray(Type elementType, int size) throws RuntimePascalException {
+        int kind = kindOf(elementType);
+        if (kind == KIND_OBJECT) {
+            Object[] array = newObjectArray(elementType.getTransferClass(), size);
+            for (int i = 0; i < size; i++) {
+                array[i] = elementType.initialize();
+            }
+            return array;
+        }
+        Object array = newArray(kind, size);
+        if (size > 0) {
+            Object initial = elementType.initialize();
+            if (!isDefault(initial)) {
+                for (int i = 0; i < size; i++) {
+                    set(array, kind, i, initial);
+                }
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Create a primitive array, the element of an Object[] can not be known
+     */
+    @NonNull
+    private static Object newArray(int kind, int size) {
+        switch (kind) {
+            case KIND_INT:
+                return new int[size];
+            case KIND_LONG:
+                return new long[size];
+            case KIND_DOUBLE:
+                return new double[size];
+            case KIND_FLOAT:
+                return new float[size];
+            case KIND_CHAR:
+                return new char[size];
+            case KIND_BOOLEAN:
+                return new boolean[size];
+            case KIND_BYTE:
+                return new byte[size];
+            case KIND_SHORT:
+                return new short[size];
+            default:
+                return new Object[size];
+        }
+    }
+
+    private static boolean isDefault(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue() == 0;
+        } else if (value instanceof Character) {
+            return (Character) value == '\0';
+        } else if (value instanceof Boolean) {
+            return !(Boolean) value;
+        }
+        return value == null;
+    }
+
+    /**
+     * Create an array which stores the given elements
+     */
+    @NonNull
+    public static Object fromObjects(Type elementType, Object[] elements) {
+        int kind = kindOf(elementType);
+        if (kind == KIND_OBJECT) {
+            Object[] array = newObjectArray(elementType.getTransferClass(), elements.length);
+            System.arraycopy(elements, 0, array, 0, elements.length);
+            return array;
+        }
+        Object array = newArray(kind, elements.length);
+        for (int i = 0; i < elements.length; i++) {
+            set(array, kind, i, elements[i]);
+        }
+        return array;
+    }
+
+    /**
+     * @param kind - kind of storage which is expected from the type of array, an array which was
+     *             created by java code may have another storage
+     */
+    public static Object get(Object array, int kind, int index) {
+        if (array instanceof Object[]) {
+            return ((Object[]) array)[index];
+        }
+        switch (kind) {
+            case KIND_INT:
+                if (array instanceof int[]) return ((int[]) array)[index];
+                break;
+            case KIND_LONG:
+                if (array instanceof long[]) return ((long[]) array)[index];
+                break;
+            case KIND_DOUBLE:
+                if (array instanceof double[]) return ((double[]) array)[index];
+                break;
+            case KIND_FLOAT:
+                if (array instanceof float[]) return ((float[]) array)[index];
+                break;
+            case KIND_CHAR:
+                if (array instanceof char[]) return ((char[]) array)[index];
+                break;
+            case KIND_BOOLEAN:
+                if (array instanceof boolean[]) return ((boolean[]) array)[index];
+                break;
+            case KIND_BYTE:
+                if (array instanceof byte[]) return ((byte[]) array)[index];
+                break;
+            case KIND_SHORT:
+                if (array instanceof short[]) return ((short[]) array)[index];
+                break;
+        }
+        return get(array, kindOfArray(array), index);
+    }
+
+    /**
+     * Read an element of an integer array without boxing it
+     */
+    public static int getInt(Object array, int kind, int index) {
+        if (kind == KIND_INT && array instanceof int[]) {
+            return ((int[]) array)[index];
+        }
+        return ((Number) get(array, kind, index)).intValue();
+    }
+
+    public static long getLong(Object array, int kind, int index) {
+        if (kind == KIND_LONG && array instanceof long[]) {
+            return ((long[]) array)[index];
+        } else if (kind == KIND_INT && array instanceof int[]) {
+            return ((int[]) array)[index];
+        }
+        return ((Number) get(array, kind, index)).longValue();
+    }
+
+    public static double getDouble(Object array, int kind, int index) {
+        if (kind == KIND_DOUBLE && array instanceof double[]) {
+            return ((double[]) array)[index];
+        } else if (kind == KIND_INT && array instanceof int[]) {
+            return ((int[]) array)[index];
+        } else if (kind == KIND_LONG && array instanceof long[]) {
+            return ((long[]) array)[index];
+        } else if (kind == KIND_FLOAT && array instanceof float[]) {
+            return ((float[]) array)[index];
+        }
+        return ((Number) get(array, kind, index)).doubleValue();
+    }
+
+    public static boolean getBoolean(Object array, int kind, int index) {
+        if (kind == KIND_BOOLEAN && array instanceof boolean[]) {
+            return ((boolean[]) array)[index];
+        }
+        return (Boolean) get(array, kind, index);
+    }
+
+    public static void set(Object array, int kind, int index, Object value) {
+        if (array instanceof Object[]) {
+            ((Object[]) array)[index] = value;
+            return;
+        }
+        switch (kind) {
+            case KIND_INT:
+                if (array instanceof int[]) {
+                    ((int[]) array)[index] = ((Number) value).intValue();
+                    return;
+                }
+                break;
+            case KIND_LONG:
+                if (array instanceof long[]) {
+                    ((long[]) array)[index] = ((Number) value).longValue();
+                    return;
+                }
+                break;
+            case KIND_DOUBLE:
+                if (array instanceof double[]) {
+                    ((double[]) array)[index] = ((Number) value).doubleValue();
+                    return;
+                }
+                break;
+            case KIND_FLOAT:
+                if (array instanceof float[]) {
+                    ((float[]) array)[index] = ((Number) value).floatValue();
+                    return;
+                }
+                break;
+            case KIND_CHAR:
+                if (array instanceof char[]) {
+                    ((char[]) array)[index] = (Character) value;
+                    return;
+                }
+                break;
+            case KIND_BOOLEAN:
+                if (array instanceof boolean[]) {
+                    ((boolean[]) array)[index] = (Boolean) value;
+                    return;
+                }
+                break;
+            case KIND_BYTE:
+                if (array instanceof byte[]) {
+                    ((byte[]) array)[index] = ((Number) value).byteValue();
+                    return;
+                }
+                break;
+            case KIND_SHORT:
+                if (array instanceof short[]) {
+                    ((short[]) array)[index] = ((Number) value).shortValue();
+                    return;
+                }
+                break;
+        }
+        set(array, kindOfArray(array), index, value);
+    }
+
+    public static Object get(Object array, int index) {
+        return get(array, kindOfArray(array), index);
+    }
+
+    public static void set(Object array, int index, Object value) {
+        set(array, kindOfArray(array), index, value);
+    }
+
+    public static boolean isArray(Object value) {
+        return value != null && value.getClass().isArray();
+    }
+
+    public static int length(Object array) {
+        if (array instanceof Object[]) {
+            return ((Object[]) array).length;
+        }
+        switch (kindOfArray(array)) {
+            case KIND_INT:
+                return ((int[]) array).length;
+            case KIND_LONG:
+                return ((long[]) array).length;
+            case KIND_DOUBLE:
+                return ((double[]) array).length;
+            case KIND_FLOAT:
+                return ((float[]) array).length;
+            case KIND_CHAR:
+                return ((char[]) array).length;
+            case KIND_BOOLEAN:
+                return ((boolean[]) array).length;
+            case KIND_BYTE:
+                return ((byte[]) array).length;
+            default:
+                return ((short[]) array).length;
+        }
+    }
+
+    /**
+     * @return a shallow copy of the array
+     */
+    @NonNull
+    public static Object copyOf(Object array) {
+        switch (kindOfArray(array)) {
+            case KIND_INT:
+                return ((int[]) array).clone();
+            case KIND_LONG:
+                return ((long[]) array).clone();
+            case KIND_DOUBLE:
+                return ((double[]) array).clone();
+            case KIND_FLOAT:
+                return ((float[]) array).clone();
+            case KIND_CHAR:
+                return ((char[]) array).clone();
+            case KIND_BOOLEAN:
+                return ((boolean[]) array).clone();
+            case KIND_BYTE:
+                return ((byte[]) array).clone();
+            case KIND_SHORT:
+                return ((short[]) array).clone();
+            default:
+                return ((Object[]) array).clone();
+        }
+    }
+
+    /**
+     * @return a new array of the same storage with the given length, the elements of old array
+     * are copied to it
+     */
+    @NonNull
+    public static Object copyOfRange(Object array, int from, int length) {
+        Object result;
+        if (array instanceof Object[]) {
+            result = newObjectArray(array.getClass().getComponentType(), length);
+        } else {
+            result = newArray(kindOfArray(array), length);
+        }
+        System.arraycopy(array, from, result, 0, Math.min(length, length(array) - from));
+        return result;
+    }
+
+    /**
+     * Copy the first elements of an array to another array, the storage of the two arrays may be
+     * different
+     */
+    public static void copy(Object src, Object dest, int length) {
+        if (src.getClass() == dest.getClass()) {
+            System.arraycopy(src, 0, dest, 0, length);
+        } else {
+            int srcKind = kindOfArray(src);
+            int destKind = kindOfArray(dest);
+            for (int i = 0; i < length; i++) {
+                set(dest, destKind, i, get(src, srcKind, i));
+            }
+        }
+    }
+
+    /**
+     * @return the elements of the array as objects, used by the code which is not interested in
+     * the storage (output, debugger...)
+     */
+    @NonNull
+    public static Object[] toObjectArray(Object array) {
+        if (array instanceof Object[]) {
+            return (Object[]) array;
+        }
+        int kind = kindOfArray(array);
+        Object[] result = new Object[length(array)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = get(array, kind, i);
+        }
+        return result;
+    }
+}
@@ -10,4 +10,11 @@ public interface AssignableValue extends RuntimeValue {
     Reference getReference(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException;
 
+    /**
+     * Evaluate the location of this value, then the given value and store it, a {@link Reference}
+     * is not created when the location can be written directly
+     */
+    void assign(VariableContext f, RuntimeExecutableCodeUnit<?> main, RuntimeValue value)
+            throws RuntimePascalException;
+
 }
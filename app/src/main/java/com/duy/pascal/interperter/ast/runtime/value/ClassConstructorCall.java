@@ -30,6 +30,7 @@ import com.duy.pascal.interperter.declaration.classunit.ClassConstructor;
 import com.duy.pascal.interperter.declaration.lang.types.ArgumentType;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+import com.duy.pascal.interperter.exceptions.runtime.StackOverflowException;
 import com.duy.pascal.interperter.exceptions.runtime.internal.MethodReflectionException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.utils.ArrayUtil;
@@ -64,36 +65,41 @@ public class ClassConstructorCall extends FunctionCall {
             main.getDebugListener().onLine((Node) this, line);
         }
         main.incStack(line);
-        //Do not enable debug in any case, because you will need to get value of list parameter,
-        //In the case of empty parameters, pause once
-        main.scriptControlCheck(line, false);
-
-        //array store value of parameters
-        Object[] values = new Object[arguments.length];
-        //list type of parameters
-        ArgumentType[] argumentTypes = constructor.argumentTypes();
+        Object result;
+        try {
+            //Do not enable debug in any case, because you will need to get value of list parameter,
+            //In the case of empty parameters, pause once
+            main.safepoint(line);
 
-        for (int i = 0; i < values.length; i++) {
-            values[i] = arguments[i].getValue(f, main);
-        }
+            //array store value of parameters
+            Object[] values = new Object[arguments.length];
+            //list type of parameters
+            ArgumentType[] argumentTypes = constructor.argumentTypes();
 
-        if (main.isDebug()) {
-            if (arguments.length > 0) {
-                DebugManager.showMessage(arguments[0].getLineNumber(),
-                        ArrayUtil.paramsToString(arguments, values), main);
+            for (int i = 0; i < values.length; i++) {
+                values[i] = arguments[i].getValue(f, main);
             }
-            main.scriptControlCheck(line);
 
-        }
-        Object result;
-        try {
-            result = constructor.call(main, values, idName);
+            if (main.isDebug()) {
+                if (arguments.length > 0) {
+                    DebugManager.showMessage(arguments[0].getLineNumber(),
+                            ArrayUtil.paramsToString(arguments, values), main);
+                }
+                main.scriptControlCheck(line);
 
-            DebugManager.onFunctionCalled(constructor, arguments, result, main);//debug
-        } catch (IllegalArgumentException e) {
-            throw new MethodReflectionException(line, e);
+            }
+            try {
+                result = constructor.call(main, values, idName);
+
+                DebugManager.onFunctionCalled(constructor, arguments, result, main);//debug
+            } catch (IllegalArgumentException e) {
+                throw new MethodReflectionException(line, e);
+            }
+        } catch (StackOverflowError e) {
+            throw new StackOverflowException(line);
+        } finally {
+            main.decStack();
         }
-        main.decStack();
         if (result == null) {
             result = NullValue.get();
         }
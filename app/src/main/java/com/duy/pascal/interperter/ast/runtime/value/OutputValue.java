@@ -54,28 +54,39 @@ public class OutputValue implements RuntimeValue {
         return outputFormat;
     }
 
+    public RuntimeValue getTarget() {
+        return target;
+    }
+
+    /**
+     * @return minimum width of the output or {@link OutputFormatter#NO_FORMAT}
+     */
+    public int getColumn(VariableContext context, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        if (outputFormat == null || outputFormat[0] == null) {
+            return OutputFormatter.NO_FORMAT;
+        }
+        return (int) outputFormat[0].getValue(context, main);
+    }
+
+    /**
+     * @return number of digits after the decimal point or {@link OutputFormatter#NO_FORMAT}
+     */
+    public int getDecimal(VariableContext context, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        if (outputFormat == null || outputFormat[1] == null) {
+            return OutputFormatter.NO_FORMAT;
+        }
+        return (int) outputFormat[1].getValue(context, main);
+    }
 
     @Nullable
     @Override
     public StringBuilder getValue(VariableContext context, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
         Object value = target.getValue(context, main);
-        if (outputFormat != null) {
-            StringBuilder out = new StringBuilder(OutputFormatter.getValueOutput(value));
-            boolean formatDouble = outputFormat[1] != null;
-            if (formatDouble) {
-                int sizeOfReal = (int) outputFormat[1].getValue(context, main);
-                out = OutputFormatter.formatDecimal(sizeOfReal, out);
-            }
-            if (outputFormat[0] != null) {
-                int column = (int) outputFormat[0].getValue(context, main);
-                while (out.length() < column) {
-                    out.insert(0, " ");
-                }
-            }
-            return out;
-        } else {
-            return new StringBuilder(OutputFormatter.getValueOutput(value));
-        }
+        int decimal = getDecimal(context, main);
+        int column = getColumn(context, main);
+        StringBuilder out = new StringBuilder();
+        OutputFormatter.appendValue(out, value, column, decimal);
+        return out;
     }
 
     @Nullable
@@ -100,24 +111,23 @@ public class OutputValue implements RuntimeValue {
     public Object compileTimeValue(CompileTimeContext context) throws Exception {
         Object value = target.compileTimeValue(context);
         if (NullSafety.isNullValue(value)) return zReturn(value);
-        StringBuilder out = new StringBuilder(OutputFormatter.getValueOutput(value));
+        int column = OutputFormatter.NO_FORMAT;
+        int decimal = OutputFormatter.NO_FORMAT;
         if (outputFormat != null) {
             if (outputFormat[1] != null) {
                 Object o = outputFormat[1].compileTimeValue(context);
                 if (NullSafety.isNullValue(o)) return NullValue.get();
-                int sizeOfReal = (int) o;
-                out = OutputFormatter.formatDecimal(sizeOfReal, out);
+                decimal = (int) o;
             }
 
             if (outputFormat[0] != null) {
                 Object o = outputFormat[0].compileTimeValue(context);
                 if (NullSafety.isNullValue(o)) return NullValue.get();
-                int column = (int) o;
-                while (out.length() < column) {
-                    out.insert(0, " ");
-                }
+                column = (int) o;
             }
         }
+        StringBuilder out = new StringBuilder();
+        OutputFormatter.appendValue(out, value, column, decimal);
         return out;
     }
 
@@ -0,0 +1,28 @@
+package com.duy.pascal.interperter.ast.runtime.value;
+
+import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+
+/**
+ * Typed evaluation of a {@link RuntimeValue}, used by numeric nodes to pass primitive values
+ * without boxing them.
+ * <p>
+ * Each method may only be called when the runtime type of the value is compatible with the
+ * requested primitive, the default implementation unboxes the result of
+ * {@link RuntimeValue#getValue(VariableContext, RuntimeExecutableCodeUnit)}
+ */
+public interface PrimitiveValue extends RuntimeValue {
+
+    int getInt(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException;
+
+    long getLong(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException;
+
+    double getDouble(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException;
+
+    boolean getBoolean(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException;
+}
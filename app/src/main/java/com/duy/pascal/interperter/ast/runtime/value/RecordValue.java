@@ -21,58 +21,119 @@ import android.support.annotation.NonNull;
 import com.duy.pascal.interperter.ast.variablecontext.ContainsVariables;
 import com.duy.pascal.interperter.declaration.Name;
 import com.duy.pascal.interperter.declaration.lang.value.VariableDeclaration;
-import com.duy.pascal.interperter.declaration.lang.types.Type;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
 
 /**
+ * Value of a record. The fields are stored in an array, the index of each field is given by
+ * the {@link Layout} of the record type, which is shared by all values of the type.
+ * <p>
  * Created by Duy on 17-Apr-17.
  */
 public class RecordValue implements ContainsVariables {
-    protected HashMap<Name, Object> variableMap = new HashMap<>();
-    protected ArrayList<VariableDeclaration> variables = new ArrayList<>();
+    private static final Layout EMPTY_LAYOUT = new Layout(new ArrayList<VariableDeclaration>());
+
+    private final Layout layout;
+    private final Object[] values;
 
     public RecordValue(ArrayList<VariableDeclaration> variables) throws RuntimePascalException {
-        this.variables = variables;
-        for (VariableDeclaration declaration : variables) {
-            Type returnType = declaration.getType();
+        this(new Layout(variables));
+    }
+
+    public RecordValue(Layout layout) throws RuntimePascalException {
+        this.layout = layout;
+        this.values = new Object[layout.names.length];
+        ArrayList<VariableDeclaration> variables = layout.variables;
+        for (int i = 0; i < values.length; i++) {
+            VariableDeclaration declaration = variables.get(i);
             if (declaration.getInitialValue() != null) {
-                variableMap.put(declaration.name, declaration.getInitialValue());
+                values[i] = copyField(declaration.getInitialValue());
             } else {
-                variableMap.put(declaration.name, returnType.initialize());
+                values[i] = declaration.getType().initialize();
             }
         }
     }
 
     public RecordValue() {
+        this.layout = EMPTY_LAYOUT;
+        this.values = new Object[0];
+    }
 
+    private RecordValue(Layout layout, Object[] values) {
+        this.layout = layout;
+        this.values = values;
+    }
+
+    /**
+     * Copy a value of field, records, strings and arrays are values so they are not shared
+     * between two records
+     */
+    private static Object copyField(Object value) {
+        if (value instanceof RecordValue) {
+            return ((RecordValue) value).clone();
+        } else if (value instanceof StringBuilder) {
+            return new StringBuilder((StringBuilder) value);
+        } else if (value instanceof Object[]) {
+            Object[] array = ((Object[]) value).clone();
+            for (int i = 0; i < array.length; i++) {
+                array[i] = copyField(array[i]);
+            }
+            return array;
+        } else if (ArrayStorage.isArray(value)) {
+            return ArrayStorage.copyOf(value);
+        }
+        return value;
     }
 
     public ArrayList<VariableDeclaration> getVariables() {
-        return variables;
+        return layout.variables;
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return index of field, or -1 if the record does not have this field
+     */
+    public int indexOf(Name name) {
+        return layout.indexOf(name);
+    }
+
+    /**
+     * @param index - index of field, it must be resolved for the layout of this value
+     */
+    public Object getField(int index) {
+        return values[index];
+    }
+
+    public void setField(int index, Object value) {
+        values[index] = value;
     }
 
-    public HashMap<Name, Object> getVariableMap() {
-        return variableMap;
+    /**
+     * @return true if the field at the index has the given name
+     */
+    public boolean hasField(int index, Name name) {
+        Name[] names = layout.names;
+        return index < names.length && names[index].equals(name);
     }
 
     @NonNull
     @Override
     public Object getVar(Name name) {
-        return variableMap.get(name);
+        int index = layout.indexOf(name);
+        return index < 0 ? null : values[index];
     }
 
     @Override
     public String toString() {
-        Set<Map.Entry<Name, Object>> entries = variableMap.entrySet();
         StringBuilder res = new StringBuilder();
         res.append("(");
-        for (Map.Entry<Name, Object> entry : entries) {
-            res.append(entry.getKey()).append(":").append(entry.getValue()).append(";");
+        for (int i = 0; i < values.length; i++) {
+            res.append(layout.names[i]).append(":").append(values[i]).append(";");
         }
         res.append(")");
         return res.toString();
@@ -80,17 +141,47 @@ public class RecordValue implements ContainsVariables {
 
     @Override
     public void setVar(Name name, Object val) {
-        variableMap.put(name, val);
+        int index = layout.indexOf(name);
+        if (index >= 0) {
+            values[index] = val;
+        }
     }
 
     @NonNull
     @Override
-    public ContainsVariables clone() {
-        ArrayList<VariableDeclaration> vars = new ArrayList<>();
-        for (VariableDeclaration mVariable : variables) {
-            vars.add(new VariableDeclaration(mVariable.getName(), mVariable.getType(),
-                    variableMap.get(mVariable.getName()), mVariable.getLineNumber()));
+    public RecordValue clone() {
+        Object[] copy = new Object[values.length];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = copyField(values[i]);
+        }
+        return new RecordValue(layout, copy);
+    }
+
+    /**
+     * Index of the fields of a record type, computed once for the type
+     */
+    public static class Layout {
+        private final ArrayList<VariableDeclaration> variables;
+        private final Name[] names;
+        private final HashMap<Name, Integer> indexes;
+
+        public Layout(ArrayList<VariableDeclaration> variables) {
+            this.variables = variables;
+            this.names = new Name[variables.size()];
+            this.indexes = new HashMap<>();
+            for (int i = 0; i < names.length; i++) {
+                names[i] = variables.get(i).getName();
+                indexes.put(names[i], i);
+            }
+        }
+
+        public int indexOf(Name name) {
+            Integer index = indexes.get(name);
+            return index == null ? -1 : index;
+        }
+
+        public int size() {
+            return names.length;
         }
-        return new RecordValue(vars);
     }
 }
@@ -0,0 +1,516 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.ast.runtime.value;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.declaration.lang.types.set.EnumGroupType;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+
+/**
+ * Runtime value of a pascal set.
+ * <p>
+ * Ordinal elements (integers, chars and enum elements) are stored as bits of a bitset, so
+ * "in" is a single bit test and the set operators work on whole words. Elements which have no
+ * small ordinal (strings, reals, negative numbers...) are kept in a {@link LinkedHashSet}.
+ * Ordinal elements are iterated in ascending order, before the other elements.
+ */
+public class SetValue extends AbstractSet<Object> implements Cloneable {
+    /**
+     * ordinals in [0, MAX_ORDINAL) are stored as bits
+     */
+    private static final int MAX_ORDINAL = 1 << 16;
+    private static final long[] EMPTY_WORDS = new long[0];
+
+    private static final int KIND_NONE = 0;
+    private static final int KIND_NUMBER = 1;
+    private static final int KIND_CHAR = 2;
+    private static final int KIND_ENUM = 3;
+
+    /**
+     * kind of the elements which are stored as bits
+     */
+    private int kind = KIND_NONE;
+    /**
+     * class of the first number stored as bit, used to box an ordinal
+     */
+    @Nullable
+    private Class<?> numberClass;
+    @Nullable
+    private EnumGroupType enumType;
+    @Nullable
+    private Object[] enumElements;
+
+    private long[] words = EMPTY_WORDS;
+    private int bitCount = 0;
+
+    @Nullable
+    private LinkedHashSet<Object> others;
+
+    public SetValue() {
+    }
+
+    public SetValue(Collection<?> elements) {
+        addAll(elements);
+    }
+
+    private static int kindOf(Object element) {
+        if (element instanceof Integer || element instanceof Long
+                || element instanceof Short || element instanceof Byte) {
+            return KIND_NUMBER;
+        } else if (element instanceof Character) {
+            return KIND_CHAR;
+        } else if (element instanceof EnumElementValue) {
+            return KIND_ENUM;
+        }
+        return KIND_NONE;
+    }
+
+    private static long ordinalOf(Object element, int kind) {
+        switch (kind) {
+            case KIND_NUMBER:
+                return ((Number) element).longValue();
+            case KIND_CHAR:
+                return (Character) element;
+            default:
+                return ((EnumElementValue) element).getIndex();
+        }
+    }
+
+    private static boolean isIntegral(Object value) {
+        return kindOf(value) == KIND_NUMBER;
+    }
+
+    /**
+     * Numbers are compared by value, so an element of "set of byte" is found by an integer
+     */
+    private static boolean sameElement(Object element, Object value) {
+        if (element instanceof Number && value instanceof Number) {
+            if (isIntegral(element) && isIntegral(value)) {
+                return ((Number) element).longValue() == ((Number) value).longValue();
+            }
+            return ((Number) element).doubleValue() == ((Number) value).doubleValue();
+        }
+        return element.equals(value);
+    }
+
+    /**
+     * @return true if the bits of the two sets mean the same elements, so they can be combined
+     * word by word
+     */
+    private static boolean sameLayout(SetValue a, SetValue b) {
+        if (!a.othersEmpty() || !b.othersEmpty()) {
+            return false;
+        }
+        return a.bitCount == 0 || b.bitCount == 0
+                || (a.kind == b.kind && a.enumType == b.enumType);
+    }
+
+    public static SetValue union(SetValue a, SetValue b) {
+        if (sameLayout(a, b)) {
+            SetValue result = emptyLike(a.bitCount != 0 ? a : b);
+            long[] longer = a.words.length >= b.words.length ? a.words : b.words;
+            long[] shorter = longer == a.words ? b.words : a.words;
+            long[] words = longer.clone();
+            for (int i = 0; i < shorter.length; i++) {
+                words[i] |= shorter[i];
+            }
+            result.setWords(words);
+            return result;
+        }
+        SetValue result = a.clone();
+        result.addAll(b);
+        return result;
+    }
+
+    public static SetValue intersection(SetValue a, SetValue b) {
+        if (sameLayout(a, b)) {
+            SetValue result = emptyLike(a);
+            long[] words = new long[Math.min(a.words.length, b.words.length)];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = a.words[i] & b.words[i];
+            }
+            result.setWords(words);
+            return result;
+        }
+        SetValue result = new SetValue();
+        for (Object element : a) {
+            if (b.contains(element)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    public static SetValue difference(SetValue a, SetValue b) {
+        if (sameLayout(a, b)) {
+            SetValue result = emptyLike(a);
+            long[] words = a.words.clone();
+            int length = Math.min(words.length, b.words.length);
+            for (int i = 0; i < length; i++) {
+                words[i] &= ~b.words[i];
+            }
+            result.setWords(words);
+            return result;
+        }
+        SetValue result = new SetValue();
+        for (Object element : a) {
+            if (!b.contains(element)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    public static SetValue symmetricDifference(SetValue a, SetValue b) {
+        if (sameLayout(a, b)) {
+            SetValue result = emptyLike(a.bitCount != 0 ? a : b);
+            long[] longer = a.words.length >= b.words.length ? a.words : b.words;
+            long[] shorter = longer == a.words ? b.words : a.words;
+            long[] words = longer.clone();
+            for (int i = 0; i < shorter.length; i++) {
+                words[i] ^= shorter[i];
+            }
+            result.setWords(words);
+            return result;
+        }
+        SetValue result = difference(a, b);
+        for (Object element : b) {
+            if (!a.contains(element)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if every element of a is an element of b
+     */
+    public static boolean isSubset(SetValue a, SetValue b) {
+        if (a.size() > b.size()) {
+            return false;
+        }
+        if (sameLayout(a, b)) {
+            for (int i = 0; i < a.words.length; i++) {
+                long other = i < b.words.length ? b.words[i] : 0;
+                if ((a.words[i] & ~other) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (Object element : a) {
+            if (!b.contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return an empty set which boxes ordinals the same way as the given set
+     */
+    private static SetValue emptyLike(SetValue set) {
+        SetValue result = new SetValue();
+        result.kind = set.kind;
+        result.numberClass = set.numberClass;
+        result.enumType = set.enumType;
+        result.enumElements = set.enumElements;
+        return result;
+    }
+
+    private void setWords(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        this.words = words;
+        this.bitCount = count;
+    }
+
+    private boolean othersEmpty() {
+        return others == null || others.isEmpty();
+    }
+
+    /**
+     * @return the ordinal of the element if it can be stored as bit in this set, otherwise -1
+     */
+    private int bitIndexOf(Object element) {
+        int kind = kindOf(element);
+        if (kind == KIND_NONE) {
+            return -1;
+        }
+        if (bitCount != 0) {
+            if (kind != this.kind) {
+                return -1;
+            }
+            if (kind == KIND_ENUM && ((EnumElementValue) element).getEnumGroupType() != enumType) {
+                return -1;
+            }
+        }
+        long ordinal = ordinalOf(element, kind);
+        if (ordinal < 0 || ordinal >= MAX_ORDINAL) {
+            return -1;
+        }
+        return (int) ordinal;
+    }
+
+    private boolean testBit(int index) {
+        int word = index >>> 6;
+        return word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    private boolean othersContains(Object value) {
+        if (others == null) {
+            return false;
+        }
+        if (others.contains(value)) {
+            return true;
+        }
+        if (value instanceof Number) {
+            for (Object element : others) {
+                if (sameElement(element, value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        if (value == null) {
+            return false;
+        }
+        int index = bitIndexOf(value);
+        if (index >= 0 && bitCount != 0 && testBit(index)) {
+            return true;
+        }
+        return othersContains(value);
+    }
+
+    @Override
+    public boolean add(Object element) {
+        if (contains(element)) {
+            return false;
+        }
+        int index = bitIndexOf(element);
+        if (index < 0) {
+            if (others == null) {
+                others = new LinkedHashSet<>();
+            }
+            return others.add(element);
+        }
+        if (bitCount == 0) {
+            //the first ordinal element decides how the bits are boxed
+            kind = kindOf(element);
+            if (kind == KIND_NUMBER) {
+                numberClass = element.getClass();
+            } else if (kind == KIND_ENUM) {
+                EnumGroupType type = ((EnumElementValue) element).getEnumGroupType();
+                if (type != enumType) {
+                    enumType = type;
+                    enumElements = null;
+                }
+            }
+        }
+        int word = index >>> 6;
+        if (word >= words.length) {
+            long[] grown = new long[Math.max(word + 1, words.length * 2)];
+            System.arraycopy(words, 0, grown, 0, words.length);
+            words = grown;
+        }
+        words[word] |= 1L << index;
+        bitCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        if (value == null) {
+            return false;
+        }
+        int index = bitIndexOf(value);
+        if (index >= 0 && bitCount != 0 && testBit(index)) {
+            words[index >>> 6] &= ~(1L << index);
+            bitCount--;
+            return true;
+        }
+        if (others != null) {
+            for (Iterator<Object> iterator = others.iterator(); iterator.hasNext(); ) {
+                if (sameElement(iterator.next(), value)) {
+                    iterator.remove();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        words = EMPTY_WORDS;
+        bitCount = 0;
+        others = null;
+    }
+
+    @Override
+    public int size() {
+        return bitCount + (others == null ? 0 : others.size());
+    }
+
+    /**
+     * @param index - position of element in iteration order
+     */
+    public Object get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Iterator<Object> iterator = iterator();
+        for (int i = 0; i < index; i++) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
+
+    /**
+     * Replace the element at the given position of iteration order
+     *
+     * @return the old element
+     */
+    public Object set(int index, Object element) {
+        Object old = get(index);
+        remove(old);
+        add(element);
+        return old;
+    }
+
+    private Object box(int ordinal) {
+        switch (kind) {
+            case KIND_CHAR:
+                return (char) ordinal;
+            case KIND_ENUM:
+                if (enumElements == null) {
+                    enumElements = enumType.getList().toArray();
+                }
+                return enumElements[ordinal];
+            default:
+                if (numberClass == Long.class) {
+                    return (long) ordinal;
+                } else if (numberClass == Short.class) {
+                    return (short) ordinal;
+                } else if (numberClass == Byte.class) {
+                    return (byte) ordinal;
+                }
+                return ordinal;
+        }
+    }
+
+    @NonNull
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private int wordIndex = -1;
+            private long word = 0;
+            private int remainBits = bitCount;
+            @Nullable
+            private Iterator<Object> othersIterator;
+            @Nullable
+            private Object last;
+            private boolean lastIsBit;
+
+            @Override
+            public boolean hasNext() {
+                if (remainBits > 0) {
+                    return true;
+                }
+                if (othersIterator == null) {
+                    othersIterator = others == null ? null : others.iterator();
+                }
+                return othersIterator != null && othersIterator.hasNext();
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (remainBits > 0) {
+                    while (word == 0) {
+                        word = words[++wordIndex];
+                    }
+                    int bit = Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    remainBits--;
+                    lastIsBit = true;
+                    last = box((wordIndex << 6) + bit);
+                    return last;
+                }
+                lastIsBit = false;
+                last = othersIterator.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                if (lastIsBit) {
+                    SetValue.this.remove(last);
+                } else {
+                    othersIterator.remove();
+                }
+                last = null;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SetValue)) {
+            return super.equals(o);
+        }
+        SetValue other = (SetValue) o;
+        return size() == other.size() && isSubset(this, other);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    @Override
+    public SetValue clone() {
+        SetValue clone = emptyLike(this);
+        clone.words = words.clone();
+        clone.bitCount = bitCount;
+        if (others != null) {
+            clone.others = new LinkedHashSet<>(others);
+        }
+        return clone;
+    }
+}
@@ -24,8 +24,11 @@ import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.runtime.references.ArrayIndexReference;
 import com.duy.pascal.interperter.ast.runtime.references.Reference;
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.ast.runtime.value.EnumElementValue;
+import com.duy.pascal.interperter.ast.runtime.value.PrimitiveValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.PrimitiveUnboxer;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.debugable.DebuggableAssignableNode;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
@@ -34,17 +37,57 @@ import com.duy.pascal.interperter.exceptions.runtime.IndexOutOfBoundsException;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 
-import java.lang.reflect.Array;
 
 public class ArrayIndexAccess extends DebuggableAssignableNode {
     private final RuntimeValue container;
     private final RuntimeValue index;
+    /**
+     * typed evaluation of an integer index, null if the index is an enum value
+     */
+    @Nullable
+    private final PrimitiveValue intIndex;
     private final int offset;
-
-    public ArrayIndexAccess(RuntimeValue container, RuntimeValue index, int offset) {
+    /**
+     * storage of array, see {@link ArrayStorage}
+     */
+    private final int kind;
+
+    /**
+     * @param integerIndex - true if the index is converted to integer, false if it is an enum value
+     */
+    public ArrayIndexAccess(RuntimeValue container, RuntimeValue index, int offset, int kind,
+                            boolean integerIndex) {
         this.container = container;
         this.index = index;
+        this.intIndex = integerIndex ? PrimitiveUnboxer.of(index) : null;
         this.offset = offset;
+        this.kind = kind;
+    }
+
+    static int toIndex(Object index) {
+        if (index instanceof Integer) {
+            return (Integer) index;
+        } else if (index instanceof EnumElementValue) {
+            return ((EnumElementValue) index).getIndex();
+        } else if (index instanceof Character) {
+            return (Character) index;
+        } else if (index instanceof Boolean) {
+            return (Boolean) index ? 1 : 0;
+        }
+        return ((Number) index).intValue();
+    }
+
+    private int indexOf(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (intIndex != null) {
+            return intIndex.getInt(f, main);
+        }
+        return toIndex(index.getValue(f, main));
+    }
+
+    private IndexOutOfBoundsException outOfBounds(Object cont, int ind) {
+        return new IndexOutOfBoundsException(this.getLineNumber(),
+                ind, offset, offset + ArrayStorage.length(cont) - 1);
     }
 
     @Override
@@ -78,7 +121,7 @@ public class ArrayIndexAccess extends DebuggableAssignableNode {
         if (ind == null || cont == null) {
             return null;
         } else {
-            return Array.get(cont, ((int) ind) - offset);
+            return ArrayStorage.get(cont, kind, toIndex(ind) - offset);
         }
     }
 
@@ -92,39 +135,87 @@ public class ArrayIndexAccess extends DebuggableAssignableNode {
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         Object cont = container.getValue(f, main);
-        Object i = index.getValue(f, main);
-        int ind;
-        if (i instanceof EnumElementValue) {
-            ind = ((EnumElementValue) i).getIndex();
-        } else {
-            ind = Integer.parseInt(i.toString());
+        int ind = indexOf(f, main);
+        try {
+            return ArrayStorage.get(cont, kind, ind - offset);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, ind);
+        }
+    }
+
+    @Override
+    public int getInt(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        int ind = indexOf(f, main);
+        try {
+            return ArrayStorage.getInt(cont, kind, ind - offset);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, ind);
+        }
+    }
+
+    @Override
+    public long getLong(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        int ind = indexOf(f, main);
+        try {
+            return ArrayStorage.getLong(cont, kind, ind - offset);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, ind);
         }
+    }
+
+    @Override
+    public double getDouble(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        int ind = indexOf(f, main);
         try {
-            return Array.get(cont, ind - offset);
+            return ArrayStorage.getDouble(cont, kind, ind - offset);
         } catch (ArrayIndexOutOfBoundsException e) {
-            throw new IndexOutOfBoundsException(this.getLineNumber(),
-                    ind, offset, offset + ((Object[]) cont).length - 1);
+            throw outOfBounds(cont, ind);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        int ind = indexOf(f, main);
+        try {
+            return ArrayStorage.getBoolean(cont, kind, ind - offset);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, ind);
         }
     }
 
     @Override
     public Reference<?> getReferenceImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
         Object cont = container.getValue(f, main);
-        Object value = index.getValue(f, main);
-        int ind = 0;
-        if (value instanceof Integer) {
-            ind = (int) value;
-        } else if (value instanceof EnumElementValue) {
-            ind = ((EnumElementValue) value).getIndex();
+        int ind = indexOf(f, main);
+        return new ArrayIndexReference(cont, ind, offset, kind);
+    }
+
+    @Override
+    public void assign(VariableContext f, RuntimeExecutableCodeUnit<?> main, RuntimeValue value)
+            throws RuntimePascalException {
+        Object cont = container.getValue(f, main);
+        int ind = indexOf(f, main);
+        Object v = value.getValue(f, main);
+        try {
+            ArrayStorage.set(cont, kind, ind - offset, v);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw outOfBounds(cont, ind);
         }
-        return new ArrayIndexReference(cont, ind, offset);
     }
 
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
             throws Exception {
         return new ArrayIndexAccess(container.compileTimeExpressionFold(context),
-                index.compileTimeExpressionFold(context), offset);
+                index.compileTimeExpressionFold(context), offset, kind, intIndex != null);
     }
 
 }
@@ -25,6 +25,7 @@ import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.node.FieldReference;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.ast.runtime.references.Reference;
+import com.duy.pascal.interperter.ast.runtime.value.RecordValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.variablecontext.ContainsVariables;
 import com.duy.pascal.interperter.debugable.DebuggableAssignableNode;
@@ -45,16 +46,31 @@ public class FieldAccess extends DebuggableAssignableNode {
     private Name name;
     private LineNumber line;
 
+    /**
+     * index of field in a {@link RecordValue}, resolved when the type of container is a record,
+     * otherwise -1
+     */
+    private int index = -1;
+
     public FieldAccess(RuntimeValue container, Name name, LineNumber line) {
         this.container = container;
         this.name = name;
         this.line = line;
     }
 
+    public FieldAccess(RuntimeValue container, Name name, LineNumber line, int index) {
+        this(container, name, line);
+        this.index = index;
+    }
+
     public FieldAccess(RuntimeValue container, WordToken name) {
         this(container, name.name, name.getLineNumber());
     }
 
+    public FieldAccess(RuntimeValue container, WordToken name, int index) {
+        this(container, name.name, name.getLineNumber(), index);
+    }
+
     @Override
     public String toString() {
         return container.toString() + "." + name;
@@ -112,6 +128,12 @@ public class FieldAccess extends DebuggableAssignableNode {
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         Object value = container.getValue(f, main);
+        if (index >= 0 && value instanceof RecordValue) {
+            RecordValue record = (RecordValue) value;
+            if (record.hasField(index, name)) {
+                return record.getField(index);
+            }
+        }
         return ((ContainsVariables) value).getVar(name);
     }
 
@@ -121,6 +143,21 @@ public class FieldAccess extends DebuggableAssignableNode {
         return new FieldReference((ContainsVariables) v, name);
     }
 
+    @Override
+    public void assign(VariableContext f, RuntimeExecutableCodeUnit<?> main, RuntimeValue value)
+            throws RuntimePascalException {
+        ContainsVariables v = (ContainsVariables) container.getValue(f, main);
+        Object val = value.getValue(f, main);
+        if (index >= 0 && v instanceof RecordValue) {
+            RecordValue record = (RecordValue) v;
+            if (record.hasField(index, name)) {
+                record.setField(index, val);
+                return;
+            }
+        }
+        v.setVar(name, val);
+    }
+
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
             throws Exception {
@@ -128,7 +165,7 @@ public class FieldAccess extends DebuggableAssignableNode {
         if (val != null) {
             return new ConstantAccess<>(val, line);
         } else {
-            return new FieldAccess(container.compileTimeExpressionFold(context), name, line);
+            return new FieldAccess(container.compileTimeExpressionFold(context), name, line, index);
         }
     }
 
@@ -23,9 +23,11 @@ import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.codeunit.RuntimeUnitPascal;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContextMixin;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.debugable.DebuggableReturnValue;
+import com.duy.pascal.interperter.declaration.library.PascalUnitDeclaration;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
@@ -36,12 +38,19 @@ import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 
 public class LibraryIdentifierAccess extends DebuggableReturnValue {
 
-    private final RuntimeUnitPascal container;
+    /**
+     * Context which imports the unit. The runtime state of the unit is created again when the
+     * compiled program is executed again, so it must not be kept in the node
+     */
+    private final ExpressionContextMixin context;
+    private final PascalUnitDeclaration unit;
     private final RuntimeValue value;
     private final LineNumber lineNumber;
 
-    public LibraryIdentifierAccess(RuntimeUnitPascal container, RuntimeValue value, LineNumber lineNumber) {
-        this.container = container;
+    public LibraryIdentifierAccess(ExpressionContextMixin context, PascalUnitDeclaration unit,
+                                   RuntimeValue value, LineNumber lineNumber) {
+        this.context = context;
+        this.unit = unit;
         this.value = value;
         this.lineNumber = lineNumber;
     }
@@ -53,6 +62,7 @@ public class LibraryIdentifierAccess extends DebuggableReturnValue {
 
     @Override
     public Object getValueImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        RuntimeUnitPascal container = this.context.getRuntimeUnitMap().get(unit);
         return value.getValue(container, main);
     }
 
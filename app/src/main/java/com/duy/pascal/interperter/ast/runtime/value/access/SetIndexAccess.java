@@ -26,14 +26,13 @@ import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.ast.runtime.references.Reference;
 import com.duy.pascal.interperter.ast.runtime.references.SetPreference;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.SetValue;
 import com.duy.pascal.interperter.debugable.DebuggableAssignableNode;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 import com.duy.pascal.interperter.declaration.lang.types.set.SetType;
 
-import java.util.LinkedList;
-
 /**
  * Created by Duy on 25-May-17.
  */
@@ -67,7 +66,7 @@ public class SetIndexAccess extends DebuggableAssignableNode {
     @Override
     public Object compileTimeValue(CompileTimeContext context)
             throws Exception {
-        LinkedList cont = (LinkedList) container.compileTimeValue(context);
+        SetValue cont = (SetValue) container.compileTimeValue(context);
         Integer ind = (Integer) index.compileTimeValue(context);
         if (ind == null || cont == null) {
             return null;
@@ -85,7 +84,7 @@ public class SetIndexAccess extends DebuggableAssignableNode {
     @Override
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        LinkedList cont = (LinkedList) container.getValue(f, main);
+        SetValue cont = (SetValue) container.getValue(f, main);
         Integer ind = (Integer) index.getValue(f, main);
         return cont.get(ind); //index out of bound
 
@@ -93,7 +92,7 @@ public class SetIndexAccess extends DebuggableAssignableNode {
 
     @Override
     public Reference<?> getReferenceImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
-        LinkedList cont = (LinkedList) container.getValue(f, main);
+        SetValue cont = (SetValue) container.getValue(f, main);
         int ind = Integer.valueOf(index.getValue(f, main).toString());
         return new SetPreference(cont, ind);
     }
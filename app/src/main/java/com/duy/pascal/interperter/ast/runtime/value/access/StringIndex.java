@@ -25,7 +25,9 @@ import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.runtime.references.Reference;
 import com.duy.pascal.interperter.ast.runtime.references.StringIndexReference;
+import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.cloning.SharedStrings;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.debugable.DebuggableAssignableNode;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
@@ -67,11 +69,34 @@ public class StringIndex extends DebuggableAssignableNode {
 
     @Override
     public Reference<?> getReferenceImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
-        StringBuilder str = (StringBuilder) string.getValue(f, main);
+        StringBuilder str = ownString(f, main);
         int ind = (int) index.getValue(f, main);
         return new StringIndexReference(str, ind);
     }
 
+    @Override
+    public void assign(VariableContext f, RuntimeExecutableCodeUnit<?> main, RuntimeValue value)
+            throws RuntimePascalException {
+        StringBuilder str = ownString(f, main);
+        int ind = (int) index.getValue(f, main);
+        char c = (char) value.getValue(f, main);
+        if (ind >= 1 && ind <= str.length()) {
+            str.setCharAt(ind - 1, c);
+        }
+    }
+
+    /**
+     * @return the string which can be changed, it is copied if it is shared with other variables
+     */
+    private StringBuilder ownString(VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        StringBuilder str = (StringBuilder) string.getValue(f, main);
+        if (string instanceof AssignableValue) {
+            return SharedStrings.own((AssignableValue) string, str, f, main);
+        }
+        return str;
+    }
+
     @Nullable
     @Override
     public RuntimeType getRuntimeType(ExpressionContext context) throws Exception {
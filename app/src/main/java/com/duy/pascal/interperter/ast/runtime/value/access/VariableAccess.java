@@ -19,29 +19,99 @@ package com.duy.pascal.interperter.ast.runtime.value.access;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.interperter.ast.codeunit.CodeUnit;
+import com.duy.pascal.interperter.ast.codeunit.RuntimeCodeUnit;
 import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.node.FieldReference;
+import com.duy.pascal.interperter.ast.runtime.references.FrameSlotReference;
+import com.duy.pascal.interperter.ast.runtime.references.GlobalSlotReference;
 import com.duy.pascal.interperter.ast.runtime.references.Reference;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.variablecontext.FunctionOnStack;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.debugable.DebuggableAssignableNode;
 import com.duy.pascal.interperter.declaration.Name;
+import com.duy.pascal.interperter.declaration.lang.function.FunctionDeclaration;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
+import com.duy.pascal.interperter.declaration.lang.value.VariableDeclaration;
+import com.duy.pascal.interperter.declaration.library.PascalUnitDeclaration;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 
+import java.util.ArrayList;
+
 public class VariableAccess extends DebuggableAssignableNode {
     private Name name;
     private LineNumber line;
     @NonNull
     private ExpressionContext declaration;
 
+    /**
+     * Function declared this variable, null if it is not a local variable or parameter
+     */
+    @Nullable
+    private FunctionDeclaration function;
+    /**
+     * Slot of the variable in the frame of the function, or in the variables of the program
+     * or unit
+     */
+    private int slot = -1;
+    /**
+     * Program or unit which declares this variable, null if it is not a global variable
+     */
+    @Nullable
+    private CodeUnit global;
+
     public VariableAccess(Name name, LineNumber line, @NonNull ExpressionContext f) {
         this.name = name;
         this.line = line;
         this.declaration = f;
+        resolveSlot();
+    }
+
+    /**
+     * Resolve location of variable at parse time, so it does not need lookup by name at runtime.
+     * The access is made by the context which declares the variable, so a variable of an outer
+     * function is resolved to the slot of that function, its frame is found through the static
+     * links at runtime
+     */
+    private void resolveSlot() {
+        if (declaration instanceof FunctionDeclaration.FunctionExpressionContext) {
+            FunctionDeclaration function = ((FunctionDeclaration.FunctionExpressionContext) declaration).function;
+            int slot = function.getVariableSlot(name);
+            if (slot >= 0) {
+                this.function = function;
+                this.slot = slot;
+            }
+        } else {
+            CodeUnit root = declaration.root();
+            if (root != null && declaration == root.getContext()) {
+                ArrayList<VariableDeclaration> variables = root.getContext().variables;
+                for (int i = 0; i < variables.size(); i++) {
+                    if (variables.get(i).getName().equals(name)) {
+                        this.global = root;
+                        this.slot = i;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the variables of the program or unit which declares this variable, null if
+     * it is not executed by this program
+     */
+    @Nullable
+    private RuntimeCodeUnit<?> globalContext(RuntimeExecutableCodeUnit<?> main) {
+        if (main.getDeclaration() == global) {
+            return main;
+        } else if (global instanceof PascalUnitDeclaration) {
+            return main.getLibraryContext((PascalUnitDeclaration) global);
+        }
+        return null;
     }
 
     @NonNull
@@ -74,15 +144,56 @@ public class VariableAccess extends DebuggableAssignableNode {
     @Override
     public Object getValueImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
+        if (function != null) {
+            FunctionOnStack frame = FunctionOnStack.findFrame(f, function);
+            if (frame != null) {
+                return frame.getSlot(slot);
+            }
+        } else if (global != null) {
+            RuntimeCodeUnit<?> context = globalContext(main);
+            if (context != null) {
+                return context.getGlobal(slot);
+            }
+        }
         return f.getVar(name);
     }
 
     @Override
     public Reference<?> getReferenceImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
+        if (function != null) {
+            FunctionOnStack frame = FunctionOnStack.findFrame(f, function);
+            if (frame != null) {
+                return new FrameSlotReference(frame, slot);
+            }
+        } else if (global != null) {
+            RuntimeCodeUnit<?> context = globalContext(main);
+            if (context != null) {
+                return new GlobalSlotReference(context, slot);
+            }
+        }
         return new FieldReference(f, name);
     }
 
+    @Override
+    public void assign(VariableContext f, RuntimeExecutableCodeUnit<?> main, RuntimeValue value)
+            throws RuntimePascalException {
+        if (function != null) {
+            FunctionOnStack frame = FunctionOnStack.findFrame(f, function);
+            if (frame != null) {
+                frame.setSlot(slot, value.getValue(f, main));
+                return;
+            }
+        } else if (global != null) {
+            RuntimeCodeUnit<?> context = globalContext(main);
+            if (context != null) {
+                context.setGlobal(slot, value.getValue(f, main));
+                return;
+            }
+        }
+        f.setVar(name, value.getValue(f, main));
+    }
+
     @Override
     public String toString() {
         return name.toString();
@@ -0,0 +1,102 @@
+package com.duy.pascal.interperter.ast.runtime.value.boxing;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
+import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
+import com.duy.pascal.interperter.ast.runtime.value.PrimitiveValue;
+import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
+import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+import com.duy.pascal.interperter.linenumber.LineNumber;
+
+/**
+ * Adapt a {@link RuntimeValue} which does not support typed evaluation to {@link PrimitiveValue}
+ */
+public class PrimitiveUnboxer implements PrimitiveValue {
+    private RuntimeValue value;
+
+    private PrimitiveUnboxer(RuntimeValue value) {
+        this.value = value;
+    }
+
+    public static PrimitiveValue of(RuntimeValue value) {
+        if (value instanceof PrimitiveValue) {
+            return (PrimitiveValue) value;
+        }
+        return new PrimitiveUnboxer(value);
+    }
+
+    @Override
+    public int getInt(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) value.getValue(context, main)).intValue();
+    }
+
+    @Override
+    public long getLong(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) value.getValue(context, main)).longValue();
+    }
+
+    @Override
+    public double getDouble(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) value.getValue(context, main)).doubleValue();
+    }
+
+    @Override
+    public boolean getBoolean(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (Boolean) value.getValue(context, main);
+    }
+
+    @Nullable
+    @Override
+    public Object getValue(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return value.getValue(context, main);
+    }
+
+    @Nullable
+    @Override
+    public RuntimeType getRuntimeType(ExpressionContext context) throws Exception {
+        return value.getRuntimeType(context);
+    }
+
+    @Override
+    public LineNumber getLineNumber() {
+        return value.getLineNumber();
+    }
+
+    @Override
+    public void setLineNumber(LineNumber lineNumber) {
+        value.setLineNumber(lineNumber);
+    }
+
+    @Nullable
+    @Override
+    public Object compileTimeValue(CompileTimeContext context) throws Exception {
+        return value.compileTimeValue(context);
+    }
+
+    @Nullable
+    @Override
+    public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws Exception {
+        return value.compileTimeExpressionFold(context);
+    }
+
+    @Nullable
+    @Override
+    public AssignableValue asAssignableValue(ExpressionContext context) {
+        return value.asAssignableValue(context);
+    }
+
+    @Override
+    public String toString() {
+        return value.toString();
+    }
+}
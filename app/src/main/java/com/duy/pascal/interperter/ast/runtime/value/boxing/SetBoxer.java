@@ -24,6 +24,7 @@ import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.runtime.value.NullValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.SetValue;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.debugable.DebuggableReturnValue;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
@@ -78,17 +79,45 @@ public class SetBoxer extends DebuggableReturnValue {
     @Override
     public Object getValueImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        LinkedList<Object> result = new LinkedList<>();
+        SetValue result = new SetValue();
         for (RuntimeValue value : values) {
             result.add(value.getValue(context, main));
         }
         return result;
     }
 
+    /**
+     * A set literal which is passed as an array (for example the arguments of format) keeps
+     * the order and the duplicate elements of the literal
+     */
+    public Object[] getArray(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        Object[] result = new Object[values.size()];
+        int i = 0;
+        for (RuntimeValue value : values) {
+            result[i++] = value.getValue(context, main);
+        }
+        return result;
+    }
+
+    @Nullable
+    public Object[] compileTimeArray(CompileTimeContext context) throws Exception {
+        Object[] result = new Object[values.size()];
+        int i = 0;
+        for (RuntimeValue value : values) {
+            Object o = value.compileTimeValue(context);
+            if (NullSafety.isNullValue(o)) {
+                return null;
+            }
+            result[i++] = o;
+        }
+        return result;
+    }
+
     @Override
     public Object compileTimeValue(CompileTimeContext context)
             throws Exception {
-        LinkedList<Object> result = new LinkedList<>();
+        SetValue result = new SetValue();
         for (RuntimeValue value : values) {
             Object o = value.compileTimeValue(context);
             if (!NullSafety.isNullValue(o)) {
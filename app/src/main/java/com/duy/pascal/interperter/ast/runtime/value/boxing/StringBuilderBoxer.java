@@ -10,6 +10,7 @@ import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.ast.runtime.value.NullValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
+import com.duy.pascal.interperter.ast.runtime.value.cloning.StringBuilderCloner;
 import com.duy.pascal.interperter.debugable.DebuggableReturnValue;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
@@ -23,6 +24,10 @@ public class StringBuilderBoxer extends DebuggableReturnValue {
         this.value = value;
     }
 
+    public RuntimeValue getValue() {
+        return value;
+    }
+
     @Override
     public String toString() {
         return value + "";
@@ -66,6 +71,12 @@ public class StringBuilderBoxer extends DebuggableReturnValue {
         if (other instanceof NullValue) {
             return other;
         }
+        if (other instanceof StringBuilder && StringBuilderCloner.isTemporary(value)) {
+            return other;
+        }
+        if (other instanceof CharSequence) {
+            return new StringBuilder((CharSequence) other);
+        }
         return new StringBuilder(other.toString());
     }
 
@@ -7,6 +7,7 @@ import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.ast.runtime.value.NullValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
@@ -35,8 +36,7 @@ public class ArrayCloner<T> implements RuntimeValue {
     public Object getValue(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         Object arr = r.getValue(context, main);
-        Object[] value = (Object[]) arr;
-        return value.clone();
+        return ArrayStorage.copyOf(arr);
     }
 
     @NonNull
@@ -53,11 +53,11 @@ public class ArrayCloner<T> implements RuntimeValue {
     @Override
     public Object compileTimeValue(CompileTimeContext context)
             throws Exception {
-        Object[] value = (Object[]) r.compileTimeValue(context);
+        Object value = r.compileTimeValue(context);
         if (isNullValue(value)) {
             return NullValue.get();
         }
-        return value.clone();
+        return ArrayStorage.copyOf(value);
     }
 
     @Override
@@ -23,6 +23,13 @@ public class CloneableObjectCloner implements RuntimeValue {
         this.r = r;
     }
 
+    /**
+     * @return the value which is cloned
+     */
+    public RuntimeValue getTarget() {
+        return r;
+    }
+
     @Nullable
     @Override
     public RuntimeType getRuntimeType(ExpressionContext context) throws Exception {
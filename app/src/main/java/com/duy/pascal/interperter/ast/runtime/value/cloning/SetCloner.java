@@ -26,12 +26,11 @@ import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
 import com.duy.pascal.interperter.ast.runtime.value.NullValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.SetValue;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 
-import java.util.LinkedList;
-
 import static com.duy.pascal.interperter.utils.NullSafety.isNullValue;
 
 
@@ -52,8 +51,8 @@ public class SetCloner<T> implements RuntimeValue {
     @Override
     public Object getValue(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        LinkedList linkedList = (LinkedList) list.getValue(context, main);
-        return linkedList.clone();
+        SetValue set = (SetValue) list.getValue(context, main);
+        return set.clone();
     }
 
     @NonNull
@@ -70,11 +69,11 @@ public class SetCloner<T> implements RuntimeValue {
     @Override
     public Object compileTimeValue(CompileTimeContext context)
             throws Exception {
-        LinkedList linkedList = (LinkedList) list.compileTimeValue(context);
-        if (isNullValue(linkedList)) {
+        Object set = list.compileTimeValue(context);
+        if (isNullValue(set)) {
             return NullValue.get();
         }
-        return linkedList.clone();
+        return ((SetValue) set).clone();
     }
 
     @Override
@@ -24,26 +24,33 @@ import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.ast.runtime.value.NullValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.SetValue;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.SetBoxer;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
+import com.duy.pascal.interperter.declaration.lang.types.Type;
 import com.duy.pascal.interperter.declaration.lang.types.set.ArrayType;
 import com.duy.pascal.interperter.declaration.lang.types.set.SetType;
 import com.duy.pascal.interperter.declaration.lang.types.subrange.IntegerSubrangeType;
 
-import java.util.LinkedList;
-
 /**
  * Created by Duy on 11-Jun-17.
  */
 
 public class SetToDynamicArrayCloner implements RuntimeValue {
     private RuntimeValue array;
+    private Type elementType;
 
-    public SetToDynamicArrayCloner(RuntimeValue array) {
+    /**
+     * @param elementType - element type of the array
+     */
+    public SetToDynamicArrayCloner(RuntimeValue array, Type elementType) {
         this.array = array;
+        this.elementType = elementType;
     }
 
     @Nullable
@@ -60,8 +67,11 @@ public class SetToDynamicArrayCloner implements RuntimeValue {
     @Override
     public Object getValue(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        LinkedList arr = (LinkedList) array.getValue(context, main);
-        return arr.toArray().clone();
+        if (array instanceof SetBoxer) {
+            return ArrayStorage.fromObjects(elementType, ((SetBoxer) array).getArray(context, main));
+        }
+        SetValue arr = (SetValue) array.getValue(context, main);
+        return ArrayStorage.fromObjects(elementType, arr.toArray());
 
     }
 
@@ -79,11 +89,15 @@ public class SetToDynamicArrayCloner implements RuntimeValue {
     @Override
     public Object compileTimeValue(CompileTimeContext context)
             throws Exception {
-        LinkedList value = (LinkedList) array.compileTimeValue(context);
+        if (array instanceof SetBoxer) {
+            Object[] value = ((SetBoxer) array).compileTimeArray(context);
+            return value == null ? NullValue.get() : ArrayStorage.fromObjects(elementType, value);
+        }
+        SetValue value = (SetValue) array.compileTimeValue(context);
         if (value == null) {
             return NullValue.get();
         }
-        return value.toArray().clone();
+        return ArrayStorage.fromObjects(elementType, value.toArray());
     }
 
     @Override
@@ -94,7 +108,7 @@ public class SetToDynamicArrayCloner implements RuntimeValue {
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
             throws Exception {
-        return new SetToDynamicArrayCloner(array.compileTimeExpressionFold(context));
+        return new SetToDynamicArrayCloner(array.compileTimeExpressionFold(context), elementType);
     }
 
     @Override
@@ -0,0 +1,104 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.ast.runtime.value.cloning;
+
+import android.support.annotation.NonNull;
+
+import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.interperter.ast.runtime.references.PascalReference;
+import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
+import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Copy on write for pascal strings.
+ * <p>
+ * Assigning a string to a variable does not copy it, the {@link StringBuilder} is shared
+ * and marked here. Code which changes a string in place (s[i] := c, Delete, s := s + ...)
+ * must get the string with {@link #own}, a shared string is copied and the copy is stored
+ * in the variable before it is changed.
+ * <p>
+ * {@link StringBuilder} does not override equals and hashCode, so the weak map compares
+ * the strings by identity and a string is removed when no variable holds it. A string stays
+ * marked while any variable holds it, so each holder copies it once.
+ */
+public class SharedStrings {
+    private static final Map<StringBuilder, Boolean> SHARED = new WeakHashMap<>();
+    /**
+     * false until the first string is shared, the programs which never copy a string
+     * variable do not look up the map
+     */
+    private static volatile boolean sUsed = false;
+
+    public static void share(@NonNull StringBuilder value) {
+        synchronized (SHARED) {
+            SHARED.put(value, Boolean.TRUE);
+        }
+        sUsed = true;
+    }
+
+    public static boolean isShared(@NonNull StringBuilder value) {
+        if (!sUsed) {
+            return false;
+        }
+        synchronized (SHARED) {
+            return SHARED.containsKey(value);
+        }
+    }
+
+    /**
+     * @return the given string, or a copy of it if it is shared. Use it before a string which
+     * is not held by a variable is passed to code that may change it
+     */
+    @NonNull
+    public static StringBuilder own(@NonNull StringBuilder value) {
+        return isShared(value) ? new StringBuilder(value) : value;
+    }
+
+    /**
+     * @return the string of the reference which can be changed in place
+     */
+    public static StringBuilder own(@NonNull PascalReference<StringBuilder> reference)
+            throws RuntimePascalException {
+        StringBuilder value = reference.get();
+        if (value != null && isShared(value)) {
+            value = new StringBuilder(value);
+            reference.set(value);
+        }
+        return value;
+    }
+
+    /**
+     * @param target - the variable which holds the string
+     * @param value  - the current string of the variable
+     * @return the string of the variable which can be changed in place
+     */
+    @SuppressWarnings("unchecked")
+    public static StringBuilder own(@NonNull AssignableValue target, @NonNull StringBuilder value,
+                                    VariableContext f, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        if (!isShared(value)) {
+            return value;
+        }
+        StringBuilder copy = new StringBuilder(value);
+        target.getReference(f, main).set(copy);
+        return copy;
+    }
+}
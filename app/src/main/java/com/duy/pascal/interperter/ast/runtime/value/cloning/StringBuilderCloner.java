@@ -6,19 +6,72 @@ import android.support.annotation.Nullable;
 import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.interperter.ast.runtime.operators.number.StringBinaryOperatorNode;
+import com.duy.pascal.interperter.ast.runtime.operators.number.StringConcatNode;
 import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
 import com.duy.pascal.interperter.ast.runtime.value.NullValue;
+import com.duy.pascal.interperter.ast.runtime.value.OutputValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.CharacterBoxer;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.StringBuilderBoxer;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.StringBuilderLimitBoxer;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 
+/**
+ * Gives a string to a variable. A string held by a variable is shared with the new variable,
+ * it is copied when one of them changes it, see {@link SharedStrings}
+ */
 public class StringBuilderCloner implements RuntimeValue {
     private RuntimeValue value;
+    /**
+     * the evaluated value, the boxer of a string is skipped because it copies the string
+     */
+    private final RuntimeValue source;
+    /**
+     * true if the source creates a new string each time it is evaluated
+     */
+    private final boolean temporary;
 
     public StringBuilderCloner(RuntimeValue value) {
         this.value = value;
+        this.source = value instanceof StringBuilderBoxer
+                ? ((StringBuilderBoxer) value).getValue() : value;
+        this.temporary = isTemporary(source);
+    }
+
+    /**
+     * @return true if the value creates a new string each time it is evaluated, the string is
+     * not held by any variable so it can be assigned without marking it as shared. A folded
+     * constant is not temporary, the same string is returned by each evaluation
+     */
+    public static boolean isTemporary(RuntimeValue value) {
+        if (value instanceof ConstantAccess) {
+            return false;
+        }
+        if (value instanceof StringBinaryOperatorNode) {
+            return ((StringBinaryOperatorNode) value).isConcat();
+        }
+        return value instanceof StringConcatNode || value instanceof StringBuilderBoxer
+                || value instanceof StringBuilderLimitBoxer || value instanceof CharacterBoxer
+                || value instanceof OutputValue;
+    }
+
+    /**
+     * Assign a string value, the string is shared instead of copied
+     */
+    public static RuntimeValue cloneString(RuntimeValue value) {
+        if (value instanceof StringBuilderCloner) {
+            return value;
+        }
+        return new StringBuilderCloner(value);
+    }
+
+    public RuntimeValue getValue() {
+        return value;
     }
 
     @Nullable
@@ -31,10 +84,16 @@ public class StringBuilderCloner implements RuntimeValue {
     @Override
     public Object getValue(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
-        Object result = value.getValue(context, main);
+        Object result = source.getValue(context, main);
         if (result instanceof NullValue || result == null) {
             return result;
         }
+        if (result instanceof StringBuilder) {
+            if (!temporary) {
+                SharedStrings.share((StringBuilder) result);
+            }
+            return result;
+        }
         return new StringBuilder(result.toString());
     }
 
@@ -64,7 +123,7 @@ public class StringBuilderCloner implements RuntimeValue {
 
     @Override
     public RuntimeValue compileTimeExpressionFold(CompileTimeContext context) throws Exception {
-        return new StringBuilderCloner(value);
+        return new StringBuilderCloner(value.compileTimeExpressionFold(context));
     }
 
     @Override
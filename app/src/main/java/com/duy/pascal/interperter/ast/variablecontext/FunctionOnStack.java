@@ -17,55 +17,83 @@
 package com.duy.pascal.interperter.ast.variablecontext;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.runtime.references.PascalReference;
 import com.duy.pascal.interperter.ast.runtime.value.NullValue;
-import com.duy.pascal.interperter.config.ProgramMode;
 import com.duy.pascal.interperter.declaration.Name;
 import com.duy.pascal.interperter.declaration.lang.function.FunctionDeclaration;
 import com.duy.pascal.interperter.declaration.lang.value.VariableDeclaration;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
-import static com.duy.pascal.interperter.declaration.lang.function.FunctionDeclaration.RESULT_VAR;
-
 public class FunctionOnStack extends VariableContext {
-    private HashMap<Name, Object> mapVars = new HashMap<>();
-    private HashMap<Name, PascalReference> mapReferences = new HashMap<>();
-
-    private ArrayList<Name> localVarsName = new ArrayList<>();
-    private ArrayList<Name> paramsName = new ArrayList<>();
+    /**
+     * Parameters and local variables of this call, indexed by
+     * {@link FunctionDeclaration#getVariableSlot(Name)}.
+     * The slot of a var parameter holds a {@link PascalReference}
+     */
+    private final Object[] frame;
+    private final int argumentCount;
 
     private FunctionDeclaration prototype;
 
+    /**
+     * Context where the function is declared (static link), used for resolve variables
+     */
     private VariableContext parentContext;
 
+    /**
+     * Context of the caller, only uses for the call stack of debugger
+     */
+    private VariableContext callerContext;
+
     private RuntimeExecutableCodeUnit<?> main;
 
 
     public FunctionOnStack(VariableContext parentContext,
                            RuntimeExecutableCodeUnit<?> main, FunctionDeclaration declaration,
                            Object[] arguments) throws RuntimePascalException {
+        this(parentContext, parentContext, main, declaration, arguments);
+    }
+
+    public FunctionOnStack(VariableContext parentContext, VariableContext callerContext,
+                           RuntimeExecutableCodeUnit<?> main, FunctionDeclaration declaration,
+                           Object[] arguments) throws RuntimePascalException {
         this.prototype = declaration;
         this.parentContext = parentContext;
+        this.callerContext = callerContext;
         this.main = main;
-        for (VariableDeclaration v : prototype.declaration.variables) {
-            v.initialize(mapVars);
-            localVarsName.add(v.getName());
+
+        ArrayList<VariableDeclaration> variables = prototype.declaration.variables;
+        this.argumentCount = prototype.argumentNames.length;
+        this.frame = new Object[argumentCount + variables.size()];
+        System.arraycopy(arguments, 0, frame, 0, Math.min(arguments.length, argumentCount));
+        for (int i = 0; i < variables.size(); i++) {
+            frame[argumentCount + i] = variables.get(i).initialize();
         }
-        for (int i = 0; i < arguments.length; i++) {
-            if (prototype.argumentTypes[i].writable) {
-                mapReferences.put(prototype.argumentNames[i], (PascalReference) arguments[i]);
-            } else {
-                mapVars.put(prototype.argumentNames[i], arguments[i]);
+    }
+
+    /**
+     * Find the nearest frame of the given function in the scope chain
+     *
+     * @return null if the function is not active in this chain
+     */
+    @Nullable
+    public static FunctionOnStack findFrame(@Nullable VariableContext context,
+                                            FunctionDeclaration function) {
+        while (context != null) {
+            if (context instanceof FunctionOnStack
+                    && ((FunctionOnStack) context).prototype == function) {
+                return (FunctionOnStack) context;
             }
-            paramsName.add(prototype.argumentNames[i]);
+            context = context.getParentContext();
         }
-        this.parentContext = parentContext;
-        this.prototype = declaration;
+        return null;
     }
 
     public FunctionDeclaration getPrototype() {
@@ -78,16 +106,41 @@ public class FunctionOnStack extends VariableContext {
     }
 
     public ArrayList<Name> getLocalVarsName() {
-        return localVarsName;
+        ArrayList<Name> names = new ArrayList<>();
+        for (VariableDeclaration variable : prototype.declaration.variables) {
+            names.add(variable.getName());
+        }
+        return names;
     }
 
     public Object visit() throws RuntimePascalException {
         prototype.instructions.visit(this, main);
         //get result of prototype, name of variable is name of prototype
-        if (main.getDeclaration().getConfig().getMode() == ProgramMode.DELPHI) {
-            return mapVars.get(RESULT_VAR);
+        int resultSlot = prototype.getResultSlot();
+        return resultSlot < 0 ? null : frame[resultSlot];
+    }
+
+    private boolean isReference(int slot) {
+        return slot < argumentCount && prototype.argumentTypes[slot].writable;
+    }
+
+    /**
+     * Read variable by index of slot, the index must be resolved by
+     * {@link FunctionDeclaration#getVariableSlot(Name)}
+     */
+    public Object getSlot(int slot) throws RuntimePascalException {
+        if (isReference(slot)) {
+            return ((PascalReference) frame[slot]).get();
+        }
+        return frame[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    public void setSlot(int slot, Object val) {
+        if (isReference(slot)) {
+            ((PascalReference) frame[slot]).set(val);
         } else {
-            return mapVars.get(prototype.name);
+            frame[slot] = val;
         }
     }
 
@@ -97,39 +150,36 @@ public class FunctionOnStack extends VariableContext {
     @NonNull
     @Override
     public Object getLocalVar(Name name) throws RuntimePascalException {
-        if (mapVars.containsKey(name)) {
-            return mapVars.get(name);
-        } else if (mapReferences.containsKey(name)) {
-            return mapReferences.get(name).get();
-        } else {
+        int slot = prototype.getVariableSlot(name);
+        if (slot < 0) {
             return NullValue.get();
         }
+        return getSlot(slot);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public boolean setLocalVar(Name name, Object val) {
-        if (mapVars.containsKey(name)) {
-            mapVars.put(name, val);
-        } else if (mapReferences.containsKey(name)) {
-            mapReferences.get(name).set(val);
-        } else {
+        int slot = prototype.getVariableSlot(name);
+        if (slot < 0) {
             return false;
         }
+        setSlot(slot, val);
         return true;
     }
 
     @Override
     public ArrayList<Name> getUserDefineVariableNames() {
-        ArrayList<Name> vars = new ArrayList<>(paramsName);
-        vars.addAll(localVarsName);
+        ArrayList<Name> vars = new ArrayList<>(Arrays.asList(prototype.argumentNames));
+        vars.addAll(getLocalVarsName());
         return vars;
     }
 
     @Override
     public HashMap<Name, Object> getMapVars() {
-        HashMap<Name, Object> hashMap = new HashMap<>(mapVars);
-        hashMap.putAll(mapReferences);
+        HashMap<Name, Object> hashMap = new HashMap<>();
+        for (Name name : getUserDefineVariableNames()) {
+            hashMap.put(name, frame[prototype.getVariableSlot(name)]);
+        }
         return hashMap;
     }
 
@@ -143,6 +193,11 @@ public class FunctionOnStack extends VariableContext {
         return parentContext;
     }
 
+    @Override
+    public VariableContext getCallerContext() {
+        return callerContext;
+    }
+
     public boolean isProcedure() {
         return prototype.isProcedure();
     }
@@ -68,6 +68,14 @@ public abstract class VariableContext implements ContainsVariables {
 
     public abstract VariableContext getParentContext();
 
+    /**
+     * @return the context which has invoked this context, it is not the same as
+     * {@link #getParentContext()} for function call
+     */
+    public VariableContext getCallerContext() {
+        return getParentContext();
+    }
+
     @Nullable
     @Override
     public VariableContext clone() {
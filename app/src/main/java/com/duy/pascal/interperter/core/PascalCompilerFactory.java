@@ -5,6 +5,7 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.duy.pascal.interperter.declaration.library.PascalUnitDeclaration;
+import com.duy.pascal.interperter.declaration.program.PascalProgramCache;
 import com.duy.pascal.interperter.declaration.program.PascalProgramDeclaration;
 import com.duy.pascal.interperter.exceptions.DiagnosticCollector;
 import com.duy.pascal.interperter.source.ScriptSource;
@@ -34,6 +35,31 @@ public class PascalCompilerFactory {
     }
 
 
+    /**
+     * Same as {@link #makePascalProgram(ScriptSource, List, IProgramHandler)}, but reuse the
+     * program compiled by an earlier call if neither the program nor its units have changed.
+     * The program belongs to the caller until it is given back by
+     * {@link #releaseCachedPascalProgram(ScriptSource, PascalProgramDeclaration)}
+     */
+    public static PascalProgramDeclaration makeCachedPascalProgram(@NonNull ScriptSource source,
+                                                                   @Nullable List<ScriptSource> include,
+                                                                   @Nullable IProgramHandler handler) throws Exception {
+        PascalProgramDeclaration program = PascalProgramCache.take(source, handler);
+        if (program == null) {
+            program = makePascalProgram(source, include, handler);
+        }
+        return program;
+    }
+
+    /**
+     * Give a program made by {@link #makeCachedPascalProgram(ScriptSource, List, IProgramHandler)}
+     * back to the cache when its run has finished, so the next run can reuse it
+     */
+    public static void releaseCachedPascalProgram(@NonNull ScriptSource source,
+                                                  @NonNull PascalProgramDeclaration program) {
+        PascalProgramCache.put(source, program);
+    }
+
     public static PascalUnitDeclaration makePascalLibrary(@NonNull ScriptSource source,
                                                           @Nullable List<ScriptSource> searchPath,
                                                           @Nullable IProgramHandler handler) throws Exception {
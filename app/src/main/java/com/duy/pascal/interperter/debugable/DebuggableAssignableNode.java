@@ -8,12 +8,14 @@ import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.ast.runtime.references.Reference;
 import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
+import com.duy.pascal.interperter.ast.runtime.value.PrimitiveValue;
+import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.exceptions.runtime.UnhandledPascalException;
 import com.duy.pascal.interperter.utils.NullSafety;
 
-public abstract class DebuggableAssignableNode implements AssignableValue {
+public abstract class DebuggableAssignableNode implements AssignableValue, PrimitiveValue {
 
     public abstract boolean canDebug();
 
@@ -30,8 +32,6 @@ public abstract class DebuggableAssignableNode implements AssignableValue {
                 } else {
                     main.scriptControlCheck(getLineNumber(), false);
                 }
-            } else {
-                main.scriptControlCheck(getLineNumber(), false);
             }
             return NullSafety.zReturn(getValueImpl(context, main));
         } catch (RuntimePascalException e) {
@@ -66,6 +66,17 @@ public abstract class DebuggableAssignableNode implements AssignableValue {
         }
     }
 
+    /**
+     * Store the value through a {@link Reference}, override it if the container of this value
+     * can be written directly
+     */
+    @Override
+    public void assign(VariableContext f, RuntimeExecutableCodeUnit<?> main, RuntimeValue value)
+            throws RuntimePascalException {
+        Reference ref = getReference(f, main);
+        ref.set(value.getValue(f, main));
+    }
+
     @NonNull
     public abstract Object getValueImpl(VariableContext f,
                                         RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException;
@@ -73,4 +84,27 @@ public abstract class DebuggableAssignableNode implements AssignableValue {
     public abstract Reference<?> getReferenceImpl(VariableContext f, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException;
 
+    @Override
+    public int getInt(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValue(context, main)).intValue();
+    }
+
+    @Override
+    public long getLong(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValue(context, main)).longValue();
+    }
+
+    @Override
+    public double getDouble(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValue(context, main)).doubleValue();
+    }
+
+    @Override
+    public boolean getBoolean(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (Boolean) getValue(context, main);
+    }
 }
@@ -10,30 +10,31 @@ import com.duy.pascal.interperter.exceptions.runtime.UnhandledPascalException;
 
 public abstract class DebuggableNode implements Node {
 
+    /**
+     * Outside of debug mode the statement is executed directly, pause and terminate requests are
+     * handled by {@link RuntimeExecutableCodeUnit#safepoint} at loop back-edges and call
+     * boundaries, and the stack depth is only charged by calls
+     */
     @Override
     public ExecutionResult visit(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         try {
-            if (main.isDebug()) {
-                main.getDebugListener().onLine(this, getLineNumber());
+            if (!main.isDebug()) {
+                return executeImpl(context, main);
             }
+            main.getDebugListener().onLine(this, getLineNumber());
             main.scriptControlCheck(getLineNumber());
             //backup mode
             boolean last = main.isDebug();
-            if (main.isDebug()) {
-                if (main.getDebugMode().equals(DebugMode.STEP_OVER)) {
-                    main.setDebug(false);
-                }
+            if (main.getDebugMode().equals(DebugMode.STEP_OVER)) {
+                main.setDebug(false);
             }
 
-            main.incStack(getLineNumber());
-
             //execute code
             ExecutionResult result = executeImpl(context, main);
 
             //restore mode
             main.setDebug(last);
-            main.decStack();
             return result;
         } catch (RuntimePascalException e) {
             throw e;
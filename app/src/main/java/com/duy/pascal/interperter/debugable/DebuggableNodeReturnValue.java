@@ -8,7 +8,7 @@ import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.node.ExecutionResult;
 import com.duy.pascal.interperter.ast.node.Node;
 import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
-import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.PrimitiveValue;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.config.DebugMode;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
@@ -16,7 +16,7 @@ import com.duy.pascal.interperter.exceptions.runtime.UnhandledPascalException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.utils.NullSafety;
 
-public abstract class DebuggableNodeReturnValue implements Node, RuntimeValue {
+public abstract class DebuggableNodeReturnValue implements Node, PrimitiveValue {
 
     private LineNumber lineNumber;
 
@@ -58,7 +58,9 @@ public abstract class DebuggableNodeReturnValue implements Node, RuntimeValue {
     public ExecutionResult visit(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException {
         try {
-
+            if (!main.isDebug()) {
+                return visitImpl(context, main);
+            }
             boolean last = main.isDebug();
             onPreExecute(main);
 
@@ -77,7 +79,6 @@ public abstract class DebuggableNodeReturnValue implements Node, RuntimeValue {
 
     private void onPostExecute(RuntimeExecutableCodeUnit<?> main, boolean last) {
         main.setDebug(last);
-        main.decStack();
     }
 
     private void onPreExecute(RuntimeExecutableCodeUnit<?> main) {
@@ -86,7 +87,6 @@ public abstract class DebuggableNodeReturnValue implements Node, RuntimeValue {
         }
         main.scriptControlCheck(getLineNumber());
 
-        main.incStack(getLineNumber());
         if (main.isDebug()) {
             if (main.getDebugMode().equals(DebugMode.STEP_OVER)) {
                 main.setDebug(false);
@@ -99,4 +99,28 @@ public abstract class DebuggableNodeReturnValue implements Node, RuntimeValue {
      */
     public abstract ExecutionResult visitImpl(VariableContext context, RuntimeExecutableCodeUnit<?> main)
             throws RuntimePascalException;
+
+    @Override
+    public int getInt(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValue(context, main)).intValue();
+    }
+
+    @Override
+    public long getLong(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValue(context, main)).longValue();
+    }
+
+    @Override
+    public double getDouble(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return ((Number) getValue(context, main)).doubleValue();
+    }
+
+    @Override
+    public boolean getBoolean(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (Boolean) getValue(context, main);
+    }
 }
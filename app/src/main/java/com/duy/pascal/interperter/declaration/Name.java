@@ -18,53 +18,127 @@ package com.duy.pascal.interperter.declaration;
 
 import android.support.annotation.NonNull;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by Duy on 17-Aug-17.
+ * <p>
+ * Names are interned: {@link #create(String)} returns the same instance for the same spelling,
+ * and every spelling of an identifier shares one canonical lower case key, so {@link #equals(Object)}
+ * and {@link #hashCode()} never allocate and only compare references.
+ * <p>
+ * The intern tables only hold names weakly, the identifiers typed in the editor are dropped
+ * with their tokens. They do not take a lock, the lexer of the highlighter, the indexer and the
+ * interpreter intern names at the same time.
  */
 
 public class Name implements Comparable<Name>, Serializable, Cloneable {
-    private String originName;
+    /**
+     * spelling -> name
+     */
+    private static final ConcurrentHashMap<String, Entry<Name>> NAMES = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Name> NAMES_QUEUE = new ReferenceQueue<>();
+    /**
+     * lower case spelling -> canonical key
+     */
+    private static final ConcurrentHashMap<String, Entry<String>> KEYS = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<String> KEYS_QUEUE = new ReferenceQueue<>();
+
+    private final String originName;
+    private final transient String key;
+    private final transient int hash;
 
     private Name(String originName) {
         this.originName = originName;
+        this.key = canonicalKey(originName);
+        this.hash = key.hashCode();
     }
 
     public static Name create(String name) {
-        return new Name(name);
+        Entry<Name> entry = NAMES.get(name);
+        Name result = entry == null ? null : entry.get();
+        if (result != null) {
+            return result;
+        }
+        purge(NAMES, NAMES_QUEUE);
+        result = new Name(name);
+        return intern(NAMES, NAMES_QUEUE, name, result);
     }
 
-    public String getOriginName() {
-        return originName;
+    /**
+     * The key stays in the table while a name refers to it, two names with a different key
+     * object are never alive together
+     */
+    private static String canonicalKey(String name) {
+        String lowerCase = name.toLowerCase(Locale.ENGLISH);
+        Entry<String> entry = KEYS.get(lowerCase);
+        String key = entry == null ? null : entry.get();
+        if (key != null) {
+            return key;
+        }
+        purge(KEYS, KEYS_QUEUE);
+        //the table holds the spelling strongly, so the key must be another object to be dropped
+        return intern(KEYS, KEYS_QUEUE, lowerCase, new String(lowerCase));
     }
 
-    @Override
-    public boolean equals(Object obj) {
-        if (obj == this) {
-            return true;
-        }
-        if (obj instanceof String) {
-            if (((String) obj).equalsIgnoreCase(originName)) {
-                return true;
+    /**
+     * Add the value to the table unless another thread has added a live value for the same
+     * spelling, in that case the value of the other thread is returned
+     */
+    private static <T> T intern(ConcurrentHashMap<String, Entry<T>> table, ReferenceQueue<T> queue,
+                                String spelling, T value) {
+        Entry<T> entry = new Entry<>(spelling, value, queue);
+        while (true) {
+            Entry<T> old = table.putIfAbsent(spelling, entry);
+            if (old == null) {
+                return value;
             }
-        }
-        if (obj instanceof Name) {
-            if (((Name) obj).getOriginName().equalsIgnoreCase(originName)) {
-                return true;
+            T other = old.get();
+            if (other != null) {
+                return other;
             }
-        }
-        if (obj instanceof CharSequence) {
-            if (obj.toString().equalsIgnoreCase(originName)) {
-                return true;
+            if (table.replace(spelling, old, entry)) {
+                return value;
             }
         }
-        return false;
+    }
+
+    /**
+     * Remove the entries of the values which have been collected
+     */
+    private static <T> void purge(ConcurrentHashMap<String, Entry<T>> table, ReferenceQueue<T> queue) {
+        Reference<? extends T> reference;
+        while ((reference = queue.poll()) != null) {
+            Entry<?> entry = (Entry<?>) reference;
+            table.remove(entry.spelling, entry);
+        }
+    }
+
+    public String getOriginName() {
+        return originName;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || (obj instanceof Name && ((Name) obj).key == key);
+    }
+
+    /**
+     * Compare with an identifier written as plain text, ignore case
+     */
+    public boolean equalsIgnoreCase(String other) {
+        return originName.equalsIgnoreCase(other);
     }
 
     @Override
     public int compareTo(@NonNull Name o) {
-        return originName.toLowerCase().compareTo(o.getOriginName().toLowerCase());
+        return key == o.key ? 0 : key.compareTo(o.key);
     }
 
     public int getLength() {
@@ -77,12 +151,32 @@ public class Name implements Comparable<Name>, Serializable, Cloneable {
     }
 
     public boolean isPrefix(String other) {
-        return originName.toLowerCase().startsWith(other.toLowerCase()) &&
-                !originName.equalsIgnoreCase(other);
+        String prefix = other.toLowerCase(Locale.ENGLISH);
+        return key.startsWith(prefix) && !key.equals(prefix);
     }
 
     @Override
     public int hashCode() {
-        return originName.toLowerCase().hashCode();
+        return hash;
+    }
+
+    /**
+     * Entry of an intern table, it remembers its spelling so it can be removed when the value
+     * is collected
+     */
+    private static final class Entry<T> extends WeakReference<T> {
+        private final String spelling;
+
+        Entry(String spelling, T value, ReferenceQueue<T> queue) {
+            super(value, queue);
+            this.spelling = spelling;
+        }
+    }
+
+    /**
+     * Keep deserialized names canonical
+     */
+    private Object readResolve() throws ObjectStreamException {
+        return create(originName);
     }
 }
@@ -58,6 +58,7 @@ import java.util.List;
 public class FunctionDeclaration extends AbstractCallableFunction {
     public static final Name RESULT_VAR = Name.create("result");
     private static final String TAG = "FunctionDeclaration";
+    private static final int UNRESOLVED_SLOT = -2;
     public ExpressionContextMixin declaration;
     /**
      * name of function or procedure
@@ -73,6 +74,7 @@ public class FunctionDeclaration extends AbstractCallableFunction {
     private boolean isProcedure = false;
     private boolean bodyDeclared;
     private int modifier = Modifier.PUBLIC;
+    private int resultSlot = UNRESOLVED_SLOT;
 
     public FunctionDeclaration(Name name, ExpressionContext parent, GrouperToken grouperToken,
                                boolean isProcedure) throws Exception {
@@ -193,10 +195,8 @@ public class FunctionDeclaration extends AbstractCallableFunction {
     @Override
     public Object visit(VariableContext f, RuntimeExecutableCodeUnit<?> main,
                         Object[] arguments) throws RuntimePascalException {
-        if (this.declaration.root() instanceof PascalUnitDeclaration) {
-            f = main.getLibraryContext((PascalUnitDeclaration) declaration.root());
-        }
-        FunctionOnStack functionOnStack = new FunctionOnStack(f, main, this, arguments);
+        VariableContext parent = getEnclosingContext(f, main);
+        FunctionOnStack functionOnStack = new FunctionOnStack(parent, f, main, this, arguments);
         if (main.isDebug()) {
             main.getDebugListener().onValueVariableChanged(new CallStack(functionOnStack));
         }
@@ -207,6 +207,61 @@ public class FunctionDeclaration extends AbstractCallableFunction {
         return execute;
     }
 
+    /**
+     * Find the context this function was declared in (static link), so that a variable
+     * is always resolved through the lexical scope chain instead of the call chain.
+     *
+     * @param caller - context of the caller
+     */
+    private VariableContext getEnclosingContext(VariableContext caller, RuntimeExecutableCodeUnit<?> main) {
+        if (declaration.root() instanceof PascalUnitDeclaration) {
+            return main.getLibraryContext((PascalUnitDeclaration) declaration.root());
+        }
+        ExpressionContext parent = declaration.getParentContext();
+        if (parent instanceof FunctionExpressionContext) {
+            FunctionOnStack frame = FunctionOnStack.findFrame(caller,
+                    ((FunctionExpressionContext) parent).function);
+            if (frame != null) {
+                return frame;
+            }
+        } else if (main != null && parent == main.getDeclaration().getContext()) {
+            return main;
+        }
+        return caller;
+    }
+
+    /**
+     * Layout of a frame: slot [0, argumentNames.length) hold the parameters,
+     * the remaining slots hold the local variables (include result variable)
+     * in declaration order
+     *
+     * @return index of the slot of variable, or -1 if it is not declared in this function
+     */
+    public int getVariableSlot(Name name) {
+        ArrayList<VariableDeclaration> variables = declaration.variables;
+        for (int i = 0; i < variables.size(); i++) {
+            if (variables.get(i).getName().equals(name)) {
+                return argumentNames.length + i;
+            }
+        }
+        for (int i = 0; i < argumentNames.length; i++) {
+            if (argumentNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return index of the slot hold the result of this function, or -1 if this is a procedure
+     */
+    public int getResultSlot() {
+        if (resultSlot == UNRESOLVED_SLOT) {
+            resultSlot = resultDefinition == null ? -1 : getVariableSlot(resultDefinition.getName());
+        }
+        return resultSlot;
+    }
+
     private void getArgumentsForDeclaration(GrouperToken i) throws Exception { // need
         List<WordToken> namesList = new ArrayList<>();
         List<RuntimeType> typesList = new ArrayList<>();
@@ -63,7 +63,7 @@ public enum BasicType implements Type {
         public RuntimeValue convert(RuntimeValue other, ExpressionContext context) throws Exception {
             if (other instanceof ConstantAccess) {
                 Name name = ((ConstantAccess) other).getName();
-                if (name != null && name.equals("null")) {
+                if (name != null && name.equalsIgnoreCase("null")) {
                     return other;
                 }
             }
@@ -113,7 +113,7 @@ public enum BasicType implements Type {
         @Override
         public RuntimeValue cloneValue(RuntimeValue value) {
             //do not bring length to another variable
-            return new StringBuilderCloner(value);
+            return StringBuilderCloner.cloneString(value);
         }
 
     },
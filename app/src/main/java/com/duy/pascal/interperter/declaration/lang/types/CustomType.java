@@ -20,6 +20,11 @@ public class CustomType extends ObjectType {
     public ArrayList<VariableDeclaration> variableDeclarations;
     private RecordValue recordValue;
 
+    /**
+     * index of fields, created when the first value of this type is created
+     */
+    private RecordValue.Layout layout;
+
     public CustomType() {
         variableDeclarations = new ArrayList<>();
     }
@@ -36,12 +41,28 @@ public class CustomType extends ObjectType {
      */
     public void addVariableDeclaration(VariableDeclaration v) {
         variableDeclarations.add(v);
+        layout = null;
+    }
+
+    @NonNull
+    public RecordValue.Layout getLayout() {
+        if (layout == null) {
+            layout = new RecordValue.Layout(variableDeclarations);
+        }
+        return layout;
+    }
+
+    /**
+     * @return index of field in values of this type, or -1 if there is no field with the name
+     */
+    public int indexOfField(Name name) {
+        return getLayout().indexOf(name);
     }
 
     @NonNull
     @Override
     public RecordValue initialize() {
-        recordValue = new RecordValue(variableDeclarations);
+        recordValue = new RecordValue(getLayout());
         return recordValue;
     }
 
@@ -73,7 +94,7 @@ public class CustomType extends ObjectType {
         if (recordValue != null) {
             return recordValue.getClass();
         }
-        recordValue = new RecordValue(variableDeclarations);
+        recordValue = new RecordValue(getLayout());
         return recordValue.getClass();
     }
 
@@ -129,5 +150,6 @@ public class CustomType extends ObjectType {
 
     public void setVariableDeclarations(ArrayList<VariableDeclaration> variableDeclarations) {
         this.variableDeclarations = variableDeclarations;
+        this.layout = null;
     }
 }
@@ -0,0 +1,91 @@
+package com.duy.pascal.interperter.declaration.lang.types;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.declaration.lang.types.util.TypeUtils;
+import com.duy.pascal.interperter.libraries.file.BinaryCodec;
+import com.duy.pascal.interperter.libraries.file.TypedFile;
+
+import java.io.File;
+
+/**
+ * Type of binary files, "file of integer" is a typed file and "file" is an untyped file.
+ * <p>
+ * The storage class is {@link File} like text files, so the procedures of the file library
+ * accept both, and the value is a {@link TypedFile} which knows the encoding of the records.
+ */
+public class FileType extends JavaClassBasedType {
+    @Nullable
+    private final Type elementType;
+    @Nullable
+    private final BinaryCodec codec;
+
+    /**
+     * @param elementType - type of records, null if the file is untyped
+     * @param codec       - encoding of records, null if the file is untyped
+     */
+    public FileType(@Nullable Type elementType, @Nullable BinaryCodec codec) {
+        super(File.class);
+        this.elementType = elementType;
+        this.codec = codec;
+    }
+
+    /**
+     * @param reference - the file argument of read or write, which is the address of a variable
+     * @return type of the file, or null if it is a text file
+     */
+    @Nullable
+    public static FileType of(RuntimeValue reference, ExpressionContext context) throws Exception {
+        Type type = reference.getRuntimeType(context).declType;
+        if (type instanceof PointerType) {
+            type = ((PointerType) type).pointedToType;
+        }
+        return type instanceof FileType ? (FileType) type : null;
+    }
+
+    @Nullable
+    public Type getElementType() {
+        return elementType;
+    }
+
+    /**
+     * @return true if a record of this file can be read to a variable of the type
+     */
+    public boolean canReadTo(Type type) {
+        if (elementType == null) {
+            return false;
+        }
+        if (elementType.equals(type) || type.equals(elementType)) {
+            return true;
+        }
+        //strings with other lengths, subranges
+        Class<?> storageClass = elementType.getStorageClass();
+        return storageClass == type.getStorageClass() && (storageClass == StringBuilder.class
+                || TypeUtils.isPrimitiveWrapper(storageClass));
+    }
+
+    @NonNull
+    @Override
+    public Object initialize() {
+        return new TypedFile("", codec);
+    }
+
+    @Override
+    public RuntimeValue cloneValue(RuntimeValue value) {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return elementType == null ? "File" : "File of " + elementType;
+    }
+
+    @NonNull
+    @Override
+    public String getEntityType() {
+        return "file type";
+    }
+}
@@ -29,6 +29,10 @@ public class AnyToStringType implements RuntimeValue {
         return value.toString();
     }
 
+    public RuntimeValue getValue() {
+        return value;
+    }
+
     @Override
     public String toString() {
         return value.toString();
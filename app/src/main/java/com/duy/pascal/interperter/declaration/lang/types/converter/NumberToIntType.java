@@ -8,18 +8,22 @@ import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.ast.runtime.value.AssignableValue;
+import com.duy.pascal.interperter.ast.runtime.value.PrimitiveValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.PrimitiveUnboxer;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 
-public class NumberToIntType implements RuntimeValue {
+public class NumberToIntType implements PrimitiveValue {
     RuntimeValue other;
+    private PrimitiveValue primitive;
 
 
     public NumberToIntType(RuntimeValue other) {
         this.other = other;
+        this.primitive = PrimitiveUnboxer.of(other);
     }
 
     @Override
@@ -74,4 +78,28 @@ public class NumberToIntType implements RuntimeValue {
     public AssignableValue asAssignableValue(ExpressionContext context) {
         return null;
     }
+
+    @Override
+    public int getInt(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return primitive.getInt(context, main);
+    }
+
+    @Override
+    public long getLong(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return getInt(context, main);
+    }
+
+    @Override
+    public double getDouble(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return getInt(context, main);
+    }
+
+    @Override
+    public boolean getBoolean(VariableContext context, RuntimeExecutableCodeUnit<?> main)
+            throws RuntimePascalException {
+        return (Boolean) getValue(context, main);
+    }
 }
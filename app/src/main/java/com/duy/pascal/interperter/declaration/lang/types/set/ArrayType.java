@@ -20,6 +20,7 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.runtime.value.access.ArrayIndexAccess;
 import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
@@ -27,9 +28,9 @@ import com.duy.pascal.interperter.ast.runtime.value.cloning.ArrayCloner;
 import com.duy.pascal.interperter.ast.runtime.value.cloning.SetToDynamicArrayCloner;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 import com.duy.pascal.interperter.declaration.lang.types.Type;
+import com.duy.pascal.interperter.declaration.lang.types.subrange.EnumSubrangeType;
 import com.duy.pascal.interperter.declaration.lang.types.subrange.IntegerRange;
 import com.duy.pascal.interperter.declaration.lang.types.subrange.IntegerSubrangeType;
-import com.duy.pascal.interperter.declaration.lang.types.util.TypeUtils;
 import com.duy.pascal.interperter.exceptions.parsing.syntax.ExpectedTokenException;
 import com.duy.pascal.interperter.exceptions.runtime.OutOfMemoryException;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
@@ -37,8 +38,6 @@ import com.duy.pascal.interperter.tokens.Token;
 import com.duy.pascal.interperter.tokens.grouping.GrouperToken;
 import com.duy.pascal.interperter.tokens.grouping.ParenthesizedToken;
 
-import java.lang.reflect.Array;
-
 
 public class ArrayType<ELEMENT extends Type> extends BaseSetType {
     public final ELEMENT elementType;
@@ -65,7 +64,7 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
      * @return - the {@link ConstantAccess} include array object and lineInfo number
      * @throws Exception - some token is not expect
      */
-    public static ConstantAccess<Object[]> getArrayConstant(ExpressionContext context,
+    public static ConstantAccess<Object> getArrayConstant(ExpressionContext context,
                                                             Token group, ArrayType type) throws Exception {
 
 
@@ -79,16 +78,15 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
         //size of array
         int size = type.getBound().getSize();
         //create new array
-//        Object[] objects = new Object[size];
-        Class<?> elementClass = elementType.getStorageClass();
-        Object[] objects = (Object[]) Array.newInstance(elementClass, size);
+        Object[] objects = new Object[size];
         for (int i = 0; i < size; i++) {
             if (!container.hasNext()) {
                 throw new ExpectedTokenException(",", container.peek());
             }
             objects[i] = GrouperToken.getConstantElement(context, container, elementType).getValue();
         }
-        return new ConstantAccess<>(objects, type, container.getLineNumber());
+        return new ConstantAccess<>(ArrayStorage.fromObjects(elementType, objects), type,
+                container.getLineNumber());
     }
 
     public boolean isDynamic() {
@@ -161,18 +159,13 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
     }
 
     /**
-     * TODO: Must make this actually fill in array with default values
+     * Create the array and fill it with the initial value of element type, see {@link ArrayStorage}
      */
     @NonNull
     @Override
     public Object initialize() throws RuntimePascalException {
         try {
-            Object result = Array.newInstance(elementType.getTransferClass(), bound == null ? 0 : bound.getSize());
-            if (bound != null) {
-                for (int i = 0; i < bound.getSize(); i++)
-                    Array.set(result, i, elementType.initialize());
-            }
-            return result;
+            return ArrayStorage.newArray(elementType, bound == null ? 0 : bound.getSize());
         } catch (OutOfMemoryError e) {
             throw new OutOfMemoryException(e);
         }
@@ -181,18 +174,7 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
     @NonNull
     @Override
     public Class<?> getTransferClass() {
-        String s = elementType.getTransferClass().getName();
-        StringBuilder b = new StringBuilder();
-        b.append('[');
-        b.append('L');
-        b.append(s);
-        b.append(';');
-        try {
-            return Class.forName(b.toString());
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return ArrayStorage.arrayClassOf(elementType.getTransferClass());
     }
 
     @Override
@@ -212,7 +194,7 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
             return this.superset(other.declType) ? cloneValue(value) : null;
         } else if (other.declType instanceof SetType && this.isDynamic()) {
             if (((SetType) other.declType).getElementType().equals(this.getElementType())) {
-                return new SetToDynamicArrayCloner(value);
+                return new SetToDynamicArrayCloner(value, elementType);
             }
         }
         return null;
@@ -228,38 +210,19 @@ public class ArrayType<ELEMENT extends Type> extends BaseSetType {
     @Override
     public RuntimeValue generateArrayAccess(RuntimeValue array,
                                             RuntimeValue index) {
+        int kind = ArrayStorage.kindOf(elementType);
         if (bound != null) {
-            return new ArrayIndexAccess(array, index, bound.getFirst());
+            return new ArrayIndexAccess(array, index, bound.getFirst(), kind,
+                    !(bound instanceof EnumSubrangeType));
         } else {
-            return new ArrayIndexAccess(array, index, 0);
+            return new ArrayIndexAccess(array, index, 0, kind, true);
         }
     }
 
     @NonNull
     @Override
     public Class<?> getStorageClass() {
-        Class c = elementType.getStorageClass();
-        if (c.isArray()) {
-            try {
-                return Class.forName("[" + c.getName());
-            } catch (ClassNotFoundException e) {
-                e.printStackTrace();
-                return null;
-            }
-        } else if (c.isPrimitive()) {
-            c = TypeUtils.getClassForType(c);
-        }
-        StringBuilder b = new StringBuilder();
-        b.append('[');
-        b.append('L');
-        b.append(c.getName());
-        b.append(';');
-        try {
-            return Class.forName(b.toString());
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return ArrayStorage.arrayClassOf(elementType.getStorageClass());
     }
 
     @NonNull
@@ -164,7 +164,7 @@ public class EnumGroupType extends TypeInfo implements Containable<EnumElementVa
     @Nullable
     public EnumElementValue get(String element) {
         for (EnumElementValue pair : list) {
-            if (pair.getName().equals(element)) {
+            if (pair.getName().equalsIgnoreCase(element)) {
                 return pair;
             }
         }
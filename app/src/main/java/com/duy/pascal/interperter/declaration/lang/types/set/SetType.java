@@ -21,6 +21,7 @@ import android.support.annotation.NonNull;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.runtime.value.EnumElementValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.SetValue;
 import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
 import com.duy.pascal.interperter.ast.runtime.value.access.SetIndexAccess;
 import com.duy.pascal.interperter.ast.runtime.value.boxing.SetBoxer;
@@ -67,9 +68,9 @@ public class SetType<T extends Type> extends BaseSetType {
 
     /**
      * @param typeReference - type of set (example: set of char => type is "char")
-     * @return the set constant, I define the enum as {@link LinkedList}
+     * @return the set constant, I define the set as {@link SetValue}
      */
-    public static ConstantAccess<LinkedList> getSetConstant(ExpressionContext context, Token token,
+    public static ConstantAccess<SetValue> getSetConstant(ExpressionContext context, Token token,
                                                             AtomicReference<Type> typeReference)
             throws Exception {
         if (!(token instanceof BracketedToken)) {
@@ -77,7 +78,7 @@ public class SetType<T extends Type> extends BaseSetType {
         }
 
         BracketedToken bracketedToken = (BracketedToken) token;
-        LinkedList<Object> linkedList = new LinkedList<>();
+        SetValue set = new SetValue();
         Type temp = null;
         while (bracketedToken.hasNext()) {
             ConstantAccess element;
@@ -101,20 +102,17 @@ public class SetType<T extends Type> extends BaseSetType {
             } else {
                 element = GrouperToken.getConstantElement(context, bracketedToken, typeReference.get());
             }
-            for (Object o : linkedList) {
-                if (o.equals(element.getValue())) {
-                    throw new DuplicateElementException(element.getValue(), linkedList, element.getLineNumber());
-                }
+            if (!set.add(element.getValue())) {
+                throw new DuplicateElementException(element.getValue(), set, element.getLineNumber());
             }
-            linkedList.add(element.getValue());
         }
         if (typeReference.get() == null) typeReference.set(temp);
-        return new ConstantAccess<LinkedList>(linkedList, typeReference.get(), bracketedToken.getLineNumber());
+        return new ConstantAccess<>(set, typeReference.get(), bracketedToken.getLineNumber());
     }
 
     /**
      * @param typeReference - type of set (example: set of char => type is "char")
-     * @return the set constant, I define the enum as {@link LinkedList}
+     * @return the set constant, I define the set as {@link SetValue}
      */
     public static SetBoxer getSetRuntime(@NonNull ExpressionContext context, Token token,
                                          AtomicReference<Type> typeReference)
@@ -219,13 +217,13 @@ public class SetType<T extends Type> extends BaseSetType {
     @NonNull
     @Override
     public Object initialize() {
-        return this.list;
+        return new SetValue();
     }
 
     @NonNull
     @Override
     public Class getTransferClass() {
-        return LinkedList.class;
+        return SetValue.class;
     }
 
     @Override
@@ -283,7 +281,7 @@ public class SetType<T extends Type> extends BaseSetType {
     @NonNull
     @Override
     public Class<?> getStorageClass() {
-        return LinkedList.class;
+        return SetValue.class;
     }
 
     @NonNull
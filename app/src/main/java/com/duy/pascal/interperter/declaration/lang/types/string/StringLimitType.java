@@ -101,7 +101,7 @@ public class StringLimitType extends TypeInfo {
     @Override
     public RuntimeValue cloneValue(RuntimeValue value) {
         //do not bring length to another variable
-        return new StringBuilderCloner(value);
+        return StringBuilderCloner.cloneString(value);
     }
 
     @NonNull
@@ -101,11 +101,18 @@ public class VariableDeclaration extends NameEntityImpl implements Cloneable {
 
 
     public Object initialize(Map<Name, Object> map) throws RuntimePascalException {
-        Object value = initialValue == null ? type.initialize() : initialValue;
+        Object value = initialize();
         map.put(name, value);
         return value;
     }
 
+    /**
+     * @return the initial value of this variable, used to fill a slot of a frame
+     */
+    public Object initialize() throws RuntimePascalException {
+        return initialValue == null ? type.initialize() : initialValue;
+    }
+
     @Override
     public int hashCode() {
         return name.hashCode() * 31 + type.hashCode();
@@ -0,0 +1,81 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.declaration.library;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.source.SourceStamp;
+
+import java.util.HashMap;
+
+/**
+ * Process wide cache of parsed units, so a unit imported by "uses" is only parsed again
+ * when its source file changes. Units are keyed by the canonical path of their file, so
+ * units with the same name in different folders do not replace each other, and a unit is
+ * up to date while the digest of the content of the file is unchanged, see {@link SourceStamp}.
+ * <p>
+ * A unit is taken out of the cache by the program which imports it and given back when that
+ * program is not executed any more, so a unit is never bound to two programs at a time.
+ */
+public class PascalUnitCache {
+    private static final HashMap<String, Entry> CACHE = new HashMap<>();
+
+    /**
+     * Take the parsed unit out of the cache
+     *
+     * @param stamp - stamp of the current content of the source file of unit
+     * @return the parsed unit, or null if it is not parsed yet, the file has changed or the
+     * unit is used by another program
+     */
+    @Nullable
+    public static synchronized PascalUnitDeclaration take(@NonNull SourceStamp stamp) {
+        Entry entry = CACHE.remove(stamp.getPath());
+        if (entry != null && entry.stamp.equals(stamp)) {
+            return entry.unit;
+        }
+        return null;
+    }
+
+    /**
+     * Give a unit back to the cache when no program uses it
+     *
+     * @param stamp - stamp of the content which the unit was parsed from
+     */
+    public static synchronized void put(@NonNull SourceStamp stamp,
+                                        @NonNull PascalUnitDeclaration unit) {
+        if (!unit.getContext().hasMutableInitialValue()) {
+            CACHE.put(stamp.getPath(), new Entry(stamp, unit));
+        } else {
+            CACHE.remove(stamp.getPath());
+        }
+    }
+
+    public static synchronized void clear() {
+        CACHE.clear();
+    }
+
+    private static class Entry {
+        private final SourceStamp stamp;
+        private final PascalUnitDeclaration unit;
+
+        Entry(SourceStamp stamp, PascalUnitDeclaration unit) {
+            this.stamp = stamp;
+            this.unit = unit;
+        }
+    }
+}
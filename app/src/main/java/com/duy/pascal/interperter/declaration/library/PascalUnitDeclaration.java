@@ -176,7 +176,7 @@ public class PascalUnitDeclaration extends ExecutableCodeUnit implements IPascal
                 if (!(token instanceof WordToken)) {
                     throw new ExpectedTokenException(sourceName, token);
                 }
-                if (!((WordToken) token).getName().equals(sourceName)) {
+                if (!((WordToken) token).getName().equalsIgnoreCase(sourceName)) {
                     throw new IllegalUnitNameException(token);
                 }
                 container.assertNextSemicolon();
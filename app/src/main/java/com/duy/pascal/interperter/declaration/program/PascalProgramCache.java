@@ -0,0 +1,138 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.declaration.program;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContextMixin;
+import com.duy.pascal.interperter.declaration.library.PascalUnitDeclaration;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+import com.duy.pascal.interperter.source.FileScriptSource;
+import com.duy.pascal.interperter.source.ScriptSource;
+import com.duy.pascal.interperter.source.SourceStamp;
+import com.duy.pascal.ui.runnable.IProgramHandler;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Process wide cache of compiled programs, so running a program again (from the editor or
+ * a shortcut) does not lex, group and parse it when neither the program nor any unit it
+ * uses has changed. The cache lives in memory only, a new process compiles the program again.
+ * <p>
+ * Programs are keyed by the canonical path of their file and checked against a digest of
+ * their source code. A program is taken out of the cache by the run which executes it and
+ * given back by {@link #put(ScriptSource, PascalProgramDeclaration)} when the run has
+ * finished, so a compiled program is never bound to two runs at a time; a run which starts
+ * while the program is in use compiles its own copy.
+ */
+public class PascalProgramCache {
+    private static final HashMap<String, Entry> CACHE = new HashMap<>();
+
+    /**
+     * Take the compiled program out of the cache and bind it to the handler of the new run
+     *
+     * @param source  - source of program
+     * @param handler - handler of the new run
+     * @return the compiled program, or null if it is not compiled yet, it is out of date or
+     * it is used by another run
+     */
+    @Nullable
+    public static PascalProgramDeclaration take(@NonNull ScriptSource source,
+                                                @Nullable IProgramHandler handler) throws RuntimePascalException {
+        String content = source.getContent();
+        if (content == null) {
+            return null;
+        }
+        Entry entry;
+        synchronized (PascalProgramCache.class) {
+            entry = CACHE.remove(keyOf(source));
+        }
+        if (entry == null) {
+            return null;
+        }
+        ExpressionContextMixin context = entry.program.getContext();
+        boolean current = Arrays.equals(entry.digest, SourceStamp.digest(content));
+        for (SourceStamp unit : context.getUnitStamps()) {
+            current &= unit.isCurrent();
+        }
+        if (!current) {
+            context.releaseUnits();
+            return null;
+        }
+        context.rebind(handler);
+        return entry.program;
+    }
+
+    /**
+     * Give a program back to the cache when its run has finished
+     *
+     * @param source - source which the program was compiled from
+     */
+    public static void put(@NonNull ScriptSource source, @NonNull PascalProgramDeclaration program) {
+        String content = source.getContent();
+        if (content == null || !isShareable(program)) {
+            program.getContext().releaseUnits();
+            return;
+        }
+        Entry old;
+        synchronized (PascalProgramCache.class) {
+            old = CACHE.put(keyOf(source), new Entry(SourceStamp.digest(content), program));
+        }
+        if (old != null && old.program != program) {
+            old.program.getContext().releaseUnits();
+        }
+    }
+
+    private static boolean isShareable(PascalProgramDeclaration program) {
+        if (program.getContext().hasMutableInitialValue()) {
+            return false;
+        }
+        for (PascalUnitDeclaration unit : program.getContext().getRuntimeUnitMap().keySet()) {
+            if (unit.getContext().hasMutableInitialValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String keyOf(ScriptSource source) {
+        if (source instanceof FileScriptSource) {
+            File file = ((FileScriptSource) source).getFile();
+            if (file != null) {
+                return SourceStamp.canonicalFile(file).getPath();
+            }
+        }
+        return source.getName();
+    }
+
+    public static synchronized void clear() {
+        CACHE.clear();
+    }
+
+    private static class Entry {
+        private final byte[] digest;
+        private final PascalProgramDeclaration program;
+
+        Entry(byte[] digest, PascalProgramDeclaration program) {
+            this.digest = digest;
+            this.program = program;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.node.Node;
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.ast.runtime.value.FunctionCall;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
@@ -36,7 +37,6 @@ import com.duy.pascal.interperter.declaration.lang.types.set.ArrayType;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 
-import java.lang.reflect.Array;
 
 /**
  * length of one dimension array
@@ -145,13 +145,11 @@ public class CopyFunction implements IMethodDeclaration {
         @Override
         public Object getValueImpl(@NonNull VariableContext f, @NonNull RuntimeExecutableCodeUnit<?> main)
                 throws RuntimePascalException {
-            Object[] array = (Object[]) this.array.getValue(f, main);
+            Object array = this.array.getValue(f, main);
             int from = (int) index.getValue(f, main);
             int count = (int) this.count.getValue(f, main);
-            if (array.length == 0) return array;
-            Object[] o = (Object[]) Array.newInstance(array[0].getClass(), count);
-            System.arraycopy(array, from, o, 0, count);
-            return o;
+            if (ArrayStorage.length(array) == 0) return array;
+            return ArrayStorage.copyOfRange(array, from, count);
         }
     }
 }
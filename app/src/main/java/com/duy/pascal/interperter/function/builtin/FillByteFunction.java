@@ -24,6 +24,7 @@ import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.node.Node;
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.ast.runtime.value.FunctionCall;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
@@ -136,8 +137,8 @@ public class FillByteFunction implements IMethodDeclaration {
             Type declType = type.declType;
             if (declType instanceof ArrayType) {
                 IntegerRange bounds = ((ArrayType) declType).getBound();
-                Object[] value = (Object[]) this.value.getValue(f, main);
-                int size = value.length - 1;
+                Object value = this.value.getValue(f, main);
+                int size = ArrayStorage.length(value) - 1;
                 return bounds.getFirst() + size - 1;
             } else if (BasicType.Byte.equals(declType)) {
                 return Byte.MAX_VALUE;
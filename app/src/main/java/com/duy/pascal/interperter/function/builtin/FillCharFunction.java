@@ -27,6 +27,7 @@ import com.duy.pascal.interperter.ast.node.Node;
 import com.duy.pascal.interperter.ast.runtime.references.PascalReference;
 import com.duy.pascal.interperter.ast.runtime.value.FunctionCall;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.cloning.SharedStrings;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.declaration.Name;
 import com.duy.pascal.interperter.declaration.lang.types.ArgumentType;
@@ -129,7 +130,7 @@ public class FillCharFunction implements IMethodDeclaration {
             int size = (int) arguments[1].getValue(f, main);
             char value = (char) arguments[2].getValue(f, main);
             if (array.get() instanceof StringBuilder) {
-                StringBuilder s = (StringBuilder) array.get();
+                StringBuilder s = SharedStrings.own((PascalReference<StringBuilder>) array);
                 if (s == null || s.length() < size) {
                     s = new StringBuilder();
                     for (int i = 0; i < size; i++) {
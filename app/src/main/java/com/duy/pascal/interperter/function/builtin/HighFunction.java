@@ -24,6 +24,7 @@ import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.node.Node;
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.ast.runtime.value.FunctionCall;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
@@ -139,8 +140,8 @@ public class HighFunction implements IMethodDeclaration {
             Type declType = runtimeType.declType;
             if (declType instanceof ArrayType) {
                 IntegerRange bounds = ((ArrayType) declType).getBound();
-                Object[] value = (Object[]) this.value.getValue(f, main);
-                int size = value.length;
+                Object value = this.value.getValue(f, main);
+                int size = ArrayStorage.length(value);
                 if (bounds == null) {
                     return size - 1;
                 } else {
@@ -26,6 +26,7 @@ import com.duy.pascal.interperter.ast.expressioncontext.CompileTimeContext;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.node.Node;
 import com.duy.pascal.interperter.ast.runtime.references.PascalReference;
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.ast.runtime.value.FunctionCall;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
@@ -41,7 +42,6 @@ import com.duy.pascal.interperter.declaration.lang.types.subrange.IntegerSubrang
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 
-import java.lang.reflect.Array;
 import java.util.Arrays;
 
 public class SetLengthFunction implements IMethodDeclaration {
@@ -149,17 +149,11 @@ public class SetLengthFunction implements IMethodDeclaration {
 
             PascalReference r = (PascalReference) array.getValue(f, main);
             if (type instanceof ArrayType) {
-                Object[] old = (Object[]) r.get();
-                System.out.println(Arrays.toString(old));
-
-                Object[] array = (Object[]) Array.newInstance(
-                        ((ArrayType) type).getElementType().getStorageClass(), ranges[0]);
-
+                Object old = r.get();
                 //set bound from 0 to range[0]
                 ((ArrayType) type).setBound(new IntegerSubrangeType(0, ranges[0]));
                 //set default value for all element of array
-                setInitValue(array, ((ArrayType) type).getElementType(), ranges, 0, old);
-                r.set(array);
+                r.set(resize(old, ((ArrayType) type).getElementType(), ranges, 0));
             } else if (type.equals(BasicType.StringBuilder)) {
                 StringBuilder value = (StringBuilder) r.get();
                 if (value == null) {
@@ -180,39 +174,30 @@ public class SetLengthFunction implements IMethodDeclaration {
          * range  =   3  4  5
          * array  = a[3][ ][ ]
          *
-         * @param array
+         * @param old         - the old array, its elements are kept
          * @param elementType - element type
-         * @param ranges      | length of {@array} = {@ranges[index]}
+         * @param ranges      | length of new array = {@ranges[index]}
          * @param index       |
-         * @param old
          */
-        private void setInitValue(Object[] array, Type elementType,
-                                  Integer[] ranges, int index, @Nullable Object[] old) {
-            if (elementType instanceof ArrayType) {
-                if (index == ranges.length - 1) {
-                    return;
-                }
+        private Object resize(@Nullable Object old, Type elementType, Integer[] ranges, int index)
+                throws RuntimePascalException {
+            int size = ranges[index];
+            if (elementType instanceof ArrayType && index < ranges.length - 1) {
                 ArrayType arrayType = (ArrayType) elementType;
                 arrayType.setBound(new IntegerSubrangeType(0, ranges[index + 1]));
-                for (int i = 0; i < ranges[index]; i++) {
-                    array[i] = Array.newInstance(arrayType.getElementType().getStorageClass(),
-                            ranges[index + 1]);
-
-                    setInitValue((Object[]) array[i], arrayType.getElementType(), ranges, index + 1,
-                            (old != null && old.length > i) ? (Object[]) old[i] : null);
-                }
-            } else {
-                if (old != null) {
-                    System.arraycopy(old, 0, array, 0, Math.min(array.length, old.length));
-                    for (Integer i = old.length; i < ranges[index]; i++) {
-                        Array.set(array, i, elementType.initialize());
-                    }
-                } else {
-                    for (Integer i = 0; i < ranges[index]; i++) {
-                        Array.set(array, i, elementType.initialize());
-                    }
+                Object[] oldArray = (Object[]) old;
+                Object[] array = ArrayStorage.newObjectArray(arrayType.getTransferClass(), size);
+                for (int i = 0; i < size; i++) {
+                    array[i] = resize((oldArray != null && oldArray.length > i) ? oldArray[i] : null,
+                            arrayType.getElementType(), ranges, index + 1);
                 }
+                return array;
+            }
+            Object array = ArrayStorage.newArray(elementType, size);
+            if (old != null) {
+                ArrayStorage.copy(old, array, Math.min(size, ArrayStorage.length(old)));
             }
+            return array;
         }
     }
 }
@@ -17,79 +17,227 @@
 package com.duy.pascal.interperter.function.io;
 
 import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
+import com.duy.pascal.interperter.ast.runtime.value.OutputValue;
 import com.duy.pascal.interperter.ast.runtime.value.RecordValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
-import com.duy.pascal.interperter.ast.runtime.value.boxing.ArrayBoxer;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
-import com.duy.pascal.interperter.declaration.Name;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Arrays;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Created by Duy on 09-Jun-17.
+ * <p>
+ * Formats the arguments of write and writeln. The values are appended to the buffer of the
+ * output, so integers, reals, chars and booleans are formatted without creating a string.
  */
 
 public class OutputFormatter {
+    /**
+     * the width or the number of decimals is not given
+     */
+    public static final int NO_FORMAT = Integer.MIN_VALUE;
+
     private static final String TAG = "OutputFormatter";
 
-    public static Object[] format(ArrayBoxer args, VariableContext f,
-                                  RuntimeExecutableCodeUnit main) throws RuntimePascalException {
-        RuntimeValue[] runtimeValues = args.getValues();
-        Object[] values = new Object[runtimeValues.length];
-
-        //format value
-        for (int i = 0; i < runtimeValues.length; i++) {
-            RuntimeValue raw = runtimeValues[i];
-            Object value = raw.getValue(f, main);
-            StringBuilder out = new StringBuilder(getValueOutput(value));
-            values[i] = out;
+    private static final char[] SPACES = "                                ".toCharArray();
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L, 100000L,
+            1000000L, 10000000L, 100000000L, 1000000000L, 10000000000L, 100000000000L,
+            1000000000000L, 10000000000000L, 100000000000000L, 1000000000000000L};
+
+    /**
+     * largest scaled value which is rounded with double arithmetic, the distance between two
+     * doubles is less than 1 below it
+     */
+    private static final double MAX_FAST_DECIMAL = 1L << 52;
+
+    /**
+     * Evaluate the arguments of write or writeln and replace the content of the buffer by
+     * their output.
+     * <p>
+     * All arguments are evaluated before the buffer is changed, so a function which is called
+     * by an argument can print with the same buffer.
+     */
+    public static void format(StringBuilder out, RuntimeValue[] args, VariableContext f,
+                              RuntimeExecutableCodeUnit<?> main) throws RuntimePascalException {
+        Object[] values = new Object[args.length];
+        int[] formats = null;
+        for (int i = 0; i < args.length; i++) {
+            RuntimeValue arg = args[i];
+            if (arg instanceof OutputValue) {
+                OutputValue output = (OutputValue) arg;
+                values[i] = output.getTarget().getValue(f, main);
+                if (output.getOutputFormat() != null) {
+                    if (formats == null) {
+                        formats = new int[args.length * 2];
+                        Arrays.fill(formats, NO_FORMAT);
+                    }
+                    formats[i * 2 + 1] = output.getDecimal(f, main);
+                    formats[i * 2] = output.getColumn(f, main);
+                }
+            } else {
+                //the value can not be formatted (enum, set, pointer...)
+                values[i] = String.valueOf(arg.getValue(f, main));
+            }
+        }
+        out.setLength(0);
+        for (int i = 0; i < values.length; i++) {
+            if (formats == null) {
+                appendValue(out, values[i]);
+            } else {
+                appendValue(out, values[i], formats[i * 2], formats[i * 2 + 1]);
+            }
         }
-        return values;
     }
 
-    public static String getValueOutput(Object value) {
-        if (value instanceof Object[]) {
-            return Arrays.toString((Object[]) value);
+    /**
+     * Append a value with the format value:column:decimal
+     *
+     * @param column  - minimum width of output, the value is aligned to the right
+     * @param decimal - number of digits after the decimal point if the value is a real
+     */
+    public static void appendValue(StringBuilder out, Object value, int column, int decimal) {
+        int start = out.length();
+        if (decimal != NO_FORMAT) {
+            appendDecimal(out, value, decimal);
+        } else {
+            appendValue(out, value);
         }
-        if (value instanceof RecordValue) {
-            Set<Map.Entry<Name, Object>> entries = ((RecordValue) value).getVariableMap().entrySet();
-            StringBuilder res = new StringBuilder();
-            for (Map.Entry<Name, Object> entry : entries) {
-                res.append(entry.getValue()).append("\n");
+        int padding = column - (out.length() - start);
+        if (column != NO_FORMAT && padding > 0) {
+            out.insert(start, SPACES, 0, Math.min(padding, SPACES.length));
+            for (padding -= SPACES.length; padding > 0; padding--) {
+                out.insert(start, ' ');
             }
-            return res.toString();
         }
-        if (value instanceof Number) {
-            if (value.equals(((Number) value).longValue())) {
-                return String.valueOf(((Number) value).longValue());
+    }
+
+    public static void appendValue(StringBuilder out, Object value) {
+        if (value instanceof Integer) {
+            out.append((int) (Integer) value);
+        } else if (value instanceof CharSequence) {
+            out.append((CharSequence) value);
+        } else if (value instanceof Double) {
+            out.append((double) (Double) value);
+        } else if (value instanceof Character) {
+            out.append((char) (Character) value);
+        } else if (value instanceof Long) {
+            out.append((long) (Long) value);
+        } else if (value instanceof Boolean) {
+            out.append((boolean) (Boolean) value);
+        } else if (ArrayStorage.isArray(value)) {
+            appendArray(out, value);
+        } else if (value instanceof RecordValue) {
+            RecordValue record = (RecordValue) value;
+            for (int i = 0; i < record.getLayout().size(); i++) {
+                out.append(String.valueOf(record.getField(i))).append("\n");
             }
+        } else {
+            out.append(String.valueOf(value));
         }
-        return String.valueOf(value);
     }
 
-    public static StringBuilder formatDecimal(int decimal, Object value) {
-        StringBuilder out = new StringBuilder(value instanceof Object[] ?
-                Arrays.toString((Object[]) value) : String.valueOf(value));
+    private static void appendArray(StringBuilder out, Object array) {
+        int kind = ArrayStorage.kindOfArray(array);
+        int length = ArrayStorage.length(array);
+        out.append('[');
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            switch (kind) {
+                case ArrayStorage.KIND_INT:
+                    out.append(((int[]) array)[i]);
+                    break;
+                case ArrayStorage.KIND_LONG:
+                    out.append(((long[]) array)[i]);
+                    break;
+                case ArrayStorage.KIND_DOUBLE:
+                    out.append(((double[]) array)[i]);
+                    break;
+                case ArrayStorage.KIND_CHAR:
+                    out.append(((char[]) array)[i]);
+                    break;
+                case ArrayStorage.KIND_BOOLEAN:
+                    out.append(((boolean[]) array)[i]);
+                    break;
+                default:
+                    out.append(String.valueOf(ArrayStorage.get(array, kind, i)));
+            }
+        }
+        out.append(']');
+    }
 
-        StringBuilder pattern = new StringBuilder("#0.");
-        for (int j = 0; j < decimal; j++) {
-            pattern.append("0");
+    /**
+     * Append a real with the given number of digits after the decimal point, the value is rounded
+     * half to even like {@link DecimalFormat}
+     */
+    public static void appendDecimal(StringBuilder out, Object value, int decimal) {
+        double d;
+        if (value instanceof Double) {
+            d = (Double) value;
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            d = ((Number) value).doubleValue();
+        } else {
+            Object text = ArrayStorage.isArray(value) ? getValueOutput(value) : value;
+            d = Double.parseDouble(String.valueOf(text));
+        }
+        if (decimal < 0) {
+            decimal = 0;
+        }
+        if (!appendDecimalFast(out, d, decimal)) {
+            StringBuilder pattern = new StringBuilder("#0.");
+            for (int j = 0; j < decimal; j++) {
+                pattern.append("0");
+            }
+            DecimalFormat decimalFormat = new DecimalFormat(pattern.toString());
+            decimalFormat.setDecimalFormatSymbols(new DecimalFormatSymbols(Locale.ENGLISH));
+            out.append(decimalFormat.format(d));
         }
+    }
 
-        DecimalFormat decimalFormat = new DecimalFormat(pattern.toString());
-        decimalFormat.setDecimalFormatSymbols(new DecimalFormatSymbols(Locale.ENGLISH));
+    /**
+     * @return false if the value can not be rounded exactly with double arithmetic, it is
+     * too large, not finite or too close to the half of the last digit
+     */
+    private static boolean appendDecimalFast(StringBuilder out, double d, int decimal) {
+        if (decimal >= POWERS_OF_TEN.length || Double.isNaN(d) || Double.isInfinite(d)) {
+            return false;
+        }
+        long power = POWERS_OF_TEN[decimal];
+        double scaled = Math.abs(d) * power;
+        if (scaled >= MAX_FAST_DECIMAL) {
+            return false;
+        }
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (Math.abs(fraction - 0.5) <= 2 * Math.ulp(scaled)) {
+            return false;
+        }
+        long rounded = (long) floor + (fraction > 0.5 ? 1 : 0);
+        if (d < 0 || (d == 0 && 1 / d < 0)) {
+            out.append('-');
+        }
+        out.append(rounded / power).append('.');
+        if (decimal > 0) {
+            long digits = rounded % power;
+            for (long p = power / 10; p > digits && p > 1; p /= 10) {
+                out.append('0');
+            }
+            out.append(digits);
+        }
+        return true;
+    }
 
-        Double d = Double.parseDouble(out.toString());
-//        if (d - d.longValue() == 0.d) {
-//            return new StringBuilder(String.valueOf(d.longValue()));
-//        } else {
-        return new StringBuilder(decimalFormat.format(d));
-//        }
+    public static String getValueOutput(Object value) {
+        StringBuilder out = new StringBuilder();
+        appendValue(out, value);
+        return out.toString();
     }
 }
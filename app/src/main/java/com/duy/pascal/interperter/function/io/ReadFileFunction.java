@@ -28,14 +28,19 @@ import com.duy.pascal.interperter.ast.node.Node;
 import com.duy.pascal.interperter.ast.runtime.references.PascalReference;
 import com.duy.pascal.interperter.ast.runtime.value.FunctionCall;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.boxing.ArrayBoxer;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.libraries.file.FileLib;
 import com.duy.pascal.interperter.declaration.Name;
 import com.duy.pascal.interperter.declaration.lang.types.ArgumentType;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
+import com.duy.pascal.interperter.declaration.lang.types.FileType;
+import com.duy.pascal.interperter.declaration.lang.types.PointerType;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 import com.duy.pascal.interperter.declaration.lang.types.Type;
 import com.duy.pascal.interperter.declaration.lang.types.VarargsType;
+import com.duy.pascal.interperter.exceptions.parsing.ParsingException;
+import com.duy.pascal.interperter.exceptions.parsing.convert.UnConvertibleTypeException;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.function.builtin.IMethodDeclaration;
@@ -59,9 +64,33 @@ public class ReadFileFunction implements IMethodDeclaration {
     @Override
     public FunctionCall generateCall(LineNumber line, RuntimeValue[] arguments,
                                      ExpressionContext f) throws Exception {
+        FileType fileType = FileType.of(arguments[0], f);
+        if (fileType != null) {
+            checkRecords(fileType, (ArrayBoxer) arguments[1], line, f);
+        }
         return new ReadFileCall(arguments[0], arguments[1], line);
     }
 
+    /**
+     * The variables which are read from a typed file must have the type of records
+     */
+    private void checkRecords(FileType fileType, ArrayBoxer args, LineNumber line,
+                              ExpressionContext f) throws Exception {
+        Type elementType = fileType.getElementType();
+        if (elementType == null) {
+            throw new ParsingException(line, "Can not read values from an untyped file");
+        }
+        for (RuntimeValue value : args.getValues()) {
+            Type type = value.getRuntimeType(f).declType;
+            if (type instanceof PointerType) {
+                type = ((PointerType) type).pointedToType;
+            }
+            if (!fileType.canReadTo(type)) {
+                throw new UnConvertibleTypeException(value, type, elementType, f);
+            }
+        }
+    }
+
     @Override
     public FunctionCall generatePerfectFitCall(LineNumber line, RuntimeValue[] values, ExpressionContext f) throws Exception {
         return generateCall(line, values, f);
@@ -32,9 +32,11 @@ import com.duy.pascal.interperter.ast.runtime.value.FunctionCall;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.libraries.file.FileLib;
 import com.duy.pascal.interperter.linenumber.LineNumber;
+import com.duy.pascal.interperter.exceptions.parsing.ParsingException;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.declaration.lang.types.ArgumentType;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
+import com.duy.pascal.interperter.declaration.lang.types.FileType;
 import com.duy.pascal.interperter.declaration.lang.types.Type;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 import com.duy.pascal.interperter.declaration.lang.types.VarargsType;
@@ -59,6 +61,9 @@ public class ReadlnFileFunction implements IMethodDeclaration {
     @Override
     public FunctionCall generateCall(LineNumber line, RuntimeValue[] arguments,
                                      ExpressionContext f) throws Exception {
+        if (FileType.of(arguments[0], f) != null) {
+            throw new ParsingException(line, "Readln can only be used with text files");
+        }
         return new ReadLineFileCall(arguments[0], arguments[1], line);
     }
 
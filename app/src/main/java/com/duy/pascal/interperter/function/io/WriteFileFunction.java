@@ -26,16 +26,21 @@ import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
 import com.duy.pascal.interperter.ast.node.Node;
 import com.duy.pascal.interperter.ast.runtime.references.PascalReference;
 import com.duy.pascal.interperter.ast.runtime.value.FunctionCall;
+import com.duy.pascal.interperter.ast.runtime.value.OutputValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.runtime.value.boxing.ArrayBoxer;
+import com.duy.pascal.interperter.ast.runtime.value.cloning.CloneableObjectCloner;
 import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.libraries.file.FileLib;
 import com.duy.pascal.interperter.declaration.Name;
 import com.duy.pascal.interperter.declaration.lang.types.ArgumentType;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
+import com.duy.pascal.interperter.declaration.lang.types.FileType;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 import com.duy.pascal.interperter.declaration.lang.types.Type;
 import com.duy.pascal.interperter.declaration.lang.types.VarargsType;
+import com.duy.pascal.interperter.exceptions.parsing.ParsingException;
+import com.duy.pascal.interperter.exceptions.parsing.convert.UnConvertibleTypeException;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.function.builtin.IMethodDeclaration;
@@ -59,9 +64,46 @@ public class WriteFileFunction implements IMethodDeclaration {
     @Override
     public FunctionCall generateCall(LineNumber line, RuntimeValue[] arguments,
                                      ExpressionContext f) throws Exception {
+        FileType fileType = FileType.of(arguments[0], f);
+        if (fileType != null) {
+            return new WriteFileCall(arguments[0], arguments[1], line,
+                    toRecords(fileType, (ArrayBoxer) arguments[1], line, f));
+        }
         return new WriteFileCall(arguments[0], arguments[1], line);
     }
 
+    /**
+     * Convert the values which are written to a typed file to the type of records
+     */
+    private RuntimeValue[] toRecords(FileType fileType, ArrayBoxer args, LineNumber line,
+                                     ExpressionContext f) throws Exception {
+        Type elementType = fileType.getElementType();
+        if (elementType == null) {
+            throw new ParsingException(line, "Can not write values to an untyped file");
+        }
+        RuntimeValue[] values = args.getValues();
+        RuntimeValue[] records = new RuntimeValue[values.length];
+        for (int i = 0; i < values.length; i++) {
+            RuntimeValue value = values[i];
+            if (value instanceof CloneableObjectCloner) {
+                value = ((CloneableObjectCloner) value).getTarget();
+            }
+            if (value instanceof OutputValue) {
+                //the records are not text, they can not be formatted
+                if (((OutputValue) value).getOutputFormat() != null) {
+                    throw new ParsingException(line, "Can not format values of a typed file");
+                }
+                value = ((OutputValue) value).getTarget();
+            }
+            records[i] = elementType.convert(value, f);
+            if (records[i] == null) {
+                throw new UnConvertibleTypeException(value, elementType,
+                        value.getRuntimeType(f).declType, f);
+            }
+        }
+        return records;
+    }
+
     @Override
     public FunctionCall generatePerfectFitCall(LineNumber line, RuntimeValue[] values, ExpressionContext f) throws Exception {
         return generateCall(line, values, f);
@@ -86,11 +128,22 @@ public class WriteFileFunction implements IMethodDeclaration {
         private RuntimeValue args;
         private LineNumber line;
         private RuntimeValue filePreference;
+        /**
+         * the values which are written to a typed file, null if it is a text file
+         */
+        @Nullable
+        private RuntimeValue[] records;
 
         WriteFileCall(RuntimeValue filePreferences, RuntimeValue args, LineNumber line) {
+            this(filePreferences, args, line, null);
+        }
+
+        WriteFileCall(RuntimeValue filePreferences, RuntimeValue args, LineNumber line,
+                      @Nullable RuntimeValue[] records) {
             this.filePreference = filePreferences;
             this.args = args;
             this.line = line;
+            this.records = records;
         }
 
         @Nullable
@@ -118,13 +171,13 @@ public class WriteFileFunction implements IMethodDeclaration {
         @Override
         public RuntimeValue compileTimeExpressionFold(CompileTimeContext context)
                 throws Exception {
-            return new WriteFileCall(filePreference, args, line);
+            return new WriteFileCall(filePreference, args, line, records);
         }
 
         @Override
         public Node compileTimeConstantTransform(CompileTimeContext c)
                 throws Exception {
-            return new WriteFileCall(filePreference, args, line);
+            return new WriteFileCall(filePreference, args, line, records);
         }
 
         @Override
@@ -139,11 +192,18 @@ public class WriteFileFunction implements IMethodDeclaration {
                 throws RuntimePascalException {
             FileLib fileLib = main.getDeclaration().getContext().getFileHandler();
 
-            ArrayBoxer arrayBoxer = (ArrayBoxer) args;
-            Object[] values = (Object[]) arrayBoxer.getValue(f, main);
-
             PascalReference<File> file = (PascalReference<File>) filePreference.getValue(f, main);
-            fileLib.writeFile(file.get(), values);
+            if (records != null) {
+                for (RuntimeValue record : records) {
+                    fileLib.writeRecord(file.get(), record.getValue(f, main));
+                }
+                return null;
+            }
+
+            ArrayBoxer arrayBoxer = (ArrayBoxer) args;
+            StringBuilder out = fileLib.getOutputBuffer();
+            OutputFormatter.format(out, arrayBoxer.getValues(), f, main);
+            fileLib.writeFile(file.get(), out);
             return null;
         }
 
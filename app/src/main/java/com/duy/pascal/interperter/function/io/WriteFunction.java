@@ -134,10 +134,7 @@ public class WriteFunction implements IMethodDeclaration {
             IOLib ioHandler = main.getDeclaration().getContext().getIOHandler();
 
             ArrayBoxer arrayBoxer = (ArrayBoxer) args;
-            Object[] values = (Object[]) arrayBoxer.getValue(f, main);
-
-
-            ioHandler.print(values);
+            ioHandler.write(arrayBoxer.getValues(), f, main, false);
             return null;
         }
 
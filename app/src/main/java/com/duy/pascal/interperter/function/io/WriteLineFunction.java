@@ -132,11 +132,8 @@ public class WriteLineFunction implements IMethodDeclaration {
                 throws RuntimePascalException {
             IOLib ioHandler = main.getDeclaration().getContext().getIOHandler();
 
-
             ArrayBoxer arrayBoxer = (ArrayBoxer) args;
-            Object[] values = (Object[]) arrayBoxer.getValue(f, main);
-
-            ioHandler.println(values);
+            ioHandler.write(arrayBoxer.getValues(), f, main, true);
             return null;
         }
 
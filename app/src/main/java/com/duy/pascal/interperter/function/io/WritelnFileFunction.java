@@ -33,9 +33,11 @@ import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.interperter.ast.runtime.value.boxing.ArrayBoxer;
 import com.duy.pascal.interperter.libraries.file.FileLib;
 import com.duy.pascal.interperter.linenumber.LineNumber;
+import com.duy.pascal.interperter.exceptions.parsing.ParsingException;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.declaration.lang.types.ArgumentType;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
+import com.duy.pascal.interperter.declaration.lang.types.FileType;
 import com.duy.pascal.interperter.declaration.lang.types.Type;
 import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 import com.duy.pascal.interperter.declaration.lang.types.VarargsType;
@@ -60,6 +62,9 @@ public class WritelnFileFunction implements IMethodDeclaration {
     @Override
     public FunctionCall generateCall(LineNumber line, RuntimeValue[] arguments,
                                      ExpressionContext f) throws Exception {
+        if (FileType.of(arguments[0], f) != null) {
+            throw new ParsingException(line, "Writeln can only be used with text files");
+        }
         return new WriteLineFileCall(arguments[0], arguments[1], line);
     }
 
@@ -138,13 +143,13 @@ public class WritelnFileFunction implements IMethodDeclaration {
         public Object getValueImpl(@NonNull VariableContext f, @NonNull RuntimeExecutableCodeUnit<?> main)
                 throws RuntimePascalException {
             FileLib fileLib = main.getDeclaration().getContext().getFileHandler();
-            ArrayBoxer arrayBoxer = (ArrayBoxer) args;
-            Object[] values = (Object[]) arrayBoxer.getValue(f, main);
-
             PascalReference<File> file = (PascalReference<File>) filePreference.getValue(f, main);
 
-            fileLib.writeFile(file.get(), values);
-            fileLib.writeFile(file.get(), "\n");
+            ArrayBoxer arrayBoxer = (ArrayBoxer) args;
+            StringBuilder out = fileLib.getOutputBuffer();
+            OutputFormatter.format(out, arrayBoxer.getValues(), f, main);
+            out.append('\n');
+            fileLib.writeFile(file.get(), out);
             return null;
         }
 
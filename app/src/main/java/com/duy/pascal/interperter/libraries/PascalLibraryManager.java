@@ -192,6 +192,30 @@ public class PascalLibraryManager {
      */
 
     public void addMethodFromClass(Class<? extends IPascalLibrary> clazz, LineNumber lineNumber) throws PermissionDeniedException, LibraryNotFoundException {
+        addMethodFromLibrary(clazz, newInstance(clazz), lineNumber);
+    }
+
+    /**
+     * Bind the cached methods of a library to a new instance created with the handler of
+     * this program. Uses for a program or a unit which was compiled with another handler
+     */
+    public void bindLibrary(Class<? extends IPascalLibrary> clazz) {
+        if (METHOD_CACHE.containsKey(clazz)) {
+            bindLibrary(clazz, newInstance(clazz));
+        }
+    }
+
+    public void bindLibrary(Class<? extends IPascalLibrary> clazz, @Nullable Object instance) {
+        ArrayList<MethodDeclaration> declarations = METHOD_CACHE.get(clazz);
+        if (declarations != null) {
+            for (MethodDeclaration declaration : declarations) {
+                declaration.setInstance(instance);
+            }
+        }
+    }
+
+    @Nullable
+    private Object newInstance(Class<? extends IPascalLibrary> clazz) {
         Object parent = null;
         Constructor constructor;
         try {
@@ -220,7 +244,7 @@ public class PascalLibraryManager {
             } catch (Exception ignored) {
             }
         }
-        addMethodFromLibrary(clazz, parent, lineNumber);
+        return parent;
     }
 
     /**
@@ -268,6 +292,13 @@ public class PascalLibraryManager {
         addMethodFromClass(SystemLibrary.class, new LineNumber(-1, "system"));
     }
 
+    /**
+     * Bind the system methods loaded by {@link #loadSystemLibrary()} to the handler of this program
+     */
+    public void bindSystemLibrary() {
+        bindLibrary(SystemLibrary.class);
+    }
+
     public void addMethodFromLibrary(Class<? extends IPascalLibrary> clazz,
                                      @Nullable Object instance, @Nullable LineNumber line) throws PermissionDeniedException {
 
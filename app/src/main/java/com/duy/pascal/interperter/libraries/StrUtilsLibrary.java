@@ -18,6 +18,7 @@ package com.duy.pascal.interperter.libraries;
 
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContextMixin;
 import com.duy.pascal.interperter.ast.runtime.references.PascalReference;
+import com.duy.pascal.interperter.ast.runtime.value.cloning.SharedStrings;
 import com.duy.pascal.interperter.libraries.annotations.PascalMethod;
 import com.duy.pascal.interperter.libraries.exceptions.EConvertError;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
@@ -72,6 +73,7 @@ public class StrUtilsLibrary extends PascalLibrary {
     @PascalMethod(description = "Add characters to the left of a string till a certain length")
     public StringBuilder AddChar(char c, StringBuilder s, int index) {
         if (index < s.length()) return s;
+        s = SharedStrings.own(s);
         while (s.length() < index) {
             s.insert(0, c);
         }
@@ -83,6 +85,7 @@ public class StrUtilsLibrary extends PascalLibrary {
             returns = "StringBuilder")
     public StringBuilder AddCharR(char c, StringBuilder s, int index) {
         if (index < s.length()) return s;
+        s = SharedStrings.own(s);
         while (s.length() < index) {
             s.append(c);
         }
@@ -164,6 +167,7 @@ public class StrUtilsLibrary extends PascalLibrary {
 
     @PascalMethod(description = "Pretty-Print a string: make lowercase and capitalize first letters of words")
     public StringBuilder AnsiProperCase(StringBuilder input, char word) {
+        input = SharedStrings.own(input);
         for (int i = 0; i < input.length(); i++) {
             if (input.charAt(i) == word) {
                 if (input.length() - 1 > i) {
@@ -444,7 +448,7 @@ public class StrUtilsLibrary extends PascalLibrary {
 
     @PascalMethod(description = "Replace part of a string with another string.")
     public StringBuilder StuffString(StringBuilder text, int start, int count, StringBuilder replace) {
-        return text.replace(start - 1, start - 1 + count, replace.toString());
+        return SharedStrings.own(text).replace(start - 1, start - 1 + count, replace.toString());
     }
 
 }
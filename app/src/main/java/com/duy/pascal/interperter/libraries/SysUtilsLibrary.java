@@ -18,6 +18,7 @@ package com.duy.pascal.interperter.libraries;
 
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContextMixin;
 import com.duy.pascal.interperter.ast.runtime.references.PascalReference;
+import com.duy.pascal.interperter.ast.runtime.value.cloning.SharedStrings;
 import com.duy.pascal.interperter.libraries.annotations.PascalMethod;
 import com.duy.pascal.interperter.libraries.exceptions.EConvertError;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
@@ -74,7 +75,7 @@ public class SysUtilsLibrary extends PascalLibrary {
 
     @PascalMethod(description = "Append one ansistring to another.")
     public void appendStr(PascalReference<StringBuilder> dest, StringBuilder s) throws RuntimePascalException {
-        dest.set(dest.get().append(s));
+        dest.set(SharedStrings.own(dest).append(s));
     }
 
     @PascalMethod(description = "Convert a string to an integer value.", returns = "int")
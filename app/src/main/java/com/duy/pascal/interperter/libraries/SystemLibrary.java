@@ -20,6 +20,7 @@ import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContextMixin;
 import com.duy.pascal.interperter.ast.runtime.ObjectBasedPointer;
 import com.duy.pascal.interperter.ast.runtime.references.PascalPointer;
 import com.duy.pascal.interperter.ast.runtime.references.PascalReference;
+import com.duy.pascal.interperter.ast.runtime.value.cloning.SharedStrings;
 import com.duy.pascal.interperter.exceptions.parsing.value.OrdinalExpressionExpectedException;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.exceptions.runtime.ScriptTerminatedException;
@@ -443,7 +444,7 @@ public class SystemLibrary extends PascalLibrary {
     @PascalMethod(description = "Delete part of a string")
     public void Delete(PascalReference<StringBuilder> s, int start, int count)
             throws RuntimePascalException {
-        s.set(s.get().delete(start - 1, start + count - 1));
+        s.set(SharedStrings.own(s).delete(start - 1, start + count - 1));
     }
 
     @PascalMethod(description = "Free dynamically allocated memory")
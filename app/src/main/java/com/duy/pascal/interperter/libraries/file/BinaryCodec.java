@@ -0,0 +1,399 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.libraries.file;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContext;
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
+import com.duy.pascal.interperter.ast.runtime.value.EnumElementValue;
+import com.duy.pascal.interperter.ast.runtime.value.RecordValue;
+import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.declaration.lang.types.RecordType;
+import com.duy.pascal.interperter.declaration.lang.types.Type;
+import com.duy.pascal.interperter.declaration.lang.types.set.ArrayType;
+import com.duy.pascal.interperter.declaration.lang.types.set.EnumGroupType;
+import com.duy.pascal.interperter.declaration.lang.types.string.StringLimitType;
+import com.duy.pascal.interperter.declaration.lang.types.subrange.EnumSubrangeType;
+import com.duy.pascal.interperter.declaration.lang.value.VariableDeclaration;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+import com.duy.pascal.interperter.exceptions.runtime.WrongTypeInputException;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Fixed width binary encoding of the values of a pascal type, used by typed files.
+ * <p>
+ * Integers are stored in 4 bytes, int64 and reals in 8 bytes, chars in 2 bytes and booleans in
+ * 1 byte, in big endian. A string is stored as its length in 2 bytes followed by the chars of its
+ * maximum length (255 if the length is not declared), an enum as its ordinal in 4 bytes, a record
+ * as its fields in order and an array with bounds as its elements.
+ */
+public abstract class BinaryCodec {
+    public static final int DEFAULT_STRING_LENGTH = 255;
+
+    private static final BinaryCodec INTEGER = new BinaryCodec(4) {
+        @Override
+        public void write(ByteBuffer buffer, int offset, Object value) {
+            buffer.putInt(offset, ((Number) value).intValue());
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, int offset) {
+            return buffer.getInt(offset);
+        }
+    };
+    private static final BinaryCodec LONG = new BinaryCodec(8) {
+        @Override
+        public void write(ByteBuffer buffer, int offset, Object value) {
+            buffer.putLong(offset, ((Number) value).longValue());
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+    };
+    private static final BinaryCodec DOUBLE = new BinaryCodec(8) {
+        @Override
+        public void write(ByteBuffer buffer, int offset, Object value) {
+            buffer.putDouble(offset, ((Number) value).doubleValue());
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, int offset) {
+            return buffer.getDouble(offset);
+        }
+    };
+    private static final BinaryCodec FLOAT = new BinaryCodec(4) {
+        @Override
+        public void write(ByteBuffer buffer, int offset, Object value) {
+            buffer.putFloat(offset, ((Number) value).floatValue());
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, int offset) {
+            return buffer.getFloat(offset);
+        }
+    };
+    private static final BinaryCodec SHORT = new BinaryCodec(2) {
+        @Override
+        public void write(ByteBuffer buffer, int offset, Object value) {
+            buffer.putShort(offset, ((Number) value).shortValue());
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, int offset) {
+            return buffer.getShort(offset);
+        }
+    };
+    private static final BinaryCodec BYTE = new BinaryCodec(1) {
+        @Override
+        public void write(ByteBuffer buffer, int offset, Object value) {
+            buffer.put(offset, ((Number) value).byteValue());
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, int offset) {
+            return buffer.get(offset);
+        }
+    };
+    private static final BinaryCodec CHAR = new BinaryCodec(2) {
+        @Override
+        public void write(ByteBuffer buffer, int offset, Object value) {
+            buffer.putChar(offset, (Character) value);
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, int offset) {
+            return buffer.getChar(offset);
+        }
+    };
+    private static final BinaryCodec BOOLEAN = new BinaryCodec(1) {
+        @Override
+        public void write(ByteBuffer buffer, int offset, Object value) {
+            buffer.put(offset, (byte) ((Boolean) value ? 1 : 0));
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, int offset) {
+            return buffer.get(offset) != 0;
+        }
+    };
+
+    private final int mSize;
+
+    private BinaryCodec(int size) {
+        this.mSize = size;
+    }
+
+    /**
+     * @param context - context which evaluates the length of strings, null if it is not known
+     * @return the codec of a type, or null if the values of the type do not have a fixed size
+     */
+    @Nullable
+    public static BinaryCodec create(Type type, @Nullable ExpressionContext context) {
+        if (type instanceof ArrayType) {
+            ArrayType<?> arrayType = (ArrayType<?>) type;
+            if (arrayType.isDynamic() || arrayType.getBound() == null) {
+                return null;
+            }
+            BinaryCodec element = create(arrayType.getElementType(), context);
+            if (element == null) {
+                return null;
+            }
+            return new ArrayCodec(arrayType.getTransferClass().getComponentType(),
+                    arrayType.getSize(), element);
+        } else if (type instanceof RecordType) {
+            RecordType recordType = (RecordType) type;
+            return createRecord(recordType.getLayout(), recordType.variableDeclarations, context);
+        } else if (type instanceof StringLimitType) {
+            return new StringCodec(lengthOf((StringLimitType) type, context));
+        } else if (type instanceof EnumGroupType) {
+            return new EnumCodec((EnumGroupType) type);
+        } else if (type instanceof EnumSubrangeType) {
+            return new EnumCodec(((EnumSubrangeType) type).getEnumGroupType());
+        }
+        return forClass(type.getStorageClass());
+    }
+
+    /**
+     * @return the codec of the memory of a variable, used by blockRead and blockWrite which
+     * do not know the type of the buffer
+     */
+    @Nullable
+    public static BinaryCodec forValue(Object value) {
+        if (value instanceof RecordValue) {
+            RecordValue record = (RecordValue) value;
+            return createRecord(record.getLayout(), record.getVariables(), null);
+        } else if (value instanceof EnumElementValue) {
+            return new EnumCodec(((EnumElementValue) value).getEnumGroupType());
+        } else if (ArrayStorage.isArray(value)) {
+            Class<?> component = value.getClass().getComponentType();
+            int length = ArrayStorage.length(value);
+            BinaryCodec element = length > 0 ? forValue(ArrayStorage.get(value, 0))
+                    : forClass(component);
+            if (element == null) {
+                //an empty array of records...
+                element = INTEGER;
+            }
+            return new ArrayCodec(component, length, element);
+        }
+        return value == null ? null : forClass(value.getClass());
+    }
+
+    @Nullable
+    private static BinaryCodec forClass(Class<?> clazz) {
+        switch (ArrayStorage.kindOf(clazz)) {
+            case ArrayStorage.KIND_INT:
+                return INTEGER;
+            case ArrayStorage.KIND_LONG:
+                return LONG;
+            case ArrayStorage.KIND_DOUBLE:
+                return DOUBLE;
+            case ArrayStorage.KIND_FLOAT:
+                return FLOAT;
+            case ArrayStorage.KIND_CHAR:
+                return CHAR;
+            case ArrayStorage.KIND_BOOLEAN:
+                return BOOLEAN;
+            case ArrayStorage.KIND_BYTE:
+                return BYTE;
+            case ArrayStorage.KIND_SHORT:
+                return SHORT;
+        }
+        if (clazz == StringBuilder.class || clazz == String.class) {
+            return new StringCodec(DEFAULT_STRING_LENGTH);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static BinaryCodec createRecord(RecordValue.Layout layout,
+                                            ArrayList<VariableDeclaration> fields,
+                                            @Nullable ExpressionContext context) {
+        BinaryCodec[] codecs = new BinaryCodec[fields.size()];
+        for (int i = 0; i < codecs.length; i++) {
+            codecs[i] = create(fields.get(i).getType(), context);
+            if (codecs[i] == null) {
+                return null;
+            }
+        }
+        return new RecordCodec(layout, codecs);
+    }
+
+    private static int lengthOf(StringLimitType type, @Nullable ExpressionContext context) {
+        RuntimeValue length = type.getLength();
+        try {
+            Object value = length == null ? null : length.compileTimeValue(context);
+            if (value instanceof Number) {
+                return Math.max(0, ((Number) value).intValue());
+            }
+        } catch (Exception ignored) {
+        }
+        return DEFAULT_STRING_LENGTH;
+    }
+
+    /**
+     * @return number of bytes of a value
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Write a value at the offset of the buffer, the position of buffer is not changed
+     *
+     * @throws ClassCastException - the value is not a value of the type
+     */
+    public abstract void write(ByteBuffer buffer, int offset, Object value);
+
+    /**
+     * @return a new value which is read at the offset of the buffer
+     */
+    public abstract Object read(ByteBuffer buffer, int offset) throws RuntimePascalException;
+
+    private static final class StringCodec extends BinaryCodec {
+        private final int mLength;
+
+        StringCodec(int length) {
+            super(2 + length * 2);
+            this.mLength = length;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Object value) {
+            CharSequence text = value instanceof CharSequence ? (CharSequence) value
+                    : String.valueOf((Character) value);
+            int length = Math.min(text.length(), mLength);
+            buffer.putShort(offset, (short) length);
+            offset += 2;
+            for (int i = 0; i < mLength; i++) {
+                buffer.putChar(offset + i * 2, i < length ? text.charAt(i) : '\0');
+            }
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, int offset) {
+            int length = Math.min(buffer.getShort(offset) & 0xFFFF, mLength);
+            StringBuilder text = new StringBuilder(length);
+            offset += 2;
+            for (int i = 0; i < length; i++) {
+                text.append(buffer.getChar(offset + i * 2));
+            }
+            return text;
+        }
+    }
+
+    private static final class EnumCodec extends BinaryCodec {
+        private final EnumGroupType mType;
+
+        EnumCodec(EnumGroupType type) {
+            super(4);
+            this.mType = type;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Object value) {
+            buffer.putInt(offset, ((EnumElementValue) value).getIndex());
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, int offset) throws RuntimePascalException {
+            int index = buffer.getInt(offset);
+            if (index < 0 || index >= mType.getSize()) {
+                throw new WrongTypeInputException("Invalid ordinal of " + mType + ": " + index);
+            }
+            return mType.get(index);
+        }
+    }
+
+    private static final class RecordCodec extends BinaryCodec {
+        private final RecordValue.Layout mLayout;
+        private final BinaryCodec[] mFields;
+
+        RecordCodec(RecordValue.Layout layout, BinaryCodec[] fields) {
+            super(sizeOf(fields));
+            this.mLayout = layout;
+            this.mFields = fields;
+        }
+
+        private static int sizeOf(BinaryCodec[] fields) {
+            int size = 0;
+            for (BinaryCodec field : fields) {
+                size += field.size();
+            }
+            return size;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Object value) {
+            RecordValue record = (RecordValue) value;
+            for (int i = 0; i < mFields.length; i++) {
+                mFields[i].write(buffer, offset, record.getField(i));
+                offset += mFields[i].size();
+            }
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, int offset) throws RuntimePascalException {
+            RecordValue record = new RecordValue(mLayout);
+            for (int i = 0; i < mFields.length; i++) {
+                record.setField(i, mFields[i].read(buffer, offset));
+                offset += mFields[i].size();
+            }
+            return record;
+        }
+    }
+
+    private static final class ArrayCodec extends BinaryCodec {
+        private final Class<?> mComponentType;
+        private final int mLength;
+        private final BinaryCodec mElement;
+
+        ArrayCodec(@NonNull Class<?> componentType, int length, BinaryCodec element) {
+            super(length * element.size());
+            this.mComponentType = componentType;
+            this.mLength = length;
+            this.mElement = element;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Object value) {
+            int kind = ArrayStorage.kindOfArray(value);
+            int length = Math.min(mLength, ArrayStorage.length(value));
+            for (int i = 0; i < length; i++) {
+                mElement.write(buffer, offset, ArrayStorage.get(value, kind, i));
+                offset += mElement.size();
+            }
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer, int offset) throws RuntimePascalException {
+            Object array = Array.newInstance(mComponentType, mLength);
+            int kind = ArrayStorage.kindOfArray(array);
+            for (int i = 0; i < mLength; i++) {
+                ArrayStorage.set(array, kind, i, mElement.read(buffer, offset));
+                offset += mElement.size();
+            }
+            return array;
+        }
+    }
+}
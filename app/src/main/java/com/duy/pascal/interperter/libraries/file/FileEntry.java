@@ -17,32 +17,26 @@
 package com.duy.pascal.interperter.libraries.file;
 
 import com.duy.pascal.interperter.exceptions.runtime.InvalidNumericFormatException;
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
 import com.duy.pascal.interperter.libraries.file.exceptions.DiskReadErrorException;
 import com.duy.pascal.interperter.libraries.file.exceptions.FileNotOpenException;
+import com.duy.pascal.interperter.libraries.file.exceptions.FileNotOpenForInputException;
 import com.duy.pascal.interperter.libraries.file.exceptions.PascalIOException;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.io.Writer;
 import java.util.InputMismatchException;
-import java.util.Locale;
-import java.util.Scanner;
-import java.util.regex.Pattern;
 
 class FileEntry {
     private static final String TAG = "FileEntry";
-    // A pattern for java whitespace
-    private static Pattern WHITESPACE_PATTERN = Pattern.compile(
-            "\\p{javaWhitespace}+");
     private String mFilePath = "";
-    private Writer mWriter;
-    private Scanner fileScanner;
-    private Scanner lineScanner;
+    private TextFileWriter mWriter;
+    private TextFileReader mReader;
+    private RecordFile mRecords;
     private boolean opened = false;
     private File file;
 
@@ -71,15 +65,10 @@ class FileEntry {
      * @throws FileNotFoundException
      */
     public synchronized void reset() throws FileNotFoundException {
-        fileScanner = new Scanner(new FileReader(mFilePath));
-
-        //uses dot symbol for floating number
-        fileScanner.useLocale(Locale.ENGLISH);
-
-        String source = fileScanner.nextLine();
-        lineScanner = new Scanner(source);
-        lineScanner.useLocale(Locale.ENGLISH);
-
+        //the text which was written must be visible to the reader
+        flush();
+        closeReader();
+        mReader = new TextFileReader(new FileReader(mFilePath));
         setOpened(true);
     }
 
@@ -89,7 +78,8 @@ class FileEntry {
             f.getParentFile().mkdirs();
             f.createNewFile();
         }
-        mWriter = (new BufferedWriter(new FileWriter(f, true)));
+        closeWriter();
+        mWriter = new TextFileWriter(new FileWriter(f, true));
         setOpened(true);
     }
 
@@ -104,96 +94,104 @@ class FileEntry {
             file.getParentFile().mkdirs();
             file.createNewFile();
         }
+        closeWriter();
         RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
         randomAccessFile.setLength(0);
         randomAccessFile.close();
-        mWriter = (new BufferedWriter(new FileWriter(file)));
+        mWriter = new TextFileWriter(new FileWriter(file));
         setOpened(true);
     }
 
-    public synchronized int readInteger() throws InvalidNumericFormatException, DiskReadErrorException {
-        checkEndOfLine();
-        int integer;
-        try {
-            integer = lineScanner.nextInt();
-        } catch (InputMismatchException e) {
-            throw new InvalidNumericFormatException("read file");
+    /**
+     * Open a typed or untyped file, the records can be read and written
+     *
+     * @param truncate - true if the file is opened by rewrite
+     */
+    public synchronized void openRecords(int recordSize, boolean truncate) throws IOException {
+        if (truncate && !file.exists()) {
+            file.getParentFile().mkdirs();
+            file.createNewFile();
+        } else if (!file.exists()) {
+            throw new FileNotFoundException(mFilePath);
         }
-        return integer;
+        closeRecords();
+        mRecords = new RecordFile(file, recordSize, truncate);
+        setOpened(true);
     }
 
     /**
-     * Check whether the end of a lineInfo or not? If the end of the lineInfo,
-     * check if the end of the file or not?, if end of file then give an error,
-     * else re-create lineScanner
-     *
-     * @throws DiskReadErrorException - End of file
+     * @return the records of a typed or untyped file
      */
-    public synchronized void checkEndOfLine() throws DiskReadErrorException {
-        try {
-            if (lineScanner != null && lineScanner.hasNext()) {
-                return;
-            }
-        } catch (Exception e) {
-            //if lineScanner is closed or no data
+    public synchronized RecordFile getRecords() throws FileNotOpenException {
+        if (mRecords == null) {
+            throw new FileNotOpenException(mFilePath);
         }
-        assertNotEndOfFile();
-        closeLine();
-        String source = fileScanner.nextLine();
-        lineScanner = new Scanner(source);
-        lineScanner.useLocale(Locale.ENGLISH);
+        return mRecords;
     }
 
-    private void closeLine() {
-        try {
-            if (lineScanner != null) {
-                lineScanner.close();
-            }
-        } catch (Exception ignored) {
+    private TextFileReader getReader() throws FileNotOpenForInputException {
+        if (mReader == null) {
+            throw new FileNotOpenForInputException(mFilePath);
         }
+        return mReader;
+    }
 
+    public synchronized int readInteger() throws RuntimePascalException {
+        assertNotEndOfFile();
+        try {
+            return mReader.readInt();
+        } catch (InputMismatchException e) {
+            throw new InvalidNumericFormatException("read file");
+        } catch (IOException e) {
+            throw new PascalIOException(e);
+        }
     }
 
-    public synchronized long readLong() throws InvalidNumericFormatException,
-            DiskReadErrorException {
-        checkEndOfLine();
-        long l;
+    public synchronized long readLong() throws RuntimePascalException {
+        assertNotEndOfFile();
         try {
-            l = lineScanner.nextLong();
+            return mReader.readLong();
         } catch (InputMismatchException e) {
             throw new InvalidNumericFormatException("read file");
+        } catch (IOException e) {
+            throw new PascalIOException(e);
         }
-        return l;
     }
 
-    public synchronized double readDouble() throws InvalidNumericFormatException,
-            DiskReadErrorException {
-        checkEndOfLine();
-        double d;
+    public synchronized double readDouble() throws RuntimePascalException {
+        assertNotEndOfFile();
         try {
-            d = lineScanner.nextDouble();
+            return mReader.readDouble();
         } catch (InputMismatchException e) {
             throw new InvalidNumericFormatException("read file");
+        } catch (IOException e) {
+            throw new PascalIOException(e);
         }
-        return d;
     }
 
-    public synchronized String readString() throws DiskReadErrorException {
+    public synchronized String readString() throws RuntimePascalException {
         if (isEndOfLine()) {
             nextLine();
             return Character.valueOf((char) 13).toString();
         } else {
-            return lineScanner.nextLine();
+            try {
+                return mReader.readLine();
+            } catch (IOException e) {
+                throw new PascalIOException(e);
+            }
         }
     }
 
-    public char readChar() throws DiskReadErrorException {
+    public synchronized char readChar() throws RuntimePascalException {
         if (isEndOfLine()) {
             nextLine();
             return (char) 13;
         } else {
-            char result = lineScanner.findInLine(".").charAt(0);
-            return result;
+            try {
+                return mReader.readChar();
+            } catch (IOException e) {
+                throw new PascalIOException(e);
+            }
         }
     }
 
@@ -203,63 +201,100 @@ class FileEntry {
      *
      * @throws DiskReadErrorException
      */
-    private void assertNotEndOfFile() throws DiskReadErrorException {
-        if (!fileScanner.hasNext()) {
+    private void assertNotEndOfFile() throws RuntimePascalException {
+        if (isEof()) {
             throw new DiskReadErrorException(mFilePath);
         }
     }
 
-    public synchronized void writeString(Object[] objects) throws PascalIOException {
+    public synchronized void writeString(Object[] objects) throws RuntimePascalException {
         for (Object o : objects) {
-            try {
-                mWriter.write(o.toString());
-                mWriter.flush();
-            } catch (IOException e) {
-                throw new PascalIOException(e);
-            }
+            write(o.toString());
+        }
+    }
+
+    public synchronized void write(CharSequence text) throws RuntimePascalException {
+        if (mWriter == null) {
+            throw new FileNotOpenException(mFilePath);
+        }
+        try {
+            mWriter.write(text);
+        } catch (IOException e) {
+            throw new PascalIOException(e);
         }
     }
 
     /**
-     * close file
+     * Write the buffered text to the file
      */
-    public synchronized void close() throws IOException {
-        if (fileScanner != null) {
-            fileScanner.close();
-            if (lineScanner != null) {
-                lineScanner.close();
+    public synchronized void flush() {
+        try {
+            if (mWriter != null) {
+                mWriter.flush();
             }
+            if (mRecords != null) {
+                mRecords.flush();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void closeReader() {
+        try {
+            if (mReader != null) {
+                mReader.close();
+            }
+        } catch (IOException ignored) {
         }
+        mReader = null;
+    }
+
+    private void closeWriter() {
         try {
             if (mWriter != null) {
-                mWriter.flush();
                 mWriter.close();
             }
         } catch (IOException ignored) {
         }
-        setOpened(false);
+        mWriter = null;
     }
 
-    public boolean isEof() {
-        if (lineScanner != null) {
-            if (lineScanner.hasNext()) {
-                return false;
-            } else {
-                return !fileScanner.hasNext();
+    private void closeRecords() {
+        try {
+            if (mRecords != null) {
+                mRecords.close();
             }
-        } else {
-            return !fileScanner.hasNext();
+        } catch (IOException ignored) {
         }
+        mRecords = null;
     }
 
-    public synchronized void nextLine() {
-        if (fileScanner.hasNext()) {
-            String line = fileScanner.nextLine();
-            if (lineScanner != null) {
-                lineScanner.close();
-            }
-            lineScanner = new Scanner(line);
-            lineScanner.useLocale(Locale.ENGLISH);
+    /**
+     * close file
+     */
+    public synchronized void close() throws IOException {
+        closeReader();
+        closeWriter();
+        closeRecords();
+        setOpened(false);
+    }
+
+    public synchronized boolean isEof() throws RuntimePascalException {
+        if (mRecords != null) {
+            return mRecords.isEndOfFile();
+        }
+        try {
+            return getReader().isEndOfFile();
+        } catch (IOException e) {
+            throw new PascalIOException(e);
+        }
+    }
+
+    public synchronized void nextLine() throws RuntimePascalException {
+        try {
+            getReader().nextLine();
+        } catch (IOException e) {
+            throw new PascalIOException(e);
         }
     }
 
@@ -277,18 +312,11 @@ class FileEntry {
         }
     }
 
-    public boolean isEndOfLine() throws DiskReadErrorException {
+    public synchronized boolean isEndOfLine() throws RuntimePascalException {
         try {
-            if (lineScanner != null) {
-                if (lineScanner.hasNext()) {
-                    return false;
-                } else {
-                    return true;
-                }
-            }
-        } catch (Exception e) {
-            //if lineScanner is closed or no data
+            return getReader().isEndOfLine();
+        } catch (IOException e) {
+            throw new PascalIOException(e);
         }
-        return isEof();
     }
-}
\ No newline at end of file
+}
@@ -26,16 +26,20 @@ import com.duy.pascal.interperter.ast.runtime.value.RecordValue;
 import com.duy.pascal.interperter.libraries.PascalLibrary;
 import com.duy.pascal.interperter.libraries.annotations.PascalMethod;
 import com.duy.pascal.interperter.libraries.exceptions.CanNotReadVariableException;
+import com.duy.pascal.interperter.libraries.file.exceptions.DiskReadErrorException;
 import com.duy.pascal.interperter.libraries.file.exceptions.FileNotAssignException;
 import com.duy.pascal.interperter.libraries.file.exceptions.FileNotOpenException;
 import com.duy.pascal.interperter.libraries.file.exceptions.FileNotOpenForInputException;
+import com.duy.pascal.interperter.libraries.file.exceptions.PascalIOException;
 import com.duy.pascal.interperter.libraries.io.IInOutListener;
 import com.duy.pascal.interperter.declaration.lang.value.VariableDeclaration;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+import com.duy.pascal.interperter.exceptions.runtime.WrongTypeInputException;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -49,6 +53,7 @@ public class FileLib extends PascalLibrary {
      */
     private HashMap<String, FileEntry> mFilesMap = new HashMap<>();
     private IInOutListener inOutListener;
+    private StringBuilder mOutputBuffer = new StringBuilder();
 
     public FileLib() {
 
@@ -68,6 +73,10 @@ public class FileLib extends PascalLibrary {
         if (!file.exists()) {
             file = new File(inOutListener.getCurrentDirectory(), name.toString());
         }
+        if (fileVariable.get() instanceof TypedFile) {
+            //keep the type of records
+            file = new TypedFile(file.getPath(), ((TypedFile) fileVariable.get()).getCodec());
+        }
         DLog.d("File " + file);
         fileVariable.set(file);
 
@@ -87,9 +96,23 @@ public class FileLib extends PascalLibrary {
     @PascalMethod(description = "library file")
     public void reset(PascalReference<File> fileVariable) throws
             FileNotFoundException, RuntimePascalException {
+        reset(fileVariable, TypedFile.DEFAULT_RECORD_SIZE);
+    }
+
+    /**
+     * open file for read, the records of an untyped file have the given size
+     */
+    @PascalMethod(description = "library file")
+    public void reset(PascalReference<File> fileVariable, int size) throws
+            FileNotFoundException, RuntimePascalException {
         assertFileAssigned(fileVariable);
-        //throw file not found exception
-        mFilesMap.get(fileVariable.get().getPath()).reset();
+        File file = fileVariable.get();
+        if (file instanceof TypedFile) {
+            openRecords((TypedFile) file, size, false);
+        } else {
+            //throw file not found exception
+            mFilesMap.get(file.getPath()).reset();
+        }
     }
 
     /**
@@ -122,14 +145,167 @@ public class FileLib extends PascalLibrary {
      */
     @PascalMethod(description = "library file")
     public void rewrite(PascalReference<File> fileVariable) throws IOException, RuntimePascalException {
-        assertFileAssigned(fileVariable);
-
-        mFilesMap.get(fileVariable.get().getPath()).rewrite();
+        rewrite(fileVariable, TypedFile.DEFAULT_RECORD_SIZE);
     }
 
     @PascalMethod(description = "library file")
     public void rewrite(PascalReference<File> fileVariable, int size) throws IOException, RuntimePascalException {
-        rewrite(fileVariable);
+        assertFileAssigned(fileVariable);
+        File file = fileVariable.get();
+        if (file instanceof TypedFile) {
+            openRecords((TypedFile) file, size, true);
+        } else {
+            mFilesMap.get(file.getPath()).rewrite();
+        }
+    }
+
+    private void openRecords(TypedFile file, int size, boolean truncate)
+            throws RuntimePascalException {
+        try {
+            mFilesMap.get(file.getPath()).openRecords(file.getRecordSize(size), truncate);
+        } catch (FileNotFoundException e) {
+            throw new com.duy.pascal.interperter.libraries.file.exceptions.FileNotFoundException(
+                    file.getPath());
+        } catch (IOException e) {
+            throw new PascalIOException(e);
+        }
+    }
+
+    private RecordFile getRecords(File file) throws RuntimePascalException {
+        assertFileOpened(file);
+        return mFilesMap.get(file.getPath()).getRecords();
+    }
+
+    @NonNull
+    private BinaryCodec getCodec(File file) throws RuntimePascalException {
+        BinaryCodec codec = file instanceof TypedFile ? ((TypedFile) file).getCodec() : null;
+        if (codec == null) {
+            throw new WrongTypeInputException("Can not read or write a value of untyped file "
+                    + file.getPath());
+        }
+        return codec;
+    }
+
+    /**
+     * move to the record at the position of a typed or untyped file, the first record is 0
+     */
+    @PascalMethod(description = "Set file position")
+    public void seek(PascalReference<File> fileVariable, long position) throws RuntimePascalException {
+        try {
+            getRecords(fileVariable.get()).seek(position);
+        } catch (IOException e) {
+            throw new PascalIOException(e);
+        }
+    }
+
+    /**
+     * @return index of the current record of a typed or untyped file
+     */
+    @PascalMethod(description = "Get position in file")
+    public int filePos(PascalReference<File> fileVariable) throws RuntimePascalException {
+        return (int) getRecords(fileVariable.get()).position();
+    }
+
+    /**
+     * @return number of records of a typed or untyped file
+     */
+    @PascalMethod(description = "Size of file")
+    public int fileSize(PascalReference<File> fileVariable) throws RuntimePascalException {
+        return (int) getRecords(fileVariable.get()).size();
+    }
+
+    /**
+     * delete the records from the current position to the end of file
+     */
+    @PascalMethod(description = "Truncate the file at position")
+    public void truncate(PascalReference<File> fileVariable) throws RuntimePascalException {
+        getRecords(fileVariable.get()).truncate();
+    }
+
+    /**
+     * Read the records to the memory of a variable, the bytes after the records keep the value
+     * of the variable
+     *
+     * @param partial - true if less records may be read at the end of file
+     * @return number of records which were read
+     */
+    private int blockRead(File file, PascalReference<Object> buffer, int count, boolean partial)
+            throws RuntimePascalException {
+        RecordFile records = getRecords(file);
+        Object value = buffer.get();
+        ByteBuffer bytes = getBlock(file, value, count);
+        int read = records.available(count);
+        if (read < count && !partial) {
+            throw new DiskReadErrorException(file.getPath());
+        }
+        try {
+            records.read(bytes, read);
+            buffer.set(BinaryCodec.forValue(value).read(bytes, 0));
+        } catch (IOException e) {
+            throw new PascalIOException(e);
+        }
+        return read;
+    }
+
+    private int blockWrite(File file, PascalReference<Object> buffer, int count)
+            throws RuntimePascalException {
+        RecordFile records = getRecords(file);
+        try {
+            records.write(getBlock(file, buffer.get(), count), count);
+        } catch (IOException e) {
+            throw new PascalIOException(e);
+        }
+        return count;
+    }
+
+    /**
+     * @return the bytes of a variable which is the buffer of blockRead or blockWrite
+     */
+    private ByteBuffer getBlock(File file, Object value, int count) throws RuntimePascalException {
+        BinaryCodec codec = BinaryCodec.forValue(value);
+        if (codec == null) {
+            throw new CanNotReadVariableException(value);
+        }
+        long length = (long) count * getRecords(file).getRecordSize();
+        if (count < 0 || length > codec.size()) {
+            throw new WrongTypeInputException("Size of variable is " + codec.size()
+                    + " bytes, it can not contain " + count + " records");
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(codec.size());
+        codec.write(bytes, 0, value);
+        return bytes;
+    }
+
+    /**
+     * read the records of a typed or untyped file to a variable
+     */
+    @PascalMethod(description = "Read data from an untyped file into memory")
+    public void blockRead(PascalReference<File> fileVariable, PascalReference<Object> buffer,
+                          int count) throws RuntimePascalException {
+        assertFileOpenForInput(fileVariable);
+        blockRead(fileVariable.get(), buffer, count, false);
+    }
+
+    @PascalMethod(description = "Read data from an untyped file into memory")
+    public void blockRead(PascalReference<File> fileVariable, PascalReference<Object> buffer,
+                          int count, PascalReference<Integer> result) throws RuntimePascalException {
+        assertFileOpenForInput(fileVariable);
+        result.set(blockRead(fileVariable.get(), buffer, count, true));
+    }
+
+    /**
+     * write the memory of a variable to the records of a typed or untyped file
+     */
+    @PascalMethod(description = "Write data from memory to an untyped file")
+    public void blockWrite(PascalReference<File> fileVariable, PascalReference<Object> buffer,
+                           int count) throws RuntimePascalException {
+        blockWrite(fileVariable.get(), buffer, count);
+    }
+
+    @PascalMethod(description = "Write data from memory to an untyped file")
+    public void blockWrite(PascalReference<File> fileVariable, PascalReference<Object> buffer,
+                           int count, PascalReference<Integer> result) throws RuntimePascalException {
+        result.set(blockWrite(fileVariable.get(), buffer, count));
     }
 
 
@@ -216,10 +392,6 @@ public class FileLib extends PascalLibrary {
         assertFileOpenForInput(fileVariable);
     }
 
-    private void blockRead(PascalReference<File> fileVariable) throws RuntimePascalException {
-        assertFileOpenForInput(fileVariable);
-    }
-
     @PascalMethod(description = "library file")
     public void append(PascalReference<File> fileVariable) throws RuntimePascalException,
             IOException {
@@ -305,6 +477,37 @@ public class FileLib extends PascalLibrary {
         file.writeString(objects);
     }
 
+    public void writeFile(File fileVariable, CharSequence text) throws RuntimePascalException {
+        assertFileOpened(fileVariable);
+        mFilesMap.get(fileVariable.getPath()).write(text);
+    }
+
+    /**
+     * @return buffer of the output of write and writeln to a file, it is reused by every call
+     */
+    public StringBuilder getOutputBuffer() {
+        return mOutputBuffer;
+    }
+
+    /**
+     * write the buffered text to the file
+     */
+    @PascalMethod(description = "Write the buffered text to the file")
+    public void flush(PascalReference<File> fileVariable) throws RuntimePascalException {
+        assertFileOpened(fileVariable);
+        mFilesMap.get(fileVariable.get().getPath()).flush();
+    }
+
+    /**
+     * Write the buffered text of all files, called when the program ends so the files which
+     * are not closed are not truncated
+     */
+    public void flushAll() {
+        for (FileEntry entry : mFilesMap.values()) {
+            entry.flush();
+        }
+    }
+
     @Override
     @PascalMethod(description = "stop")
     public void onFinalize() {
@@ -344,14 +547,53 @@ public class FileLib extends PascalLibrary {
     }
 
     public void readz(File file, PascalReference[] values) throws RuntimePascalException {
+        if (file instanceof TypedFile) {
+            readRecords(file, values);
+            return;
+        }
         setValueForVariables(file, values);
     }
 
+    /**
+     * read the next records of a typed file to the variables
+     */
+    @SuppressWarnings("unchecked")
+    private void readRecords(File file, PascalReference[] values) throws RuntimePascalException {
+        RecordFile records = getRecords(file);
+        BinaryCodec codec = getCodec(file);
+        try {
+            for (PascalReference value : values) {
+                if (records.isEndOfFile()) {
+                    throw new DiskReadErrorException(file.getPath());
+                }
+                value.set(records.read(codec));
+            }
+        } catch (IOException e) {
+            throw new PascalIOException(e);
+        }
+    }
+
+    /**
+     * write a record to the current position of a typed file
+     */
+    public void writeRecord(File file, Object value) throws RuntimePascalException {
+        RecordFile records = getRecords(file);
+        try {
+            records.write(getCodec(file), value);
+        } catch (IOException e) {
+            throw new PascalIOException(e);
+        }
+    }
+
     /**
      * read file and  move cursor to new line
      */
     public void readlnz(File fileVariable, PascalReference... args)
             throws RuntimePascalException {
+        if (fileVariable instanceof TypedFile) {
+            readRecords(fileVariable, args);
+            return;
+        }
         if (args.length == 0) {
             assertFileOpenForInput(fileVariable);
             mFilesMap.get(fileVariable.getPath()).nextLine();
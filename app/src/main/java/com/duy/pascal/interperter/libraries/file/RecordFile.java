@@ -0,0 +1,218 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.libraries.file;
+
+import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A typed or untyped pascal file, which is a sequence of records of the same size.
+ * <p>
+ * The file is mapped in memory so the records are read and written at any position without
+ * system calls. When a record is written after the end of the mapped region, the region is
+ * mapped again with a larger size, which also grows the file, so the file is truncated to the
+ * size of its records when it is flushed or closed.
+ */
+class RecordFile {
+    private static final int MIN_MAP_SIZE = 64 * 1024;
+
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    private final int mRecordSize;
+    private final boolean mReadOnly;
+
+    /**
+     * the mapped region from the start of file, null if nothing is mapped
+     */
+    private MappedByteBuffer mBuffer;
+
+    /**
+     * size of the file in bytes, the file may be larger when a region was mapped after its end
+     */
+    private long mSize;
+
+    /**
+     * index of the current record
+     */
+    private long mPosition = 0;
+
+    /**
+     * @param truncate - delete the content of file
+     */
+    RecordFile(File file, int recordSize, boolean truncate) throws IOException {
+        if (!file.canWrite() && !truncate) {
+            mFile = new RandomAccessFile(file, "r");
+            mReadOnly = true;
+        } else {
+            mFile = new RandomAccessFile(file, "rw");
+            mReadOnly = false;
+        }
+        mChannel = mFile.getChannel();
+        if (truncate) {
+            mChannel.truncate(0);
+        }
+        mRecordSize = Math.max(1, recordSize);
+        mSize = mChannel.size();
+    }
+
+    int getRecordSize() {
+        return mRecordSize;
+    }
+
+    /**
+     * @return number of records in the file
+     */
+    long size() {
+        return mSize / mRecordSize;
+    }
+
+    /**
+     * @return index of the current record
+     */
+    long position() {
+        return mPosition;
+    }
+
+    void seek(long position) throws IOException {
+        if (position < 0) {
+            throw new IOException("Negative position " + position);
+        }
+        mPosition = position;
+    }
+
+    boolean isEndOfFile() {
+        return mPosition >= size();
+    }
+
+    /**
+     * Delete the records from the current position to the end of file
+     */
+    void truncate() {
+        mSize = Math.min(mSize, mPosition * mRecordSize);
+    }
+
+    /**
+     * @return number of records which can be read from the current position, at most count
+     */
+    int available(int count) {
+        return (int) Math.max(0, Math.min(count, size() - mPosition));
+    }
+
+    /**
+     * Map the region which contains the bytes from the start of file to the end
+     *
+     * @param writable - the bytes are written, so the file may grow
+     */
+    private MappedByteBuffer map(long end, boolean writable) throws IOException {
+        if (end > Integer.MAX_VALUE) {
+            throw new IOException("File is too large " + end);
+        }
+        if (mBuffer == null || mBuffer.capacity() < end) {
+            long size = end;
+            if (writable) {
+                if (mReadOnly) {
+                    throw new IOException("File is read only");
+                }
+                long capacity = mBuffer == null ? 0 : mBuffer.capacity();
+                size = Math.min(Integer.MAX_VALUE,
+                        Math.max(end, Math.max(capacity * 2, MIN_MAP_SIZE)));
+            } else {
+                size = Math.max(size, mSize);
+            }
+            mBuffer = mChannel.map(mReadOnly ? FileChannel.MapMode.READ_ONLY
+                    : FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        return mBuffer;
+    }
+
+    /**
+     * @return the next record, must not be called at the end of file
+     */
+    Object read(BinaryCodec codec) throws IOException, RuntimePascalException {
+        long offset = mPosition * mRecordSize;
+        Object value = codec.read(map(offset + mRecordSize, false), (int) offset);
+        mPosition++;
+        return value;
+    }
+
+    /**
+     * Write the record at the current position and move to the next record
+     */
+    void write(BinaryCodec codec, Object value) throws IOException {
+        long offset = mPosition * mRecordSize;
+        long end = offset + mRecordSize;
+        codec.write(map(end, true), (int) offset, value);
+        mPosition++;
+        mSize = Math.max(mSize, end);
+    }
+
+    /**
+     * Copy the bytes of the records from the current position
+     *
+     * @param count - number of records, must not be more than {@link #available(int)}
+     */
+    void read(ByteBuffer dest, int count) throws IOException {
+        int offset = (int) (mPosition * mRecordSize);
+        int length = count * mRecordSize;
+        MappedByteBuffer buffer = map(offset + length, false);
+        buffer.limit(offset + length).position(offset);
+        dest.put(buffer);
+        buffer.clear();
+        mPosition += count;
+    }
+
+    /**
+     * Write the bytes of the records at the current position
+     */
+    void write(ByteBuffer src, int count) throws IOException {
+        long offset = mPosition * mRecordSize;
+        int length = count * mRecordSize;
+        MappedByteBuffer buffer = map(offset + length, true);
+        src.limit(src.position() + length);
+        buffer.position((int) offset);
+        buffer.put(src);
+        buffer.clear();
+        mPosition += count;
+        mSize = Math.max(mSize, offset + length);
+    }
+
+    /**
+     * Remove the bytes which were added to the file by the mapped region
+     */
+    void flush() throws IOException {
+        if (!mReadOnly && mChannel.size() != mSize) {
+            //the region must be mapped again after the file is truncated
+            mBuffer = null;
+            mChannel.truncate(mSize);
+        }
+    }
+
+    void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            mBuffer = null;
+            mFile.close();
+        }
+    }
+}
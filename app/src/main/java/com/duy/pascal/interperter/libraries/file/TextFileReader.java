@@ -0,0 +1,308 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.libraries.file;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.Locale;
+import java.util.Scanner;
+
+/**
+ * Reader of a pascal text file, or of the standard input when it is redirected.
+ * <p>
+ * The text is read into a char buffer which only grows when a line or a run of white spaces
+ * is longer than it. Integers and reals are parsed in the buffer, the tokens which are not
+ * plain numbers (digit grouping...) are parsed by a {@link Scanner} like before.
+ * <p>
+ * A line is empty (end of line) if the rest of it only contains white spaces, and the end of
+ * file is reached if the rest of file only contains white spaces.
+ */
+public class TextFileReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * maximum number of significant digits of a real which is computed exactly
+     */
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+            1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final Reader mReader;
+    private char[] mBuffer = new char[BUFFER_SIZE];
+    private int mPosition = 0;
+    private int mLimit = 0;
+    private boolean mEndOfStream = false;
+
+    public TextFileReader(Reader reader) {
+        this.mReader = reader;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+    }
+
+    /**
+     * Make sure that the char at the offset from the current position is in the buffer
+     *
+     * @return false if the offset is after the end of file
+     */
+    private boolean ensure(int offset) throws IOException {
+        while (mPosition + offset >= mLimit) {
+            if (mEndOfStream) {
+                return false;
+            }
+            fill();
+        }
+        return true;
+    }
+
+    private void fill() throws IOException {
+        if (mPosition > 0) {
+            System.arraycopy(mBuffer, mPosition, mBuffer, 0, mLimit - mPosition);
+            mLimit -= mPosition;
+            mPosition = 0;
+        }
+        if (mLimit == mBuffer.length) {
+            mBuffer = Arrays.copyOf(mBuffer, mBuffer.length * 2);
+        }
+        int count = mReader.read(mBuffer, mLimit, mBuffer.length - mLimit);
+        if (count < 0) {
+            mEndOfStream = true;
+        } else {
+            mLimit += count;
+        }
+    }
+
+    /**
+     * @param stopAtLineEnd - only check the rest of current line
+     * @return true if there are only white spaces from the offset
+     */
+    private boolean isBlank(int offset, boolean stopAtLineEnd) throws IOException {
+        while (ensure(offset)) {
+            char c = mBuffer[mPosition + offset];
+            if (stopAtLineEnd && isLineTerminator(c)) {
+                return true;
+            }
+            if (!Character.isWhitespace(c)) {
+                return false;
+            }
+            offset++;
+        }
+        return true;
+    }
+
+    /**
+     * @return offset of the terminator of current line, or of the end of file
+     */
+    private int lineEnd() throws IOException {
+        int offset = 0;
+        while (ensure(offset) && !isLineTerminator(mBuffer[mPosition + offset])) {
+            offset++;
+        }
+        return offset;
+    }
+
+    public boolean isEndOfLine() throws IOException {
+        return isBlank(0, true);
+    }
+
+    public boolean isEndOfFile() throws IOException {
+        return isBlank(0, false);
+    }
+
+    /**
+     * Move to the next line if there is a token after the current line
+     */
+    public void nextLine() throws IOException {
+        int next = lineEnd();
+        if (ensure(next)) {
+            char c = mBuffer[mPosition + next];
+            next++;
+            if (c == '\r' && ensure(next) && mBuffer[mPosition + next] == '\n') {
+                next++;
+            }
+        }
+        if (!isBlank(next, false)) {
+            mPosition += next;
+        }
+    }
+
+    /**
+     * @return the rest of current line, the line terminator is not read
+     */
+    public String readLine() throws IOException {
+        int end = lineEnd();
+        String line = new String(mBuffer, mPosition, end);
+        mPosition += end;
+        return line;
+    }
+
+    /**
+     * @return next char of current line, must not be called at the end of file
+     */
+    public char readChar() throws IOException {
+        ensure(0);
+        return mBuffer[mPosition++];
+    }
+
+    /**
+     * Skip the white spaces before a token and find the length of the token, must not be called
+     * at the end of file
+     */
+    private int nextToken() throws IOException {
+        while (ensure(0) && Character.isWhitespace(mBuffer[mPosition])) {
+            mPosition++;
+        }
+        int length = 0;
+        while (ensure(length) && !Character.isWhitespace(mBuffer[mPosition + length])) {
+            length++;
+        }
+        return length;
+    }
+
+    private Scanner tokenScanner(int length) {
+        Scanner scanner = new Scanner(new String(mBuffer, mPosition, length));
+        scanner.useLocale(Locale.ENGLISH);
+        return scanner;
+    }
+
+    /**
+     * @throws InputMismatchException - the token is not an integer or it is out of range
+     */
+    long readLong(long min, long max) throws IOException {
+        int length = nextToken();
+        char[] buffer = mBuffer;
+        int start = mPosition;
+        int end = start + length;
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+        //accumulate negatively, the range of negative numbers is larger
+        long result = 0;
+        boolean valid = i < end && length <= 19;
+        for (; valid && i < end; i++) {
+            char c = buffer[i];
+            if (c < '0' || c > '9') {
+                valid = false;
+            } else {
+                result = result * 10 - (c - '0');
+                valid = result <= 0;
+            }
+        }
+        if (valid && !negative) {
+            result = -result;
+            valid = result >= 0;
+        }
+        if (!valid || result < min || result > max) {
+            //digit grouping, other digits or out of range
+            Scanner scanner = tokenScanner(length);
+            result = max == Integer.MAX_VALUE ? scanner.nextInt() : scanner.nextLong();
+        }
+        mPosition = end;
+        return result;
+    }
+
+    public int readInt() throws IOException {
+        return (int) readLong(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public long readLong() throws IOException {
+        return readLong(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @throws InputMismatchException - the token is not a real
+     */
+    public double readDouble() throws IOException {
+        int length = nextToken();
+        char[] buffer = mBuffer;
+        int start = mPosition;
+        int end = start + length;
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean hasDigit = false;
+        for (; i < end && buffer[i] >= '0' && buffer[i] <= '9'; i++) {
+            hasDigit = true;
+            if (mantissa != 0 || buffer[i] != '0') {
+                digits++;
+            }
+            mantissa = mantissa * 10 + (buffer[i] - '0');
+            if (digits > MAX_EXACT_DIGITS) break;
+        }
+        if (i < end && buffer[i] == '.' && digits <= MAX_EXACT_DIGITS) {
+            for (i++; i < end && buffer[i] >= '0' && buffer[i] <= '9'; i++) {
+                hasDigit = true;
+                if (mantissa != 0 || buffer[i] != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (buffer[i] - '0');
+                exponent--;
+                if (digits > MAX_EXACT_DIGITS) break;
+            }
+        }
+        if (hasDigit && i < end && (buffer[i] == 'e' || buffer[i] == 'E')
+                && digits <= MAX_EXACT_DIGITS) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+                negativeExponent = buffer[i] == '-';
+                i++;
+            }
+            int value = 0;
+            boolean hasExponentDigit = false;
+            for (; i < end && buffer[i] >= '0' && buffer[i] <= '9' && value < 10000; i++) {
+                hasExponentDigit = true;
+                value = value * 10 + (buffer[i] - '0');
+            }
+            if (!hasExponentDigit) {
+                hasDigit = false;
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        double result;
+        if (hasDigit && i == end && digits <= MAX_EXACT_DIGITS
+                && exponent >= -22 && exponent <= 22) {
+            //both the mantissa and the power of ten are exact, so the result is rounded once
+            result = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent]
+                    : mantissa * POWERS_OF_TEN[exponent];
+            if (negative) {
+                result = -result;
+            }
+        } else {
+            result = tokenScanner(length).nextDouble();
+        }
+        mPosition = end;
+        return result;
+    }
+
+    public void close() throws IOException {
+        mReader.close();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.libraries.file;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer of a pascal text file, the text is copied to a char buffer which is written to the
+ * file when it is full, flushed or closed.
+ */
+class TextFileWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer mWriter;
+    private final char[] mBuffer = new char[BUFFER_SIZE];
+    private int mCount = 0;
+
+    TextFileWriter(Writer writer) {
+        this.mWriter = writer;
+    }
+
+    void write(CharSequence text) throws IOException {
+        int length = text.length();
+        int start = 0;
+        while (start < length) {
+            if (mCount == mBuffer.length) {
+                flushBuffer();
+            }
+            int count = Math.min(length - start, mBuffer.length - mCount);
+            if (text instanceof String) {
+                ((String) text).getChars(start, start + count, mBuffer, mCount);
+            } else if (text instanceof StringBuilder) {
+                ((StringBuilder) text).getChars(start, start + count, mBuffer, mCount);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    mBuffer[mCount + i] = text.charAt(start + i);
+                }
+            }
+            mCount += count;
+            start += count;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (mCount > 0) {
+            mWriter.write(mBuffer, 0, mCount);
+            mCount = 0;
+        }
+    }
+
+    void flush() throws IOException {
+        flushBuffer();
+        mWriter.flush();
+    }
+
+    void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            mWriter.close();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.libraries.file;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+
+/**
+ * Value of a variable of a binary file ("file of integer" or "file"), it keeps the encoding of
+ * the records so the file library can read and write them.
+ */
+public class TypedFile extends File {
+    /**
+     * size of the records of an untyped file if it is not given to reset or rewrite
+     */
+    public static final int DEFAULT_RECORD_SIZE = 128;
+
+    @Nullable
+    private final BinaryCodec mCodec;
+
+    /**
+     * @param codec - encoding of the records, null if the file is untyped
+     */
+    public TypedFile(@NonNull String path, @Nullable BinaryCodec codec) {
+        super(path);
+        this.mCodec = codec;
+    }
+
+    @Nullable
+    public BinaryCodec getCodec() {
+        return mCodec;
+    }
+
+    /**
+     * @param size - size of record which is given to reset or rewrite
+     * @return size of the records of this file
+     */
+    int getRecordSize(int size) {
+        return mCodec != null ? mCodec.size() : size;
+    }
+}
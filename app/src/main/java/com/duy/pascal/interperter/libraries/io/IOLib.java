@@ -17,20 +17,29 @@
 package com.duy.pascal.interperter.libraries.io;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.duy.pascal.interperter.ast.codeunit.RuntimeExecutableCodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContextMixin;
 import com.duy.pascal.interperter.ast.runtime.references.PascalReference;
+import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.variablecontext.VariableContext;
 import com.duy.pascal.interperter.core.PascalCompilerFactory;
 import com.duy.pascal.interperter.exceptions.parsing.io.InputStreamNotFoundException;
 import com.duy.pascal.interperter.exceptions.runtime.InvalidNumericFormatException;
 import com.duy.pascal.interperter.exceptions.runtime.RuntimePascalException;
+import com.duy.pascal.interperter.function.io.OutputFormatter;
 import com.duy.pascal.interperter.libraries.PascalLibrary;
 import com.duy.pascal.interperter.libraries.annotations.PascalMethod;
 import com.duy.pascal.interperter.libraries.exceptions.CanNotReadVariableException;
+import com.duy.pascal.interperter.libraries.file.TextFileReader;
+import com.duy.pascal.interperter.libraries.file.exceptions.DiskReadErrorException;
+import com.duy.pascal.interperter.libraries.file.exceptions.PascalIOException;
 import com.duy.pascal.ui.utils.DLog;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Reader;
 import java.util.InputMismatchException;
 import java.util.Locale;
 import java.util.Scanner;
@@ -39,6 +48,8 @@ import java.util.Scanner;
 public class IOLib extends PascalLibrary {
 
     public static final String TAG = IOLib.class.getSimpleName();
+    private static final String STANDARD_INPUT = "stdin";
+    private static final int MAX_OUTPUT_BUFFER = 64 * 1024;
 
     private PrintStream stdout;
     private Scanner stdin;
@@ -46,6 +57,16 @@ public class IOLib extends PascalLibrary {
     private RuntimeExecutableCodeUnit.ControlMode state = RuntimeExecutableCodeUnit.ControlMode.PAUSED;
     @NonNull
     private String inputBuffer = "";
+    /**
+     * buffer of the output of write and writeln, the listener must copy the text
+     */
+    private StringBuilder mOutputBuffer = new StringBuilder();
+    /**
+     * standard input which is redirected from a file or a buffer, null if the user types the
+     * input in the console
+     */
+    @Nullable
+    private TextFileReader mInput;
 
     /**
      * default constructor
@@ -74,6 +95,23 @@ public class IOLib extends PascalLibrary {
 
     }
 
+    /**
+     * Redirect the standard input, read and readln parse the values from the reader instead of
+     * waiting for the user to type a line in the console
+     *
+     * @param input - the input of program, null to read from the console
+     */
+    public void setInput(@Nullable Reader input) {
+        if (mInput != null) {
+            try {
+                mInput.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        mInput = input != null ? new TextFileReader(input) : null;
+    }
+
     @Override
     public String getName() {
         return null;
@@ -99,6 +137,24 @@ public class IOLib extends PascalLibrary {
 
     }
 
+    /**
+     * Print the arguments of write or writeln, they are formatted into a buffer which is reused
+     * by every call
+     */
+    public void write(RuntimeValue[] args, VariableContext f, RuntimeExecutableCodeUnit<?> main,
+                      boolean newLine) throws RuntimePascalException {
+        OutputFormatter.format(mOutputBuffer, args, f, main);
+        if (newLine) {
+            mOutputBuffer.append('\n');
+        }
+        if (listener != null) {
+            listener.print(mOutputBuffer);
+        }
+        if (mOutputBuffer.length() > MAX_OUTPUT_BUFFER) {
+            mOutputBuffer = new StringBuilder();
+        }
+    }
+
     public void println(Object... args) {
         print(args);
         print("\n");
@@ -199,6 +255,50 @@ public class IOLib extends PascalLibrary {
         }
     }
 
+    /**
+     * Same as {@link #setValueForVariables(PascalReference[])} but the values are parsed from
+     * the redirected input, a value can be on the same line as the previous value
+     */
+    @SuppressWarnings("unchecked")
+    private void readInput(TextFileReader input, PascalReference... listVariable)
+            throws RuntimePascalException {
+        try {
+            for (PascalReference variableBoxer : listVariable) {
+                Object value = variableBoxer.get();
+                if (value instanceof Character) {
+                    assertNotEndOfInput(input);
+                    variableBoxer.set(input.readChar());
+                } else if (value instanceof StringBuilder) {
+                    variableBoxer.set(new StringBuilder(input.readLine()));
+                } else if (value instanceof String) {
+                    variableBoxer.set(input.readLine());
+                } else if (value instanceof Integer) {
+                    assertNotEndOfInput(input);
+                    variableBoxer.set(input.readInt());
+                } else if (value instanceof Long) {
+                    assertNotEndOfInput(input);
+                    variableBoxer.set(input.readLong());
+                } else if (value instanceof Double) {
+                    assertNotEndOfInput(input);
+                    variableBoxer.set(input.readDouble());
+                } else {
+                    throw new CanNotReadVariableException(value);
+                }
+            }
+        } catch (InputMismatchException e) {
+            throw new InvalidNumericFormatException(e.getMessage());
+        } catch (IOException e) {
+            throw new PascalIOException(e);
+        }
+    }
+
+    private void assertNotEndOfInput(TextFileReader input) throws IOException,
+            DiskReadErrorException {
+        if (input.isEndOfFile()) {
+            throw new DiskReadErrorException(STANDARD_INPUT);
+        }
+    }
+
     @NonNull
     private String getInputBuffer() {
         return inputBuffer;
@@ -258,12 +358,41 @@ public class IOLib extends PascalLibrary {
         }
     }
 
+    @PascalMethod(description = "Check for end of standard input")
+    public boolean eof() throws RuntimePascalException {
+        try {
+            return mInput != null && mInput.isEndOfFile();
+        } catch (IOException e) {
+            throw new PascalIOException(e);
+        }
+    }
+
+    @PascalMethod(description = "Check for end of line of standard input")
+    public boolean eoln() throws RuntimePascalException {
+        try {
+            return mInput == null || mInput.isEndOfLine();
+        } catch (IOException e) {
+            throw new PascalIOException(e);
+        }
+    }
+
     public void readz(PascalReference[] values) throws RuntimePascalException {
+        if (mInput != null) {
+            readInput(mInput, values);
+            return;
+        }
         setValueForVariables(values);
     }
 
     public void readlnz(PascalReference[] values) throws RuntimePascalException {
-        if (values.length == 0) {
+        if (mInput != null) {
+            readInput(mInput, values);
+            try {
+                mInput.nextLine();
+            } catch (IOException e) {
+                throw new PascalIOException(e);
+            }
+        } else if (values.length == 0) {
             if (listener != null) {
                 listener.startInput(this);
                 pause(); //wait for press enter
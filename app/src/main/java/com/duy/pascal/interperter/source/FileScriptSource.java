@@ -14,6 +14,7 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.LinkedList;
 
@@ -78,9 +79,27 @@ public class FileScriptSource implements ScriptSource {
         }
     }
 
+    /**
+     * @return the file of this source, or null if it is read from a stream
+     */
+    @Nullable
+    public File getFile() {
+        return mFile;
+    }
+
+    @Nullable
+    @Override
+    public File getFile(String fileName) {
+        File file = new File(mParent, fileName);
+        return file.isFile() ? file : null;
+    }
+
     @Nullable
     @Override
     public Reader stream() {
+        if (mSourceCode != null) {
+            return new StringReader(mSourceCode);
+        }
         if (mReader != null) {
             try {
                 mReader.reset();
@@ -4,6 +4,7 @@ import android.support.annotation.Nullable;
 
 import com.duy.pascal.interperter.tokens.Token;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.LinkedList;
@@ -26,6 +27,13 @@ public interface ScriptSource {
     @Nullable
     Reader read(String fileName);
 
+    /**
+     * @param fileName The name of the source
+     * @return the file of a given source content, or null if it is not stored in a file
+     */
+    @Nullable
+    File getFile(String fileName);
+
     Reader stream();
 
     String getName();
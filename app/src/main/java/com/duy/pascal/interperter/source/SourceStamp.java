@@ -0,0 +1,129 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interperter.source;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.ui.common.utils.IOUtils;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Canonical path and digest of the content of a source file. A cached compilation of the file
+ * is up to date as long as its stamp does not change.
+ * <p>
+ * The content is compared instead of the modification time and the length of the file: the
+ * editor saves a file right before it is run, so an edit which keeps the length (x := 1 to
+ * x := 2) within the granularity of the modification time would not be seen.
+ */
+public class SourceStamp {
+    @NonNull
+    private final File mFile;
+    @NonNull
+    private final byte[] mDigest;
+
+    private SourceStamp(@NonNull File file, @NonNull byte[] digest) {
+        this.mFile = file;
+        this.mDigest = digest;
+    }
+
+    /**
+     * @param content - the content of the file which is compiled
+     */
+    @NonNull
+    public static SourceStamp of(@NonNull File file, @NonNull String content) {
+        return new SourceStamp(canonicalFile(file), digest(content));
+    }
+
+    @NonNull
+    public static File canonicalFile(@NonNull File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    @NonNull
+    public static String read(@NonNull File file) throws IOException {
+        Reader reader = new FileReader(file);
+        try {
+            return IOUtils.toString(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @NonNull
+    public static byte[] digest(@NonNull String content) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(content.getBytes("UTF-8"));
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            //both are always available
+            throw new RuntimeException(e);
+        }
+    }
+
+    @NonNull
+    public File getFile() {
+        return mFile;
+    }
+
+    @NonNull
+    public String getPath() {
+        return mFile.getPath();
+    }
+
+    /**
+     * @return true if the content of the file did not change since this stamp was taken
+     */
+    public boolean isCurrent() {
+        String content;
+        try {
+            content = read(mFile);
+        } catch (IOException e) {
+            return false;
+        }
+        return Arrays.equals(mDigest, digest(content));
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SourceStamp)) return false;
+        SourceStamp other = (SourceStamp) o;
+        return Arrays.equals(mDigest, other.mDigest) && mFile.equals(other.mFile);
+    }
+
+    @Override
+    public int hashCode() {
+        return mFile.hashCode() * 31 + Arrays.hashCode(mDigest);
+    }
+
+    @Override
+    public String toString() {
+        return mFile.getPath();
+    }
+}
@@ -759,6 +759,11 @@ public class Lexer {
     List<ScriptSource> searchDirectories;
     Stack<String> sourcenames;
     StringBuilder literal = new StringBuilder();
+    /**
+     * position of the quote which opened the last string literal
+     */
+    private int literalLine = -1;
+    private int literalColumn = -1;
     /**
      * the input device
      */
@@ -993,6 +998,35 @@ public class Lexer {
         return new LineNumber(yyline, yycolumn, sourcenames.peek());
     }
 
+    /**
+     * @return line of the text matched last, a token returned by {@link #yylex()} starts there
+     * unless it is a string literal
+     */
+    public final int yyline() {
+        return yyline;
+    }
+
+    /**
+     * @return column of the text matched last
+     */
+    public final int yycolumn() {
+        return yycolumn;
+    }
+
+    /**
+     * @return line of the quote which opened the last string literal, -1 if there is none
+     */
+    public final int literalLine() {
+        return literalLine;
+    }
+
+    /**
+     * @return column of the quote which opened the last string literal
+     */
+    public final int literalColumn() {
+        return literalColumn;
+    }
+
     /**
      * Refills the input buffer.
      *
@@ -1436,6 +1470,8 @@ public class Lexer {
                     break;
                 case 24: {
                     literal.setLength(0);
+                    literalLine = yyline;
+                    literalColumn = yycolumn;
                     yybegin(STRING);
                 }
                 case 137:
@@ -62,56 +62,56 @@ public class WordToken extends Token implements NamedEntity {
     public Type toBasicType(ExpressionContext context)
             throws TypeIdentifierExpectException {
         Type returnType = null;
-        if (name.equals("integer")
-                || name.equals("byte")
-                || name.equals("word")
-                || name.equals("shortint")
-                || name.equals("smallint")
-                || name.equals("cardinal")) {
+        if (name.equalsIgnoreCase("integer")
+                || name.equalsIgnoreCase("byte")
+                || name.equalsIgnoreCase("word")
+                || name.equalsIgnoreCase("shortint")
+                || name.equalsIgnoreCase("smallint")
+                || name.equalsIgnoreCase("cardinal")) {
             returnType = BasicType.Integer;
-        } else if (name.equals("string")
-                || name.equals("ansistring")
-                || name.equals("shortstring")
-                || name.equals("UnicodeString")
-                || name.equals("OpenString")
-                || name.equals("WideString")) {
+        } else if (name.equalsIgnoreCase("string")
+                || name.equalsIgnoreCase("ansistring")
+                || name.equalsIgnoreCase("shortstring")
+                || name.equalsIgnoreCase("UnicodeString")
+                || name.equalsIgnoreCase("OpenString")
+                || name.equalsIgnoreCase("WideString")) {
             returnType = BasicType.StringBuilder;
-        } else if (name.equals("single")
-                || name.equals("extended")
-                || name.equals("real")
-                || name.equals("comp")
-                || name.equals("curreny")
-                || name.equals("double")) {
+        } else if (name.equalsIgnoreCase("single")
+                || name.equalsIgnoreCase("extended")
+                || name.equalsIgnoreCase("real")
+                || name.equalsIgnoreCase("comp")
+                || name.equalsIgnoreCase("curreny")
+                || name.equalsIgnoreCase("double")) {
             returnType = BasicType.Double;
-        } else if (name.equals("longint")
-                || name.equals("int64")
-                || name.equals("qword")
-                || name.equals("longword")
-                || name.equals("dword")
-                || name.equals("uint64")) {
+        } else if (name.equalsIgnoreCase("longint")
+                || name.equalsIgnoreCase("int64")
+                || name.equalsIgnoreCase("qword")
+                || name.equalsIgnoreCase("longword")
+                || name.equalsIgnoreCase("dword")
+                || name.equalsIgnoreCase("uint64")) {
             returnType = BasicType.Long;
-        } else if (name.equals("boolean")
-                || name.equals("boolean16")
-                || name.equals("boolean32")
-                || name.equals("boolean64")
-                || name.equals("ByteBool")
-                || name.equals("WordBool")
-                || name.equals("LongBool")
+        } else if (name.equalsIgnoreCase("boolean")
+                || name.equalsIgnoreCase("boolean16")
+                || name.equalsIgnoreCase("boolean32")
+                || name.equalsIgnoreCase("boolean64")
+                || name.equalsIgnoreCase("ByteBool")
+                || name.equalsIgnoreCase("WordBool")
+                || name.equalsIgnoreCase("LongBool")
                 ) {
             returnType = BasicType.Boolean;
-        } else if (name.equals("char")
-                || name.equals("AnsiChar")
-                || name.equals("char")) {
+        } else if (name.equalsIgnoreCase("char")
+                || name.equalsIgnoreCase("AnsiChar")
+                || name.equalsIgnoreCase("char")) {
             returnType = BasicType.Character;
-        } else if (name.equals("text")
-                || name.equals("textfile")) {
+        } else if (name.equalsIgnoreCase("text")
+                || name.equalsIgnoreCase("textfile")) {
             returnType = BasicType.Text;
-        } else if (name.equals("pointer")) {
+        } else if (name.equalsIgnoreCase("pointer")) {
             returnType = new PointerType(BasicType.create(Object.class));
-        } else if (name.equals("pchar")
-                || name.equals("PAnsiChar")) {
+        } else if (name.equalsIgnoreCase("pchar")
+                || name.equalsIgnoreCase("PAnsiChar")) {
             returnType = new PointerType(BasicType.create(Character.class));
-        } else if (name.equals("PShortString")) {
+        } else if (name.equalsIgnoreCase("PShortString")) {
             returnType = new PointerType(BasicType.create(StringBuilder.class));
         } else {
             Type type = context.getTypeDef(this.name);
@@ -18,6 +18,7 @@ import com.duy.pascal.interperter.ast.node.assign_statement.DivAssignStatement;
 import com.duy.pascal.interperter.ast.node.assign_statement.MinusAssignStatement;
 import com.duy.pascal.interperter.ast.node.assign_statement.MulAssignStatement;
 import com.duy.pascal.interperter.ast.node.assign_statement.PlusAssignStatement;
+import com.duy.pascal.interperter.ast.node.assign_statement.StringAppendStatement;
 import com.duy.pascal.interperter.ast.node.case_statement.CaseOfNode;
 import com.duy.pascal.interperter.ast.node.conditional.IfNode;
 import com.duy.pascal.interperter.ast.node.conditional.RepeatNode;
@@ -33,6 +34,7 @@ import com.duy.pascal.interperter.ast.runtime.value.EnumElementValue;
 import com.duy.pascal.interperter.ast.runtime.value.FunctionCall;
 import com.duy.pascal.interperter.ast.runtime.value.RecordValue;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
+import com.duy.pascal.interperter.ast.runtime.value.SetValue;
 import com.duy.pascal.interperter.ast.runtime.value.access.ClassFunctionCall;
 import com.duy.pascal.interperter.ast.runtime.value.access.ClassVariableAccess;
 import com.duy.pascal.interperter.ast.runtime.value.access.ConstantAccess;
@@ -41,6 +43,7 @@ import com.duy.pascal.interperter.declaration.LabelDeclaration;
 import com.duy.pascal.interperter.declaration.Name;
 import com.duy.pascal.interperter.declaration.lang.function.MethodDeclaration;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
+import com.duy.pascal.interperter.declaration.lang.types.FileType;
 import com.duy.pascal.interperter.declaration.lang.types.JavaClassBasedType;
 import com.duy.pascal.interperter.declaration.lang.types.OperatorTypes;
 import com.duy.pascal.interperter.declaration.lang.types.PascalClassType;
@@ -59,6 +62,7 @@ import com.duy.pascal.interperter.declaration.lang.value.ConstantDefinition;
 import com.duy.pascal.interperter.declaration.lang.value.VariableDeclaration;
 import com.duy.pascal.interperter.exceptions.Diagnostic;
 import com.duy.pascal.interperter.exceptions.IDiagnosticsListener;
+import com.duy.pascal.interperter.exceptions.parsing.ParsingException;
 import com.duy.pascal.interperter.exceptions.parsing.UnSupportTokenException;
 import com.duy.pascal.interperter.exceptions.parsing.UnrecognizedTokenException;
 import com.duy.pascal.interperter.exceptions.parsing.convert.UnConvertibleTypeException;
@@ -77,6 +81,7 @@ import com.duy.pascal.interperter.exceptions.parsing.value.ChangeValueConstantEx
 import com.duy.pascal.interperter.exceptions.parsing.value.NonConstantExpressionException;
 import com.duy.pascal.interperter.exceptions.parsing.value.NonIntegerException;
 import com.duy.pascal.interperter.exceptions.parsing.value.UnAssignableTypeException;
+import com.duy.pascal.interperter.libraries.file.BinaryCodec;
 import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.interperter.tokens.OperatorToken;
 import com.duy.pascal.interperter.tokens.Token;
@@ -111,7 +116,6 @@ import com.duy.pascal.interperter.tokens.value.ValueToken;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicReference;
@@ -171,7 +175,7 @@ public abstract class GrouperToken extends Token {
         if (groupConstant.hasNext()) {
             if (elementType instanceof ArrayType) {
                 GrouperToken child = (GrouperToken) groupConstant.take();
-                Object[] array = getArrayConstant(context, child,
+                Object array = getArrayConstant(context, child,
                         (ArrayType) elementType).getValue();
 
                 assertNextCommaForNextConstant(context, groupConstant, elementType);
@@ -204,10 +208,10 @@ public abstract class GrouperToken extends Token {
                             new AtomicReference<>(((SetType) elementType).getElementType());
                     BracketedToken bracketedToken = (BracketedToken) groupConstant.take();
 
-                    ConstantAccess<LinkedList> constant = SetType.getSetConstant(context,
+                    ConstantAccess<SetValue> constant = SetType.getSetConstant(context,
                             bracketedToken, elementTypeReference);
 
-                    LinkedList setConstant = constant.getValue();
+                    SetValue setConstant = constant.getValue();
 
                     assertNextCommaForNextConstant(context, groupConstant, elementType);
 
@@ -409,6 +413,9 @@ public abstract class GrouperToken extends Token {
             // TODO: 11/2/2017 improve
             throw new ExpectedTokenException("[Type Identifier]", n);
         }
+        if (((WordToken) n).name.equalsIgnoreCase("file")) {
+            return getFileType(context, n.getLineNumber());
+        }
         Type declaredType = ((WordToken) n).toBasicType(context);
         //process string with define length
         if (declaredType.equals(BasicType.StringBuilder)) {
@@ -447,6 +454,22 @@ public abstract class GrouperToken extends Token {
         return new SetType<>(elementType, lineNumber);
     }
 
+    private Type getFileType(ExpressionContext context, LineNumber lineNumber)
+            throws Exception {
+        if (!(peek() instanceof OfToken)) {
+            //untyped file
+            return new FileType(null, null);
+        }
+        take(); //of token
+        Type elementType = getNextPascalType(context);
+        BinaryCodec codec = BinaryCodec.create(elementType, context);
+        if (codec == null) {
+            throw new ParsingException(lineNumber, "Type " + elementType
+                    + " can not be the type of records of a file");
+        }
+        return new FileType(elementType, codec);
+    }
+
     private Type getArrayType(ExpressionContext context) throws Exception {
         Token n = peekNoEOF();
         if (n instanceof BracketedToken) {
@@ -564,17 +587,18 @@ public abstract class GrouperToken extends Token {
                         }
                     }
                 } else {
+                    int fieldIndex = -1;
                     if (runtimeType.declType instanceof RecordType) {
-                        VariableDeclaration field =
-                                ((RecordType) runtimeType.declType).findField(((WordToken) next).getName());
-                        if (field == null) { //can not find field
+                        RecordType recordType = (RecordType) runtimeType.declType;
+                        fieldIndex = recordType.indexOfField(((WordToken) next).getName());
+                        if (fieldIndex < 0) { //can not find field
                             // TODO: 03-Jun-17 declare field
                             throw new UnknownFieldException(next.getLineNumber(),
                                     (RecordType) runtimeType.getRawType(),
                                     ((WordToken) next).getName(), context);
                         }
                     }
-                    term = new FieldAccess(term, (WordToken) next);
+                    term = new FieldAccess(term, (WordToken) next, fieldIndex);
 
                     //access pointer value
                     if (peek() instanceof OperatorToken && ((OperatorToken) peek()).type == OperatorTypes.DEREF) {
@@ -676,7 +700,7 @@ public abstract class GrouperToken extends Token {
 
             if (next instanceof ParenthesizedToken) {
                 List<RuntimeValue> arguments;
-                if (name.name.equals("writeln") || name.name.equals("write")) {
+                if (name.name.equalsIgnoreCase("writeln") || name.name.equalsIgnoreCase("write")) {
                     arguments = ((ParenthesizedToken) take()).getArgumentsForOutput(context);
                 } else {
                     arguments = ((ParenthesizedToken) take()).getArgumentsForCall(context);
@@ -989,8 +1013,10 @@ public abstract class GrouperToken extends Token {
                     throw new UnConvertibleTypeException(value, leftType, valueType, identifier, context);
                 }
                 if (assign instanceof PlusAssignToken) {
-                    return new PlusAssignStatement(context, left, leftType.cloneValue(converted),
-                            next.getLineNumber());
+                    PlusAssignStatement statement = new PlusAssignStatement(context, left,
+                            leftType.cloneValue(converted), next.getLineNumber());
+                    StringAppendStatement append = StringAppendStatement.create(context, statement);
+                    return append != null ? append : statement;
 
                 } else if (assign instanceof MinusAssignToken) {
 
@@ -1006,7 +1032,10 @@ public abstract class GrouperToken extends Token {
                     return new DivAssignStatement(context, left, leftType.cloneValue(converted),
                             next.getLineNumber());
                 }
-                return new AssignStatement(left, leftType.cloneValue(converted), next.getLineNumber());
+                AssignStatement statement = new AssignStatement(left, leftType.cloneValue(converted),
+                        next.getLineNumber());
+                StringAppendStatement append = StringAppendStatement.create(context, statement);
+                return append != null ? append : statement;
             } else if (identifier instanceof LabelDeclaration) {
                 if (peek() instanceof SemicolonToken) {
                     LabelDeclaration labelLocal = context.getLabelLocal(((LabelDeclaration) identifier).getName());
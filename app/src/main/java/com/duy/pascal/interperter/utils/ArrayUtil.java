@@ -20,6 +20,7 @@ import android.content.Context;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.ast.runtime.value.RuntimeValue;
 import com.duy.pascal.ui.view.console.TextConsole;
 
@@ -176,13 +177,13 @@ public class ArrayUtil {
 
     public static String toString(@Nullable Object value) {
         if (value == null) return "";
-        if (value instanceof Object[]) {
+        if (ArrayStorage.isArray(value)) {
             StringBuilder result = new StringBuilder();
-            Object[] arr = (Object[]) value;
+            Object[] arr = ArrayStorage.toObjectArray(value);
             if (arr.length == 0) {
                 return "[]";
             }
-            if (arr[0] instanceof Object[]) {
+            if (ArrayStorage.isArray(arr[0])) {
                 for (Object o : arr) {
                     result.append(toString(o)).append(",");
                 }
@@ -16,14 +16,20 @@
 
 package com.duy.pascal.ui.autocomplete.completion;
 
+import android.support.annotation.Nullable;
+
 import com.duy.pascal.interperter.declaration.Name;
 import com.duy.pascal.interperter.declaration.lang.function.AbstractFunction;
 import com.duy.pascal.interperter.declaration.lang.types.ArgumentType;
 import com.duy.pascal.interperter.declaration.lang.types.Type;
 import com.duy.pascal.interperter.declaration.lang.value.ConstantDefinition;
 import com.duy.pascal.interperter.declaration.lang.value.VariableDeclaration;
+import com.duy.pascal.interperter.tokens.Token;
+import com.duy.pascal.interperter.tokens.value.ValueToken;
+import com.duy.pascal.ui.autocomplete.completion.ast.Symbol;
 import com.duy.pascal.ui.autocomplete.completion.model.ConstantDescription;
 import com.duy.pascal.ui.autocomplete.completion.model.Description;
+import com.duy.pascal.ui.autocomplete.completion.model.DescriptionImpl;
 import com.duy.pascal.ui.autocomplete.completion.model.FunctionDescription;
 import com.duy.pascal.ui.autocomplete.completion.model.VariableDescription;
 
@@ -52,4 +58,32 @@ public class CompletionFactory {
         }
         return new FunctionDescription(name, args, type, isProcedure);
     }
+
+    /**
+     * @param type - resolved type of the symbol, null if it is unknown
+     * @param args - resolved types of the parameters of a function
+     */
+    public static Description makeSymbol(Symbol symbol, @Nullable Type type, ArgumentType[] args) {
+        Name name = symbol.getName();
+        switch (symbol.getKind()) {
+            case Symbol.KIND_VARIABLE:
+                if (type != null) {
+                    return new VariableDescription(name, null, type);
+                }
+                return new DescriptionImpl(DescriptionImpl.KIND_VARIABLE, name, null, null);
+            case Symbol.KIND_CONST:
+                Token value = symbol.getType();
+                if (value instanceof ValueToken) {
+                    return new ConstantDescription(name, null, type, ((ValueToken) value).getValue());
+                }
+                return new DescriptionImpl(DescriptionImpl.KIND_CONST, name, null, type);
+            case Symbol.KIND_TYPE:
+                return new DescriptionImpl(DescriptionImpl.KIND_TYPE, name, null, type);
+            case Symbol.KIND_FUNCTION:
+            case Symbol.KIND_PROCEDURE:
+                return new FunctionDescription(name, args, type, symbol.getKind() == Symbol.KIND_PROCEDURE);
+            default:
+                return new DescriptionImpl(DescriptionImpl.KIND_UNDEFINED, name, null, type);
+        }
+    }
 }
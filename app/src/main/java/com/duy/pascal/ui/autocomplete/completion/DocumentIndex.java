@@ -0,0 +1,360 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.ui.autocomplete.completion;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.ast.CodeUnitParsingException;
+import com.duy.pascal.interperter.ast.codeunit.CodeUnit;
+import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContextMixin;
+import com.duy.pascal.interperter.core.PascalCompilerFactory;
+import com.duy.pascal.interperter.linenumber.LineNumber;
+import com.duy.pascal.interperter.source.FileScriptSource;
+import com.duy.pascal.interperter.source.ScriptSource;
+import com.duy.pascal.interperter.tokenizer.Lexer;
+import com.duy.pascal.interperter.tokens.Token;
+import com.duy.pascal.interperter.tokens.ignore.CommentToken;
+import com.duy.pascal.interperter.tokens.ignore.CompileDirectiveToken;
+import com.duy.pascal.interperter.tokens.ignore.GroupingExceptionToken;
+import com.duy.pascal.interperter.tokens.other.EOFToken;
+import com.duy.pascal.interperter.tokens.value.CharacterToken;
+import com.duy.pascal.interperter.tokens.value.StringToken;
+import com.duy.pascal.ui.autocomplete.completion.ast.SymbolIndex;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+
+/**
+ * Tokens and declarations of a document opened in the editor.
+ * <p>
+ * On every {@link #update(String)} only the lines between the first and the last changed
+ * character are read again by the lexer. Lexing starts at the beginning of the first changed line
+ * and stops at the first token after the change which the previous version had at the same place;
+ * from there the old tokens are kept and only moved by the number of inserted lines.
+ */
+public class DocumentIndex {
+    @NonNull
+    private final String mName;
+    private final ArrayList<Token> mTokens = new ArrayList<>();
+    private final SymbolIndex mSymbols = new SymbolIndex();
+    @Nullable
+    private String mSource;
+    private int[] mLineStarts;
+    /**
+     * Index of the first {@link GroupingExceptionToken}, -1 if there is none
+     */
+    private int mFirstError = -1;
+
+    /**
+     * Context of the program which only imports the units of the document, it declares the
+     * constants, functions and types of the libraries
+     */
+    @Nullable
+    private ExpressionContextMixin mLibraryContext;
+    @Nullable
+    private String mLibraryUses;
+
+    public DocumentIndex(@NonNull String name) {
+        this.mName = name;
+    }
+
+    /**
+     * @return offset of the first character of every line
+     */
+    private static int[] lineStarts(String source) {
+        int count = 1;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') count++;
+        }
+        int[] starts = new int[count];
+        int line = 1;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') starts[line++] = i + 1;
+        }
+        return starts;
+    }
+
+    /**
+     * @return line which contains the offset
+     */
+    private static int lineOf(int[] lineStarts, int offset) {
+        int low = 0, high = lineStarts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (lineStarts[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Tokens whose line number is the position where the lexer started to read them. The
+     * position of strings and chars is computed from their end and a comment may contain lines.
+     */
+    private static boolean isPlain(Token token) {
+        return !(token instanceof StringToken || token instanceof CharacterToken
+                || token instanceof CommentToken || token instanceof CompileDirectiveToken
+                || token instanceof GroupingExceptionToken || token instanceof EOFToken);
+    }
+
+    @NonNull
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * @return tokens of the current version, the last one is an {@link EOFToken}
+     */
+    @NonNull
+    public ArrayList<Token> getTokens() {
+        return mTokens;
+    }
+
+    @NonNull
+    public SymbolIndex getSymbols() {
+        return mSymbols;
+    }
+
+    /**
+     * Bring tokens and declarations up to date with the source
+     */
+    public void update(@NonNull String source) throws IOException {
+        if (mSource == null) {
+            mLineStarts = lineStarts(source);
+            mTokens.clear();
+            lex(source, 0, 0, -1, 0, mTokens);
+            mFirstError = -1;
+            for (int i = 0; i < mTokens.size() && mFirstError < 0; i++) {
+                if (mTokens.get(i) instanceof GroupingExceptionToken) mFirstError = i;
+            }
+            mSymbols.rebuild(mTokens);
+            mSource = source;
+            return;
+        }
+        if (mSource.equals(source)) {
+            return;
+        }
+        String old = mSource;
+        int max = Math.min(old.length(), source.length());
+        int prefix = 0;
+        while (prefix < max && old.charAt(prefix) == source.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix
+                && old.charAt(old.length() - 1 - suffix) == source.charAt(source.length() - 1 - suffix)) {
+            suffix++;
+        }
+        int[] lineStarts = lineStarts(source);
+        int lineDelta = lineStarts.length - mLineStarts.length;
+
+        int restartLine = restartLine(lineOf(mLineStarts, prefix));
+        int from = firstTokenOf(restartLine);
+
+        ArrayList<Token> relexed = new ArrayList<>();
+        int tailLine = lineOf(lineStarts, source.length() - suffix);
+        int converge = lex(source, lineStarts[restartLine], restartLine, tailLine, lineDelta, relexed);
+        int removed = converge - from;
+
+        if (lineDelta != 0) {
+            for (int i = converge; i < mTokens.size(); i++) {
+                LineNumber lineNumber = mTokens.get(i).getLineNumber();
+                if (lineNumber != null) {
+                    lineNumber.setLine(lineNumber.getLine() + lineDelta);
+                }
+            }
+        }
+        if (mFirstError < 0 || mFirstError >= from) {
+            int oldError = mFirstError;
+            mFirstError = -1;
+            for (int i = 0; i < relexed.size() && mFirstError < 0; i++) {
+                if (relexed.get(i) instanceof GroupingExceptionToken) mFirstError = from + i;
+            }
+            //the replaced tokens contained the first error, the next one may follow the change
+            for (int i = Math.max(oldError, converge); oldError >= 0 && mFirstError < 0
+                    && i < mTokens.size(); i++) {
+                if (mTokens.get(i) instanceof GroupingExceptionToken) {
+                    mFirstError = i - removed + relexed.size();
+                }
+            }
+        }
+        mTokens.subList(from, converge).clear();
+        mTokens.addAll(from, relexed);
+        mSymbols.update(mTokens, from, removed, relexed.size());
+
+        mSource = source;
+        mLineStarts = lineStarts;
+    }
+
+    /**
+     * @return first line at or before the changed line where the lexer starts in its initial state
+     */
+    private int restartLine(int changedLine) {
+        int line = changedLine;
+        //after a string which is not closed the lexer reads the next lines as a string
+        if (mFirstError >= 0) {
+            LineNumber lineNumber = mTokens.get(mFirstError).getLineNumber();
+            if (lineNumber != null && lineNumber.getLine() < line) {
+                line = lineNumber.getLine();
+            }
+        }
+        while (true) {
+            int index = firstTokenOf(line);
+            if (index == 0) {
+                return line;
+            }
+            Token previous = mTokens.get(index - 1);
+            LineNumber lineNumber = previous.getLineNumber();
+            if (lineNumber == null) {
+                return line;
+            }
+            int start = line;
+            if (previous instanceof CommentToken || previous instanceof CompileDirectiveToken) {
+                //a comment may continue on the changed line
+                String text = previous instanceof CommentToken
+                        ? ((CommentToken) previous).comment : previous.toString();
+                int end = lineNumber.getLine();
+                for (int i = 0; i < text.length(); i++) {
+                    if (text.charAt(i) == '\n') end++;
+                }
+                if (end >= line) {
+                    start = lineNumber.getLine();
+                }
+            }
+            if (start == line) {
+                //a string is reported where it ends and the lexer joins the strings
+                //which are only separated by blanks and comments, it may begin above the line
+                int next = index;
+                while (next < mTokens.size() && (mTokens.get(next) instanceof CommentToken
+                        || mTokens.get(next) instanceof CompileDirectiveToken
+                        || mTokens.get(next) instanceof GroupingExceptionToken)) {
+                    next++;
+                }
+                if (next < mTokens.size() && (mTokens.get(next) instanceof StringToken
+                        || mTokens.get(next) instanceof CharacterToken)) {
+                    start = lineNumber.getLine();
+                }
+            }
+            if (start == line) {
+                return line;
+            }
+            line = start;
+        }
+    }
+
+    /**
+     * @return index of the first token at or after the line
+     */
+    private int firstTokenOf(int line) {
+        int low = 0, high = mTokens.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            LineNumber lineNumber = mTokens.get(mid).getLineNumber();
+            if (lineNumber != null && lineNumber.getLine() < line) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Read the source from the beginning of a line.
+     *
+     * @param offset    - offset of the first character of the line
+     * @param line      - line where the lexer starts
+     * @param tailLine  - lines after it are not changed, -1 to read the source to the end
+     * @param lineDelta - number of lines inserted by the change
+     * @param result    - receives the tokens
+     * @return index of the old token where the new tokens join the old ones
+     */
+    private int lex(String source, int offset, int line, int tailLine, int lineDelta,
+                    ArrayList<Token> result) throws IOException {
+        StringReader reader = new StringReader(source);
+        reader.skip(offset);
+        Lexer lexer = new Lexer(reader, mName, new ArrayList<ScriptSource>());
+        int old = firstTokenOf(line);
+        while (true) {
+            Token token = lexer.yylex();
+            LineNumber lineNumber = token.getLineNumber();
+            if (lineNumber != null) {
+                lineNumber.setLine(lineNumber.getLine() + line);
+            }
+            if (tailLine >= 0 && lineNumber != null && lineNumber.getLine() > tailLine
+                    && isPlain(token) && lexer.yystate() == Lexer.YYINITIAL) {
+                int oldLine = lineNumber.getLine() - lineDelta;
+                int column = lineNumber.getColumn();
+                while (old < mTokens.size() && before(mTokens.get(old), oldLine, column)) {
+                    old++;
+                }
+                if (old < mTokens.size()) {
+                    Token candidate = mTokens.get(old);
+                    LineNumber position = candidate.getLineNumber();
+                    if (candidate.getClass() == token.getClass() && isPlain(candidate)
+                            && position != null && position.getLine() == oldLine
+                            && position.getColumn() == column) {
+                        return old;
+                    }
+                }
+            }
+            result.add(token);
+            if (token instanceof EOFToken) {
+                return mTokens.size();
+            }
+        }
+    }
+
+    private boolean before(Token token, int line, int column) {
+        LineNumber lineNumber = token.getLineNumber();
+        return lineNumber == null || lineNumber.getLine() < line
+                || (lineNumber.getLine() == line && lineNumber.getColumn() < column);
+    }
+
+    /**
+     * @return the context which declares the functions, constants and types of the system
+     * library and of the units in the uses clauses, compiled once for every list of units
+     */
+    @Nullable
+    public ExpressionContextMixin getLibraryContext() {
+        String key = mSymbols.getUnitsKey();
+        if (mLibraryUses == null || !mLibraryUses.equals(key)) {
+            String program = key.isEmpty() ? "begin end." : "uses " + key + "; begin end.";
+            FileScriptSource source = new FileScriptSource(new StringReader(program), mName);
+            try {
+                CodeUnit codeUnit = PascalCompilerFactory.makePascalProgram(source, null, null);
+                mLibraryContext = codeUnit.getContext();
+                //only the declarations are read, the units can be used by the programs
+                mLibraryContext.releaseUnits();
+            } catch (CodeUnitParsingException e) {
+                //a unit which can not be found, the others are declared
+                CodeUnit codeUnit = e.getCodeUnit();
+                mLibraryContext = codeUnit != null ? codeUnit.getContext() : null;
+            } catch (Exception e) {
+                e.printStackTrace();
+                mLibraryContext = null;
+            }
+            mLibraryUses = key;
+        }
+        return mLibraryContext;
+    }
+}
@@ -20,14 +20,15 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.duy.pascal.interperter.ast.CodeUnitParsingException;
-import com.duy.pascal.interperter.ast.codeunit.CodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContextMixin;
 import com.duy.pascal.interperter.ast.runtime.value.NullValue;
 import com.duy.pascal.interperter.core.PascalCompilerFactory;
 import com.duy.pascal.interperter.datastructure.ArrayListMultimap;
 import com.duy.pascal.interperter.declaration.Name;
 import com.duy.pascal.interperter.declaration.lang.function.AbstractFunction;
+import com.duy.pascal.interperter.declaration.lang.types.ArgumentType;
 import com.duy.pascal.interperter.declaration.lang.types.BasicType;
+import com.duy.pascal.interperter.declaration.lang.types.RuntimeType;
 import com.duy.pascal.interperter.declaration.lang.types.Type;
 import com.duy.pascal.interperter.declaration.lang.types.converter.TypeConverter;
 import com.duy.pascal.interperter.declaration.lang.value.ConstantDefinition;
@@ -44,7 +45,14 @@ import com.duy.pascal.interperter.tokens.basic.ForToken;
 import com.duy.pascal.interperter.tokens.basic.ToToken;
 import com.duy.pascal.interperter.tokens.basic.UsesToken;
 import com.duy.pascal.interperter.tokens.grouping.BeginEndToken;
+import com.duy.pascal.interperter.tokens.value.BooleanToken;
+import com.duy.pascal.interperter.tokens.value.CharacterToken;
+import com.duy.pascal.interperter.tokens.value.DoubleToken;
+import com.duy.pascal.interperter.tokens.value.IntegerToken;
+import com.duy.pascal.interperter.tokens.value.LongToken;
+import com.duy.pascal.interperter.tokens.value.StringToken;
 import com.duy.pascal.ui.autocomplete.completion.ast.PascalStatement;
+import com.duy.pascal.ui.autocomplete.completion.ast.Symbol;
 import com.duy.pascal.ui.autocomplete.completion.model.Description;
 import com.duy.pascal.ui.autocomplete.completion.model.KeyWordDescription;
 import com.duy.pascal.ui.autocomplete.completion.util.KeyWord;
@@ -55,7 +63,7 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -78,7 +86,19 @@ public class PascalSuggestionOperation {
     private int mCursorCol;
 
     private CodeSuggestsEditText.SymbolsTokenizer mSymbolsTokenizer;
-    private LinkedList<Token> mSourceTokens;
+    private List<Token> mSourceTokens;
+
+    /**
+     * Tokens and declarations of the document, updated incrementally between two calls
+     */
+    private DocumentIndex mIndex;
+    /**
+     * Context of the libraries and units used by the document, looked up once per suggestion
+     */
+    @Nullable
+    private ExpressionContextMixin mLibraryContext;
+    private ArrayList<Symbol> mVisibleSymbols = new ArrayList<>();
+    private HashMap<Name, Symbol> mVisibleTypes = new HashMap<>();
 
     private PascalStatement mStatement;
     private String mIncomplete, mPreWord;
@@ -103,7 +123,7 @@ public class PascalSuggestionOperation {
      * @return a list items contains some suggestion
      */
     @Nullable
-    public ArrayList<Description> getSuggestion(@NonNull String srcName, @NonNull String source,
+    public synchronized ArrayList<Description> getSuggestion(@NonNull String srcName, @NonNull String source,
                                                 int cursorPos, int cursorLine, int cursorCol) {
         long time = System.currentTimeMillis();
         this.mSource = source;
@@ -117,19 +137,19 @@ public class PascalSuggestionOperation {
             //the result
             ArrayList<Description> suggestItems = new ArrayList<>();
 
+            mParsingException = null;
             if (source.length() <= LIMIT_CHAR) {
+                //only to show the parsing error, the declarations come from the index
                 try {
-                    CodeUnit codeUnit = PascalCompilerFactory.makePascalProgram(scriptSource, null, null);
-                    //the result
-                    addSuggestFromContext(suggestItems, codeUnit.getContext());
-                    mParsingException = null;
+                    PascalCompilerFactory.makePascalProgram(scriptSource, null, null)
+                            .getContext().releaseUnits();
                 } catch (CodeUnitParsingException e) { //parsing error
-                    addSuggestFromContext(suggestItems, e.getCodeUnit().getContext());
                     mParsingException = e.getParseException();
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
             }
+            addSuggestFromContext(suggestItems, mLibraryContext);
 
             suggestItems.addAll(sort(filterKeyword(mIncomplete)));
             DLog.d(TAG, "getSuggestion: time = " + (System.currentTimeMillis() - time));
@@ -148,10 +168,23 @@ public class PascalSuggestionOperation {
      */
     private void init(FileScriptSource scriptSource) throws IOException {
         mScriptSource = scriptSource;
-        mSourceTokens = scriptSource.toTokens();
+        if (mIndex == null || !mIndex.getName().equals(scriptSource.getName())) {
+            mIndex = new DocumentIndex(scriptSource.getName());
+        }
+        mIndex.update(mSource);
+        mSourceTokens = mIndex.getTokens();
+        mLibraryContext = mIndex.getLibraryContext();
         calculateIncomplete();
         int column = mCursorCol - mIncomplete.length();
         mStatement = SourceHelper.getStatement(mSourceTokens, mCursorLine, column);
+
+        mVisibleSymbols = mIndex.getSymbols().getVisibleSymbols(new LineNumber(mCursorLine, column, ""));
+        mVisibleTypes.clear();
+        for (Symbol symbol : mVisibleSymbols) {
+            if (symbol.getKind() == Symbol.KIND_TYPE) {
+                mVisibleTypes.put(symbol.getName(), symbol);
+            }
+        }
         defineContext();
     }
 
@@ -162,7 +195,10 @@ public class PascalSuggestionOperation {
         mPreWord = null;
     }
 
-    private void addSuggestFromContext(@NonNull ArrayList<Description> toAdd, @NonNull ExpressionContextMixin exprContext) {
+    /**
+     * @param exprContext - declarations of the libraries, null if they can not be compiled
+     */
+    private void addSuggestFromContext(@NonNull ArrayList<Description> toAdd, @Nullable ExpressionContextMixin exprContext) {
         System.out.println("mCompleteContext = " + mCompleteContext);
         switch (mCompleteContext) {
             case CONTEXT_AFTER_FOR:
@@ -215,7 +251,16 @@ public class PascalSuggestionOperation {
         }
     }
 
-    private Type findTypeOf(ExpressionContextMixin exprContext, Name id) {
+    private Type findTypeOf(@Nullable ExpressionContextMixin exprContext, Name id) {
+        for (int i = mVisibleSymbols.size() - 1; i >= 0; i--) {
+            Symbol symbol = mVisibleSymbols.get(i);
+            if (symbol.getName().equals(id)) {
+                return resolveType(symbol.getType());
+            }
+        }
+        if (exprContext == null) {
+            return null;
+        }
         for (VariableDeclaration variable : exprContext.getVariables()) {
             if (variable.getName().equals(id)) {
                 if (beforeCursor(variable.getLineNumber())) {
@@ -245,7 +290,11 @@ public class PascalSuggestionOperation {
     }
 
     private void completeNeedType(String mIncomplete, ArrayList<Description> toAdd,
-                                  ExpressionContextMixin exprContext, Type type) {
+                                  @Nullable ExpressionContextMixin exprContext, Type type) {
+        toAdd.addAll(sort(filterSymbols(mIncomplete, type)));
+        if (exprContext == null) {
+            return;
+        }
         ArrayList<VariableDeclaration> variables = exprContext.getVariables();
         toAdd.addAll(sort(filterVariables(mIncomplete, variables, type)));
 
@@ -263,8 +312,20 @@ public class PascalSuggestionOperation {
      */
     private void completeVariable(@NonNull String prefix,
                                   @NonNull ArrayList<Description> toAdd,
-                                  @NonNull ExpressionContextMixin exprContext,
+                                  @Nullable ExpressionContextMixin exprContext,
                                   @NonNull BasicType needType) {
+        for (Symbol symbol : mVisibleSymbols) {
+            if (symbol.getKind() == Symbol.KIND_VARIABLE && symbol.getName().isPrefix(prefix)) {
+                Type type = resolveType(symbol.getType());
+                if (type != null && TypeConverter.isLowerThanPrecedence(type.getStorageClass(),
+                        needType.getStorageClass())) {
+                    toAdd.add(CompletionFactory.makeSymbol(symbol, type, null));
+                }
+            }
+        }
+        if (exprContext == null) {
+            return;
+        }
         for (VariableDeclaration var : exprContext.getVariables()) {
             Type type = var.getType();
             if (TypeConverter.isLowerThanPrecedence(type.getStorageClass(), needType.getStorageClass())) {
@@ -338,7 +399,12 @@ public class PascalSuggestionOperation {
         return suggestItems;
     }
 
-    private void completeWord(String mIncomplete, ArrayList<Description> toAdd, ExpressionContextMixin exprContext) {
+    private void completeWord(String mIncomplete, ArrayList<Description> toAdd,
+                              @Nullable ExpressionContextMixin exprContext) {
+        toAdd.addAll(sort(filterSymbols(mIncomplete, null)));
+        if (exprContext == null) {
+            return;
+        }
         ArrayList<VariableDeclaration> variables = exprContext.getVariables();
         toAdd.addAll(sort(filterVariables(mIncomplete, variables, null)));
 
@@ -349,6 +415,75 @@ public class PascalSuggestionOperation {
         toAdd.addAll(sort(filterFunctions(mIncomplete, callableFunctions, null)));
     }
 
+    /**
+     * Symbols of the document visible at the cursor
+     *
+     * @param type - the type of the expression, null if any symbol can be used
+     */
+    private ArrayList<Description> filterSymbols(String mIncomplete, @Nullable Type type) {
+        ArrayList<Description> suggestItems = new ArrayList<>();
+        if (mIncomplete.isEmpty() && type == null) {
+            return suggestItems;
+        }
+        for (Symbol symbol : mVisibleSymbols) {
+            if (!symbol.getName().isPrefix(mIncomplete)) {
+                continue;
+            }
+            int kind = symbol.getKind();
+            if (type != null && (kind == Symbol.KIND_TYPE || kind == Symbol.KIND_PROCEDURE)) {
+                continue;
+            }
+            Type symbolType = resolveType(symbol.getType());
+            if (!canConvertType(symbolType, type)) {
+                continue;
+            }
+            List<Symbol> parameters = symbol.getParameters();
+            ArgumentType[] args = new ArgumentType[parameters.size()];
+            for (int i = 0; i < args.length; i++) {
+                Type argumentType = resolveType(parameters.get(i).getType());
+                args[i] = argumentType != null ? new RuntimeType(argumentType, false) : null;
+            }
+            suggestItems.add(CompletionFactory.makeSymbol(symbol, symbolType, args));
+        }
+        return suggestItems;
+    }
+
+    /**
+     * @param token - first token of a type, or the value of a constant
+     * @return the type, null if it is not declared by the libraries or a type alias
+     */
+    @Nullable
+    private Type resolveType(@Nullable Token token) {
+        for (int depth = 0; depth < 8 && token instanceof WordToken; depth++) {
+            Symbol alias = mVisibleTypes.get(((WordToken) token).getName());
+            if (alias == null) {
+                if (mLibraryContext == null) {
+                    return null;
+                }
+                try {
+                    return ((WordToken) token).toBasicType(mLibraryContext);
+                } catch (Exception e) {
+                    return null;
+                }
+            }
+            token = alias.getType();
+        }
+        if (token instanceof IntegerToken) {
+            return BasicType.Integer;
+        } else if (token instanceof LongToken) {
+            return BasicType.Long;
+        } else if (token instanceof DoubleToken) {
+            return BasicType.Double;
+        } else if (token instanceof StringToken) {
+            return BasicType.StringBuilder;
+        } else if (token instanceof CharacterToken) {
+            return BasicType.Character;
+        } else if (token instanceof BooleanToken) {
+            return BasicType.Boolean;
+        }
+        return null;
+    }
+
     private ArrayList<Description> filterKeyword(String mIncomplete) {
         ArrayList<Description> suggestItems = new ArrayList<>();
         if (mIncomplete.isEmpty()) {
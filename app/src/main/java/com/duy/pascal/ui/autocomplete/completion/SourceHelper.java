@@ -32,8 +32,9 @@ import com.duy.pascal.interperter.tokens.value.ValueToken;
 import com.duy.pascal.ui.autocomplete.completion.ast.PascalStatement;
 import com.duy.pascal.ui.utils.DLog;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Created by Duy on 11/11/2017.
@@ -44,19 +45,17 @@ public class SourceHelper {
 
     /**
      * Search back from the cursor position till meeting 'begin', 'end' or ';'.
+     *
+     * @param source - tokens sorted by position, they are indexed directly so an array backed
+     *               list is expected
      */
-    public static PascalStatement getStatement(LinkedList<Token> source, int line, int column) {
+    public static PascalStatement getStatement(List<Token> source, int line, int column) {
         DLog.d(TAG, "getStatement() called with: line = [" + line + "], column = [" + column + "]");
 
-        LineNumber cursor = new LineNumber(line, column, "");
-        int last = -1;
-        for (int i = 0; i < source.size(); i++) {
-            if (source.get(i).getLineNumber().compareTo(cursor) < 0) {
-                last = i;
-            } else {
-                break;
-            }
+        if (!(source instanceof RandomAccess)) {
+            source = new ArrayList<>(source);
         }
+        int last = indexBefore(source, new LineNumber(line, column, ""));
         Token separator = null;
         int index = last;
         while (index >= 0) {
@@ -69,7 +68,8 @@ public class SourceHelper {
             }
         }
         if (index < 0) index = 0;
-        List<Token> tokens = source.subList(index, last + 1);
+        //copy, the source is kept by the index of the document
+        List<Token> tokens = new ArrayList<>(source.subList(index, last + 1));
         if (tokens.size() >= 1 && tokens.get(tokens.size() - 1) instanceof EOFToken) {
             tokens.remove(tokens.size() - 1);
         }
@@ -78,6 +78,29 @@ public class SourceHelper {
         return pascalStatement;
     }
 
+    /**
+     * Binary search the first token of the line of the position, then walk the tokens of the
+     * line; the column of a string or a char is not always its start, only lines are sorted.
+     *
+     * @return index of the last token before the position, -1 if there is none
+     */
+    public static int indexBefore(List<Token> source, LineNumber position) {
+        int low = 0, high = source.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (source.get(mid).getLineNumber().getLine() < position.getLine()) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int index = low;
+        while (index < source.size() && source.get(index).getLineNumber().compareTo(position) < 0) {
+            index++;
+        }
+        return index - 1;
+    }
+
     private static boolean isStatementSeparator(Token token) {
         return token instanceof EndToken || token instanceof BeginEndToken
                 /*|| token instanceof VarToken || token instanceof UsesToken
@@ -0,0 +1,552 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.ui.autocomplete.completion.ast;
+
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.declaration.lang.types.OperatorTypes;
+import com.duy.pascal.interperter.tokens.OperatorToken;
+import com.duy.pascal.interperter.tokens.Token;
+import com.duy.pascal.interperter.tokens.WordToken;
+import com.duy.pascal.interperter.tokens.basic.ColonToken;
+import com.duy.pascal.interperter.tokens.basic.CommaToken;
+import com.duy.pascal.interperter.tokens.basic.ConstToken;
+import com.duy.pascal.interperter.tokens.basic.ConstructorToken;
+import com.duy.pascal.interperter.tokens.basic.DestructorToken;
+import com.duy.pascal.interperter.tokens.basic.FinalizationToken;
+import com.duy.pascal.interperter.tokens.basic.ForwardToken;
+import com.duy.pascal.interperter.tokens.basic.FunctionToken;
+import com.duy.pascal.interperter.tokens.basic.ImplementationToken;
+import com.duy.pascal.interperter.tokens.basic.InitializationToken;
+import com.duy.pascal.interperter.tokens.basic.InterfaceToken;
+import com.duy.pascal.interperter.tokens.basic.LabelToken;
+import com.duy.pascal.interperter.tokens.basic.OfToken;
+import com.duy.pascal.interperter.tokens.basic.PeriodToken;
+import com.duy.pascal.interperter.tokens.basic.ProcedureToken;
+import com.duy.pascal.interperter.tokens.basic.ProgramToken;
+import com.duy.pascal.interperter.tokens.basic.SemicolonToken;
+import com.duy.pascal.interperter.tokens.basic.TypeToken;
+import com.duy.pascal.interperter.tokens.basic.UsesToken;
+import com.duy.pascal.interperter.tokens.basic.VarToken;
+import com.duy.pascal.interperter.tokens.closing.CloseParenToken;
+import com.duy.pascal.interperter.tokens.closing.EndBracketToken;
+import com.duy.pascal.interperter.tokens.closing.EndToken;
+import com.duy.pascal.interperter.tokens.grouping.BeginEndToken;
+import com.duy.pascal.interperter.tokens.grouping.BracketedToken;
+import com.duy.pascal.interperter.tokens.grouping.CaseToken;
+import com.duy.pascal.interperter.tokens.grouping.ClassToken;
+import com.duy.pascal.interperter.tokens.grouping.ParenthesizedToken;
+import com.duy.pascal.interperter.tokens.grouping.RecordToken;
+import com.duy.pascal.interperter.tokens.grouping.UnitToken;
+import com.duy.pascal.interperter.tokens.ignore.CommentToken;
+import com.duy.pascal.interperter.tokens.ignore.CompileDirectiveToken;
+import com.duy.pascal.interperter.tokens.ignore.GroupingExceptionToken;
+import com.duy.pascal.interperter.tokens.other.EOFToken;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads declarations from the raw tokens of the lexer, one top level segment at a time.
+ * <p>
+ * It never fails: unexpected tokens are skipped, so a program which is being typed still
+ * declares everything before and after the line being edited. The parser keeps no state between
+ * two segments except its position, which lets {@link SymbolIndex} restart it at any segment.
+ */
+class DeclarationParser {
+    private final List<Token> tokens;
+    private int position;
+    /**
+     * Greatest index looked at since the last call of {@link #nextSegment()}
+     */
+    private int lookahead;
+
+    DeclarationParser(List<Token> tokens, int position) {
+        this.tokens = tokens;
+        this.position = position;
+    }
+
+    private static boolean isRoutine(Token token) {
+        return token instanceof ProcedureToken || token instanceof FunctionToken
+                || token instanceof ConstructorToken || token instanceof DestructorToken;
+    }
+
+    /**
+     * Tokens which can not appear inside a statement, a block which reaches one of them is not
+     * closed yet
+     */
+    private static boolean isDeclaration(Token token) {
+        return isRoutine(token) || token instanceof VarToken || token instanceof TypeToken
+                || token instanceof ConstToken || token instanceof UsesToken
+                || token instanceof ProgramToken || token instanceof UnitToken
+                || token instanceof InterfaceToken || token instanceof ImplementationToken
+                || token instanceof InitializationToken || token instanceof FinalizationToken;
+    }
+
+    private static boolean isWord(Token token, String word) {
+        return token instanceof WordToken && ((WordToken) token).getName().equalsIgnoreCase(word);
+    }
+
+    int getPosition() {
+        return position;
+    }
+
+    boolean hasNext() {
+        return peek() != null;
+    }
+
+    /**
+     * Parse the next top level segment: the program header, a uses clause, a declaration
+     * section, a routine or the main block.
+     */
+    Segment nextSegment() {
+        int start = position;
+        lookahead = position;
+        Segment segment = new Segment(start);
+        Token token = peek();
+        if (token instanceof ProgramToken || token instanceof UnitToken) {
+            next();
+            skipStatement();
+        } else if (token instanceof UsesToken) {
+            next();
+            parseUses(segment.getSymbols());
+        } else if (token instanceof VarToken) {
+            next();
+            parseVariables(segment.getSymbols());
+        } else if (token instanceof ConstToken) {
+            next();
+            parseConstants(segment.getSymbols());
+        } else if (token instanceof TypeToken) {
+            next();
+            parseTypes(segment.getSymbols());
+        } else if (isRoutine(token)) {
+            segment.setScope(parseRoutine(segment.getSymbols()));
+        } else if (token instanceof BeginEndToken) {
+            next();
+            skipBlock();
+            if (peek() instanceof PeriodToken || peek() instanceof SemicolonToken) {
+                next();
+            }
+        } else {
+            //interface, implementation or anything the user is typing
+            next();
+            while ((token = peek()) != null && !isDeclaration(token)
+                    && !(token instanceof BeginEndToken)) {
+                next();
+            }
+        }
+        segment.setBounds(start, position, Math.max(lookahead, position));
+        return segment;
+    }
+
+    @Nullable
+    private Token peek() {
+        while (position < tokens.size()) {
+            Token token = tokens.get(position);
+            lookahead = Math.max(lookahead, position);
+            if (token instanceof EOFToken) {
+                return null;
+            }
+            if (token instanceof CommentToken || token instanceof CompileDirectiveToken
+                    || token instanceof GroupingExceptionToken) {
+                position++;
+            } else {
+                return token;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private Token next() {
+        Token token = peek();
+        if (token != null) {
+            position++;
+        }
+        return token;
+    }
+
+    /**
+     * uses crt, graph;
+     */
+    private void parseUses(List<Symbol> symbols) {
+        Token token;
+        while ((token = peek()) != null) {
+            if (token instanceof WordToken) {
+                symbols.add(new Symbol(Symbol.KIND_UNIT, ((WordToken) token).getName(), token, null));
+                next();
+            } else if (token instanceof SemicolonToken) {
+                next();
+                return;
+            } else if (isDeclaration(token) || token instanceof BeginEndToken) {
+                return;
+            } else {
+                next();
+            }
+        }
+    }
+
+    /**
+     * a, b: integer; c: array[1..10] of real = (...);
+     */
+    private void parseVariables(List<Symbol> symbols) {
+        while (peek() instanceof WordToken) {
+            ArrayList<Token> names = readNames();
+            Token type = null;
+            if (peek() instanceof ColonToken) {
+                next();
+                type = peek();
+            }
+            for (Token name : names) {
+                symbols.add(new Symbol(Symbol.KIND_VARIABLE, ((WordToken) name).getName(), name, type));
+            }
+            skipStatement();
+        }
+    }
+
+    /**
+     * max = 100; name: string = 'pascal';
+     */
+    private void parseConstants(List<Symbol> symbols) {
+        while (peek() instanceof WordToken) {
+            Token name = next();
+            Token type = null;
+            if (peek() instanceof ColonToken) {
+                next();
+                type = peek();
+            } else if (isEquals(peek())) {
+                next();
+                type = peek();
+            }
+            symbols.add(new Symbol(Symbol.KIND_CONST, ((WordToken) name).getName(), name, type));
+            skipStatement();
+        }
+    }
+
+    /**
+     * TPoint = record x, y: integer end; TColor = (red, green, blue);
+     */
+    private void parseTypes(List<Symbol> symbols) {
+        while (peek() instanceof WordToken) {
+            Token name = next();
+            if (isEquals(peek())) {
+                next();
+            }
+            Token type = peek();
+            symbols.add(new Symbol(Symbol.KIND_TYPE, ((WordToken) name).getName(), name, type));
+            if (type instanceof ParenthesizedToken) {
+                //enumerated type, its elements are constants of the type
+                next();
+                Token token;
+                while ((token = peek()) != null && !(token instanceof CloseParenToken)
+                        && !(token instanceof SemicolonToken)) {
+                    if (token instanceof WordToken) {
+                        symbols.add(new Symbol(Symbol.KIND_CONST, ((WordToken) token).getName(), token, name));
+                    }
+                    next();
+                }
+            }
+            skipStatement();
+        }
+    }
+
+    /**
+     * procedure name(params); directives; declarations begin ... end;
+     *
+     * @param symbols - the declarations of the parent, which receives the routine itself
+     */
+    private Scope parseRoutine(List<Symbol> symbols) {
+        Token header = next();
+        Token nameToken = header;
+        if (peek() instanceof WordToken) {
+            nameToken = next();
+            //TClass.Method
+            while (peek() instanceof PeriodToken) {
+                next();
+                if (peek() instanceof WordToken) {
+                    nameToken = next();
+                }
+            }
+        }
+        ArrayList<Symbol> parameters = new ArrayList<>();
+        if (peek() instanceof ParenthesizedToken) {
+            next();
+            parseParameters(parameters);
+        }
+        Token returnType = null;
+        if (peek() instanceof ColonToken) {
+            next();
+            returnType = peek();
+        }
+        Symbol owner = null;
+        if (nameToken instanceof WordToken) {
+            int kind = header instanceof FunctionToken ? Symbol.KIND_FUNCTION : Symbol.KIND_PROCEDURE;
+            owner = new Symbol(kind, ((WordToken) nameToken).getName(), nameToken, returnType, parameters);
+            symbols.add(owner);
+        }
+        Scope scope = new Scope(owner, header);
+        scope.getSymbols().addAll(parameters);
+        skipStatement();
+
+        //directives, a routine declared forward or external has no body
+        Token token;
+        while ((token = peek()) instanceof WordToken || token instanceof ForwardToken) {
+            if (token instanceof ForwardToken || isWord(token, "external")) {
+                skipStatement();
+                scope.setEnd(tokens.get(position - 1));
+                return scope;
+            }
+            skipStatement();
+        }
+        parseBlock(scope);
+        return scope;
+    }
+
+    /**
+     * (a, b: integer; var c: string; const d: real = 1)
+     */
+    private void parseParameters(List<Symbol> symbols) {
+        Token token;
+        while ((token = peek()) != null) {
+            if (token instanceof CloseParenToken) {
+                next();
+                return;
+            } else if (token instanceof WordToken) {
+                ArrayList<Token> names = readNames();
+                Token type = null;
+                if (peek() instanceof ColonToken) {
+                    next();
+                    type = peek();
+                }
+                for (Token name : names) {
+                    symbols.add(new Symbol(Symbol.KIND_VARIABLE, ((WordToken) name).getName(), name, type));
+                }
+                //skip the type and the default value
+                int depth = 0;
+                while ((token = peek()) != null) {
+                    if (depth == 0 && (token instanceof SemicolonToken || token instanceof CloseParenToken)) {
+                        break;
+                    }
+                    depth += depthOf(token);
+                    next();
+                }
+            } else if (isDeclaration(token) || token instanceof BeginEndToken) {
+                //unclosed parameter list
+                return;
+            } else {
+                //var, const, ';'
+                next();
+            }
+        }
+    }
+
+    /**
+     * Declarations of a routine followed by its body
+     */
+    private void parseBlock(Scope scope) {
+        Token token;
+        while ((token = peek()) != null) {
+            if (token instanceof VarToken) {
+                next();
+                parseVariables(scope.getSymbols());
+            } else if (token instanceof ConstToken) {
+                next();
+                parseConstants(scope.getSymbols());
+            } else if (token instanceof TypeToken) {
+                next();
+                parseTypes(scope.getSymbols());
+            } else if (token instanceof LabelToken) {
+                skipStatement();
+            } else if (isRoutine(token)) {
+                scope.getChildren().add(parseRoutine(scope.getSymbols()));
+            } else if (token instanceof BeginEndToken) {
+                next();
+                scope.setEnd(skipBlock());
+                if (peek() instanceof SemicolonToken) {
+                    next();
+                }
+                return;
+            } else if (isDeclaration(token)) {
+                //uses, interface, implementation... end the routine
+                scope.setEnd(tokens.get(position - 1));
+                return;
+            } else {
+                next();
+            }
+        }
+    }
+
+    /**
+     * Skip the statements of a block whose 'begin' was read.
+     *
+     * @return the 'end' which closes the block, or the last token read if it is not closed
+     */
+    @Nullable
+    private Token skipBlock() {
+        int depth = 1;
+        Token last = null;
+        Token token;
+        while ((token = peek()) != null) {
+            if (isDeclaration(token)) {
+                return last;
+            }
+            next();
+            last = token;
+            if (token instanceof BeginEndToken || token instanceof CaseToken
+                    || token instanceof RecordToken || isWord(token, "try") || isWord(token, "asm")) {
+                depth++;
+            } else if (token instanceof EndToken) {
+                depth--;
+                if (depth == 0) {
+                    return token;
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Skip to the next ';' which is not nested in a record, a class, parentheses or brackets
+     * and read it. Stop before a token which starts another declaration or a block.
+     */
+    private void skipStatement() {
+        int depth = 0;
+        Token token;
+        while ((token = peek()) != null) {
+            if (depth == 0) {
+                if (token instanceof SemicolonToken) {
+                    next();
+                    return;
+                }
+                if (token instanceof BeginEndToken || token instanceof VarToken
+                        || token instanceof ConstToken || token instanceof TypeToken
+                        || token instanceof UsesToken || token instanceof ImplementationToken) {
+                    return;
+                }
+            }
+            next();
+            if (token instanceof ClassToken) {
+                //forward declaration "TFoo = class;" and "class of TFoo" have no end
+                Token following = peek();
+                if (!(following instanceof SemicolonToken) && !(following instanceof OfToken)) {
+                    depth++;
+                }
+            } else {
+                depth = Math.max(0, depth + depthOf(token));
+            }
+        }
+    }
+
+    private int depthOf(Token token) {
+        if (token instanceof RecordToken || token instanceof ParenthesizedToken
+                || token instanceof BracketedToken) {
+            return 1;
+        }
+        if (token instanceof EndToken || token instanceof CloseParenToken
+                || token instanceof EndBracketToken) {
+            return -1;
+        }
+        return 0;
+    }
+
+    /**
+     * a, b, c
+     */
+    private ArrayList<Token> readNames() {
+        ArrayList<Token> names = new ArrayList<>();
+        boolean afterComma = true;
+        Token token;
+        while ((token = peek()) != null) {
+            if (token instanceof WordToken) {
+                if (!afterComma) {
+                    //modifier before the name, such as "out x"
+                    names.remove(names.size() - 1);
+                }
+                names.add(token);
+                afterComma = false;
+            } else if (token instanceof CommaToken) {
+                afterComma = true;
+            } else {
+                break;
+            }
+            next();
+        }
+        return names;
+    }
+
+    private boolean isEquals(Token token) {
+        return token instanceof OperatorToken && ((OperatorToken) token).type == OperatorTypes.EQUALS;
+    }
+
+    /**
+     * A run of tokens which declares symbols of the program, or of the unit, and at most one
+     * routine. Bounds are token indices, the end is exclusive.
+     */
+    static class Segment {
+        private final ArrayList<Symbol> symbols = new ArrayList<>();
+        @Nullable
+        private Scope scope;
+        private int start;
+        private int end;
+        /**
+         * Last index read to decide where the segment ends, the segment must be parsed again
+         * when a token up to this index changes
+         */
+        private int lookahead;
+
+        Segment(int start) {
+            this.start = start;
+        }
+
+        ArrayList<Symbol> getSymbols() {
+            return symbols;
+        }
+
+        @Nullable
+        Scope getScope() {
+            return scope;
+        }
+
+        void setScope(@Nullable Scope scope) {
+            this.scope = scope;
+        }
+
+        int getStart() {
+            return start;
+        }
+
+        int getEnd() {
+            return end;
+        }
+
+        int getLookahead() {
+            return lookahead;
+        }
+
+        void setBounds(int start, int end, int lookahead) {
+            this.start = start;
+            this.end = end;
+            this.lookahead = lookahead;
+        }
+
+        void shift(int delta) {
+            start += delta;
+            end += delta;
+            lookahead += delta;
+        }
+    }
+}
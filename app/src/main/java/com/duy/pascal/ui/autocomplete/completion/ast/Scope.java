@@ -0,0 +1,92 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.ui.autocomplete.completion.ast;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.linenumber.LineNumber;
+import com.duy.pascal.interperter.tokens.Token;
+
+import java.util.ArrayList;
+
+/**
+ * Declarations of a function or procedure: its parameters, local variables, constants and types
+ * and nested routines. It covers the source from the routine header to the end of its body.
+ */
+public class Scope {
+    @Nullable
+    private final Symbol owner;
+    @NonNull
+    private final Token start;
+    private final ArrayList<Symbol> symbols = new ArrayList<>();
+    private final ArrayList<Scope> children = new ArrayList<>();
+    /**
+     * Last token of the body, null while the routine is not closed
+     */
+    @Nullable
+    private Token end;
+
+    public Scope(@Nullable Symbol owner, @NonNull Token start) {
+        this.owner = owner;
+        this.start = start;
+    }
+
+    /**
+     * @return the routine which declares this scope, null if the header has no name yet
+     */
+    @Nullable
+    public Symbol getOwner() {
+        return owner;
+    }
+
+    public ArrayList<Symbol> getSymbols() {
+        return symbols;
+    }
+
+    public ArrayList<Scope> getChildren() {
+        return children;
+    }
+
+    void setEnd(@Nullable Token end) {
+        this.end = end;
+    }
+
+    /**
+     * @return true if the position is between the header and the end of the body
+     */
+    public boolean contains(@NonNull LineNumber position) {
+        LineNumber from = start.getLineNumber();
+        if (from == null || from.compareTo(position) > 0) {
+            return false;
+        }
+        if (end == null) {
+            return true;
+        }
+        LineNumber to = end.getLineNumber();
+        return to == null || to.compareTo(position) >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Scope{" +
+                "owner=" + owner +
+                ", symbols=" + symbols +
+                ", children=" + children +
+                '}';
+    }
+}
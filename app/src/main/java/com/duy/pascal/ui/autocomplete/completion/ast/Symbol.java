@@ -0,0 +1,104 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.ui.autocomplete.completion.ast;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.declaration.Name;
+import com.duy.pascal.interperter.linenumber.LineNumber;
+import com.duy.pascal.interperter.tokens.Token;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A name declared in the source: variable, constant, type, function, procedure or unit.
+ * <p>
+ * The line number is the one of the token which declares it, so the symbol follows the token
+ * when lines are inserted or removed above it.
+ */
+public class Symbol {
+    public static final int KIND_VARIABLE = 1;
+    public static final int KIND_CONST = KIND_VARIABLE + 1;
+    public static final int KIND_TYPE = KIND_CONST + 1;
+    public static final int KIND_FUNCTION = KIND_TYPE + 1;
+    public static final int KIND_PROCEDURE = KIND_FUNCTION + 1;
+    public static final int KIND_UNIT = KIND_PROCEDURE + 1;
+
+    private final int kind;
+    @NonNull
+    private final Name name;
+    @NonNull
+    private final Token token;
+    /**
+     * First token of the declared type, the return type of a function or the value of a constant
+     */
+    @Nullable
+    private final Token type;
+    /**
+     * Parameters of a function or procedure
+     */
+    @NonNull
+    private final List<Symbol> parameters;
+
+    public Symbol(int kind, @NonNull Name name, @NonNull Token token, @Nullable Token type) {
+        this(kind, name, token, type, Collections.<Symbol>emptyList());
+    }
+
+    public Symbol(int kind, @NonNull Name name, @NonNull Token token, @Nullable Token type,
+                  @NonNull List<Symbol> parameters) {
+        this.kind = kind;
+        this.name = name;
+        this.token = token;
+        this.type = type;
+        this.parameters = parameters;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    @NonNull
+    public Name getName() {
+        return name;
+    }
+
+    @Nullable
+    public LineNumber getLineNumber() {
+        return token.getLineNumber();
+    }
+
+    @Nullable
+    public Token getType() {
+        return type;
+    }
+
+    @NonNull
+    public List<Symbol> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public String toString() {
+        return "Symbol{" +
+                "kind=" + kind +
+                ", name=" + name +
+                ", type=" + type +
+                '}';
+    }
+}
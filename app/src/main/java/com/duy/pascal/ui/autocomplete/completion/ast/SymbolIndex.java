@@ -0,0 +1,211 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.ui.autocomplete.completion.ast;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.duy.pascal.interperter.declaration.Name;
+import com.duy.pascal.interperter.linenumber.LineNumber;
+import com.duy.pascal.interperter.tokens.Token;
+import com.duy.pascal.ui.autocomplete.completion.ast.DeclarationParser.Segment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Symbols declared by a document, kept up to date with the tokens of the document.
+ * <p>
+ * The declarations are split in top level segments (a section of the program, a routine...).
+ * When some tokens are replaced, only the segments which read them are parsed again; the parser
+ * stops as soon as it reaches the start of an unchanged segment.
+ */
+public class SymbolIndex {
+    private ArrayList<Segment> mSegments = new ArrayList<>();
+    /**
+     * the units of the uses clauses separated by commas, null if they must be read again
+     */
+    @Nullable
+    private String mUnitsKey;
+
+    /**
+     * Parse all declarations of the tokens
+     */
+    public void rebuild(@NonNull List<Token> tokens) {
+        mSegments.clear();
+        mUnitsKey = null;
+        DeclarationParser parser = new DeclarationParser(tokens, 0);
+        while (parser.hasNext()) {
+            mSegments.add(parser.nextSegment());
+        }
+    }
+
+    /**
+     * Update the declarations after tokens [from, from + removed) of the last version were
+     * replaced by tokens [from, from + added) of the new version.
+     *
+     * @param tokens - all tokens of the new version
+     */
+    public void update(@NonNull List<Token> tokens, int from, int removed, int added) {
+        int delta = added - removed;
+        int first = 0;
+        while (first < mSegments.size() && mSegments.get(first).getLookahead() < from) {
+            first++;
+        }
+        int start = first < mSegments.size() ? mSegments.get(first).getStart()
+                : first > 0 ? mSegments.get(first - 1).getEnd() : 0;
+
+        ArrayList<Segment> segments = new ArrayList<>(mSegments.size() + 4);
+        segments.addAll(mSegments.subList(0, first));
+        DeclarationParser parser = new DeclarationParser(tokens, start);
+        int reuse = first;
+        boolean unitsChanged = false;
+        while (true) {
+            int position = parser.getPosition();
+            while (reuse < mSegments.size() && (mSegments.get(reuse).getStart() < from + removed
+                    || mSegments.get(reuse).getStart() + delta < position)) {
+                reuse++;
+            }
+            if (reuse < mSegments.size() && mSegments.get(reuse).getStart() + delta == position) {
+                break;
+            }
+            if (!parser.hasNext()) {
+                reuse = mSegments.size();
+                break;
+            }
+            Segment segment = parser.nextSegment();
+            unitsChanged |= hasUnits(segment);
+            segments.add(segment);
+        }
+        for (int i = first; i < reuse && !unitsChanged; i++) {
+            unitsChanged = hasUnits(mSegments.get(i));
+        }
+        if (unitsChanged) {
+            mUnitsKey = null;
+        }
+        for (int i = reuse; i < mSegments.size(); i++) {
+            Segment segment = mSegments.get(i);
+            segment.shift(delta);
+            segments.add(segment);
+        }
+        mSegments = segments;
+    }
+
+    /**
+     * @return the names of the units imported by the uses clauses
+     */
+    @NonNull
+    public ArrayList<Name> getUnits() {
+        ArrayList<Name> units = new ArrayList<>();
+        for (Segment segment : mSegments) {
+            for (Symbol symbol : segment.getSymbols()) {
+                if (symbol.getKind() == Symbol.KIND_UNIT) {
+                    units.add(symbol.getName());
+                }
+            }
+        }
+        return units;
+    }
+
+    /**
+     * @return the units of the uses clauses separated by commas, it is only read again when a
+     * segment which contains a uses clause was parsed again
+     */
+    @NonNull
+    public String getUnitsKey() {
+        if (mUnitsKey == null) {
+            StringBuilder key = new StringBuilder();
+            for (Name unit : getUnits()) {
+                if (key.length() > 0) key.append(", ");
+                key.append(unit.getOriginName());
+            }
+            mUnitsKey = key.toString();
+        }
+        return mUnitsKey;
+    }
+
+    private static boolean hasUnits(Segment segment) {
+        for (Symbol symbol : segment.getSymbols()) {
+            if (symbol.getKind() == Symbol.KIND_UNIT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the global symbols and the symbols of every routine which contains the position,
+     * which are declared before the position
+     */
+    @NonNull
+    public ArrayList<Symbol> getVisibleSymbols(@NonNull LineNumber position) {
+        ArrayList<Symbol> result = new ArrayList<>();
+        for (Segment segment : mSegments) {
+            addDeclaredBefore(segment.getSymbols(), position, result);
+            Scope scope = segment.getScope();
+            while (scope != null && scope.contains(position)) {
+                addDeclaredBefore(scope.getSymbols(), position, result);
+                Scope inner = null;
+                for (Scope child : scope.getChildren()) {
+                    if (child.contains(position)) {
+                        inner = child;
+                    }
+                }
+                scope = inner;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the closest declaration of the name visible at the position
+     */
+    @Nullable
+    public Symbol findSymbol(@NonNull Name name, @NonNull LineNumber position) {
+        ArrayList<Symbol> symbols = getVisibleSymbols(position);
+        for (int i = symbols.size() - 1; i >= 0; i--) {
+            if (symbols.get(i).getName().equals(name)) {
+                return symbols.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return scopes of the top level routines
+     */
+    @NonNull
+    public ArrayList<Scope> getScopes() {
+        ArrayList<Scope> scopes = new ArrayList<>();
+        for (Segment segment : mSegments) {
+            if (segment.getScope() != null) {
+                scopes.add(segment.getScope());
+            }
+        }
+        return scopes;
+    }
+
+    private void addDeclaredBefore(List<Symbol> symbols, LineNumber position, List<Symbol> result) {
+        for (Symbol symbol : symbols) {
+            LineNumber lineNumber = symbol.getLineNumber();
+            if (symbol.getKind() != Symbol.KIND_UNIT && lineNumber != null
+                    && lineNumber.compareTo(position) < 0) {
+                result.add(symbol);
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ package com.duy.pascal.ui.code;
 import android.app.Activity;
 import android.content.Intent;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.duy.pascal.ui.debug.activities.DebugActivity;
 import com.duy.pascal.ui.editor.EditorActivity;
@@ -33,6 +34,10 @@ import java.io.File;
 public class CompileManager {
 
     public static final String EXTRA_FILE = "file";
+    /**
+     * file which the standard input of program is redirected from
+     */
+    public static final String EXTRA_INPUT = "input";
     public static final String IS_NEW = "is_new";
     public static final String INITIAL_POS = "initial_pos";
     public static final int ACTIVITY_EDITOR = 1001;
@@ -48,6 +53,17 @@ public class CompileManager {
         activity.startActivity(intent);
     }
 
+    /**
+     * Execute the program, read and readln parse the values from the input file instead of the
+     * console
+     */
+    public static void execute(Activity activity, String filePath, @Nullable File input) {
+        Intent intent = new Intent(activity, ExecuteActivity.class);
+        intent.putExtra(EXTRA_FILE, new File(filePath));
+        intent.putExtra(EXTRA_INPUT, input);
+        activity.startActivity(intent);
+    }
+
     public static void debug(Activity mActivity, String filePath) {
         Intent intent = new Intent(mActivity, DebugActivity.class);
         intent.putExtra(EXTRA_FILE, new File(filePath));
@@ -148,10 +148,10 @@ public class CallStack {
     public ArrayList<VariableContext> getStacks() {
         ArrayList<VariableContext> stacks = new ArrayList<>();
         stacks.add(currentContext);
-        VariableContext tmp = currentContext.getParentContext();
+        VariableContext tmp = currentContext.getCallerContext();
         while (tmp != null) {
             stacks.add(0, tmp);
-            tmp = tmp.getParentContext();
+            tmp = tmp.getCallerContext();
         }
         return stacks;
     }
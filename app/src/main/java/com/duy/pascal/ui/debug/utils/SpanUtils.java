@@ -23,13 +23,14 @@ import android.text.SpannableStringBuilder;
 import android.text.Spanned;
 import android.text.style.ForegroundColorSpan;
 
+import com.duy.pascal.interperter.ast.runtime.value.ArrayStorage;
 import com.duy.pascal.interperter.ast.variablecontext.ContainsVariables;
 import com.duy.pascal.interperter.declaration.lang.types.Type;
 import com.duy.pascal.interperter.declaration.lang.types.set.ArrayType;
 import com.duy.pascal.interperter.declaration.lang.value.VariableDeclaration;
 import com.duy.pascal.ui.themefont.model.CodeTheme;
 
-import java.util.List;
+import java.util.Collection;
 
 /**
  * Created by Duy on 09-Jun-17.
@@ -91,10 +92,10 @@ public class SpanUtils {
                 spannableString = new SpannableString("'" + value.toString() + "'");
                 spannableString.setSpan(new ForegroundColorSpan(codeTheme.getStringColor()), 0,
                         spannableString.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
-            } else if (value instanceof Object[]) { //array
-                spannableString = getSpanArray((Object[]) value, maxLengthArray);
-            } else if (value instanceof List) { //set, enum
-                spannableString = new SpannableString(listToString((List) value, 10));
+            } else if (ArrayStorage.isArray(value)) { //array
+                spannableString = getSpanArray(ArrayStorage.toObjectArray(value), maxLengthArray);
+            } else if (value instanceof Collection) { //set, enum
+                spannableString = new SpannableString(listToString((Collection) value, 10));
             } else if (value instanceof ContainsVariables) { //record
                 spannableString = new SpannableString(value.toString());
             } else {
@@ -110,12 +111,12 @@ public class SpanUtils {
             return new SpannableString("[]");
         }
         if (maxLength == -1) maxLength = array.length;
-        if (array[0] instanceof Object[]) {
+        if (ArrayStorage.isArray(array[0])) {
             SpannableStringBuilder spannableStringBuilder = new SpannableStringBuilder();
             spannableStringBuilder.append("\n").append("[");
             if (array.length <= maxLength) {
                 for (int i = 0; i < array.length; i++) {
-                    spannableStringBuilder.append(getSpanArray((Object[]) array[i], maxLength));
+                    spannableStringBuilder.append(getSpanArray(ArrayStorage.toObjectArray(array[i]), maxLength));
                     if (i == array.length - 1) {
                         return new SpannableString(spannableStringBuilder.append("]"));
                     }
@@ -123,7 +124,7 @@ public class SpanUtils {
                 }
             } else {
                 for (int i = 0; i < maxLength; i++) {
-                    spannableStringBuilder.append(getSpanArray((Object[]) array[i], maxLength));
+                    spannableStringBuilder.append(getSpanArray(ArrayStorage.toObjectArray(array[i]), maxLength));
                     if (i == maxLength - 1) {
                         return new SpannableString(spannableStringBuilder.append("...]"));
                     }
@@ -156,14 +157,15 @@ public class SpanUtils {
         return null;
     }
 
-    public String listToString(List list, int maxSize) {
-        if (list == null) return "";
-        if (maxSize == -1) maxSize = list.size();
-        if (list.size() <= maxSize) {
+    public String listToString(Collection collection, int maxSize) {
+        if (collection == null) return "";
+        Object[] list = collection.toArray();
+        if (maxSize == -1) maxSize = list.length;
+        if (list.length <= maxSize) {
             StringBuilder b = new StringBuilder();
             b.append('[');
-            for (int i = 0; i < list.size(); i++) {
-                b.append(generateValueSpan(list.get(i)));
+            for (int i = 0; i < list.length; i++) {
+                b.append(generateValueSpan(list[i]));
                 if (i == maxSize - 1)
                     return b.append("]").toString();
                 b.append(", ");
@@ -173,7 +175,7 @@ public class SpanUtils {
             StringBuilder b = new StringBuilder();
             b.append('[');
             for (int i = 0; i < maxSize; i++) {
-                b.append(generateValueSpan(list.get(i)));
+                b.append(generateValueSpan(list[i]));
                 if (i == maxSize - 1)
                     return b.append("...]").toString();
                 b.append(", ");
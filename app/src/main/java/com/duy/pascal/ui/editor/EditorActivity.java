@@ -40,9 +40,9 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.duy.pascal.interperter.ast.CodeUnitParsingException;
-import com.duy.pascal.interperter.ast.codeunit.CodeUnit;
 import com.duy.pascal.interperter.ast.expressioncontext.ExpressionContextMixin;
 import com.duy.pascal.interperter.core.PascalCompilerFactory;
+import com.duy.pascal.interperter.declaration.library.PascalUnitDeclaration;
 import com.duy.pascal.interperter.declaration.program.PascalProgramDeclaration;
 import com.duy.pascal.interperter.exceptions.parsing.ParsingException;
 import com.duy.pascal.interperter.exceptions.parsing.define.MainProgramNotFoundException;
@@ -276,19 +276,25 @@ public class EditorActivity extends BaseEditorActivity implements DrawerLayout.D
         String filePath = getCurrentFilePath();
         if (filePath.isEmpty()) return false;
         try {
-            CodeUnit codeUnit;
             ArrayList<ScriptSource> searchPath = new ArrayList<>();
             searchPath.add(new FileScriptSource(new File(filePath)));
             if (getCode().trim().toLowerCase().startsWith("unit ")) {
-                PascalCompilerFactory.makePascalLibrary(new FileScriptSource(new File(filePath)),
-                        searchPath,
+                PascalUnitDeclaration unit = PascalCompilerFactory.makePascalLibrary(
+                        new FileScriptSource(new File(filePath)), searchPath,
                         new ProgramHandler(filePath));
+                unit.getContext().releaseUnits();
             } else {
-                codeUnit = PascalCompilerFactory.makePascalProgram(new FileScriptSource(new File(filePath)),
-                        searchPath, new ProgramHandler(filePath));
-                if (((PascalProgramDeclaration) codeUnit).root == null) {
-                    showErrorDialog(new MainProgramNotFoundException());
-                    return false;
+                //the compiled program is kept, so the run which follows does not parse it again
+                FileScriptSource source = new FileScriptSource(new File(filePath));
+                PascalProgramDeclaration program = PascalCompilerFactory.makeCachedPascalProgram(
+                        source, searchPath, new ProgramHandler(filePath));
+                try {
+                    if (program.root == null) {
+                        showErrorDialog(new MainProgramNotFoundException());
+                        return false;
+                    }
+                } finally {
+                    PascalCompilerFactory.releaseCachedPascalProgram(source, program);
                 }
             }
         } catch (FileNotFoundException e) {
@@ -590,6 +596,7 @@ public class EditorActivity extends BaseEditorActivity implements DrawerLayout.D
             PascalProgramDeclaration pascalProgram = PascalCompilerFactory
                     .makePascalProgram(new FileScriptSource(new File(filePath)),
                             new ArrayList<ScriptSource>(), null);
+            pascalProgram.getContext().releaseUnits();
 
             if (pascalProgram.root == null) {
                 showErrorDialog(new MainProgramNotFoundException());
@@ -128,7 +128,6 @@ public class EditorFragment extends Fragment implements ICodeEditor {
     public void onResume() {
         super.onResume();
         mCodeEditor.updateFromSettings();
-        mCodeEditor.restoreHistory(getFilePath());
     }
 
     public void executeCommand(@NonNull AutoFixCommand command) {
@@ -264,6 +263,7 @@ public class EditorFragment extends Fragment implements ICodeEditor {
 
     private static class LoadCodeTask extends AsyncTask<File, Void, String> {
         private EditorView mEditorView;
+        private File mFile;
 
         LoadCodeTask(EditorView editorView) {
             this.mEditorView = editorView;
@@ -271,6 +271,7 @@ public class EditorFragment extends Fragment implements ICodeEditor {
 
         @Override
         protected String doInBackground(File... params) {
+            mFile = params[0];
             return FileManager.fileToString(params[0]);
         }
 
@@ -279,6 +280,9 @@ public class EditorFragment extends Fragment implements ICodeEditor {
             super.onPostExecute(result);
             if (!isCancelled()) {
                 mEditorView.setText(result);
+                //loading the file is not an edit, the history saved for it goes on
+                mEditorView.clearHistory();
+                mEditorView.restoreHistory(mFile.getPath());
             }
         }
     }
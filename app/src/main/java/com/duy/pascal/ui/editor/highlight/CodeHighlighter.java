@@ -16,198 +16,168 @@
 
 package com.duy.pascal.ui.editor.highlight;
 
-import android.graphics.Color;
 import android.support.annotation.NonNull;
-import android.support.v4.util.Pair;
 import android.text.Editable;
 import android.text.Spannable;
 import android.text.style.BackgroundColorSpan;
 import android.text.style.ForegroundColorSpan;
+import android.text.style.StyleSpan;
+import android.text.style.UnderlineSpan;
 
+import com.duy.pascal.ui.editor.highlight.spans.SyntaxColorSpan;
 import com.duy.pascal.ui.editor.view.HighlightEditor;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.regex.Matcher;
-
-import static com.duy.pascal.ui.autocomplete.completion.util.Patterns.ARGB_FUNCTION;
-import static com.duy.pascal.ui.autocomplete.completion.util.Patterns.BUILTIN_FUNCTIONS;
-import static com.duy.pascal.ui.autocomplete.completion.util.Patterns.KEYWORDS;
-import static com.duy.pascal.ui.autocomplete.completion.util.Patterns.NUMBERS;
-import static com.duy.pascal.ui.autocomplete.completion.util.Patterns.RGB_FUNCTION;
-import static com.duy.pascal.ui.autocomplete.completion.util.Patterns.SYMBOLS;
+import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Created by Duy on 18-Jun-17.
+ * <p>
+ * The colors are computed by a {@link LexerHighlighter}, {@link #update} can run on a background
+ * thread and {@link #apply} sets the spans on the UI thread.
  */
 public class CodeHighlighter implements IHighlighter {
     private static final String TAG = "CodeHighlighter";
+    private final LexerHighlighter mLexerHighlighter = new LexerHighlighter();
+    private final SpanPool mSpanPool = new SpanPool();
+    /**
+     * Runs which have a span already, used by {@link #apply}
+     */
+    private boolean[] mKept = new boolean[0];
     private IEditorColorScheme codeTheme;
-    private StringHighlighter stringHighlighter;
-    private CommentHighlighter commentHighlighter;
 
     public CodeHighlighter(HighlightEditor highlightEditor) {
         this.codeTheme = highlightEditor.getCodeTheme();
-        this.commentHighlighter = new CommentHighlighter(codeTheme);
-        this.stringHighlighter = new StringHighlighter(codeTheme);
+    }
+
+    private static <T> void removeSpan(Editable e, Class<T> clazz, int start, int end) {
+        T spans[] = e.getSpans(start, end, clazz);
+        for (T span : spans) {
+            e.removeSpan(span);
+        }
     }
 
     @Override
     public void highlight(@NonNull Editable allText,
                           @NonNull CharSequence textToHighlight, int start) {
+        int end = start + textToHighlight.length();
+        HighlightRuns runs = new HighlightRuns();
         try {
-            commentHighlighter.highlight(allText, textToHighlight, start);
-            ArrayList<Pair<Integer, Integer>> region = commentHighlighter.getCommentRegion();
-            if (region.size() == 0) {
-                highlightStringAndOther(allText, textToHighlight, start);
-                return;
-            }
-            Collections.sort(region, new Comparator<Pair<Integer, Integer>>() {
-                @Override
-                public int compare(Pair<Integer, Integer> o1, Pair<Integer, Integer> o2) {
-                    return o1.first.compareTo(o2.first);
-                }
-            });
-
-            int startIndex, endIndex;
-            if (region.size() > 0 && start < region.get(0).first - 1) {
-                highlightStringAndOther(allText,
-                        allText.subSequence(start, region.get(0).first - 1), start);
-            }
-            for (int i = 0; i < region.size() - 1; i++) {
-                startIndex = region.get(i).second + 1;
-                endIndex = region.get(i + 1).first - 1;
-                if (startIndex < endIndex) {
-                    highlightStringAndOther(allText,
-                            allText.subSequence(startIndex, endIndex), startIndex);
-                }
-            }
-            if (region.size() > 0) {
-                startIndex = region.get(region.size() - 1).second + 1;
-                endIndex = start + textToHighlight.length();
-                if (startIndex <= endIndex) {
-                    highlightStringAndOther(allText,
-                            allText.subSequence(startIndex, endIndex), startIndex);
-                }
-            }
-        } catch (Exception ignored) {
-            ignored.printStackTrace();
+            update(allText.toString(), start, end, runs);
+            apply(allText, runs, start, end);
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-
     }
 
-
-    @Override
-    public void setCodeTheme(IEditorColorScheme codeTheme) {
-        this.codeTheme = codeTheme;
-        commentHighlighter.setCodeTheme(codeTheme);
-        stringHighlighter.setCodeTheme(codeTheme);
+    /**
+     * Bring the colors up to date with the text and collect the runs between two offsets,
+     * it can be called on any thread
+     *
+     * @return start and end of the text whose colors changed since the last update
+     */
+    public int[] update(@NonNull String text, int start, int end,
+                        @NonNull HighlightRuns result) throws IOException {
+        synchronized (mLexerHighlighter) {
+            mLexerHighlighter.update(text);
+            mLexerHighlighter.getRuns(start, end, result);
+            return new int[]{mLexerHighlighter.getChangedStart(), mLexerHighlighter.getChangedEnd()};
+        }
     }
 
-    private void highlightStringAndOther(@NonNull Editable allText,
-                                         @NonNull CharSequence textToHighlight, int start) {
-        stringHighlighter.highlight(allText, textToHighlight, start);
-        ArrayList<Pair<Integer, Integer>> region = stringHighlighter.getStringRegion();
-        if (region.size() == 0) {
-            highlightOther(allText, textToHighlight, start);
+    /**
+     * Replace the colors of the text between two offsets with the runs. The spans which color
+     * a run already are kept, the others are removed and used again for the runs which have
+     * no span yet.
+     */
+    public void apply(@NonNull Editable allText, @NonNull HighlightRuns runs, int start, int end) {
+        start = Math.max(start, runs.getFrom());
+        end = Math.min(end, runs.getTo());
+        if (start >= end) {
             return;
         }
-        Collections.sort(region, new Comparator<Pair<Integer, Integer>>() {
-            @Override
-            public int compare(Pair<Integer, Integer> o1, Pair<Integer, Integer> o2) {
-                return o1.first.compareTo(o2.first);
+        //a span which crosses the bounds is replaced as a whole
+        SyntaxColorSpan[] spans;
+        while (true) {
+            spans = allText.getSpans(start, end, SyntaxColorSpan.class);
+            int from = start, to = end;
+            for (SyntaxColorSpan span : spans) {
+                from = Math.min(from, Math.max(allText.getSpanStart(span), runs.getFrom()));
+                to = Math.max(to, Math.min(allText.getSpanEnd(span), runs.getTo()));
             }
-        });
-
-        int startIndex, endIndex;
-        if (region.size() > 0 && start < region.get(0).first - 1) {
-            highlightOther(allText, allText.subSequence(start, region.get(0).first - 1), start);
-        }
-        for (int i = 0; i < region.size() - 1; i++) {
-            startIndex = region.get(i).second + 1;
-            endIndex = region.get(i + 1).first - 1;
-            if (startIndex < endIndex) {
-                highlightOther(allText, allText.subSequence(startIndex, endIndex), startIndex);
+            if (from == start && to == end) {
+                break;
             }
+            start = from;
+            end = to;
         }
-        if (region.size() > 0) {
-            startIndex = region.get(region.size() - 1).second + 1;
-            endIndex = start + textToHighlight.length();
-            if (startIndex <= endIndex) {
-                highlightOther(allText, allText.subSequence(startIndex, endIndex), startIndex);
+        for (ForegroundColorSpan span : allText.getSpans(start, end, ForegroundColorSpan.class)) {
+            if (!(span instanceof SyntaxColorSpan)) {
+                allText.removeSpan(span);
             }
         }
-    }
-
-    private void highlightOther(@NonNull Editable allText,
-                                @NonNull CharSequence textToHighlight, int start) {
-        //high light number
-        for (Matcher m = NUMBERS.matcher(textToHighlight); m.find(); ) {
-            allText.setSpan(new ForegroundColorSpan(codeTheme.getNumberColor()),
-                    start + m.start(),
-                    start + m.end(),
-                    Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-        }
-        for (Matcher m = KEYWORDS.matcher(textToHighlight); m.find(); ) {
-            allText.setSpan(new ForegroundColorSpan(codeTheme.getKeywordColor()),
-                    start + m.start(),
-                    start + m.end(),
-                    Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+        removeSpan(allText, BackgroundColorSpan.class, start, end);
+        removeSpan(allText, UnderlineSpan.class, start, end);
+        removeSpan(allText, StyleSpan.class, start, end);
+
+        if (mKept.length < runs.size()) {
+            mKept = new boolean[runs.size()];
+        } else {
+            Arrays.fill(mKept, 0, runs.size(), false);
         }
-        for (Matcher m = BUILTIN_FUNCTIONS.matcher(textToHighlight); m.find(); ) {
-            allText.setSpan(new ForegroundColorSpan(codeTheme.getKeywordColor()),
-                    start + m.start(),
-                    start + m.end(),
-                    Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+        for (SyntaxColorSpan span : spans) {
+            int spanStart = allText.getSpanStart(span);
+            int spanEnd = allText.getSpanEnd(span);
+            int index = runs.indexBefore(spanStart);
+            if (index >= 0 && !mKept[index]
+                    && Math.max(start, runs.getStart(index)) == spanStart
+                    && Math.min(end, runs.getEnd(index)) == spanEnd
+                    && foregroundColor(runs, index) == span.getForegroundColor()
+                    && backgroundColor(runs, index) == span.getBackgroundColor()) {
+                mKept[index] = true;
+            } else {
+                allText.removeSpan(span);
+                mSpanPool.recycle(span);
+            }
         }
-        for (Matcher m = SYMBOLS.matcher(textToHighlight); m.find(); ) {
-            allText.setSpan(new ForegroundColorSpan(codeTheme.getOptColor()),
-                    start + m.start(),
-                    start + m.end(),
-                    Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+        for (int i = Math.max(0, runs.indexBefore(start)); i < runs.size(); i++) {
+            int runStart = Math.max(start, runs.getStart(i));
+            int runEnd = Math.min(end, runs.getEnd(i));
+            if (runStart >= end) {
+                break;
+            }
+            if (runStart < runEnd && !mKept[i]) {
+                allText.setSpan(mSpanPool.obtain(foregroundColor(runs, i), backgroundColor(runs, i)),
+                        runStart, runEnd, Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+            }
         }
+    }
 
-
-        for (Matcher m = RGB_FUNCTION.matcher(textToHighlight); m.find(); ) {
-            try {
-                int r = Integer.parseInt(m.group(3).trim());
-                int g = Integer.parseInt(m.group(5).trim());
-                int b = Integer.parseInt(m.group(7).trim());
-                int back = Color.rgb(r, g, b);
-                int fore = Color.rgb(255 - r, 255 - g, 255 - b);
-
-                allText.setSpan(new BackgroundColorSpan(back),
-                        start + m.start(1),
-                        start + m.end(1),
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-                allText.setSpan(new ForegroundColorSpan(fore),
-                        start + m.start(1),
-                        start + m.end(1),
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-            } catch (Exception e) {
-
-            }
+    private int foregroundColor(HighlightRuns runs, int index) {
+        switch (runs.getKind(index)) {
+            case LexerHighlighter.KIND_KEYWORD:
+                return codeTheme.getKeywordColor();
+            case LexerHighlighter.KIND_NUMBER:
+                return codeTheme.getNumberColor();
+            case LexerHighlighter.KIND_STRING:
+                return codeTheme.getStringColor();
+            case LexerHighlighter.KIND_COMMENT:
+                return codeTheme.getCommentColor();
+            case LexerHighlighter.KIND_COLOR:
+                return 0xff000000 | ~runs.getColor(index);
+            default:
+                return codeTheme.getOptColor();
         }
-        for (Matcher m = ARGB_FUNCTION.matcher(textToHighlight); m.find(); ) {
-            try {
-                int r = Integer.parseInt(m.group(3).trim());
-                int g = Integer.parseInt(m.group(5).trim());
-                int b = Integer.parseInt(m.group(7).trim());
-                int back = Color.rgb(r, g, b);
-                int fore = Color.rgb(255 - r, 255 - g, 255 - b);
+    }
 
-                allText.setSpan(new BackgroundColorSpan(back),
-                        start + m.start(1),
-                        start + m.end(1),
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-                allText.setSpan(new ForegroundColorSpan(fore),
-                        start + m.start(1),
-                        start + m.end(1),
-                        Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-            } catch (Exception e) {
+    private int backgroundColor(HighlightRuns runs, int index) {
+        return runs.getKind(index) == LexerHighlighter.KIND_COLOR ? runs.getColor(index) : 0;
+    }
 
-            }
-        }
+    @Override
+    public void setCodeTheme(IEditorColorScheme codeTheme) {
+        this.codeTheme = codeTheme;
+        //the spans of the old colors are not used anymore
+        mSpanPool.clear();
     }
 }
@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.ui.editor.highlight;
+
+import java.util.Arrays;
+
+/**
+ * Colored ranges of the text between two offsets, sorted by offset and not overlapping.
+ * <p>
+ * Every run has a kind (one of the KIND_ constants of {@link LexerHighlighter}) and a color
+ * which is only used by {@link LexerHighlighter#KIND_COLOR}.
+ */
+public class HighlightRuns {
+    private int from = 0;
+    private int to = 0;
+    private int size = 0;
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private int[] kinds = new int[64];
+    private int[] colors = new int[64];
+
+    public void add(int start, int end, int kind, int color) {
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        kinds[size] = kind;
+        colors[size] = color;
+        size++;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Set the text the runs were collected for
+     */
+    public void setRange(int from, int to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    /**
+     * @return index of the last run which starts at or before the offset, -1 if none
+     */
+    public int indexBefore(int offset) {
+        int low = 0, high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= offset) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getEnd(int index) {
+        return ends[index];
+    }
+
+    public int getKind(int index) {
+        return kinds[index];
+    }
+
+    public int getColor(int index) {
+        return colors[index];
+    }
+}
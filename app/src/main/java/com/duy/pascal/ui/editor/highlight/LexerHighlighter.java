@@ -0,0 +1,524 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.ui.editor.highlight;
+
+import android.support.annotation.NonNull;
+
+import com.duy.pascal.interperter.declaration.Name;
+import com.duy.pascal.interperter.source.ScriptSource;
+import com.duy.pascal.interperter.tokenizer.Lexer;
+import com.duy.pascal.interperter.tokens.Token;
+import com.duy.pascal.interperter.tokens.WordToken;
+import com.duy.pascal.interperter.tokens.ignore.CommentToken;
+import com.duy.pascal.interperter.tokens.ignore.CompileDirectiveToken;
+import com.duy.pascal.interperter.tokens.ignore.GroupingExceptionToken;
+import com.duy.pascal.interperter.tokens.other.EOFToken;
+import com.duy.pascal.interperter.tokens.value.CharacterToken;
+import com.duy.pascal.interperter.tokens.value.StringToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.regex.Matcher;
+
+import static com.duy.pascal.ui.autocomplete.completion.util.Patterns.ARGB_FUNCTION;
+import static com.duy.pascal.ui.autocomplete.completion.util.Patterns.RGB_FUNCTION;
+
+/**
+ * Colors of a document, computed with the {@link Lexer} of the interpreter.
+ * <p>
+ * The colored runs are kept per line, with columns relative to the start of the line, together
+ * with a checkpoint telling whether the lexer is in its initial state at the start of the line.
+ * On every {@link #update(String)} the lexer starts again at the last checkpoint before the
+ * change and stops at the first line after the change where the lexer is back in its initial
+ * state and was so in the last version; the lines after it are kept as they are.
+ * <p>
+ * It is not thread safe, the editor updates it on a background thread.
+ */
+public class LexerHighlighter {
+    public static final int KIND_KEYWORD = 1;
+    public static final int KIND_NUMBER = KIND_KEYWORD + 1;
+    public static final int KIND_STRING = KIND_NUMBER + 1;
+    public static final int KIND_COMMENT = KIND_STRING + 1;
+    public static final int KIND_OPERATOR = KIND_COMMENT + 1;
+    /**
+     * Name of a call of rgb or argb with constant arguments, the color of the run is the color
+     * of the call
+     */
+    public static final int KIND_COLOR = KIND_OPERATOR + 1;
+
+    /**
+     * Identifiers which are colored as keywords: types and functions of the system library
+     */
+    private static final HashSet<Name> KEYWORD_NAMES = new HashSet<>();
+    private static final Name RGB = Name.create("rgb");
+    private static final Name ARGB = Name.create("argb");
+
+    static {
+        String[] names = {"exit", "integer", "byte", "word", "shortint", "smallint", "cardinal",
+                "string", "ansistring", "single", "real", "extended", "comp", "currency",
+                "longint", "int64", "qword", "longword", "dword", "boolean", "char", "text",
+                "null", "nil", "new",
+                "sin", "cos", "sqrt", "length", "exp", "tan", "keyPressed", "readKey", "delay",
+                "random", "randomize", "inc", "dec", "ceil", "trunc", "frac", "floor", "abs",
+                "round", "sqr", "pred", "succ", "ln", "arctan", "int", "halt", "odd"};
+        for (String name : names) {
+            KEYWORD_NAMES.add(Name.create(name));
+        }
+    }
+
+    private final ArrayList<Line> mLines = new ArrayList<>();
+    /**
+     * Comments read inside a string literal, they are added with the string
+     */
+    private final HighlightRuns mLiteralComments = new HighlightRuns();
+    /**
+     * Start, end and read limit of the comments which start with "{$" or "(*$", sorted by start
+     */
+    private final ArrayList<int[]> mDirectives = new ArrayList<>();
+    private String mSource;
+    private int[] mLineStarts;
+    private int mChangedStart;
+    private int mChangedEnd;
+
+    /**
+     * @return offset of the first character of every line
+     */
+    private static int[] lineStarts(String source) {
+        int count = 1;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') count++;
+        }
+        int[] starts = new int[count];
+        int line = 1;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') starts[line++] = i + 1;
+        }
+        return starts;
+    }
+
+    /**
+     * @return line which contains the offset
+     */
+    private static int lineOf(int[] lineStarts, int offset) {
+        int low = 0, high = lineStarts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (lineStarts[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static int offset(int[] lineStarts, int line, int column, int length) {
+        if (line >= lineStarts.length) {
+            return length;
+        }
+        return Math.min(lineStarts[line] + column, length);
+    }
+
+    /**
+     * @return true if the source contains "*&#47;" between the offsets
+     */
+    private static boolean containsCommentEnd(String source, int from, int to) {
+        for (int i = Math.max(0, from); i + 1 < Math.min(to, source.length()); i++) {
+            if (source.charAt(i) == '*' && source.charAt(i + 1) == '/') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The lexer reads a comment which starts with "{$" or "(*$" as a compiler directive till the
+     * last '}' before a "*)" or a "*}", so its end depends on the text after it.
+     *
+     * @return end of the comment and offset where the lexer stops to read it
+     */
+    private static int[] directive(String source, int start) {
+        int length = source.length();
+        boolean brace = source.charAt(start) == '{';
+        int i = start + (brace ? 2 : 3);
+        int close = -1;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c != '*') {
+                if (c == '}') close = i + 1;
+                i++;
+            } else if (i + 1 < length && source.charAt(i + 1) != ')' && source.charAt(i + 1) != '}') {
+                i += 2;
+            } else {
+                break;
+            }
+        }
+        int limit = Math.min(i + 2, length);
+        //otherwise it is a comment till the first "}" or "*)"
+        int comment = source.indexOf(brace ? "}" : "*)", start + 2);
+        comment = comment < 0 ? length : comment + (brace ? 1 : 2);
+        return new int[]{start, Math.max(close, comment), Math.max(limit, comment)};
+    }
+
+    /**
+     * Read again the directives before the offset which read the changed text
+     *
+     * @return the line of the first of them whose end changed, or -1
+     */
+    private int changedDirective(String source, int prefix, int offset) {
+        for (int i = 0; i < mDirectives.size() && mDirectives.get(i)[0] < offset; i++) {
+            int[] directive = mDirectives.get(i);
+            if (directive[2] + 1 >= prefix) {
+                int[] current = directive(source, directive[0]);
+                if (current[1] != directive[1]) {
+                    return lineOf(mLineStarts, directive[0]);
+                }
+                mDirectives.set(i, current);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Bring the runs up to date with the source
+     */
+    public void update(@NonNull String source) throws IOException {
+        if (mSource == null) {
+            mLineStarts = lineStarts(source);
+            mLines.clear();
+            mDirectives.clear();
+            lex(source, mLineStarts, 0, -1, 0, mLines, mDirectives);
+            mSource = source;
+            mChangedStart = 0;
+            mChangedEnd = source.length();
+            return;
+        }
+        if (mSource.equals(source)) {
+            mChangedStart = mChangedEnd = 0;
+            return;
+        }
+        String old = mSource;
+        int max = Math.min(old.length(), source.length());
+        int prefix = 0;
+        while (prefix < max && old.charAt(prefix) == source.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix
+                && old.charAt(old.length() - 1 - suffix) == source.charAt(source.length() - 1 - suffix)) {
+            suffix++;
+        }
+        int[] lineStarts = lineStarts(source);
+        int lineDelta = lineStarts.length - mLineStarts.length;
+
+        int line = lineOf(mLineStarts, prefix);
+        //a "/*" which is not closed is not a comment, closing it changes the lines above
+        if (containsCommentEnd(source, prefix - 1, source.length() - suffix + 1)) {
+            int open = old.lastIndexOf("/*", prefix);
+            if (open >= 0) {
+                line = Math.min(line, lineOf(mLineStarts, open));
+            }
+        }
+        while (true) {
+            while (line > 0 && !mLines.get(line).restart) {
+                line--;
+            }
+            int directive = changedDirective(source, prefix, mLineStarts[line]);
+            if (directive < 0) {
+                break;
+            }
+            line = directive;
+        }
+
+        ArrayList<Line> relexed = new ArrayList<>();
+        ArrayList<int[]> directives = new ArrayList<>();
+        int tailLine = lineOf(lineStarts, source.length() - suffix);
+        int converge = lex(source, lineStarts, line, tailLine, lineDelta, relexed, directives);
+        mLines.subList(line, converge).clear();
+        mLines.addAll(line, relexed);
+
+        //the directives of the old lines are replaced, the ones after them are moved
+        int oldStart = mLineStarts[line];
+        int oldEnd = converge < mLineStarts.length ? mLineStarts[converge] : old.length();
+        int first = 0;
+        while (first < mDirectives.size() && mDirectives.get(first)[0] < oldStart) {
+            first++;
+        }
+        int last = first;
+        while (last < mDirectives.size() && mDirectives.get(last)[0] < oldEnd) {
+            last++;
+        }
+        int charDelta = source.length() - old.length();
+        for (int i = last; i < mDirectives.size(); i++) {
+            int[] directive = mDirectives.get(i);
+            directive[0] += charDelta;
+            directive[1] += charDelta;
+            directive[2] += charDelta;
+        }
+        mDirectives.subList(first, last).clear();
+        mDirectives.addAll(first, directives);
+
+        int end = line + relexed.size();
+        mChangedStart = lineStarts[line];
+        mChangedEnd = end < lineStarts.length ? lineStarts[end] : source.length();
+        mSource = source;
+        mLineStarts = lineStarts;
+    }
+
+    /**
+     * @return start of the text whose colors changed in the last update
+     */
+    public int getChangedStart() {
+        return mChangedStart;
+    }
+
+    /**
+     * @return end of the text whose colors changed in the last update
+     */
+    public int getChangedEnd() {
+        return mChangedEnd;
+    }
+
+    /**
+     * Collect the runs between two offsets of the last version
+     */
+    public void getRuns(int from, int to, @NonNull HighlightRuns result) {
+        result.clear();
+        result.setRange(from, to);
+        if (mSource == null) {
+            return;
+        }
+        from = Math.max(0, from);
+        to = Math.min(to, mSource.length());
+        result.setRange(from, to);
+        if (from >= to) {
+            return;
+        }
+        int last = lineOf(mLineStarts, to - 1);
+        for (int index = lineOf(mLineStarts, from); index <= last; index++) {
+            Line line = mLines.get(index);
+            int lineStart = mLineStarts[index];
+            for (int i = 0; i < line.size; i += 4) {
+                int start = lineStart + line.runs[i];
+                int end = start + line.runs[i + 1];
+                if (end <= from) {
+                    continue;
+                }
+                if (start >= to) {
+                    break;
+                }
+                result.add(Math.max(start, from), Math.min(end, to), line.runs[i + 2], line.runs[i + 3]);
+            }
+        }
+    }
+
+    /**
+     * Read the source from the beginning of a line.
+     *
+     * @param lineStarts - line starts of the source
+     * @param line       - line where the lexer starts
+     * @param tailLine   - lines after it are not changed, -1 to read the source to the end
+     * @param lineDelta  - number of lines inserted by the change
+     * @param result     - receives the lines from the start line
+     * @param directives - receives the comments which start with "{$" or "(*$"
+     * @return index of the old line where the new lines join the old ones
+     */
+    private int lex(String source, int[] lineStarts, int line, int tailLine, int lineDelta,
+                    ArrayList<Line> result, ArrayList<int[]> directives) throws IOException {
+        StringReader reader = new StringReader(source);
+        reader.skip(lineStarts[line]);
+        Lexer lexer = new Lexer(reader, "", new ArrayList<ScriptSource>());
+        mLiteralComments.clear();
+
+        int next = line; //first line which is not in the result yet
+        int end = lineStarts[line]; //end of the last token
+        boolean initial = true; //the lexer was in its initial state after the last token
+        while (true) {
+            Token token = lexer.yylex();
+            int position = offset(lineStarts, line + lexer.yyline(), lexer.yycolumn(), source.length());
+            int literal = lexer.literalLine() < 0 ? -1 : offset(lineStarts,
+                    line + lexer.literalLine(), lexer.literalColumn(), source.length());
+            boolean eof = token instanceof EOFToken;
+            //the lexer returns a string when it reads the character after it
+            boolean closedLiteral = (token instanceof StringToken || token instanceof CharacterToken)
+                    && lexer.yylength() == 0;
+            int start, stop;
+            if (eof) {
+                start = stop = source.length();
+            } else if (closedLiteral) {
+                start = literal;
+                stop = position;
+            } else {
+                start = position;
+                stop = Math.min(position + lexer.yylength(), source.length());
+            }
+            //from the quote the lexer is in a string
+            int initialEnd = literal >= end && literal < start ? literal : start;
+
+            int limit = eof ? source.length() + 1 : stop;
+            while (next < lineStarts.length && lineStarts[next] < limit) {
+                boolean restart = initial && lineStarts[next] <= initialEnd;
+                if (restart && tailLine >= 0 && next > tailLine) {
+                    int old = next - lineDelta;
+                    if (old < mLines.size() && mLines.get(old).restart) {
+                        return old;
+                    }
+                }
+                result.add(new Line(restart));
+                next++;
+            }
+
+            if (eof) {
+                if (literal >= 0 && (lexer.yystate() == Lexer.STRING
+                        || lexer.yystate() == Lexer.STRINGDONE)) {
+                    addLiteral(source, lineStarts, line, result, literal, source.length());
+                }
+                return mLines.size();
+            }
+            if (closedLiteral) {
+                addLiteral(source, lineStarts, line, result, start, stop);
+            } else if (token instanceof CommentToken || token instanceof CompileDirectiveToken) {
+                if (source.startsWith("{$", start) || source.startsWith("(*$", start)) {
+                    directives.add(directive(source, start));
+                }
+                if (lexer.yystate() == Lexer.STRINGDONE) {
+                    mLiteralComments.add(start, stop, KIND_COMMENT, 0);
+                } else {
+                    addRun(lineStarts, line, result, start, stop, KIND_COMMENT, 0);
+                }
+            } else if (!(token instanceof GroupingExceptionToken)) {
+                addToken(source, lineStarts, line, result, token, start, stop);
+            }
+            end = stop;
+            initial = lexer.yystate() == Lexer.YYINITIAL;
+        }
+    }
+
+    private void addToken(String source, int[] lineStarts, int line, ArrayList<Line> result,
+                          Token token, int start, int stop) {
+        int kind = 0;
+        if (token instanceof WordToken) {
+            Name name = ((WordToken) token).getName();
+            if (name.equals(RGB) || name.equals(ARGB)) {
+                Matcher matcher = (name.equals(RGB) ? RGB_FUNCTION : ARGB_FUNCTION).matcher(source);
+                matcher.region(start, source.length());
+                if (matcher.lookingAt()) {
+                    try {
+                        int r = Integer.parseInt(matcher.group(3).trim());
+                        int g = Integer.parseInt(matcher.group(5).trim());
+                        int b = Integer.parseInt(matcher.group(7).trim());
+                        int color = 0xff000000 | (r << 16) | (g << 8) | b;
+                        addRun(lineStarts, line, result, start, stop, KIND_COLOR, color);
+                        return;
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+            if (KEYWORD_NAMES.contains(name)) {
+                kind = KIND_KEYWORD;
+            }
+        } else {
+            char first = source.charAt(start);
+            if (Character.isLetter(first) || first == '_') {
+                kind = KIND_KEYWORD;
+            } else if (Character.isDigit(first) || first == '$' || first == '%' || first == '&') {
+                kind = KIND_NUMBER;
+            } else if (first == '#') {
+                kind = KIND_STRING;
+            } else {
+                kind = KIND_OPERATOR;
+            }
+        }
+        if (kind != 0) {
+            addRun(lineStarts, line, result, start, stop, kind, 0);
+        }
+    }
+
+    /**
+     * Add a string literal, with the comments between its parts
+     */
+    private void addLiteral(String source, int[] lineStarts, int line, ArrayList<Line> result,
+                            int start, int stop) {
+        int from = start;
+        for (int i = 0; i < mLiteralComments.size(); i++) {
+            int commentStart = mLiteralComments.getStart(i);
+            addRun(lineStarts, line, result, from, trimEnd(source, from, commentStart), KIND_STRING, 0);
+            addRun(lineStarts, line, result, commentStart, mLiteralComments.getEnd(i), KIND_COMMENT, 0);
+            from = mLiteralComments.getEnd(i);
+            while (from < stop && Character.isWhitespace(source.charAt(from))) {
+                from++;
+            }
+        }
+        addRun(lineStarts, line, result, from, trimEnd(source, from, stop), KIND_STRING, 0);
+        mLiteralComments.clear();
+    }
+
+    private int trimEnd(String source, int start, int end) {
+        while (end > start && Character.isWhitespace(source.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Add a run to the lines it covers
+     *
+     * @param line - line of the first element of the result
+     */
+    private void addRun(int[] lineStarts, int line, ArrayList<Line> result, int start, int stop,
+                        int kind, int color) {
+        int index = lineOf(lineStarts, start);
+        while (start < stop) {
+            int end = index + 1 < lineStarts.length ? Math.min(stop, lineStarts[index + 1]) : stop;
+            result.get(index - line).add(start - lineStarts[index], end - start, kind, color);
+            start = end;
+            index++;
+        }
+    }
+
+    /**
+     * Runs of a line: column, length, kind and color of every run
+     */
+    private static final class Line {
+        /**
+         * The lexer is in its initial state at the start of the line, it can start there
+         */
+        final boolean restart;
+        int[] runs;
+        int size;
+
+        Line(boolean restart) {
+            this.restart = restart;
+        }
+
+        void add(int column, int length, int kind, int color) {
+            if (runs == null) {
+                runs = new int[16];
+            } else if (size == runs.length) {
+                runs = Arrays.copyOf(runs, size * 2);
+            }
+            runs[size] = column;
+            runs[size + 1] = length;
+            runs[size + 2] = kind;
+            runs[size + 3] = color;
+            size += 4;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.duy.pascal.ui.editor.highlight;
+
+import android.support.annotation.NonNull;
+import android.support.v4.util.LongSparseArray;
+
+import com.duy.pascal.ui.editor.highlight.spans.SyntaxColorSpan;
+
+import java.util.ArrayList;
+
+/**
+ * Spans removed from the text, kept by colors so that the next tokens of the same colors do
+ * not allocate new ones.
+ * <p>
+ * It is used on the UI thread only.
+ */
+public class SpanPool {
+    /**
+     * Spans kept for every pair of colors
+     */
+    private static final int MAX_SPANS_PER_COLOR = 256;
+
+    /**
+     * the key is a pair of colors, it is not boxed on every lookup
+     */
+    private final LongSparseArray<ArrayList<SyntaxColorSpan>> mSpans = new LongSparseArray<>();
+
+    private static long key(int color, int backgroundColor) {
+        return ((long) color << 32) | (backgroundColor & 0xffffffffL);
+    }
+
+    @NonNull
+    public SyntaxColorSpan obtain(int color, int backgroundColor) {
+        ArrayList<SyntaxColorSpan> spans = mSpans.get(key(color, backgroundColor));
+        if (spans != null && !spans.isEmpty()) {
+            return spans.remove(spans.size() - 1);
+        }
+        return new SyntaxColorSpan(color, backgroundColor);
+    }
+
+    /**
+     * Keep a span which is not attached to any text anymore
+     */
+    public void recycle(@NonNull SyntaxColorSpan span) {
+        long key = key(span.getForegroundColor(), span.getBackgroundColor());
+        ArrayList<SyntaxColorSpan> spans = mSpans.get(key);
+        if (spans == null) {
+            spans = new ArrayList<>();
+            mSpans.put(key, spans);
+        }
+        if (spans.size() < MAX_SPANS_PER_COLOR) {
+            spans.add(span);
+        }
+    }
+
+    public void clear() {
+        mSpans.clear();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.duy.pascal.ui.editor.highlight.spans;
+
+import android.text.TextPaint;
+import android.text.style.ForegroundColorSpan;
+
+/**
+ * Color of a token, set by the {@link com.duy.pascal.ui.editor.highlight.CodeHighlighter}.
+ * The colors do not change, a span which is removed from the text is kept in a
+ * {@link com.duy.pascal.ui.editor.highlight.SpanPool} and used again for a token of the same colors.
+ */
+public class SyntaxColorSpan extends ForegroundColorSpan {
+    private final int backgroundColor;
+
+    /**
+     * @param backgroundColor - 0 to keep the background of the text
+     */
+    public SyntaxColorSpan(int color, int backgroundColor) {
+        super(color);
+        this.backgroundColor = backgroundColor;
+    }
+
+    public int getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    @Override
+    public void updateDrawState(TextPaint textPaint) {
+        super.updateDrawState(textPaint);
+        if (backgroundColor != 0) {
+            textPaint.bgColor = backgroundColor;
+        }
+    }
+}
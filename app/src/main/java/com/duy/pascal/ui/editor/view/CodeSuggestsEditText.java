@@ -61,6 +61,9 @@ public abstract class CodeSuggestsEditText extends AutoIndentEditText {
     @NonNull
     protected ArrayList<LineNumber> mLineErrors = new ArrayList<>();
     private CodeSuggestAdapter mAdapter;
+    /**
+     * Kept for the whole life of the editor, it indexes the document incrementally
+     */
     private PascalSuggestionOperation pascalParserHelper;
     private ParseDataTask mParseTask;
 
@@ -101,6 +104,7 @@ public abstract class CodeSuggestsEditText extends AutoIndentEditText {
     private void setupCodeSuggestsEditText(Context context) {
         mTokenizer = new SymbolsTokenizer();
         setTokenizer(mTokenizer);
+        pascalParserHelper = new PascalSuggestionOperation();
         // setThreshold(1);
         calculateCharHeight();
 
@@ -507,12 +511,13 @@ public abstract class CodeSuggestsEditText extends AutoIndentEditText {
         @NonNull
         private String srcName;
         private PascalSuggestionOperation pascalParserHelper;
+        private ParsingException parsingException;
         private int cursorPos, cursorLine, cursorCol;
 
         private ParseDataTask(EditText editText, @NonNull String srcName) {
             this.source = editText.getText().toString();
             this.srcName = srcName;
-            this.pascalParserHelper = new PascalSuggestionOperation();
+            this.pascalParserHelper = CodeSuggestsEditText.this.pascalParserHelper;
             calculateCursor(editText);
         }
 
@@ -528,7 +533,12 @@ public abstract class CodeSuggestsEditText extends AutoIndentEditText {
         @Override
         protected ArrayList<Description> doInBackground(Object... params) {
             if (!isCancelled()) {
-                return pascalParserHelper.getSuggestion(srcName, source, cursorPos, cursorLine, cursorCol);
+                synchronized (pascalParserHelper) {
+                    ArrayList<Description> suggestion = pascalParserHelper.getSuggestion(srcName,
+                            source, cursorPos, cursorLine, cursorCol);
+                    parsingException = pascalParserHelper.getParsingException();
+                    return suggestion;
+                }
             }
             return null;
         }
@@ -550,8 +560,7 @@ public abstract class CodeSuggestsEditText extends AutoIndentEditText {
             } else {
                 setSuggestData(result);
             }
-            if (pascalParserHelper.getParsingException() != null) {
-                ParsingException parsingException = pascalParserHelper.getParsingException();
+            if (parsingException != null) {
                 setLineError(parsingException.getLineNumber());
             }
         }
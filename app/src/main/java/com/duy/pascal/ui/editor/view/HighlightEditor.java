@@ -33,9 +33,6 @@ import android.text.TextWatcher;
 import android.text.method.ArrowKeyMovementMethod;
 import android.text.method.MovementMethod;
 import android.text.style.BackgroundColorSpan;
-import android.text.style.ForegroundColorSpan;
-import android.text.style.StyleSpan;
-import android.text.style.UnderlineSpan;
 import android.util.AttributeSet;
 import android.util.TypedValue;
 import android.view.GestureDetector;
@@ -52,11 +49,15 @@ import com.duy.pascal.interperter.linenumber.LineNumber;
 import com.duy.pascal.ui.R;
 import com.duy.pascal.ui.editor.highlight.BracketHighlighter;
 import com.duy.pascal.ui.editor.highlight.CodeHighlighter;
+import com.duy.pascal.ui.editor.highlight.HighlightRuns;
 import com.duy.pascal.ui.editor.highlight.IEditorColorScheme;
 import com.duy.pascal.ui.editor.highlight.spans.ErrorSpan;
 import com.duy.pascal.ui.themefont.model.CodeTheme;
 import com.duy.pascal.ui.themefont.themes.ThemeManager;
 
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -66,6 +67,10 @@ public abstract class HighlightEditor extends CodeSuggestsEditText implements Vi
     public static final int SYNTAX_DELAY_MILLIS_SHORT = 100;
     public static final int SYNTAX_DELAY_MILLIS_LONG = 700;
     public static final int CHARS_TO_COLOR = 2500;
+    /**
+     * The colors of all editors are computed on this thread
+     */
+    private static final ExecutorService HIGHLIGHT_EXECUTOR = Executors.newSingleThreadExecutor();
     public boolean mShowLines = true;
     public boolean mWordWrap = true;
     protected Paint mPaintNumbers;
@@ -111,6 +116,19 @@ public abstract class HighlightEditor extends CodeSuggestsEditText implements Vi
     private EditTextChangeListener mChangeListener;
     private CodeHighlighter mCodeHighlighter;
     private BracketHighlighter mBracketHighlighter;
+    /**
+     * Incremented on every change of the text, the colors computed for an older version are
+     * dropped
+     */
+    private int mTextVersion = 0;
+    /**
+     * Text which has the colors of its version, moved with the changes of the text
+     */
+    private int mHighlightedStart = 0, mHighlightedEnd = 0;
+    /**
+     * Text changed since the colors were applied, -1 if none
+     */
+    private int mDirtyStart = -1, mDirtyEnd = -1;
 
     public HighlightEditor(Context context, AttributeSet attrs) {
         super(context, attrs);
@@ -156,11 +174,27 @@ public abstract class HighlightEditor extends CodeSuggestsEditText implements Vi
         mChangeListener = new EditTextChangeListener();
         mCodeHighlighter = new CodeHighlighter(this);
         mBracketHighlighter = new BracketHighlighter(this, mCodeTheme);
+        //not removed with the change listener, the text version must follow every change
+        addTextChangedListener(new TextVersionWatcher());
 
         updateFromSettings();
         enableTextChangedListener();
     }
 
+    /**
+     * @return the offset after the text between start and start + before was replaced by
+     * count characters
+     */
+    private static int moveOffset(int offset, int start, int before, int count) {
+        if (offset <= start) {
+            return offset;
+        } else if (offset >= start + before) {
+            return offset + count - before;
+        } else {
+            return start + count;
+        }
+    }
+
     public IEditorColorScheme getCodeTheme() {
         return mCodeTheme;
     }
@@ -168,6 +202,7 @@ public abstract class HighlightEditor extends CodeSuggestsEditText implements Vi
     public void setCodeTheme(IEditorColorScheme codeTheme) {
         this.mCodeTheme = codeTheme;
         this.mCodeHighlighter.setCodeTheme(codeTheme);
+        mHighlightedStart = mHighlightedEnd = 0;
         mBracketHighlighter.setCodeTheme(codeTheme);
         setTextColor(codeTheme.getTextColor());
         setBackgroundColor(codeTheme.getBackgroundColor());
@@ -680,23 +715,13 @@ public abstract class HighlightEditor extends CodeSuggestsEditText implements Vi
 
     public void highlightText() {
         if (mIsFinding) return;
-
-        disableTextChangedListener();
         highlight(false);
-        highlightLineError(getText());
-        enableTextChangedListener();
     }
 
     /**
-     * remove span from start to end
+     * Compute the colors of the visible text on the background thread, they are applied
+     * when the text did not change in the meantime
      */
-    private void clearSpans(Editable e, int start, int end) {
-        removeSpan(e, ForegroundColorSpan.class, start, end);
-        removeSpan(e, BackgroundColorSpan.class, start, end);
-        removeSpan(e, UnderlineSpan.class, start, end);
-        removeSpan(e, StyleSpan.class, start, end);
-    }
-
     public void highlight(boolean newText) {
         Editable editable = getText();
         if (editable.length() == 0) return;
@@ -725,12 +750,67 @@ public abstract class HighlightEditor extends CodeSuggestsEditText implements Vi
         if (lastVisibleIndex > editable.length()) lastVisibleIndex = editable.length();
         if (firstVisibleIndex > lastVisibleIndex) firstVisibleIndex = lastVisibleIndex;
 
-        //clear all span for firstVisibleIndex to lastVisibleIndex
-        clearSpans(editable, firstVisibleIndex, lastVisibleIndex);
+        submitHighlight(editable.toString(), firstVisibleIndex, lastVisibleIndex);
+    }
 
-        CharSequence textToHighlight = editable.subSequence(firstVisibleIndex, lastVisibleIndex);
-        mCodeHighlighter.highlight(editable, textToHighlight, firstVisibleIndex);
-        applyTabWidth(editable, firstVisibleIndex, lastVisibleIndex);
+    private void submitHighlight(final String text, final int start, final int end) {
+        final int version = mTextVersion;
+        HIGHLIGHT_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final HighlightRuns runs = new HighlightRuns();
+                final int[] changed;
+                try {
+                    changed = mCodeHighlighter.update(text, start, end, runs);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    return;
+                }
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        applyHighlight(version, runs, changed, start, end);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Set the colors on the text which changed since they were applied last time
+     *
+     * @param changed - text whose colors changed in the last update of the highlighter
+     */
+    private void applyHighlight(int version, HighlightRuns runs, int[] changed, int start, int end) {
+        if (version != mTextVersion || mIsFinding) {
+            //the changes of the highlighter are lost, the next pass applies all the colors
+            mHighlightedStart = mHighlightedEnd = 0;
+            return;
+        }
+        int from = start, to = end;
+        if (mHighlightedStart <= start && end <= mHighlightedEnd) {
+            from = changed[0];
+            to = changed[1];
+            if (mDirtyStart >= 0) {
+                from = Math.min(from, mDirtyStart);
+                to = Math.max(to, mDirtyEnd);
+            }
+            from = Math.max(from, start);
+            to = Math.min(to, end);
+        } else {
+            mHighlightedStart = start;
+            mHighlightedEnd = end;
+        }
+        mDirtyStart = mDirtyEnd = -1;
+
+        Editable editable = getText();
+        disableTextChangedListener();
+        if (from < to) {
+            mCodeHighlighter.apply(editable, runs, from, to);
+            applyTabWidth(editable, from, to);
+        }
+        highlightLineError(editable);
+        enableTextChangedListener();
     }
 
     public void enableTextChangedListener() {
@@ -763,7 +843,7 @@ public abstract class HighlightEditor extends CodeSuggestsEditText implements Vi
     }
 
     public void highlightAll() {
-        mCodeHighlighter.highlight(getText(), getText(), 0);
+        submitHighlight(getText().toString(), 0, length());
     }
 
     @Override
@@ -790,6 +870,31 @@ public abstract class HighlightEditor extends CodeSuggestsEditText implements Vi
         setSelection(index);
     }
 
+    /**
+     * Follow the changes of the text for the colors computed on the background thread
+     */
+    private final class TextVersionWatcher implements TextWatcher {
+
+        public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+        }
+
+        public void onTextChanged(CharSequence s, int start, int before, int count) {
+            mTextVersion++;
+            mHighlightedStart = moveOffset(mHighlightedStart, start, before, count);
+            mHighlightedEnd = moveOffset(mHighlightedEnd, start, before, count);
+            if (mDirtyStart < 0) {
+                mDirtyStart = start;
+                mDirtyEnd = start + count;
+            } else {
+                mDirtyStart = Math.min(moveOffset(mDirtyStart, start, before, count), start);
+                mDirtyEnd = Math.max(moveOffset(mDirtyEnd, start, before, count), start + count);
+            }
+        }
+
+        public void afterTextChanged(Editable s) {
+        }
+    }
+
     /**
      * Class that listens to changes in the text.
      */
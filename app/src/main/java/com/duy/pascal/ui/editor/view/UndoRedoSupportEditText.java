@@ -29,10 +29,16 @@ import com.duy.pascal.ui.autocomplete.completion.util.CodeTemplate;
 import com.duy.pascal.ui.keyboard.KeyListener;
 import com.duy.pascal.ui.keyboard.KeySettings;
 import com.duy.pascal.ui.utils.DLog;
+import com.duy.pascal.ui.utils.UndoHistory;
 import com.duy.pascal.ui.utils.UndoRedoHelper;
 import com.duy.pascal.ui.utils.clipboard.ClipboardManagerCompat;
 import com.duy.pascal.ui.utils.clipboard.ClipboardManagerCompatFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 //import com.duy.pascal.ui.utils.DLog;
 
 /**
@@ -41,6 +47,12 @@ import com.duy.pascal.ui.utils.clipboard.ClipboardManagerCompatFactory;
  * Created by Duy on 15-Mar-17.
  */
 public abstract class UndoRedoSupportEditText extends HighlightEditor {
+    private static final String HISTORY_DIR = "history";
+    /**
+     * The histories of all editors are written and read on this thread, so a history is read
+     * after the writes which were started before
+     */
+    private static final ExecutorService HISTORY_EXECUTOR = Executors.newSingleThreadExecutor();
 
     private UndoRedoHelper mUndoRedoHelper;
     private KeySettings mSettings;
@@ -131,18 +143,88 @@ public abstract class UndoRedoSupportEditText extends HighlightEditor {
         mUndoRedoHelper.clearHistory();
     }
 
-    public void saveHistory(@NonNull String key) {
-        SharedPreferences.Editor editor = PreferenceManager.getDefaultSharedPreferences(getContext()).edit();
-        mUndoRedoHelper.storePersistentState(editor, key);
-        editor.apply();
+    /**
+     * @return file of the edit history of the text with the key
+     */
+    private File getHistoryFile(@NonNull String key) {
+        File dir = new File(getContext().getFilesDir(), HISTORY_DIR);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        return new File(dir, Integer.toHexString(key.hashCode()));
     }
 
-    public void restoreHistory(String key) {
-        try {
-            mUndoRedoHelper.restorePersistentState(
-                    PreferenceManager.getDefaultSharedPreferences(getContext()), key);
-        } catch (Exception ignored) {
+    /**
+     * Write the edit history of the text on a background thread
+     */
+    public void saveHistory(@NonNull final String key) {
+        final File file = getHistoryFile(key);
+        final String text = getText().toString();
+        HISTORY_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mUndoRedoHelper.storePersistentState(file, key, text);
+                } catch (IOException e) {
+                    DLog.e(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Read the edit history saved for the text on a background thread, the history in memory
+     * is kept when there is one. Call it when the text is loaded
+     */
+    public void restoreHistory(@NonNull final String key) {
+        deleteOldHistory(key);
+        if (canUndo() || canRedo()) {
+            return;
         }
+        final File file = getHistoryFile(key);
+        final String text = getText().toString();
+        final UndoHistory history = mUndoRedoHelper.newHistory();
+        HISTORY_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (!history.read(file, key, text)) {
+                        return;
+                    }
+                } catch (Exception ignored) {
+                    return;
+                }
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        mUndoRedoHelper.restorePersistentState(history, text);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * The history was saved in the preferences before, one entry for every edit
+     */
+    private void deleteOldHistory(String key) {
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(getContext());
+        if (!prefs.contains(key + ".hash")) {
+            return;
+        }
+        SharedPreferences.Editor editor = prefs.edit();
+        int size = prefs.getInt(key + ".size", 0);
+        for (int i = 0; i < size; i++) {
+            String prefix = key + "." + i;
+            editor.remove(prefix + ".start");
+            editor.remove(prefix + ".before");
+            editor.remove(prefix + ".after");
+        }
+        editor.remove(key + ".hash");
+        editor.remove(key + ".maxSize");
+        editor.remove(key + ".position");
+        editor.remove(key + ".size");
+        editor.apply();
     }
 
     /**
@@ -43,6 +43,7 @@ import com.duy.pascal.ui.utils.StringCompare;
 import com.duy.pascal.ui.view.console.ConsoleView;
 
 import java.io.File;
+import java.io.FileReader;
 import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -86,6 +87,11 @@ public abstract class AbstractExecActivity extends BaseActivity implements IProg
     protected final AtomicBoolean enableDebug = new AtomicBoolean(false);
     protected String input = "";
     protected String mFilePath = "";
+    /**
+     * file which the standard input is redirected from, null if the user types the input
+     */
+    @Nullable
+    protected File mInputFile;
     protected Object mLock;
     protected final Runnable runnableInput = new Runnable() {
         @Override
@@ -141,23 +147,31 @@ public abstract class AbstractExecActivity extends BaseActivity implements IProg
                     ArrayList<ScriptSource> include = new ArrayList<>();
                     FileScriptSource source = new FileScriptSource(new File(mFilePath));
                     include.add(source);
-                    PascalProgramDeclaration pascalProgram = PascalCompilerFactory.makePascalProgram(source, include,
+                    PascalProgramDeclaration pascalProgram = PascalCompilerFactory.makeCachedPascalProgram(source, include,
                             AbstractExecActivity.this);
+                    try {
+                        mProgram = pascalProgram.generate();
+                        if (mInputFile != null) {
+                            pascalProgram.getContext().getIOHandler().setInput(
+                                    new FileReader(mInputFile));
+                        }
 
-                    mProgram = pascalProgram.generate();
+                        //set stack size for the program
+                        long maxStackSize = getPreferences().getMaxStackSize();
+                        mProgram.setMaxStackSize(maxStackSize);
 
-                    //set stack size for the program
-                    long maxStackSize = getPreferences().getMaxStackSize();
-                    mProgram.setMaxStackSize(maxStackSize);
+                        if (isEnableDebug()) {
+                            mProgram.enableDebug();
+                            mProgram.setDebugMode(DebugMode.STEP_INFO);
+                            mProgram.setDebugListener((IDebugListener) AbstractExecActivity.this);
+                        }
 
-                    if (isEnableDebug()) {
-                        mProgram.enableDebug();
-                        mProgram.setDebugMode(DebugMode.STEP_INFO);
-                        mProgram.setDebugListener((IDebugListener) AbstractExecActivity.this);
+                        mProgram.run();
+                    } finally {
+                        //the run is over, the next run can reuse the compiled program
+                        PascalCompilerFactory.releaseCachedPascalProgram(source, pascalProgram);
                     }
 
-                    mProgram.run();
-
                     mMessageHandler.sendEmptyMessage(COMPLETE);
                 } catch (ScriptTerminatedException e) {
                     mMessageHandler.sendEmptyMessage(COMPLETE);
@@ -208,13 +222,13 @@ public abstract class AbstractExecActivity extends BaseActivity implements IProg
 
     @Override
     public void print(final CharSequence charSequence) {
-        getConsoleView().writeString(charSequence.toString());
+        getConsoleView().printString(charSequence);
     }
 
     @Override
     public void println(final CharSequence charSequence) {
-        getConsoleView().writeString(charSequence.toString());
-        getConsoleView().writeString("\n");
+        getConsoleView().printString(charSequence);
+        getConsoleView().printString("\n");
     }
 
     @Override
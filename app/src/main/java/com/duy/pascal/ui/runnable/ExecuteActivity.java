@@ -52,6 +52,7 @@ public class ExecuteActivity extends AbstractExecActivity {
         File file = (File) getIntent().getSerializableExtra(CompileManager.EXTRA_FILE);
         if (file != null) {
             mFilePath = file.getPath();
+            mInputFile = (File) getIntent().getSerializableExtra(CompileManager.EXTRA_INPUT);
             if (!file.exists()) {
                 finish();
                 return;
@@ -120,7 +121,7 @@ public class ExecuteActivity extends AbstractExecActivity {
                 break;
             case R.id.action_rerun:
                 finish();
-                CompileManager.execute(this, mFilePath);
+                CompileManager.execute(this, mFilePath, mInputFile);
                 break;
         }
         return super.onOptionsItemSelected(item);
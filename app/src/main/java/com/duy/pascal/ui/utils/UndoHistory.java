@@ -0,0 +1,533 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.duy.pascal.ui.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Undo history of a text, kept as a log of edits.
+ * <p>
+ * The text of all edits is appended to one char buffer and every edit is a few ints which point
+ * into it. Keystrokes typed or deleted at the same place in a short time are merged into one
+ * edit. The oldest edits are dropped when there are more than the max edits or when their text
+ * is longer than the max chars.
+ * <p>
+ * The log is saved in a binary file, the edits which did not change since the last write are
+ * not written again.
+ * <p>
+ * The history is changed on the UI thread and may be written by another thread, the methods
+ * are synchronized and the file is written without holding the lock.
+ */
+public class UndoHistory {
+    /**
+     * Keystrokes closer than this are merged
+     */
+    private static final long MERGE_MILLIS = 1000;
+    /**
+     * Keystrokes are not merged to an edit which is longer than this
+     */
+    private static final int MAX_MERGED_LENGTH = 1024;
+
+    private static final int MAGIC = 0x50484953;
+    private static final int VERSION = 1;
+    /**
+     * An edit, it replaces the edit with the same number and the edits after it
+     */
+    private static final int RECORD_EDIT = 1;
+    /**
+     * Position in the history and the text it belongs to
+     */
+    private static final int RECORD_STATE = 2;
+
+    private static final int TYPE_INSERT = 1;
+    private static final int TYPE_DELETE = 2;
+    private static final int TYPE_REPLACE = 3;
+
+    private char[] mChars = new char[256];
+    private int mCharsLength = 0;
+    /**
+     * The text of an edit starts at its text start, the text before the edit is followed by the
+     * text after it
+     */
+    private int[] mStarts = new int[16];
+    private int[] mTextStarts = new int[16];
+    private int[] mBeforeLengths = new int[16];
+    private int[] mAfterLengths = new int[16];
+    private int mCount = 0;
+    /**
+     * Number of edits which are applied to the text
+     */
+    private int mPosition = 0;
+    /**
+     * Number of the first edit, counted from the start of the history
+     */
+    private int mFirst = 0;
+    /**
+     * Number of the first edit which changed since the last write
+     */
+    private int mUnsaved = 0;
+    /**
+     * The next keystroke is not merged to the last edit
+     */
+    private boolean mSealed = true;
+    private int mLastType;
+    private long mLastTime;
+    private int mMaxEdits;
+    private int mMaxChars;
+    /**
+     * File which has the edits until the first unsaved one, null if it is not known
+     */
+    @Nullable
+    private File mFile;
+    /**
+     * Changed when the history is cleared, a write which started before is not committed
+     */
+    private int mGeneration = 0;
+
+    public UndoHistory(int maxEdits, int maxChars) {
+        this.mMaxEdits = maxEdits;
+        this.mMaxChars = maxChars;
+    }
+
+    /**
+     * @return the text, null if its length is longer than the rest of the file, the file was
+     * not written completely
+     */
+    @Nullable
+    private static String readText(CountingInputStream counter, DataInputStream in, long fileLength)
+            throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > fileLength - counter.getCount()) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public synchronized void setMaxEdits(int maxEdits) {
+        this.mMaxEdits = maxEdits;
+        trim();
+    }
+
+    public synchronized void clear() {
+        mCount = mPosition = 0;
+        mCharsLength = 0;
+        mFirst = mUnsaved = 0;
+        mSealed = true;
+        mFile = null;
+        mGeneration++;
+    }
+
+    public synchronized boolean canUndo() {
+        return mPosition > 0;
+    }
+
+    public synchronized boolean canRedo() {
+        return mPosition < mCount;
+    }
+
+    /**
+     * @return the edit to revert, null if there is none
+     */
+    @Nullable
+    public synchronized Edit undo() {
+        if (mPosition == 0) {
+            return null;
+        }
+        mSealed = true;
+        mPosition--;
+        return getEdit(mPosition);
+    }
+
+    /**
+     * @return the edit to apply again, null if there is none
+     */
+    @Nullable
+    public synchronized Edit redo() {
+        if (mPosition == mCount) {
+            return null;
+        }
+        mSealed = true;
+        mPosition++;
+        return getEdit(mPosition - 1);
+    }
+
+    private Edit getEdit(int index) {
+        int textStart = mTextStarts[index];
+        return new Edit(mStarts[index],
+                new String(mChars, textStart, mBeforeLengths[index]),
+                new String(mChars, textStart + mBeforeLengths[index], mAfterLengths[index]));
+    }
+
+    /**
+     * Record that the text between start and start + before.length() was replaced
+     *
+     * @param time - time of the change in milliseconds
+     */
+    public synchronized void add(int start, @NonNull CharSequence before, @NonNull CharSequence after, long time) {
+        //the keyboard may replace a word with the same text
+        if (before.length() == after.length() && before.toString().equals(after.toString())) {
+            return;
+        }
+        int type = after.length() == 0 ? TYPE_DELETE : before.length() == 0 ? TYPE_INSERT : TYPE_REPLACE;
+        if (!merge(start, before, after, type, time)) {
+            addEdit(start, before, after);
+        }
+        mSealed = false;
+        mLastType = type;
+        mLastTime = time;
+    }
+
+    /**
+     * Add an edit after the current position, the edits which were undone are dropped
+     */
+    private void addEdit(int start, CharSequence before, CharSequence after) {
+        mCount = mPosition;
+        mCharsLength = mCount > 0 ? textEnd(mCount - 1) : 0;
+        if (mCount == mStarts.length) {
+            int capacity = mCount * 2;
+            mStarts = Arrays.copyOf(mStarts, capacity);
+            mTextStarts = Arrays.copyOf(mTextStarts, capacity);
+            mBeforeLengths = Arrays.copyOf(mBeforeLengths, capacity);
+            mAfterLengths = Arrays.copyOf(mAfterLengths, capacity);
+        }
+        mStarts[mCount] = start;
+        mTextStarts[mCount] = mCharsLength;
+        mBeforeLengths[mCount] = before.length();
+        mAfterLengths[mCount] = after.length();
+        append(before);
+        append(after);
+        mCount++;
+        mPosition++;
+        mUnsaved = Math.min(mUnsaved, mFirst + mCount - 1);
+        trim();
+    }
+
+    /**
+     * Merge a keystroke to the last edit
+     *
+     * @return false if it is not next to the last edit
+     */
+    private boolean merge(int start, CharSequence before, CharSequence after, int type, long time) {
+        if (mSealed || mCount == 0 || mPosition != mCount || type != mLastType
+                || type == TYPE_REPLACE || time - mLastTime > MERGE_MILLIS) {
+            return false;
+        }
+        int last = mCount - 1;
+        if (mBeforeLengths[last] + mAfterLengths[last] >= MAX_MERGED_LENGTH) {
+            return false;
+        }
+        if (type == TYPE_INSERT) {
+            if (start != mStarts[last] + mAfterLengths[last]) {
+                return false;
+            }
+            append(after);
+            mAfterLengths[last] += after.length();
+        } else if (start == mStarts[last]) {
+            //delete key
+            append(before);
+            mBeforeLengths[last] += before.length();
+        } else if (start + before.length() == mStarts[last]) {
+            //backspace, the deleted text goes before the text of the edit which is the last one
+            //of the buffer
+            int textStart = mTextStarts[last];
+            int length = before.length();
+            ensureChars(length);
+            System.arraycopy(mChars, textStart, mChars, textStart + length, mCharsLength - textStart);
+            for (int i = 0; i < length; i++) {
+                mChars[textStart + i] = before.charAt(i);
+            }
+            mCharsLength += length;
+            mStarts[last] = start;
+            mBeforeLengths[last] += before.length();
+        } else {
+            return false;
+        }
+        mUnsaved = Math.min(mUnsaved, mFirst + last);
+        trim();
+        return true;
+    }
+
+    private int textEnd(int index) {
+        return mTextStarts[index] + mBeforeLengths[index] + mAfterLengths[index];
+    }
+
+    private void ensureChars(int length) {
+        if (mCharsLength + length > mChars.length) {
+            mChars = Arrays.copyOf(mChars, Math.max(mChars.length * 2, mCharsLength + length));
+        }
+    }
+
+    private void append(CharSequence text) {
+        int length = text.length();
+        ensureChars(length);
+        for (int i = 0; i < length; i++) {
+            mChars[mCharsLength + i] = text.charAt(i);
+        }
+        mCharsLength += length;
+    }
+
+    /**
+     * Drop the oldest edits which are over the limits, the last edit and the edits which were
+     * undone are kept
+     */
+    private void trim() {
+        int drop = 0;
+        while (drop < mPosition && mCount - drop > 1
+                && (mCount - drop > mMaxEdits || mCharsLength - mTextStarts[drop] > mMaxChars)) {
+            drop++;
+        }
+        if (drop > 0) {
+            mCount -= drop;
+            System.arraycopy(mStarts, drop, mStarts, 0, mCount);
+            System.arraycopy(mTextStarts, drop, mTextStarts, 0, mCount);
+            System.arraycopy(mBeforeLengths, drop, mBeforeLengths, 0, mCount);
+            System.arraycopy(mAfterLengths, drop, mAfterLengths, 0, mCount);
+            mPosition -= drop;
+            mFirst += drop;
+            mUnsaved = Math.max(mUnsaved, mFirst);
+        }
+        //the text of the dropped edits is freed when it is longer than the text of the others
+        int unused = mCount > 0 ? mTextStarts[0] : mCharsLength;
+        if (unused > mCharsLength - unused) {
+            System.arraycopy(mChars, unused, mChars, 0, mCharsLength - unused);
+            mCharsLength -= unused;
+            for (int i = 0; i < mCount; i++) {
+                mTextStarts[i] -= unused;
+            }
+        }
+    }
+
+    /**
+     * Save the history of the text. When the file was written or read by this history last
+     * time, only the edits which changed are appended to it. The edits to write are copied
+     * first, the history can be changed while the file is written.
+     *
+     * @param key  - name of the text, a history is only read with the same key
+     * @param text - the text when the history is written
+     */
+    public void write(@NonNull File file, @NonNull String key, @NonNull CharSequence text)
+            throws IOException {
+        boolean append;
+        int firstEdit;
+        int position;
+        int generation;
+        ArrayList<Edit> edits = new ArrayList<>();
+        synchronized (this) {
+            int used = mCount > 0 ? mCharsLength - mTextStarts[0] : 0;
+            //the file is written again when most of it are edits which were replaced
+            append = file.equals(mFile) && file.exists()
+                    && file.length() < 2 * (used + 16 * mCount) + 4096;
+            if (!append) {
+                mUnsaved = mFirst;
+            }
+            firstEdit = mUnsaved;
+            for (int i = mUnsaved - mFirst; i < mCount; i++) {
+                edits.add(getEdit(i));
+            }
+            position = mFirst + mPosition;
+            generation = mGeneration;
+            //the edits changed from now on are written by the next write
+            mUnsaved = mFirst + mCount;
+            mSealed = true;
+            //if this write fails, the next one writes the whole file again
+            mFile = null;
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file, append)));
+        try {
+            if (!append) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(key);
+            }
+            for (int i = 0; i < edits.size(); i++) {
+                Edit edit = edits.get(i);
+                out.writeByte(RECORD_EDIT);
+                out.writeInt(firstEdit + i);
+                out.writeInt(edit.start);
+                writeText(out, edit.before);
+                writeText(out, edit.after);
+            }
+            out.writeByte(RECORD_STATE);
+            out.writeInt(position);
+            out.writeInt(text.length());
+            out.writeInt(text.toString().hashCode());
+        } finally {
+            out.close();
+        }
+        synchronized (this) {
+            if (generation == mGeneration) {
+                mFile = file;
+            }
+        }
+    }
+
+    /**
+     * Replace the history with the one saved for the text
+     *
+     * @return false if the file does not have the history of this text, the history is empty
+     */
+    public synchronized boolean read(@NonNull File file, @NonNull String key,
+                                     @NonNull CharSequence text) throws IOException {
+        clear();
+        if (!file.exists()) {
+            return false;
+        }
+        int hash = text.toString().hashCode();
+        int position = -1;
+        boolean complete = false;
+        long fileLength = file.length();
+        CountingInputStream counter = new CountingInputStream(
+                new BufferedInputStream(new FileInputStream(file)));
+        DataInputStream in = new DataInputStream(counter);
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(key)) {
+                return false;
+            }
+            while (true) {
+                int record = in.read();
+                if (record == RECORD_EDIT) {
+                    int index = in.readInt();
+                    int start = in.readInt();
+                    String before = readText(counter, in, fileLength);
+                    String after = before != null ? readText(counter, in, fileLength) : null;
+                    if (after == null) {
+                        complete = false;
+                        break;
+                    }
+                    if (index < mFirst || index > mFirst + mCount) {
+                        mCount = mPosition = 0;
+                        mFirst = index;
+                    } else {
+                        mPosition = index - mFirst;
+                    }
+                    addEdit(start, before, after);
+                    complete = false;
+                } else if (record == RECORD_STATE) {
+                    position = in.readInt();
+                    int length = in.readInt();
+                    int textHash = in.readInt();
+                    complete = length == text.length() && textHash == hash;
+                } else {
+                    break;
+                }
+            }
+        } catch (EOFException e) {
+            //the last write did not finish
+            complete = false;
+        } finally {
+            in.close();
+        }
+        if (!complete || position < mFirst || position > mFirst + mCount) {
+            clear();
+            return false;
+        }
+        mPosition = position - mFirst;
+        mFile = file;
+        mUnsaved = mFirst + mCount;
+        return true;
+    }
+
+    /**
+     * Counts the bytes which were read, to check the lengths read from the file
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long mCount = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return mCount;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                mCount++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(@NonNull byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0) {
+                mCount += count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long count = super.skip(n);
+            mCount += count;
+            return count;
+        }
+    }
+
+    /**
+     * The text between start and start + before.length() was replaced by the text after
+     */
+    public static final class Edit {
+        public final int start;
+        @NonNull
+        public final String before;
+        @NonNull
+        public final String after;
+
+        Edit(int start, @NonNull String before, @NonNull String after) {
+            this.start = start;
+            this.before = before;
+            this.after = after;
+        }
+
+        @Override
+        public String toString() {
+            return "Edit{" +
+                    "start=" + start +
+                    ", before=" + before +
+                    ", after=" + after +
+                    '}';
+        }
+    }
+}
@@ -16,7 +16,7 @@
 
 package com.duy.pascal.ui.utils;
 
-import android.content.SharedPreferences;
+import android.support.annotation.NonNull;
 import android.text.Editable;
 import android.text.Selection;
 import android.text.TextUtils;
@@ -24,20 +24,26 @@ import android.text.TextWatcher;
 import android.text.style.UnderlineSpan;
 import android.widget.TextView;
 
-import java.util.LinkedList;
+import java.io.File;
+import java.io.IOException;
 
 public class UndoRedoHelper {
     private static final String TAG = UndoRedoHelper.class.getCanonicalName();
+    /**
+     * Max length of the text kept by the history
+     */
+    private static final int MAX_HISTORY_CHARS = 1 << 20;
     private boolean mIsUndoOrRedo = false;
+    private int mMaxEdits = Integer.MAX_VALUE;
 
-    private EditHistory mEditHistory;
+    private UndoHistory mEditHistory;
 
     private EditTextChangeListener mChangeListener;
     private TextView mTextView;
 
     public UndoRedoHelper(TextView textView) {
         mTextView = textView;
-        mEditHistory = new EditHistory();
+        mEditHistory = newHistory();
         mChangeListener = new EditTextChangeListener();
         mTextView.addTextChangedListener(mChangeListener);
     }
@@ -49,7 +55,16 @@ public class UndoRedoHelper {
     }
 
     public void setMaxHistorySize(int maxHistorySize) {
-        mEditHistory.setMaxHistorySize(maxHistorySize);
+        mMaxEdits = maxHistorySize >= 0 ? maxHistorySize : Integer.MAX_VALUE;
+        mEditHistory.setMaxEdits(mMaxEdits);
+    }
+
+    /**
+     * @return an empty history with the limits of this helper
+     */
+    @NonNull
+    public UndoHistory newHistory() {
+        return new UndoHistory(mMaxEdits, MAX_HISTORY_CHARS);
     }
 
     public void clearHistory() {
@@ -57,18 +72,18 @@ public class UndoRedoHelper {
     }
 
     public boolean getCanUndo() {
-        return (mEditHistory.mmPosition > 0);
+        return mEditHistory.canUndo();
     }
 
     public void undo() {
-        EditItem edit = mEditHistory.getPrevious();
+        UndoHistory.Edit edit = mEditHistory.undo();
         if (edit == null) {
             return;
         }
 
         Editable editable = mTextView.getEditableText();
         int start = edit.start;
-        int end = start + (edit.after != null ? edit.after.length() : 0);
+        int end = start + edit.after.length();
 
         mIsUndoOrRedo = true;
         editable.replace(start, end, edit.before);
@@ -78,22 +93,22 @@ public class UndoRedoHelper {
             editable.removeSpan(o);
         }
 
-        Selection.setSelection(editable, edit.before == null ? start : (start + edit.before.length()));
+        Selection.setSelection(editable, start + edit.before.length());
     }
 
     public boolean getCanRedo() {
-        return (mEditHistory.mmPosition < mEditHistory.mmHistory.size());
+        return mEditHistory.canRedo();
     }
 
     public void redo() {
-        EditItem edit = mEditHistory.getNext();
+        UndoHistory.Edit edit = mEditHistory.redo();
         if (edit == null) {
             return;
         }
 
         Editable text = mTextView.getEditableText();
         int start = edit.start;
-        int end = start + (edit.before != null ? edit.before.length() : 0);
+        int end = start + edit.before.length();
 
         mIsUndoOrRedo = true;
         text.replace(start, end, edit.after);
@@ -105,220 +120,56 @@ public class UndoRedoHelper {
             text.removeSpan(o);
         }
 
-        Selection.setSelection(text, edit.after == null ? start
-                : (start + edit.after.length()));
+        Selection.setSelection(text, start + edit.after.length());
     }
 
-    public void storePersistentState(SharedPreferences.Editor editor, String prefix) {
-        // Store hash code of text in the editor so that we can check if the
-        // editor contents has changed.
-        editor.putString(prefix + ".hash", String.valueOf(mTextView.getText().toString().hashCode()));
-        editor.putInt(prefix + ".maxSize", mEditHistory.mmMaxHistorySize);
-        editor.putInt(prefix + ".position", mEditHistory.mmPosition);
-        editor.putInt(prefix + ".size", mEditHistory.mmHistory.size());
-
-        int i = 0;
-        for (EditItem ei : mEditHistory.mmHistory) {
-            String pre = prefix + "." + i;
-
-            editor.putInt(pre + ".start", ei.start);
-            editor.putString(pre + ".before", ei.before.toString());
-            editor.putString(pre + ".after", ei.after.toString());
-
-            i++;
-        }
+    /**
+     * Save the history to a file, it is appended to the file when it was saved there before.
+     * It can be called on another thread, the text is copied before
+     *
+     * @param key  - name of the text, the history is restored with the same key
+     * @param text - the text of the view when the history was saved
+     */
+    public void storePersistentState(@NonNull File file, @NonNull String key,
+                                     @NonNull CharSequence text) throws IOException {
+        mEditHistory.write(file, key, text);
     }
 
-    public boolean restorePersistentState(SharedPreferences sp, String prefix)
-            throws IllegalStateException {
-
-        boolean ok = doRestorePersistentState(sp, prefix);
-        if (!ok) {
-            mEditHistory.clear();
-        }
-
-        return ok;
-    }
-
-    private boolean doRestorePersistentState(SharedPreferences sp, String prefix) {
-        String hash = sp.getString(prefix + ".hash", null);
-        if (hash == null) {
-            // No state to be restored.
-            return true;
-        }
-
-        if (Integer.valueOf(hash) != mTextView.getText().toString().hashCode()) {
-            return false;
-        }
-
-        mEditHistory.clear();
-        mEditHistory.mmMaxHistorySize = sp.getInt(prefix + ".maxSize", -1);
-
-        int count = sp.getInt(prefix + ".size", -1);
-        if (count == -1) {
+    /**
+     * Use a history which was read for the text on another thread, see {@link #newHistory()}.
+     * It is dropped when the text was edited since it was read
+     *
+     * @param text - the text which the history was read for
+     * @return false if the history was dropped
+     */
+    public boolean restorePersistentState(@NonNull UndoHistory history, @NonNull String text) {
+        if (mEditHistory.canUndo() || mEditHistory.canRedo()
+                || !text.equals(mTextView.getText().toString())) {
             return false;
         }
-
-        for (int i = 0; i < count; i++) {
-            String pre = prefix + "." + i;
-
-            int start = sp.getInt(pre + ".start", -1);
-            String before = sp.getString(pre + ".before", null);
-            String after = sp.getString(pre + ".after", null);
-
-            if (start == -1 || before == null || after == null) {
-                return false;
-            }
-            mEditHistory.add(new EditItem(start, before, after));
-        }
-
-        mEditHistory.mmPosition = sp.getInt(prefix + ".position", -1);
-        return mEditHistory.mmPosition != -1;
-
-    }
-
-    // =================================================================== //
-
-    enum ActionType {
-        INSERT, DELETE, PASTE, NOT_DEF
-    }
-
-    private final class EditHistory {
-        private final LinkedList<EditItem> mmHistory = new LinkedList<>();
-        private int mmPosition = 0;
-        private int mmMaxHistorySize = -1;
-
-        private void clear() {
-            mmPosition = 0;
-            mmHistory.clear();
-        }
-
-        private void add(EditItem item) {
-            while (mmHistory.size() > mmPosition) {
-                mmHistory.removeLast();
-            }
-            mmHistory.add(item);
-            mmPosition++;
-
-            if (mmMaxHistorySize >= 0) {
-                trimHistory();
-            }
-        }
-
-        private void setMaxHistorySize(int maxHistorySize) {
-            mmMaxHistorySize = maxHistorySize;
-            if (mmMaxHistorySize >= 0) {
-                trimHistory();
-            }
-        }
-
-        private void trimHistory() {
-            while (mmHistory.size() > mmMaxHistorySize) {
-                mmHistory.removeFirst();
-                mmPosition--;
-            }
-
-            if (mmPosition < 0) {
-                mmPosition = 0;
-            }
-        }
-
-        private EditItem getCurrent() {
-            if (mmPosition == 0) {
-                return null;
-            }
-            return mmHistory.get(mmPosition - 1);
-        }
-
-        private EditItem getPrevious() {
-            if (mmPosition == 0) {
-                return null;
-            }
-            mmPosition--;
-            return mmHistory.get(mmPosition);
-        }
-
-        private EditItem getNext() {
-            if (mmPosition >= mmHistory.size()) {
-                return null;
-            }
-
-            EditItem item = mmHistory.get(mmPosition);
-            mmPosition++;
-            return item;
-        }
-    }
-
-    private final class EditItem {
-        private int start;
-        private CharSequence before;
-        private CharSequence after;
-
-        public EditItem(int start, CharSequence before, CharSequence after) {
-            this.start = start;
-            this.before = before;
-            this.after = after;
-        }
-
-        @Override
-        public String toString() {
-            return "EditItem{" +
-                    "start=" + start +
-                    ", before=" + before +
-                    ", after=" + after +
-                    '}';
-        }
+        mEditHistory = history;
+        return true;
     }
 
     private final class EditTextChangeListener implements TextWatcher {
-        private CharSequence mBeforeChange;
-        private CharSequence mAfterChange;
-        private ActionType lastActionType = ActionType.NOT_DEF;
-        private long lastActionTime = 0;
+        private String mBeforeChange;
 
         public void beforeTextChanged(CharSequence s, int start, int count, int after) {
             if (mIsUndoOrRedo) {
                 return;
             }
-            mBeforeChange = s.subSequence(start, start + count);
+            mBeforeChange = TextUtils.substring(s, start, start + count);
         }
 
         public void onTextChanged(CharSequence s, int start, int before, int count) {
             if (mIsUndoOrRedo) {
                 return;
             }
-            mAfterChange = s.subSequence(start, start + count);
-            makeBatch(start);
-        }
-
-        private void makeBatch(int start) {
-            ActionType at = getActionType();
-            EditItem editItem = mEditHistory.getCurrent();
-            if ((lastActionType != at || ActionType.PASTE == at || System.currentTimeMillis() - lastActionTime > 1000) || editItem == null) {
-                mEditHistory.add(new EditItem(start, mBeforeChange, mAfterChange));
-            } else {
-                if (at == ActionType.DELETE) {
-                    editItem.start = start;
-                    editItem.before = mBeforeChange + editItem.before.toString();
-                } else {
-                    editItem.after = editItem.after + mAfterChange.toString();
-                }
-            }
-            lastActionType = at;
-            lastActionTime = System.currentTimeMillis();
-        }
-
-        private ActionType getActionType() {
-            if (!TextUtils.isEmpty(mBeforeChange) && TextUtils.isEmpty(mAfterChange)) {
-                return ActionType.DELETE;
-            } else if (TextUtils.isEmpty(mBeforeChange) && !TextUtils.isEmpty(mAfterChange)) {
-                return ActionType.INSERT;
-            } else {
-                return ActionType.PASTE;
-            }
+            mEditHistory.add(start, mBeforeChange, TextUtils.substring(s, start, start + count),
+                    System.currentTimeMillis());
         }
 
         public void afterTextChanged(Editable s) {
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.ui.view.console;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ring buffer of the text which is printed by the program, with the colors of each char.
+ * <p>
+ * There is a single producer (the thread of the program) which does not take any lock, and the
+ * consumer drains the pending text in bulk into the screen buffer. The consumer may run on the
+ * UI thread or on the producer thread when the buffer is full, so {@link #drainTo(Sink)} must be
+ * called while holding the lock of the screen buffer.
+ */
+public class ConsoleOutputBuffer {
+    public static final int DEFAULT_CAPACITY = 16 * 1024;
+
+    private final char[] mChars;
+    private final int[] mTextColors;
+    private final int[] mBackgrounds;
+    private final int[] mAlphas;
+    private final int mMask;
+
+    /**
+     * number of chars which were written, only changed by the producer
+     */
+    private final AtomicLong mHead = new AtomicLong();
+    /**
+     * number of chars which were drained, only changed by the consumer
+     */
+    private final AtomicLong mTail = new AtomicLong();
+
+    public ConsoleOutputBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity - must be a power of two
+     */
+    public ConsoleOutputBuffer(int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("Capacity must be a power of two " + capacity);
+        }
+        mChars = new char[capacity];
+        mTextColors = new int[capacity];
+        mBackgrounds = new int[capacity];
+        mAlphas = new int[capacity];
+        mMask = capacity - 1;
+    }
+
+    /**
+     * Append the chars from start to end of the text, called by the producer only
+     *
+     * @return number of chars which were written, less than end - start if the buffer is full
+     */
+    public int write(CharSequence text, int start, int end, int textColor, int background, int alpha) {
+        long head = mHead.get();
+        int free = mChars.length - (int) (head - mTail.get());
+        int count = Math.min(free, end - start);
+        for (int i = 0; i < count; i++) {
+            int index = (int) (head + i) & mMask;
+            mChars[index] = text.charAt(start + i);
+            mTextColors[index] = textColor;
+            mBackgrounds[index] = background;
+            mAlphas[index] = alpha;
+        }
+        if (count > 0) {
+            //publish the chars to the consumer
+            mHead.lazySet(head + count);
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return mHead.get() == mTail.get();
+    }
+
+    /**
+     * Move all pending chars to the sink
+     *
+     * @return number of chars which were drained
+     */
+    public int drainTo(Sink sink) {
+        long tail = mTail.get();
+        long head = mHead.get();
+        for (long i = tail; i < head; i++) {
+            int index = (int) i & mMask;
+            sink.put(mChars[index], mTextColors[index], mBackgrounds[index], mAlphas[index]);
+        }
+        if (head != tail) {
+            //release the slots to the producer
+            mTail.lazySet(head);
+        }
+        return (int) (head - tail);
+    }
+
+    /**
+     * Discard all pending chars, must be called by the consumer
+     */
+    public void clear() {
+        mTail.lazySet(mHead.get());
+    }
+
+    public interface Sink {
+        void put(char c, int textColor, int background, int alpha);
+    }
+}
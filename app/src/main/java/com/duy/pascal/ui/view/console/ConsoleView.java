@@ -51,6 +51,7 @@ import com.duy.pascal.interperter.libraries.graphic.GraphScreen;
 import com.duy.pascal.interperter.libraries.graphic.model.GraphObject;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.duy.pascal.ui.utils.StringCompare.isGreaterEqual;
 import static com.duy.pascal.ui.utils.StringCompare.isLessThan;
@@ -59,6 +60,11 @@ public class ConsoleView extends View implements GestureDetector.OnDoubleTapList
         GestureDetector.OnGestureListener {
     public static final String THE_DELETE_COMMAND = "\u2764";
     public static final String THE_ENTER_KEY = "\u2713";
+    private static final char DELETE_CHAR = '\u2764';
+    /**
+     * delay between two drains of the output of program, about one frame
+     */
+    private static final long OUTPUT_FRAME_DELAY = 16;
     private static final String TAG = "ConsoleView";
 
     public final Handler mHandler = new Handler();
@@ -78,6 +84,20 @@ public class ConsoleView extends View implements GestureDetector.OnDoubleTapList
     private ConsoleCursor mCursor; // Cursor of console
     private Context mContext;
     private ScreenBuffer mScreenBufferData = new ScreenBuffer();    //text data
+    private final ConsoleOutputBuffer mOutputBuffer = new ConsoleOutputBuffer(); //output of program
+    private final AtomicBoolean mDrainPosted = new AtomicBoolean(false);
+    private final ConsoleOutputBuffer.Sink mScreenSink = new ConsoleOutputBuffer.Sink() {
+        @Override
+        public void put(char c, int textColor, int background, int alpha) {
+            write(c, textColor, background, alpha);
+        }
+    };
+    private final Runnable drainOutput = new Runnable() {
+        public void run() {
+            mDrainPosted.set(false);
+            flushOutput();
+        }
+    };
     private Runnable checkSize = new Runnable() {
         public void run() {
             if (updateSize()) {
@@ -183,43 +203,49 @@ public class ConsoleView extends View implements GestureDetector.OnDoubleTapList
     /**
      * @return one key in the buffer key
      */
-    public synchronized char readKey() {
+    public char readKey() {
         return mKeyBuffer.pop();
     }
 
     private void write(String c, boolean isMaskBuffer) {
+        write(c.charAt(0), mTextRenderer.getTextColor(),
+                isMaskBuffer ? Color.DKGRAY : mTextRenderer.getBackgroundColor(),
+                mTextRenderer.getAlpha());
+    }
+
+    /**
+     * Put a char to the screen buffer at the cursor, the caller must invalidate the view
+     */
+    private void write(char c, int textColor, int background, int alpha) {
         int index = mScreenBufferData.firstIndex + mCursor.y * mConsoleScreen.consoleColumn + mCursor.x;
         if (index >= mConsoleScreen.getScreenSize()) {
             index -= mConsoleScreen.getScreenSize();
         }
         switch (c) {
-            case "\n":
+            case '\n':
                 mScreenBufferData.textConsole[index].setText("\n");
-                mScreenBufferData.textConsole[index].setTextBackground(mTextRenderer.getBackgroundColor());
-                mScreenBufferData.textConsole[index].setTextColor(mTextRenderer.getTextColor());
-                mScreenBufferData.textConsole[index].setAlpha(mTextRenderer.getAlpha());
+                mScreenBufferData.textConsole[index].setTextBackground(background);
+                mScreenBufferData.textConsole[index].setTextColor(textColor);
+                mScreenBufferData.textConsole[index].setAlpha(alpha);
                 nextLine();
                 break;
-            case "\177":
-            case THE_DELETE_COMMAND:
+            case '\177':
+            case DELETE_CHAR:
                 backspace(index);
                 break;
             default:
                 makeCursorVisible();
-                if (isGreaterEqual(c, " ")) {
-                    mScreenBufferData.textConsole[index].setText(c);
-                    mScreenBufferData.textConsole[index].setTextBackground(
-                            isMaskBuffer ? Color.DKGRAY : mTextRenderer.getBackgroundColor());
-                    mScreenBufferData.textConsole[index].setTextColor(mTextRenderer.getTextColor());
-                    mScreenBufferData.textConsole[index].setAlpha(mTextRenderer.getAlpha());
+                if (c >= ' ') {
+                    mScreenBufferData.textConsole[index].setText(String.valueOf(c));
+                    mScreenBufferData.textConsole[index].setTextBackground(background);
+                    mScreenBufferData.textConsole[index].setTextColor(textColor);
+                    mScreenBufferData.textConsole[index].setAlpha(alpha);
                     mCursor.x++;
                     if (mCursor.x >= mConsoleScreen.consoleColumn) {
                         nextLine();
                     }
                 }
         }
-
-        postInvalidate();
     }
 
     //set cursor index
@@ -260,9 +286,51 @@ public class ConsoleView extends View implements GestureDetector.OnDoubleTapList
         }
     }
 
+    /**
+     * Write a text to the screen immediately, the pending output of program is written first
+     */
     public synchronized void writeString(String msg) {
-        for (int i = 0; i < msg.length(); i++)
-            write(msg.substring(i, i + 1), false);
+        flushOutput();
+        int textColor = mTextRenderer.getTextColor();
+        int background = mTextRenderer.getBackgroundColor();
+        int alpha = mTextRenderer.getAlpha();
+        for (int i = 0; i < msg.length(); i++) {
+            write(msg.charAt(i), textColor, background, alpha);
+        }
+        postInvalidate();
+    }
+
+    /**
+     * Print the output of program, called by the thread of program.
+     * <p>
+     * The text is appended to the output buffer without locking the screen, the UI thread drains
+     * it once per frame. If the buffer is full, the pending text is drained by this thread.
+     */
+    public void printString(CharSequence text) {
+        int textColor = mTextRenderer.getTextColor();
+        int background = mTextRenderer.getBackgroundColor();
+        int alpha = mTextRenderer.getAlpha();
+        int start = 0;
+        int end = text.length();
+        while (start < end) {
+            start += mOutputBuffer.write(text, start, end, textColor, background, alpha);
+            if (start < end) {
+                flushOutput();
+            }
+        }
+        if (mDrainPosted.compareAndSet(false, true)) {
+            mHandler.postDelayed(drainOutput, OUTPUT_FRAME_DELAY);
+        }
+    }
+
+    /**
+     * Move the pending output of program to the screen buffer, must be called before reading or
+     * changing the cursor
+     */
+    public synchronized void flushOutput() {
+        if (mOutputBuffer.isEmpty()) return;
+        mOutputBuffer.drainTo(mScreenSink);
+        postInvalidate();
     }
 
     private void nextLine() {
@@ -298,7 +366,8 @@ public class ConsoleView extends View implements GestureDetector.OnDoubleTapList
      * clear screen
      * clrscr command in pascal
      */
-    public void clearScreen() {
+    public synchronized void clearScreen() {
+        flushOutput();
         for (int i = 0; i < mConsoleScreen.getScreenSize(); i++)
             mScreenBufferData.textConsole[i].setText("\0");
         mCursor.setCoordinate(0, 0);
@@ -711,16 +780,25 @@ public class ConsoleView extends View implements GestureDetector.OnDoubleTapList
         };
     }
 
-    private void setImeBuffer(String buffer) {
+    /**
+     * Echo the composing text of IME, the pending output of program is written first so it
+     * does not land after the echo
+     */
+    private synchronized void setImeBuffer(String buffer) {
         DLog.d(TAG, "setImeBuffer: " + buffer);
+        flushOutput();
         //delete last buffer in screen
         for (int i = 0; i < mImeBuffer.length(); i++) {
             write(THE_DELETE_COMMAND, false);
         }
         mImeBuffer = buffer;
-        if (mImeBuffer.isEmpty()) return;
+        if (mImeBuffer.isEmpty()) {
+            postInvalidate();
+            return;
+        }
         for (int i = 0; i < mImeBuffer.length(); i++)
             write(mImeBuffer.substring(i, i + 1), true);
+        postInvalidate();
     }
 
     @Override
@@ -812,6 +890,8 @@ public class ConsoleView extends View implements GestureDetector.OnDoubleTapList
      * clear data
      */
     public void onDestroy() {
+        mHandler.removeCallbacks(drainOutput);
+        mOutputBuffer.clear();
         mGraphScreen.clearData();
         mConsoleScreen.clearAll();
         mScreenBufferData.clearAll();
@@ -847,7 +927,8 @@ public class ConsoleView extends View implements GestureDetector.OnDoubleTapList
     }
 
     // move cursor to (x, y)
-    public void moveCursorTo(int x, int y) {
+    public synchronized void moveCursorTo(int x, int y) {
+        flushOutput();
         if (x <= 0) {
             x = 1;
         } else if (x > mConsoleScreen.consoleColumn) {
@@ -865,6 +946,7 @@ public class ConsoleView extends View implements GestureDetector.OnDoubleTapList
 
     // `return x coordinate of cursor in console
     public int whereX() {
+        flushOutput();
         return mCursor.x + 1;
     }
 
@@ -872,6 +954,7 @@ public class ConsoleView extends View implements GestureDetector.OnDoubleTapList
      * return y coordinate of cursor in console*
      */
     public int whereY() {
+        flushOutput();
         return mCursor.y + 1;
     }
 
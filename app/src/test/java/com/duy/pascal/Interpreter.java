@@ -38,16 +38,24 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.List;
 
 /**
  * Created by Duy on 29-May-17.
  */
 
 public class Interpreter {
-    private static Scanner input;
 
     public static boolean runProgram(String programPath) throws Exception {
+        return runProgram(programPath, false);
+    }
+
+    /**
+     * @param cached - compile the program with
+     *               {@link PascalCompilerFactory#makeCachedPascalProgram(ScriptSource, List, IProgramHandler)}
+     *               and give it back to the cache after it is executed
+     */
+    public static boolean runProgram(String programPath, boolean cached) throws Exception {
         DLog.d("Program path = " + programPath);
         final File programFile = new File(programPath);
         String pathIn = programFile.getParent() + File.separatorChar
@@ -55,88 +63,21 @@ public class Interpreter {
                 + ".in";
 
         File fileIn = new File(pathIn);
-        if (fileIn.exists()) {
-            DLog.d("path in " + pathIn);
-            input = new Scanner(new FileReader(fileIn));
-        }
         final StringBuilder output = new StringBuilder();
         ArrayList<ScriptSource> include = new ArrayList<>();
         include.add(new FileScriptSource(new File(programPath)));
 
         DiagnosticCollector diagnosticCollector = new DiagnosticCollector();
 
-        PascalProgramDeclaration pascalProgram = PascalCompilerFactory.makePascalProgram(
-                new TestSource(programFile), include,
-                new IProgramHandler() {
-                    @Override
-                    public String getCurrentDirectory() {
-                        return programFile.getParent();
-                    }
-
-                    @Override
-                    public Context getApplicationContext() {
-                        return null;
-                    }
-
-                    @Override
-                    public Activity getActivity() {
-                        return null;
-                    }
-
-                    @Override
-                    public void startInput(final IOLib lock) {
-                        if (input == null) {
-                            throw new RuntimeException("can not find input reader");
-                        }
-                        String s = input.nextLine();
-                        lock.setInputBuffer(s);
-                        new Thread(new Runnable() {
-                            @Override
-                            public void run() {
-                                try {
-                                    Thread.sleep(10);
-                                } catch (InterruptedException e) {
-                                    e.printStackTrace();
-                                }
-                                lock.resume();
-                            }
-                        }).start();
-                    }
-
-
-                    @Override
-                    public void print(CharSequence charSequence) {
-                        output.append(charSequence);
-                        System.out.print(charSequence);
-                    }
-
-                    @Override
-                    public ConsoleView getConsoleView() {
-                        return null;
-                    }
-
-                    @Override
-                    public void println(CharSequence charSequence) {
-                        output.append(charSequence);
-                        output.append("\n");
-                        System.out.println(charSequence);
-                    }
-
-                    @Override
-                    public char getKeyBuffer() {
-                        return 0;
-                    }
-
-                    @Override
-                    public boolean keyPressed() {
-                        return true;
-                    }
-
-                    @Override
-                    public void clearConsole() {
-
-                    }
-                }, diagnosticCollector);
+        ScriptSource source = new TestSource(programFile);
+        IProgramHandler handler = createHandler(programFile, output);
+        PascalProgramDeclaration pascalProgram;
+        if (cached) {
+            pascalProgram = PascalCompilerFactory.makeCachedPascalProgram(source, include, handler);
+        } else {
+            pascalProgram = PascalCompilerFactory.makePascalProgram(source, include, handler,
+                    diagnosticCollector);
+        }
         if (diagnosticCollector.getDiagnostics().isEmpty()) {
 
         } else {
@@ -149,8 +90,20 @@ public class Interpreter {
             throw diagnosticCollector.getDiagnostics().get(0).getCause();
         }
 
-        RuntimeExecutableCodeUnit<PascalProgramDeclaration> program = pascalProgram.generate();
-        program.run();
+        try {
+            RuntimeExecutableCodeUnit<PascalProgramDeclaration> program = pascalProgram.generate();
+            if (fileIn.exists()) {
+                DLog.d("path in " + pathIn);
+                pascalProgram.getContext().getIOHandler().setInput(new FileReader(fileIn));
+            }
+            program.run();
+        } finally {
+            if (cached) {
+                PascalCompilerFactory.releaseCachedPascalProgram(source, pascalProgram);
+            } else {
+                pascalProgram.getContext().releaseUnits();
+            }
+        }
 
         String pathOut = programFile.getParent() + File.separatorChar
                 + programFile.getName().substring(0, programFile.getName().indexOf("."))
@@ -180,6 +133,68 @@ public class Interpreter {
         return true;
     }
 
+    /**
+     * Handler which prints the output of program to the console and into the given buffer
+     */
+    public static IProgramHandler createHandler(final File programFile, final StringBuilder output) {
+        return new IProgramHandler() {
+            @Override
+            public String getCurrentDirectory() {
+                return programFile.getParent();
+            }
+
+            @Override
+            public Context getApplicationContext() {
+                return null;
+            }
+
+            @Override
+            public Activity getActivity() {
+                return null;
+            }
+
+            @Override
+            public void startInput(final IOLib lock) {
+                //the standard input of a test is redirected from its .in file
+                throw new RuntimeException("can not find input reader");
+            }
+
+
+            @Override
+            public void print(CharSequence charSequence) {
+                output.append(charSequence);
+                System.out.print(charSequence);
+            }
+
+            @Override
+            public ConsoleView getConsoleView() {
+                return null;
+            }
+
+            @Override
+            public void println(CharSequence charSequence) {
+                output.append(charSequence);
+                output.append("\n");
+                System.out.println(charSequence);
+            }
+
+            @Override
+            public char getKeyBuffer() {
+                return 0;
+            }
+
+            @Override
+            public boolean keyPressed() {
+                return true;
+            }
+
+            @Override
+            public void clearConsole() {
+
+            }
+        };
+    }
+
     public static boolean checkSyntax(String programPath) {
         System.out.println(programPath);
         final StringBuilder output = new StringBuilder();
@@ -208,22 +223,8 @@ public class Interpreter {
 
                         @Override
                         public void startInput(final IOLib lock) {
-                            if (input == null) {
-                                throw new RuntimeException("can not find input reader");
-                            }
-                            String s = input.nextLine();
-                            lock.setInputBuffer(s);
-                            new Thread(new Runnable() {
-                                @Override
-                                public void run() {
-                                    try {
-                                        Thread.sleep(10);
-                                    } catch (InterruptedException e) {
-                                        e.printStackTrace();
-                                    }
-                                    lock.resume();
-                                }
-                            }).start();
+                            //the standard input of a test is redirected from its .in file
+                            throw new RuntimeException("can not find input reader");
                         }
 
 
@@ -259,7 +260,7 @@ public class Interpreter {
                         public void clearConsole() {
 
                         }
-                    });
+                    }).getContext().releaseUnits();
         } catch (ParsingException e) {
             e.printStackTrace();
             return false;
@@ -56,4 +56,12 @@ public class ArrayTest extends BaseTestCase {
     public void testCharArrayAccess(){
         run("test_char_array_access.pas");
     }
+
+    public void testPrimitiveArray() {
+        run("test_primitive_array.pas");
+    }
+
+    public void testElementAssign() {
+        run("test_element_assign.pas");
+    }
 }
@@ -78,6 +78,18 @@ public abstract class BaseTestCase extends TestCase {
         }
     }
 
+    /**
+     * Same as {@link #run(String)}, but compile the program through the program cache
+     */
+    protected void runCached(String fileName) {
+        try {
+            runProgram(userDir + fileName, true);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            fail(e.getMessage());
+        }
+    }
+
     protected boolean parse(String fileName) {
         File file1 = new File(fileName);
         if (!file1.exists()) {
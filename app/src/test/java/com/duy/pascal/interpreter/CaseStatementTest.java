@@ -37,4 +37,8 @@ public class CaseStatementTest extends BaseTestCase {
     public void testtest_case_nested() {
         run("test_case_nested.pas");
     }
+
+    public void testtest_case_table() {
+        run("test_case_table.pas");
+    }
 }
\ No newline at end of file
@@ -58,4 +58,16 @@ public class FileTest extends BaseTestCase {
         run("test_eoln.pas");
     }
 
+    public void testReadNumbers() {
+        run("test_read_numbers.pas");
+    }
+
+    public void testTypedFile() {
+        run("test_typed_file.pas");
+    }
+
+    public void testReadRedirectedInput() {
+        run("test_read_input.pas");
+    }
+
 }
@@ -79,4 +79,8 @@ public class ForStatementTest extends BaseTestCase {
     public void testConvert2() {
         run("test_convert2.pas");
     }
+
+    public void testForOrdinal() {
+        run("test_for_ordinal.pas");
+    }
 }
@@ -37,4 +37,12 @@ public class NumberTest extends BaseTestCase {
     public void testOctal() {
         run("octal.pas");
     }
+
+    public void testArithmetic() {
+        run("arithmetic.pas");
+    }
+
+    public void testFormat() {
+        run("format.pas");
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.interpreter;
+
+import com.duy.pascal.Interpreter;
+import com.duy.pascal.interperter.core.PascalCompilerFactory;
+import com.duy.pascal.interperter.declaration.library.PascalUnitCache;
+import com.duy.pascal.interperter.declaration.program.PascalProgramCache;
+import com.duy.pascal.interperter.declaration.program.PascalProgramDeclaration;
+import com.duy.pascal.interperter.source.FileScriptSource;
+import com.duy.pascal.interperter.source.ScriptSource;
+import com.duy.pascal.interperter.source.SourceStamp;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+
+public class ProgramCacheTest extends BaseTestCase {
+    @Override
+    public String getDirTest() {
+        return "test_unit";
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        PascalProgramCache.clear();
+        PascalUnitCache.clear();
+    }
+
+    /**
+     * The second run gets the compiled program from the cache, the state of the units
+     * which is left by the first run must not be seen
+     */
+    public void testRunCachedProgramTwice() {
+        runCached("use_counter.pas");
+        runCached("use_counter.pas");
+    }
+
+    /**
+     * The program reads a variable of unit directly, it must read the state of the current run
+     */
+    public void testReadUnitVariableOfCachedProgram() {
+        runCached("use_total.pas");
+        runCached("use_total.pas");
+    }
+
+    public void testReuseReleasedProgram() throws Exception {
+        PascalProgramDeclaration first = makeCachedProgram("use_counter.pas");
+        PascalCompilerFactory.releaseCachedPascalProgram(source("use_counter.pas"), first);
+        PascalProgramDeclaration second = makeCachedProgram("use_counter.pas");
+        assertSame(first, second);
+    }
+
+    /**
+     * A program which is used by a run must not be bound to another run
+     */
+    public void testProgramInUseIsNotShared() throws Exception {
+        PascalProgramDeclaration first = makeCachedProgram("use_counter.pas");
+        PascalCompilerFactory.releaseCachedPascalProgram(source("use_counter.pas"), first);
+
+        PascalProgramDeclaration running = makeCachedProgram("use_counter.pas");
+        PascalProgramDeclaration other = makeCachedProgram("use_counter.pas");
+        assertSame(first, running);
+        assertNotSame(running, other);
+        assertNotSame(running.getContext().getIOHandler(), other.getContext().getIOHandler());
+    }
+
+    /**
+     * A program which is only compiled gives its units back, the next compile does not
+     * parse them again
+     */
+    public void testCompiledProgramGivesUnitsBack() throws Exception {
+        PascalProgramDeclaration first = makeProgram("use_counter.pas");
+        first.getContext().releaseUnits();
+        PascalProgramDeclaration second = makeProgram("use_counter.pas");
+        assertFalse(second.getContext().getRuntimeUnitMap().isEmpty());
+        assertEquals(first.getContext().getRuntimeUnitMap().keySet(),
+                second.getContext().getRuntimeUnitMap().keySet());
+    }
+
+    /**
+     * An edit which keeps the length of the file and its modification time is seen
+     */
+    public void testStampOfSameLengthEdit() throws Exception {
+        File file = File.createTempFile("unit", ".pas");
+        try {
+            write(file, "x := 1");
+            long modified = file.lastModified();
+            SourceStamp stamp = SourceStamp.of(file, SourceStamp.read(file));
+            assertTrue(stamp.isCurrent());
+
+            write(file, "x := 2");
+            file.setLastModified(modified);
+            assertFalse(stamp.isCurrent());
+            assertFalse(stamp.equals(SourceStamp.of(file, SourceStamp.read(file))));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void write(File file, String content) throws Exception {
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private ScriptSource source(String fileName) {
+        return new FileScriptSource(new File(userDir + fileName));
+    }
+
+    private PascalProgramDeclaration makeProgram(String fileName) throws Exception {
+        File file = new File(userDir + fileName);
+        ScriptSource source = new FileScriptSource(file);
+        ArrayList<ScriptSource> include = new ArrayList<>();
+        include.add(source);
+        return PascalCompilerFactory.makePascalProgram(source, include,
+                Interpreter.createHandler(file, new StringBuilder()));
+    }
+
+    private PascalProgramDeclaration makeCachedProgram(String fileName) throws Exception {
+        File file = new File(userDir + fileName);
+        ScriptSource source = new FileScriptSource(file);
+        ArrayList<ScriptSource> include = new ArrayList<>();
+        include.add(source);
+        return PascalCompilerFactory.makeCachedPascalProgram(source, include,
+                Interpreter.createHandler(file, new StringBuilder()));
+    }
+}
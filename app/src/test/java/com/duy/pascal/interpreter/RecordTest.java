@@ -58,4 +58,8 @@ public class RecordTest extends BaseTestCase {
         run("test_const.pas");
     }
 
+    public void testRecordCopy() {
+        run("test_record_copy.pas");
+    }
+
 }
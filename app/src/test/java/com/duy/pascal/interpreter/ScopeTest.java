@@ -41,4 +41,8 @@ public class ScopeTest extends BaseTestCase {
     public void testtest_local1() {
         run("test_local1.pas");
     }
+
+    public void testtest_nested() {
+        run("test_nested.pas");
+    }
 }
\ No newline at end of file
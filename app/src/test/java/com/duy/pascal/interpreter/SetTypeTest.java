@@ -35,5 +35,9 @@ public class SetTypeTest extends BaseTestCase {
         run("test_set_operate.pas");
     }
 
+    public void testSetIn() {
+        run("test_set_in.pas");
+    }
+
 
 }
@@ -43,6 +43,18 @@ public class StringTest extends BaseTestCase {
         run("test_string_index.pas");
     }
 
+    public void testStringCopy() {
+        run("test_string_copy.pas");
+    }
+
+    public void testStringShare() {
+        run("test_string_share.pas");
+    }
+
+    public void testStringAppend() {
+        run("test_string_append.pas");
+    }
+
     public void testStringIndex2() {
     }
 
@@ -29,4 +29,12 @@ public class UnitTest extends BaseTestCase {
     public void testCustomUnit() {
         run("test_create_unit.pas");
     }
+
+    /**
+     * The state of unit must not be shared between programs which use the same unit
+     */
+    public void testCachedUnit() {
+        run("use_counter.pas");
+        run("use_counter.pas");
+    }
 }
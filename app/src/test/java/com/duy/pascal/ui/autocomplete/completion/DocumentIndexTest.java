@@ -0,0 +1,173 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.ui.autocomplete.completion;
+
+import com.duy.pascal.interperter.declaration.Name;
+import com.duy.pascal.interperter.linenumber.LineNumber;
+import com.duy.pascal.interperter.source.FileScriptSource;
+import com.duy.pascal.interperter.tokens.Token;
+import com.duy.pascal.ui.autocomplete.completion.ast.Symbol;
+
+import junit.framework.TestCase;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DocumentIndexTest extends TestCase {
+    private static final String PROGRAM = "program test;\n" +
+            "uses crt;\n" +
+            "const max = 10;\n" +
+            "var count: integer;\n" +
+            "procedure first(a: integer; var b: real);\n" +
+            "var local: string;\n" +
+            "begin\n" +
+            "  { a comment\n" +
+            "    on two lines }\n" +
+            "  local := 'text';\n" +
+            "end;\n" +
+            "function second(c: char): boolean;\n" +
+            "begin\n" +
+            "  second := true;\n" +
+            "end;\n" +
+            "begin\n" +
+            "  count := max;\n" +
+            "end.\n";
+
+    private static String signature(List<Token> tokens) {
+        StringBuilder result = new StringBuilder();
+        for (Token token : tokens) {
+            LineNumber lineNumber = token.getLineNumber();
+            result.append(token.getClass().getSimpleName()).append(' ')
+                    .append(lineNumber.getLine()).append(':').append(lineNumber.getColumn())
+                    .append(' ').append(token).append('\n');
+        }
+        return result.toString();
+    }
+
+    private static String fullLex(String source) throws Exception {
+        return signature(new FileScriptSource(new StringReader(source), "test").toTokens());
+    }
+
+    private static ArrayList<String> names(List<Symbol> symbols) {
+        ArrayList<String> names = new ArrayList<>();
+        for (Symbol symbol : symbols) {
+            names.add(symbol.getName().getOriginName());
+        }
+        return names;
+    }
+
+    public void testIncrementalTokens() throws Exception {
+        DocumentIndex index = new DocumentIndex("test");
+        String source = PROGRAM;
+        index.update(source);
+        assertEquals(fullLex(source), signature(index.getTokens()));
+
+        String[][] edits = {
+                {"local := 'text';", "local := 'text';\n  local := local + 'a';"},
+                {"count := max;", "count := max + 1;"},
+                {"{ a comment", "a comment"},
+                {"a comment", "{ a comment"},
+                {"begin\n  second", "begin\n  '\n  second"},
+                {"begin\n  '\n  second", "begin\n  second"},
+                {"var count: integer;\n", ""},
+                //strings joined over two lines are reported on the second one
+                {"local := 'text';", "local := 'te'\n    'xt';"},
+                {"'xt';", "'xyz';"},
+                {"'xyz';", "{ between } 'xyz';"},
+        };
+        for (String[] edit : edits) {
+            source = source.replace(edit[0], edit[1]);
+            index.update(source);
+            assertEquals(fullLex(source), signature(index.getTokens()));
+        }
+    }
+
+    public void testIndexBefore() throws Exception {
+        DocumentIndex index = new DocumentIndex("test");
+        index.update(PROGRAM);
+        List<Token> tokens = index.getTokens();
+        LineNumber[] positions = {new LineNumber(0, 0, ""), new LineNumber(3, 6, ""),
+                new LineNumber(9, 11, ""), new LineNumber(9, 100, ""), new LineNumber(100, 0, "")};
+        for (LineNumber position : positions) {
+            int expected = -1;
+            while (expected + 1 < tokens.size()
+                    && tokens.get(expected + 1).getLineNumber().compareTo(position) < 0) {
+                expected++;
+            }
+            assertEquals(expected, SourceHelper.indexBefore(tokens, position));
+        }
+    }
+
+    public void testVisibleSymbols() throws Exception {
+        DocumentIndex index = new DocumentIndex("test");
+        index.update(PROGRAM);
+
+        //inside the body of 'first'
+        List<String> inFirst = names(index.getSymbols().getVisibleSymbols(new LineNumber(9, 2, "")));
+        assertTrue(inFirst.contains("max"));
+        assertTrue(inFirst.contains("count"));
+        assertTrue(inFirst.contains("first"));
+        assertTrue(inFirst.contains("a"));
+        assertTrue(inFirst.contains("local"));
+        assertFalse(inFirst.contains("second"));
+        assertFalse(inFirst.contains("c"));
+
+        //main block
+        List<String> inMain = names(index.getSymbols().getVisibleSymbols(new LineNumber(16, 2, "")));
+        assertTrue(inMain.contains("second"));
+        assertFalse(inMain.contains("local"));
+        assertFalse(inMain.contains("c"));
+
+        assertEquals(1, index.getSymbols().getUnits().size());
+        assertEquals(Name.create("crt"), index.getSymbols().getUnits().get(0));
+    }
+
+    public void testUnitsKey() throws Exception {
+        DocumentIndex index = new DocumentIndex("test");
+        index.update(PROGRAM);
+        assertEquals("crt", index.getSymbols().getUnitsKey());
+
+        //a change in a routine does not read the uses clause again
+        String key = index.getSymbols().getUnitsKey();
+        String source = PROGRAM.replace("local := 'text';", "local := 'other';");
+        index.update(source);
+        assertSame(key, index.getSymbols().getUnitsKey());
+
+        source = source.replace("uses crt;", "uses crt, dos;");
+        index.update(source);
+        assertEquals("crt, dos", index.getSymbols().getUnitsKey());
+
+        source = source.replace("uses crt, dos;\n", "");
+        index.update(source);
+        assertEquals("", index.getSymbols().getUnitsKey());
+    }
+
+    public void testUpdateDeclarations() throws Exception {
+        DocumentIndex index = new DocumentIndex("test");
+        index.update(PROGRAM);
+        String source = PROGRAM.replace("var local: string;", "var local: string;\n  other: real;");
+        index.update(source);
+
+        List<String> inFirst = names(index.getSymbols().getVisibleSymbols(new LineNumber(10, 2, "")));
+        assertTrue(inFirst.contains("other"));
+        //the declarations after the change moved one line down
+        Symbol second = index.getSymbols().findSymbol(Name.create("second"), new LineNumber(17, 2, ""));
+        assertNotNull(second);
+        assertEquals(12, second.getLineNumber().getLine());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.ui.editor.highlight;
+
+import junit.framework.TestCase;
+
+public class LexerHighlighterTest extends TestCase {
+    private static final String PROGRAM = "{$mode objfpc}\n" +
+            "program test;\n" +
+            "var count: integer;\n" +
+            "begin\n" +
+            "  (* a comment\n" +
+            "     on two lines *)\n" +
+            "  writeln('text', 12, #13);\n" +
+            "  setColor(rgb(1, 2, 3));\n" +
+            "  count := count + 1; // end\n" +
+            "end.\n";
+
+    private static String runs(LexerHighlighter highlighter, String source) {
+        HighlightRuns runs = new HighlightRuns();
+        highlighter.getRuns(0, source.length(), runs);
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < runs.size(); i++) {
+            result.append(runs.getKind(i)).append(' ')
+                    .append(source, runs.getStart(i), runs.getEnd(i)).append('\n');
+        }
+        return result.toString();
+    }
+
+    private static String fullRuns(String source) throws Exception {
+        LexerHighlighter highlighter = new LexerHighlighter();
+        highlighter.update(source);
+        return runs(highlighter, source);
+    }
+
+    public void testKinds() throws Exception {
+        String runs = fullRuns(PROGRAM);
+        assertTrue(runs.contains(LexerHighlighter.KIND_KEYWORD + " begin\n"));
+        assertTrue(runs.contains(LexerHighlighter.KIND_KEYWORD + " integer\n"));
+        assertTrue(runs.contains(LexerHighlighter.KIND_STRING + " 'text'\n"));
+        assertTrue(runs.contains(LexerHighlighter.KIND_STRING + " #13\n"));
+        assertTrue(runs.contains(LexerHighlighter.KIND_NUMBER + " 12\n"));
+        assertTrue(runs.contains(LexerHighlighter.KIND_COMMENT + " // end\n"));
+        assertTrue(runs.contains(LexerHighlighter.KIND_COLOR + " rgb\n"));
+        assertFalse(runs.contains(" count\n"));
+    }
+
+    public void testIncrementalRuns() throws Exception {
+        LexerHighlighter highlighter = new LexerHighlighter();
+        String source = PROGRAM;
+        highlighter.update(source);
+        assertEquals(fullRuns(source), runs(highlighter, source));
+
+        String[][] edits = {
+                {"count + 1;", "count + 12;"},
+                {"(* a comment", "a comment"},
+                {"a comment", "(* a comment"},
+                {"'text'", "'te\n  xt'"},
+                {"'te\n  xt'", "'text'"},
+                {"// end", "{ end }"},
+                //a compiler directive is read till the last '}' before a "*)"
+                {"on two lines *)", "on two lines"},
+                {"on two lines", "on two lines *)"},
+                {"var count: integer;\n", ""},
+        };
+        for (String[] edit : edits) {
+            int offset = source.indexOf(edit[0]);
+            source = source.replace(edit[0], edit[1]);
+            highlighter.update(source);
+            assertEquals(fullRuns(source), runs(highlighter, source));
+            assertTrue(highlighter.getChangedStart() <= offset);
+            assertTrue(highlighter.getChangedEnd() >= offset + edit[1].length());
+        }
+    }
+
+    public void testRunsBetweenOffsets() throws Exception {
+        LexerHighlighter highlighter = new LexerHighlighter();
+        highlighter.update(PROGRAM);
+        int from = PROGRAM.indexOf("begin") + 2;
+        int to = PROGRAM.indexOf("end.");
+        HighlightRuns runs = new HighlightRuns();
+        highlighter.getRuns(from, to, runs);
+        assertEquals(from, runs.getFrom());
+        assertEquals(to, runs.getTo());
+        //the first run is clipped
+        assertEquals(from, runs.getStart(0));
+        assertEquals(-1, runs.indexBefore(from - 1));
+        for (int i = 0; i < runs.size(); i++) {
+            assertTrue(runs.getEnd(i) <= to);
+            assertEquals(i, runs.indexBefore(runs.getStart(i)));
+            assertEquals(i, runs.indexBefore(runs.getEnd(i) - 1));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.ui.utils;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+public class UndoHistoryTest extends TestCase {
+    private File mFile;
+
+    private static String apply(String text, UndoHistory.Edit edit, boolean undo) {
+        String from = undo ? edit.after : edit.before;
+        String to = undo ? edit.before : edit.after;
+        assertEquals(from, text.substring(edit.start, edit.start + from.length()));
+        return text.substring(0, edit.start) + to + text.substring(edit.start + from.length());
+    }
+
+    /**
+     * Make a random edit of the text and record it
+     */
+    private static String edit(UndoHistory history, String text, Random random, long time) {
+        int start = random.nextInt(text.length() + 1);
+        int end = Math.min(text.length(), start + (random.nextBoolean() ? 0 : random.nextInt(5)));
+        String after = random.nextBoolean() ? "" : "abc\n".substring(random.nextInt(4));
+        history.add(start, text.substring(start, end), after, time);
+        return text.substring(0, start) + after + text.substring(end);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mFile = File.createTempFile("history", null);
+        mFile.delete();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mFile.delete();
+        super.tearDown();
+    }
+
+    public void testMergeKeystrokes() {
+        UndoHistory history = new UndoHistory(100, 1000);
+        String text = "";
+        for (int i = 0; i < 5; i++) {
+            history.add(i, "", "x", i * 100);
+            text += "x";
+        }
+        //backspace twice
+        history.add(4, "x", "", 600);
+        history.add(3, "x", "", 700);
+        text = "xxx";
+        //typed later
+        history.add(3, "", "y", 5000);
+        text += "y";
+
+        text = apply(text, history.undo(), true);
+        assertEquals("xxx", text);
+        text = apply(text, history.undo(), true);
+        assertEquals("xxxxx", text);
+        text = apply(text, history.undo(), true);
+        assertEquals("", text);
+        assertFalse(history.canUndo());
+        text = apply(text, history.redo(), false);
+        assertEquals("xxxxx", text);
+    }
+
+    public void testUndoRedo() {
+        UndoHistory history = new UndoHistory(1000, 1 << 20);
+        Random random = new Random(1);
+        String[] texts = new String[201];
+        texts[0] = "program test;\nbegin\nend.\n";
+        int count = 0;
+        for (int i = 1; i < texts.length; i++) {
+            String text = edit(history, texts[count], random, i * 2000L);
+            if (!text.equals(texts[count])) {
+                texts[++count] = text;
+            }
+        }
+        String text = texts[count];
+        for (int i = count; i > 0; i--) {
+            text = apply(text, history.undo(), true);
+            assertEquals(texts[i - 1], text);
+        }
+        assertNull(history.undo());
+        for (int i = 1; i <= count; i++) {
+            text = apply(text, history.redo(), false);
+            assertEquals(texts[i], text);
+        }
+        assertNull(history.redo());
+    }
+
+    public void testLimits() {
+        UndoHistory history = new UndoHistory(10, 100);
+        String text = "";
+        for (int i = 0; i < 50; i++) {
+            history.add(text.length(), "", "ab", i * 2000L);
+            text += "ab";
+        }
+        int undo = 0;
+        while (history.canUndo()) {
+            text = apply(text, history.undo(), true);
+            undo++;
+        }
+        assertEquals(10, undo);
+
+        history = new UndoHistory(1000, 100);
+        text = "";
+        for (int i = 0; i < 50; i++) {
+            history.add(text.length(), "", "0123456789", i * 2000L);
+            text += "0123456789";
+        }
+        undo = 0;
+        while (history.canUndo()) {
+            text = apply(text, history.undo(), true);
+            undo++;
+        }
+        assertEquals(10, undo);
+    }
+
+    public void testWriteAndRead() throws Exception {
+        UndoHistory history = new UndoHistory(1000, 1 << 20);
+        Random random = new Random(2);
+        String text = "program test;\nbegin\nend.\n";
+        long time = 0;
+        for (int write = 0; write < 5; write++) {
+            for (int i = 0; i < 20; i++) {
+                text = edit(history, text, random, time += 300);
+            }
+            //some edits are undone before the next ones
+            for (int i = 0; i < write; i++) {
+                text = apply(text, history.undo(), true);
+            }
+            history.write(mFile, "test", text);
+        }
+
+        UndoHistory restored = new UndoHistory(1000, 1 << 20);
+        assertFalse(restored.read(mFile, "other", text));
+        assertFalse(restored.read(mFile, "test", text + " "));
+        assertTrue(restored.read(mFile, "test", text));
+        String expected = text;
+        while (history.canUndo()) {
+            assertTrue(restored.canUndo());
+            expected = apply(expected, history.undo(), true);
+            text = apply(text, restored.undo(), true);
+            assertEquals(expected, text);
+        }
+        assertFalse(restored.canUndo());
+        while (history.canRedo()) {
+            expected = apply(expected, history.redo(), false);
+            text = apply(text, restored.redo(), false);
+            assertEquals(expected, text);
+        }
+        assertFalse(restored.canRedo());
+    }
+
+    public void testCorruptedLength() throws Exception {
+        UndoHistory history = new UndoHistory(1000, 1 << 20);
+        history.add(0, "", "begin", 0);
+        history.write(mFile, "test", "begin");
+
+        //length of the text before the first edit: magic, version, key, record, index, start
+        RandomAccessFile file = new RandomAccessFile(mFile, "rw");
+        try {
+            file.seek(8 + 2 + "test".length() + 9);
+            file.writeInt(Integer.MAX_VALUE);
+        } finally {
+            file.close();
+        }
+        UndoHistory restored = new UndoHistory(1000, 1 << 20);
+        assertFalse(restored.read(mFile, "test", "begin"));
+        assertFalse(restored.canUndo());
+    }
+
+    public void testWriteAgainAfterFailure() throws Exception {
+        UndoHistory history = new UndoHistory(1000, 1 << 20);
+        history.add(0, "", "begin", 0);
+        history.write(mFile, "test", "begin");
+
+        //the write fails, a directory has the name of the file
+        assertTrue(mFile.delete());
+        assertTrue(mFile.mkdir());
+        try {
+            history.write(mFile, "test", "begin");
+            fail();
+        } catch (IOException expected) {
+        }
+        assertTrue(mFile.delete());
+        FileOutputStream out = new FileOutputStream(mFile);
+        try {
+            out.write(new byte[]{1, 2, 3});
+        } finally {
+            out.close();
+        }
+
+        history.add(5, "", " end", 5000);
+        history.write(mFile, "test", "begin end");
+        UndoHistory restored = new UndoHistory(1000, 1 << 20);
+        assertTrue(restored.read(mFile, "test", "begin end"));
+        assertEquals(" end", restored.undo().after);
+        assertEquals("begin", restored.undo().after);
+        assertFalse(restored.canUndo());
+    }
+}
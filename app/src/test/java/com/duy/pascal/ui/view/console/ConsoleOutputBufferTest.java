@@ -0,0 +1,148 @@
+/*
+ *  Copyright (c) 2017 Tran Le Duy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.duy.pascal.ui.view.console;
+
+import junit.framework.TestCase;
+
+public class ConsoleOutputBufferTest extends TestCase {
+
+    public void testWriteAndDrain() {
+        ConsoleOutputBuffer buffer = new ConsoleOutputBuffer(8);
+        assertTrue(buffer.isEmpty());
+        assertEquals(3, buffer.write("abc", 0, 3, 1, 2, 3));
+        assertFalse(buffer.isEmpty());
+
+        StringSink sink = new StringSink();
+        assertEquals(3, buffer.drainTo(sink));
+        assertEquals("abc", sink.text.toString());
+        assertEquals(1, sink.lastTextColor);
+        assertEquals(2, sink.lastBackground);
+        assertEquals(3, sink.lastAlpha);
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.drainTo(sink));
+    }
+
+    public void testFullBuffer() {
+        ConsoleOutputBuffer buffer = new ConsoleOutputBuffer(4);
+        assertEquals(4, buffer.write("abcdef", 0, 6, 0, 0, 0));
+        assertEquals(0, buffer.write("ef", 0, 2, 0, 0, 0));
+
+        StringSink sink = new StringSink();
+        buffer.drainTo(sink);
+        assertEquals(2, buffer.write("abcdef", 4, 6, 0, 0, 0));
+        buffer.drainTo(sink);
+        assertEquals("abcdef", sink.text.toString());
+    }
+
+    public void testWrapAround() {
+        ConsoleOutputBuffer buffer = new ConsoleOutputBuffer(8);
+        StringSink sink = new StringSink();
+        StringBuilder expected = new StringBuilder();
+        //the indexes wrap many times, the chars and colors must stay together
+        for (int i = 0; i < 100; i++) {
+            String text = Integer.toString(i);
+            assertEquals(text.length(), buffer.write(text, 0, text.length(), i, i, i));
+            expected.append(text);
+            if (i % 3 == 0) {
+                buffer.drainTo(sink);
+                assertEquals(i, sink.lastTextColor);
+            }
+        }
+        buffer.drainTo(sink);
+        assertEquals(expected.toString(), sink.text.toString());
+    }
+
+    public void testClear() {
+        ConsoleOutputBuffer buffer = new ConsoleOutputBuffer(8);
+        buffer.write("abc", 0, 3, 0, 0, 0);
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+        assertEquals(8, buffer.write("12345678", 0, 8, 0, 0, 0));
+    }
+
+    public void testInvalidCapacity() {
+        try {
+            new ConsoleOutputBuffer(6);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    /**
+     * The producer writes without a lock, the consumer drains concurrently, and the producer
+     * drains itself when the buffer is full, as ConsoleView does. No char is lost or repeated
+     */
+    public void testConcurrentDrain() throws InterruptedException {
+        final ConsoleOutputBuffer buffer = new ConsoleOutputBuffer(64);
+        final StringSink sink = new StringSink();
+        final int count = 200000;
+        final boolean[] done = new boolean[1];
+
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    synchronized (sink) {
+                        if (done[0] && buffer.isEmpty()) {
+                            return;
+                        }
+                        buffer.drainTo(sink);
+                    }
+                    Thread.yield();
+                }
+            }
+        });
+        consumer.start();
+
+        StringBuilder expected = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            char c = (char) ('a' + i % 26);
+            expected.append(c);
+            String text = String.valueOf(c);
+            while (buffer.write(text, 0, 1, i, 0, 0) == 0) {
+                synchronized (sink) {
+                    buffer.drainTo(sink);
+                }
+            }
+        }
+        synchronized (sink) {
+            done[0] = true;
+        }
+        consumer.join(10000);
+        assertFalse(consumer.isAlive());
+        synchronized (sink) {
+            buffer.drainTo(sink);
+            assertEquals(expected.toString(), sink.text.toString());
+            assertEquals(count - 1, sink.lastTextColor);
+        }
+    }
+
+    private static class StringSink implements ConsoleOutputBuffer.Sink {
+        final StringBuilder text = new StringBuilder();
+        int lastTextColor = -1;
+        int lastBackground = -1;
+        int lastAlpha = -1;
+
+        @Override
+        public void put(char c, int textColor, int background, int alpha) {
+            text.append(c);
+            lastTextColor = textColor;
+            lastBackground = background;
+            lastAlpha = alpha;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+program test_element_assign;
+type
+  TPoint = record
+    x, y: integer;
+  end;
+var
+  a: array[1..3] of integer;
+  pts: array[1..2] of TPoint;
+  p: TPoint;
+  s: string;
+  i, calls: integer;
+
+function next: integer;
+begin
+  calls := calls + 1;
+  next := calls;
+end;
+
+begin
+  calls := 0;
+  for i := 1 to 3 do
+    a[i] := i * i;
+  a[next] := next * 100;
+  writeln(a[1], ' ', a[2], ' ', a[3]);
+
+  a[3] += 5;
+  a[2] -= 1;
+  writeln(a[2], ' ', a[3]);
+
+  p.x := 1;
+  p.y := p.x + 1;
+  pts[1] := p;
+  pts[1].x := 10;
+  pts[2].y := 20;
+  writeln(p.x, ' ', p.y, ' ', pts[1].x, ' ', pts[1].y, ' ', pts[2].y);
+
+  s := 'pascal';
+  s[1] := 'P';
+  writeln(s);
+end.
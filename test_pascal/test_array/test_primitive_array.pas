@@ -0,0 +1,56 @@
+program test_primitive_array;
+const
+  primes: array[1..5] of integer = (2, 3, 5, 7, 11);
+var
+  a, b: array[1..5] of integer;
+  r: array[0..3] of real;
+  flags: array[0..2] of boolean;
+  c: array[1..3] of char;
+  big: array[1..2] of int64;
+  d: array of integer;
+  i, sum: integer;
+  x: integer;
+
+procedure double(var arr: array of integer);
+var
+  k: integer;
+begin
+  for k := 0 to high(arr) do
+    arr[k] := arr[k] * 2;
+end;
+
+begin
+  for i := 1 to 5 do
+    a[i] := primes[i] * 10;
+  b := a;
+  b[1] := 0;
+  writeln(a[1], ' ', b[1]);
+
+  for i := 0 to 3 do
+    r[i] := i / 2;
+  writeln(r[3]:0:2);
+
+  flags[1] := true;
+  writeln(flags[0], ' ', flags[1]);
+
+  c[1] := 'a'; c[2] := 'b'; c[3] := 'c';
+  writeln(c[1], c[2], c[3]);
+
+  big[1] := 300000;
+  big[1] := big[1] * 10000;
+  big[2] := big[1] * 2;
+  writeln(big[2]);
+
+  setlength(d, 3);
+  for i := 0 to 2 do
+    d[i] := i + 1;
+  setlength(d, 5);
+  double(d);
+  sum := 0;
+  for x in d do
+    sum := sum + x;
+  writeln(length(d), ' ', sum, ' ', d[4]);
+
+  d := copy(d, 1, 2);
+  writeln(d[0], ' ', d[1]);
+end.
@@ -0,0 +1,42 @@
+var
+  s : string;
+  c : char;
+  i : integer;
+  e : (red, green, blue);
+begin
+  s := 'two';
+  case s of
+    'one': writeln('1');
+    'two': writeln('2');
+  else writeln('?');
+  end;
+
+  c := 'q';
+  case c of
+    'a'..'p': writeln('low');
+    'q', 'z': writeln('q or z');
+  end;
+
+  e := green;
+  case e of
+    red: writeln('r');
+    green, blue: writeln('gb');
+  end;
+
+  for i := 1 to 12 do
+    case i of
+      1, 3: write('a');
+      5..7: write('b');
+    else write('.');
+    end;
+  writeln;
+
+  for i := -2 to 2 do
+    case i * 100000 of
+      -200000: write('m');
+      0: write('z');
+      100000..150000: write('p');
+    else write('.');
+    end;
+  writeln;
+end.
@@ -0,0 +1,29 @@
+program test_read_input;
+var
+  n, i, x, total: integer;
+  sum: int64;
+  r: real;
+  name: string;
+  c: char;
+begin
+  readln(name);
+  read(n);
+  sum := 0;
+  for i := 1 to n do
+  begin
+    read(x);
+    sum := sum + x;
+  end;
+  readln;
+  readln(r);
+  readln(c);
+  writeln(name, ' ', n, ' ', sum);
+  writeln(r:0:2, ' ', c);
+  total := 0;
+  while not eof do
+  begin
+    read(x);
+    total := total + x;
+  end;
+  writeln(total);
+end.
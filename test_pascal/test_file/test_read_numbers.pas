@@ -0,0 +1,41 @@
+var
+  f : text;
+  i, n, x : integer;
+  l : int64;
+  d, sum : real;
+  s : string;
+
+begin
+  assign(f, 'numbers.txt');
+  rewrite(f);
+  writeln(f, 5);
+  for i := 1 to 5 do
+    write(f, i * 7, ' ', i / 4:0:2, '  ');
+  writeln(f);
+  l := 300000;
+  l := l * 30000;
+  writeln(f, -2147483647, ' ', l, ' ', 1.5e3, ' ', -0.125);
+  writeln(f, 'last line');
+  writeln(f);
+  close(f);
+
+  reset(f);
+  readln(f, n);
+  sum := 0;
+  for i := 1 to n do
+  begin
+    read(f, x, d);
+    sum := sum + x + d;
+  end;
+  readln(f);
+  writeln(n, ' ', sum:0:2);
+  read(f, x, l, d);
+  writeln(x, ' ', l, ' ', d:0:1);
+  read(f, d);
+  writeln(d:0:3, ' ', eoln(f));
+  readln(f);
+  readln(f, s);
+  writeln(s, ' ', eof(f));
+  close(f);
+  erase(f);
+end.
@@ -0,0 +1,91 @@
+type
+  TStudent = record
+    name : string[20];
+    age : integer;
+    score : real;
+    passed : boolean;
+  end;
+
+var
+  numbers : file of integer;
+  students : file of TStudent;
+  data : file;
+  s : TStudent;
+  i, x, count : integer;
+  buffer : array[1..10] of integer;
+
+begin
+  assign(numbers, 'numbers.dat');
+  rewrite(numbers);
+  for i := 1 to 10 do
+    write(numbers, i * i);
+  writeln(filePos(numbers), ' ', fileSize(numbers));
+
+  seek(numbers, 3);
+  read(numbers, x);
+  writeln(x, ' ', filePos(numbers));
+  seek(numbers, 3);
+  write(numbers, -16);
+  seek(numbers, 0);
+  count := 0;
+  while not eof(numbers) do
+  begin
+    read(numbers, x);
+    count := count + x;
+  end;
+  writeln(count);
+
+  seek(numbers, 8);
+  truncate(numbers);
+  close(numbers);
+
+  reset(numbers);
+  writeln(fileSize(numbers));
+  blockRead(numbers, buffer, 5);
+  for i := 1 to 10 do
+    write(buffer[i], ' ');
+  writeln;
+  blockRead(numbers, buffer, 5, count);
+  writeln(count, ' ', buffer[1], ' ', buffer[3], ' ', eof(numbers));
+  close(numbers);
+  erase(numbers);
+
+  assign(students, 'students.bin');
+  rewrite(students);
+  s.name := 'Alice';
+  s.age := 20;
+  s.score := 8.5;
+  s.passed := true;
+  write(students, s);
+  s.name := 'Bob';
+  s.age := 22;
+  s.score := 4.25;
+  s.passed := false;
+  write(students, s);
+  close(students);
+
+  reset(students);
+  writeln(fileSize(students));
+  seek(students, 1);
+  read(students, s);
+  writeln(s.name, ' ', s.age, ' ', s.score:0:2, ' ', s.passed);
+  seek(students, 0);
+  read(students, s);
+  writeln(s.name, ' ', s.age, ' ', s.score:0:2, ' ', s.passed);
+  close(students);
+  erase(students);
+
+  assign(data, 'data.bin');
+  rewrite(data, 4);
+  for i := 1 to 10 do
+    buffer[i] := i * 3;
+  blockWrite(data, buffer, 10);
+  writeln(fileSize(data));
+  close(data);
+  reset(data, 8);
+  writeln(fileSize(data));
+  blockRead(data, buffer, 2, count);
+  writeln(count, ' ', buffer[1], ' ', buffer[4], ' ', buffer[5]);
+  close(data);
+  erase(data);
+end.
@@ -0,0 +1,36 @@
+type
+  TColor = (red, green, blue);
+  TDigit = 0..9;
+var
+  c : TColor;
+  ch : char;
+  d : TDigit;
+  b : boolean;
+  i, n : integer;
+  l : longint;
+begin
+  for c := red to blue do write(c, ' ');
+  writeln;
+  for c := blue downto red do write(c, ' ');
+  writeln;
+  for ch := 'a' to 'e' do write(ch);
+  writeln;
+  for ch := 'e' downto 'a' do write(ch);
+  writeln;
+  for d := 7 to 9 do write(d, ' ');
+  writeln;
+  for b := false to true do write(b, ' ');
+  writeln;
+  n := 0;
+  for i := 1 to 3000 do
+    if i mod 1000 = 0 then n := n + i;
+  writeln(n);
+  for l := 5 downto 1 do
+  begin
+    if l = 3 then continue;
+    if l = 1 then break;
+    write(l, ' ');
+  end;
+  writeln;
+  for i := 10 to 1 do writeln('never');
+end.
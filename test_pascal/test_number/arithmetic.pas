@@ -0,0 +1,19 @@
+var
+  i, j : integer;
+  l : longint;
+  d : real;
+  b : boolean;
+begin
+  i := 17;
+  j := 5;
+  writeln(i + j, ' ', i - j, ' ', i * j, ' ', i div j, ' ', i mod j);
+  writeln(-i, ' ', i and j, ' ', i or j, ' ', i xor j, ' ', i shl 2, ' ', i shr 2);
+  writeln(i < j, ' ', i <= j, ' ', i > j, ' ', i >= j, ' ', i = j, ' ', i <> j);
+  l := 1000000;
+  l := l * 3000;
+  writeln(l + i, ' ', l div j, ' ', l mod 7, ' ', l > i);
+  d := i / j;
+  writeln(d:0:2, ' ', d * 2:0:2, ' ', d - i:0:2, ' ', -d:0:2, ' ', d > j);
+  b := (i > j) and not (j > i);
+  writeln(b, ' ', b xor true, ' ', (i = 1) or (j = 5));
+end.
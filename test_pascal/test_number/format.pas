@@ -0,0 +1,28 @@
+var
+  i : integer;
+  l : longint;
+  d : real;
+  c : char;
+  b : boolean;
+  s : string;
+
+function twice(x : integer) : integer;
+begin
+  write('<', x, '>');
+  twice := x * 2;
+end;
+
+begin
+  i := -42;
+  l := 1234567;
+  d := 3.14159;
+  c := 'x';
+  b := true;
+  s := 'abc';
+  writeln(i, ' ', l, ' ', c, ' ', b, ' ', s);
+  writeln(d:0:0, ' ', d:0:1, ' ', d:0:4, ' ', -d:0:2, ' ', i:0:2);
+  writeln(0.125:0:2, ' ', 0.375:0:2, ' ', 2.5:0:0, ' ', 1.005:0:2, ' ', 0.005:0:2);
+  writeln(-0.001:0:2, ' ', 1e20:0:1, ' ', 123456.789:0:3);
+  writeln('[', i:6, '][', c:3, '][', s:5, '][', d:8:3, '][', b:6, ']');
+  writeln(twice(3), ' ', twice(4):4);
+end.
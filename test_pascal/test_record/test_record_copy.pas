@@ -0,0 +1,37 @@
+program test_record_copy;
+type
+  TPoint = record
+    x, y: integer;
+  end;
+  TShape = record
+    origin: TPoint;
+    name: string;
+    sides: array[1..2] of integer;
+  end;
+var
+  a, b: TShape;
+  pts: array[1..3] of TPoint;
+  p: TPoint;
+  i: integer;
+begin
+  a.origin.x := 1;
+  a.name := 'abc';
+  a.sides[1] := 5;
+  b := a;
+  b.origin.x := 2;
+  b.name[1] := 'X';
+  b.sides[1] := 6;
+  writeln(a.origin.x, ' ', a.name, ' ', a.sides[1]);
+  writeln(b.origin.x, ' ', b.name, ' ', b.sides[1]);
+
+  for i := 1 to 3 do
+  begin
+    pts[i].x := i;
+    pts[i].y := i * i;
+  end;
+  p := pts[2];
+  p.y := 0;
+  with pts[3] do
+    x := x + y;
+  writeln(pts[2].x, ' ', pts[2].y, ' ', p.y, ' ', pts[3].x);
+end.
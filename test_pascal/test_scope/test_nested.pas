@@ -0,0 +1,53 @@
+program exNested;
+var
+  x, depth : integer;
+
+procedure show;
+begin
+  writeln('global x = ', x);
+end;
+
+procedure shadow;
+var
+  x : integer;
+begin
+  x := 1;
+  show;
+end;
+
+function sum(n : integer) : integer;
+var
+  total : integer;
+
+  procedure add(k : integer);
+  begin
+    total := total + k;
+    if k > 1 then add(k - 1);
+  end;
+
+begin
+  total := 0;
+  add(n);
+  sum := total;
+end;
+
+procedure swap(var a, b : integer);
+var
+  t : integer;
+begin
+  t := a;
+  a := b;
+  b := t;
+end;
+
+var
+  p, q : integer;
+begin
+  x := 7;
+  shadow;
+  writeln('sum = ', sum(10));
+  p := 1;
+  q := 2;
+  swap(p, q);
+  writeln('p = ', p, ' q = ', q);
+end.
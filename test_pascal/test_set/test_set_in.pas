@@ -0,0 +1,20 @@
+program test_set_in;
+var
+  s, t : set of byte;
+  c : set of char;
+  i, count : integer;
+begin
+  s := [];
+  for i := 0 to 255 do
+    if i mod 3 = 0 then s := s + [i];
+  count := 0;
+  for i := 0 to 255 do
+    if i in s then inc(count);
+  writeln(count);
+  t := [0, 3, 6, 7];
+  writeln(t - s);
+  writeln(t <= s, ' ', t * s <= s, ' ', s <> t);
+  c := ['c', 'd'] + ['a', 'b'];
+  writeln(c);
+  writeln('b' in c, ' ', 'e' in c);
+end.
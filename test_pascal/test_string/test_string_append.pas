@@ -0,0 +1,48 @@
+program test_string_append;
+var
+  s, t: string;
+  words: array[1..3] of string;
+  w: string;
+  i: integer;
+
+procedure addValue(x: string);
+begin
+  x := x + '?';
+  writeln(x);
+end;
+
+procedure addVar(var x: string);
+begin
+  x := x + '!';
+end;
+
+begin
+  s := '';
+  for i := 1 to 3 do
+    s := s + chr(ord('a') + i - 1) + ',';
+  writeln(s);
+
+  t := s;
+  s := s + s;
+  writeln(s, ' ', t);
+
+  s += 'end';
+  writeln(s);
+
+  t := 'abc';
+  addValue(t);
+  addVar(t);
+  writeln(t);
+
+  words[1] := 'one'; words[2] := 'two'; words[3] := 'three';
+  for w in words do
+  begin
+    w := w + 's';
+    write(w, ' ');
+  end;
+  writeln;
+  writeln(words[1], ' ', words[2], ' ', words[3]);
+
+  s := 'xy' + t + 'z' + t;
+  writeln(s);
+end.
@@ -0,0 +1,30 @@
+program test_string_copy;
+var
+  s, t, u: string;
+  i: integer;
+
+function twice(x: string): string;
+begin
+  x[1] := '*';
+  twice := x + x;
+end;
+
+begin
+  t := 'hello';
+  s := t;
+  t[1] := 'J';
+  writeln(s, ' ', t);
+
+  u := s + '!';
+  s[1] := 'Y';
+  writeln(u, ' ', s);
+
+  writeln(twice(t), ' ', t);
+
+  s := '';
+  for i := 1 to 5 do
+    s := s + chr(ord('a') + i - 1);
+  writeln(s, ' ', length(s));
+
+  writeln('abc' < 'abd', ' ', 'ab' < 'abc', ' ', 'b' > 'abc', ' ', s = 'abcde', ' ', s <> 'abcd');
+end.
@@ -0,0 +1,52 @@
+program test_string_share;
+uses strutils;
+var
+  s, t, u: string;
+  i: integer;
+
+procedure change(var x: string);
+begin
+  x[1] := '#';
+end;
+
+procedure keep(x: string);
+begin
+  x[2] := '?';
+  delete(x, 1, 1);
+  writeln(x);
+end;
+
+begin
+  {a constant is shared, it is not changed by the variable}
+  for i := 1 to 2 do
+  begin
+    s := 'abc';
+    writeln(s);
+    s[1] := 'x';
+  end;
+
+  t := 'hello';
+  s := t;
+  u := s;
+  delete(s, 1, 1);
+  writeln(s, ' ', t, ' ', u);
+
+  s := t;
+  s := s + ' world';
+  writeln(s, ' ', t);
+
+  s := t;
+  fillchar(s, 2, 'z');
+  writeln(s, ' ', t);
+
+  s := t;
+  change(s);
+  writeln(s, ' ', t);
+
+  {a library function which changes its argument in place}
+  s := addcharr('!', t, 7);
+  writeln(s, ' ', t);
+
+  keep(t);
+  writeln(t);
+end.
@@ -0,0 +1,25 @@
+unit Counter;
+
+interface
+
+  procedure Increase;
+  function Value : integer;
+
+implementation
+
+var
+  count : integer;
+
+procedure Increase;
+begin
+  count := count + 1;
+end;
+
+function Value : integer;
+begin
+  Value := count;
+end;
+
+initialization
+  count := 10;
+end.
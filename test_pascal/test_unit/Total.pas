@@ -0,0 +1,19 @@
+unit Total;
+
+interface
+
+var
+  total : integer;
+
+procedure Add;
+
+implementation
+
+procedure Add;
+begin
+  total := total + 1;
+end;
+
+initialization
+  total := 5;
+end.
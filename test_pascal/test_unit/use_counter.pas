@@ -0,0 +1,6 @@
+uses Counter;
+begin
+  Increase;
+  Increase;
+  writeln(Value);
+end.
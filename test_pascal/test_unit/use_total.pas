@@ -0,0 +1,6 @@
+uses Total;
+begin
+  writeln(total);
+  Add;
+  writeln(total);
+end.